@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark of the {@link LKTLogParser} parsing a synthetic ODS logbook, see {@link LKTLogGenerator}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LKTLogParserBenchmark {
+    /**
+     * Number of animal sheets of the parsed workbook.
+     */
+    @Param({"1", "10"})
+    private int sheets;
+    /**
+     * Number of experiment entries per animal sheet.
+     */
+    @Param({"100", "1000"})
+    private int rows;
+    /**
+     * Number of blank rows following the experiment entries of every sheet.
+     */
+    @Param({"1"})
+    private int blankRows;
+    /**
+     * Parsed ODS file.
+     */
+    private File workbook;
+    /**
+     * Parser used by all invocations.
+     */
+    private final LKTLogParser parser = new LKTLogParser();
+
+    /**
+     * Generates the synthetic workbook.
+     * @throws Exception
+     */
+    @Setup
+    public void setUp() throws Exception {
+        Logger.getRootLogger().setLevel(Level.WARN);
+        this.workbook = File.createTempFile("lktBenchmark", ".ods");
+        final LKTLogGenerator generator = new LKTLogGenerator(1);
+        generator.setSheets(this.sheets);
+        generator.setRows(this.rows);
+        generator.setTrailingBlankRows(this.blankRows);
+        generator.writeODS(this.workbook.getAbsolutePath());
+    }
+
+    /**
+     * Removes the synthetic workbook.
+     */
+    @TearDown
+    public void tearDown() {
+        if (!this.workbook.delete()) {
+            this.workbook.deleteOnExit();
+        }
+    }
+
+    /**
+     * Parses the whole workbook.
+     * @return The parsed sheets.
+     */
+    @Benchmark
+    public ArrayList<LKTLogParserSheet> parse() {
+        final LKTLogParseContext ctx = new LKTLogParseContext(this.workbook.getAbsolutePath(), null);
+        final ArrayList<LKTLogParserSheet> parsed = this.parser.parseFile(ctx);
+        if (ctx.hasParserErrors()) {
+            throw new IllegalStateException(String.join("\n", ctx.getParserErrorMessages()));
+        }
+        return parsed;
+    }
+
+}
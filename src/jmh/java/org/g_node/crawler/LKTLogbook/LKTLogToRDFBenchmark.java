@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.riot.lang.StreamRDFCounting;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark of the {@link LKTLogToRDF} converting parsed synthetic ODS logbook sheets
+ * to RDF statements, see {@link LKTLogGenerator}. The statements are streamed to a counting sink,
+ * so no output files are written.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LKTLogToRDFBenchmark {
+    /**
+     * Number of animal sheets of the converted workbook.
+     */
+    @Param({"1", "10"})
+    private int sheets;
+    /**
+     * Number of experiment entries per animal sheet.
+     */
+    @Param({"100", "1000"})
+    private int rows;
+    /**
+     * Sheets parsed from the synthetic workbook.
+     */
+    private ArrayList<LKTLogParserSheet> parsedSheets;
+
+    /**
+     * Generates and parses the synthetic workbook.
+     * @throws Exception
+     */
+    @Setup
+    public void setUp() throws Exception {
+        Logger.getRootLogger().setLevel(Level.WARN);
+        final File workbook = File.createTempFile("lktBenchmark", ".ods");
+        final LKTLogGenerator generator = new LKTLogGenerator(1);
+        generator.setSheets(this.sheets);
+        generator.setRows(this.rows);
+        generator.writeODS(workbook.getAbsolutePath());
+        final LKTLogParseContext ctx = new LKTLogParseContext(workbook.getAbsolutePath(), null);
+        this.parsedSheets = new LKTLogParser().parseFile(ctx);
+        if (!workbook.delete()) {
+            workbook.deleteOnExit();
+        }
+        if (ctx.hasParserErrors()) {
+            throw new IllegalStateException(String.join("\n", ctx.getParserErrorMessages()));
+        }
+    }
+
+    /**
+     * Converts all parsed sheets to RDF statements.
+     * @return Number of created RDF statements.
+     */
+    @Benchmark
+    public long convert() {
+        final StreamRDFCounting sink = StreamRDFLib.count();
+        new LKTLogToRDF().createRDFModel(this.parsedSheets, "lktBenchmark.ods", Collections.emptyMap(), sink);
+        return sink.count();
+    }
+
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark of the {@link AppUtils#getHashSHA(List)} method, which is used to create
+ * the identifiers of the RDF instances.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AppUtilsBenchmark {
+    /**
+     * Number of hashed values.
+     */
+    @Param({"2", "5"})
+    private int values;
+    /**
+     * Hashed values, similar to the values used for the RDF instance identifiers.
+     */
+    private List<String> valueList;
+
+    /**
+     * Creates the hashed values.
+     */
+    @Setup
+    public void setUp() {
+        this.valueList = new ArrayList<>(this.values);
+        for (int i = 0; i < this.values; i = i + 1) {
+            this.valueList.add(String.join("", "experimenter value ", String.valueOf(i), " 2015-01-01T08:00"));
+        }
+    }
+
+    /**
+     * Hashes all values.
+     * @return Hexadecimal SHA-1 hash.
+     */
+    @Benchmark
+    public String hash() {
+        return AppUtils.getHashSHA(this.valueList);
+    }
+
+}
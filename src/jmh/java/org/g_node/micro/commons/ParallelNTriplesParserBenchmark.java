@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.hp.hpl.jena.graph.Triple;
+import java.io.File;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark of the {@link ParallelNTriplesParser} parsing a synthetic N-Triples file
+ * using different numbers of threads. The throughput is reported per thread count.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParallelNTriplesParserBenchmark {
+    /**
+     * Number of statements of the parsed file.
+     */
+    @Param({"500000"})
+    private int statements;
+    /**
+     * Number of threads used to parse the file.
+     */
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+    /**
+     * Size of the parsed chunks in bytes.
+     */
+    @Param({"1048576"})
+    private int chunkSize;
+    /**
+     * Parsed N-Triples file.
+     */
+    private File inputFile;
+
+    /**
+     * Writes the synthetic N-Triples file, every subject has a blank node, a typed literal
+     * and a plain literal.
+     * @throws Exception
+     */
+    @Setup
+    public void setUp() throws Exception {
+        Logger.getRootLogger().setLevel(Level.WARN);
+        this.inputFile = File.createTempFile("parallelNTriplesBenchmark", ".nt");
+        try (Writer w = Files.newBufferedWriter(this.inputFile.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < this.statements; i = i + 1) {
+                final int subject = i / 3;
+                w.write("<http://example.org/subject/");
+                w.write(String.valueOf(subject));
+                switch (i % 3) {
+                    case 0:
+                        w.write("> <http://example.org/node> _:b");
+                        w.write(String.valueOf(subject));
+                        w.write(" .\n");
+                        break;
+                    case 1:
+                        w.write("> <http://example.org/weight> \"");
+                        w.write(String.valueOf(subject % 1000));
+                        w.write(".5\"^^<http://www.w3.org/2001/XMLSchema#float> .\n");
+                        break;
+                    default:
+                        w.write("> <http://example.org/comment> \"Comment of subject ");
+                        w.write(String.valueOf(subject));
+                        w.write("\"@en .\n");
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the N-Triples file.
+     */
+    @TearDown
+    public void tearDown() {
+        if (!this.inputFile.delete()) {
+            this.inputFile.deleteOnExit();
+        }
+    }
+
+    /**
+     * Parses the N-Triples file and counts the received statements.
+     * @return Number of received statements.
+     * @throws Exception
+     */
+    @Benchmark
+    public long parse() throws Exception {
+        final long[] count = new long[1];
+        ParallelNTriplesParser.parse(this.inputFile.getAbsolutePath(), RDFLanguages.NTRIPLES,
+                new StreamRDFBase() {
+                    @Override
+                    public void triple(final Triple triple) {
+                        count[0] = count[0] + 1;
+                    }
+                }, this.threads, this.chunkSize);
+        return count[0];
+    }
+
+}
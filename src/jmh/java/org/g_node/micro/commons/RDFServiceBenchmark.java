@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.g_node.crawler.LKTLogbook.LKTLogGenerator;
+import org.g_node.crawler.LKTLogbook.LKTLogParseContext;
+import org.g_node.crawler.LKTLogbook.LKTLogParser;
+import org.g_node.crawler.LKTLogbook.LKTLogToRDF;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark of the {@link RDFService} writing an RDF model converted from a synthetic ODS logbook
+ * to a file using all supported RDF formats, see {@link RDFService#RDF_FORMAT_MAP}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RDFServiceBenchmark {
+    /**
+     * Number of animal sheets of the converted workbook.
+     */
+    @Param({"10"})
+    private int sheets;
+    /**
+     * Number of experiment entries per animal sheet.
+     */
+    @Param({"1000"})
+    private int rows;
+    /**
+     * RDF output format.
+     */
+    @Param({"TTL", "TTL-STREAM", "NTRIPLES", "RDF/XML", "JSON-LD"})
+    private String format;
+    /**
+     * Written RDF model.
+     */
+    private Model model;
+    /**
+     * RDF output file.
+     */
+    private File outputFile;
+
+    /**
+     * Generates, parses and converts the synthetic workbook and reads the resulting RDF model.
+     * @throws Exception
+     */
+    @Setup
+    public void setUp() throws Exception {
+        Logger.getRootLogger().setLevel(Level.WARN);
+        final File workbook = File.createTempFile("rdfBenchmark", ".ods");
+        final LKTLogGenerator generator = new LKTLogGenerator(1);
+        generator.setSheets(this.sheets);
+        generator.setRows(this.rows);
+        generator.writeODS(workbook.getAbsolutePath());
+        final File ttlFile = File.createTempFile("rdfBenchmark", ".ttl");
+        new LKTLogToRDF().createRDFModel(
+                new LKTLogParser().parseFile(new LKTLogParseContext(workbook.getAbsolutePath(), null)),
+                workbook.getAbsolutePath(), ttlFile.getAbsolutePath(), "TTL");
+        this.model = RDFService.openModelFromFile(ttlFile.getAbsolutePath());
+        this.outputFile = File.createTempFile("rdfBenchmark", ".out");
+        if (!workbook.delete() || !ttlFile.delete()) {
+            workbook.deleteOnExit();
+            ttlFile.deleteOnExit();
+        }
+    }
+
+    /**
+     * Removes the RDF output file.
+     */
+    @TearDown
+    public void tearDown() {
+        if (!this.outputFile.delete()) {
+            this.outputFile.deleteOnExit();
+        }
+    }
+
+    /**
+     * Writes the RDF model to the output file.
+     * @return Size of the written file.
+     */
+    @Benchmark
+    public long write() {
+        RDFService.saveModelToFile(this.outputFile.getAbsolutePath(), this.model, this.format);
+        return this.outputFile.length();
+    }
+
+}
@@ -12,18 +12,18 @@ package org.g_node;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.ServiceLoader;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
+import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
-import org.g_node.converter.ConvCliToolController;
-import org.g_node.crawler.LKTLogbook.LKTLogCliToolController;
-import org.g_node.crawler.LKTLogbook.LKTLogParser;
 import org.g_node.micro.commons.AppUtils;
 import org.g_node.micro.commons.CliToolController;
+import org.g_node.micro.commons.CliToolProvider;
 
 /**
  * Main application class used to parse command line input and pass
@@ -41,9 +41,10 @@ public class App {
     private static final Logger LOGGER = Logger.getLogger(App.class.getName());
 
     /**
-     * Registry containing all crawlers and RDF to RDF converters implemented and available to this application.
+     * Registry containing the providers of all crawlers and RDF to RDF converters implemented and
+     * available to this application. The tools themselves are only created once they are selected.
      */
-    private final Map<String, CliToolController> tools;
+    private final Map<String, CliToolProvider> tools;
 
     /**
      * Constructor.
@@ -55,10 +56,14 @@ public class App {
     /**
      * Main method of the crawler-to-rdf framework. Registers all so far available tools and
      * selects and runs the appropriate crawler or RDF to RDF converter dependent on commandline input.
+     * The log4j appenders are closed when the application exits, so that the asynchronous logfile appender
+     * writes all buffered messages.
      * @param args User provided {@link CommandLine} arguments.
      */
     public static void main(final String[] args) {
 
+        Runtime.getRuntime().addShutdownHook(new Thread(LogManager::shutdown, "log4j-shutdown"));
+
         App.LOGGER.info(String.join("", AppUtils.getTimeStamp("dd.MM.yyyy HH:mm"), ", Starting RDF crawler logfile."));
         App.LOGGER.info(
                 String.join("", "Input arguments: '", String.join(" ", args), "'")
@@ -76,10 +81,24 @@ public class App {
     /**
      * Method to register all implemented tools with their short hand.
      * The short hand is required to select and run the intended crawler or RDF to RDF converter.
+     * Tools are discovered via the {@link CliToolProvider} entries of the {@link ServiceLoader} metadata,
+     * no classes of a tool are loaded before the tool is selected.
      */
     public final void register() {
-        this.tools.put("lkt", new LKTLogCliToolController(new LKTLogParser()));
-        this.tools.put("conv", new ConvCliToolController());
+        for (final CliToolProvider provider : ServiceLoader.load(CliToolProvider.class)) {
+            this.tools.put(provider.name(), provider);
+        }
+    }
+
+    /**
+     * Runs a single job of the serve mode using a new application instance, so that
+     * every job uses its own instance of the selected tool.
+     * @param args Tool arguments of the job, the first argument is the shorthand of the tool.
+     */
+    private static void runJob(final String[] args) {
+        final App job = new App();
+        job.register();
+        job.run(args);
     }
 
     /**
@@ -104,8 +123,8 @@ public class App {
 
             final HelpFormatter printHelp = new HelpFormatter();
             final CommandLineParser parser = new DefaultParser();
-            final CliToolController currCrawlerCliToolController = this.tools.get(args[0]);
-            final Options useOptions = this.tools.get(args[0]).options();
+            final CliToolController currCrawlerCliToolController = this.tools.get(args[0]).create(App::runJob);
+            final Options useOptions = currCrawlerCliToolController.options();
 
             try {
                 final CommandLine cmd = parser.parse(useOptions, args, false);
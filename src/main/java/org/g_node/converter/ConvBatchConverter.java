@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.converter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.Compression;
+import org.g_node.micro.commons.FileService;
+import org.g_node.micro.commons.LazyLog;
+import org.g_node.micro.commons.RDFService;
+import org.g_node.micro.commons.RunMetrics;
+import org.g_node.micro.commons.TDBStore;
+
+/**
+ * Converts multiple RDF files to different RDF formats within a single run. The files are converted
+ * concurrently on a bounded worker pool, largest files first, so that a single large file does not
+ * delay the end of the whole batch. Failing files are reported and do not stop the conversion
+ * of the remaining files. If a {@link TDBStore} is provided, the files are additionally loaded into
+ * the store; since the store accepts only one writer at a time, the files are then converted one after another.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class ConvBatchConverter {
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ConvBatchConverter.class.getName());
+    /**
+     * Supported RDF output formats.
+     */
+    private final List<String> outputFormats;
+    /**
+     * Folder receiving all output files, null if output files are written to the folders of the input files.
+     */
+    private final Path outputFolder;
+    /**
+     * Maximum number of files converted at the same time.
+     */
+    private final int threads;
+    /**
+     * Store additionally receiving the data of all files, null if the data is only written to files.
+     */
+    private final TDBStore store;
+    /**
+     * Metrics of the run, see {@link RunMetrics}.
+     */
+    private final RunMetrics metrics;
+
+    /**
+     * Constructor.
+     * @param formats Supported RDF output formats, see {@link RDFService#RDF_FORMAT_MAP}.
+     * @param outFolder Folder receiving all output files, null if output files are
+     *                  written to the folders of the input files.
+     * @param maxThreads Maximum number of files converted at the same time.
+     * @param tdbStore Store additionally receiving the data of all files, can be null.
+     */
+    public ConvBatchConverter(final List<String> formats, final Path outFolder, final int maxThreads,
+                              final TDBStore tdbStore) {
+        this(formats, outFolder, maxThreads, tdbStore, RunMetrics.DISABLED);
+    }
+
+    /**
+     * Constructor.
+     * @param formats Supported RDF output formats, see {@link RDFService#RDF_FORMAT_MAP}.
+     * @param outFolder Folder receiving all output files, null if output files are
+     *                  written to the folders of the input files.
+     * @param maxThreads Maximum number of files converted at the same time.
+     * @param tdbStore Store additionally receiving the data of all files, can be null.
+     * @param runMetrics Metrics receiving the summed up phases and counters of all files.
+     */
+    public ConvBatchConverter(final List<String> formats, final Path outFolder, final int maxThreads,
+                              final TDBStore tdbStore, final RunMetrics runMetrics) {
+        this.outputFormats = formats;
+        this.outputFolder = outFolder;
+        this.threads = maxThreads;
+        this.store = tdbStore;
+        this.metrics = runMetrics;
+    }
+
+    /**
+     * Converts all provided files and logs a summary line for every file.
+     * @param inputFiles RDF files that are supposed to be converted.
+     * @return Number of files that could not be converted.
+     */
+    public int convert(final List<Path> inputFiles) {
+        final long startTime = System.currentTimeMillis();
+
+        final List<Path> files = new ArrayList<>(inputFiles);
+        files.sort(Comparator.comparingLong(ConvBatchConverter::fileSize).reversed());
+
+        final Set<String> usedNames = new HashSet<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(Math.min(this.threads, files.size()), 1));
+        final List<Future<String>> results = new ArrayList<>(files.size());
+        for (final Path file : files) {
+            final Map<String, String> outputFiles = RDFService.getOutputFileNames(
+                    this.outputBaseName(file, usedNames), this.outputFormats);
+            results.add(executor.submit(() -> this.convertFile(file, outputFiles)));
+        }
+        executor.shutdown();
+
+        int failed = 0;
+        final List<String> summary = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i = i + 1) {
+            String error;
+            try {
+                error = results.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = "interrupted";
+            } catch (ExecutionException e) {
+                error = e.getCause().toString();
+            }
+            if (error == null) {
+                summary.add(String.join("", "\tOK      ", files.get(i).toString()));
+            } else {
+                failed = failed + 1;
+                summary.add(String.join("", "\tFAILED  ", files.get(i).toString(), ": ", error));
+            }
+        }
+        executor.shutdownNow();
+        this.metrics.count("files", files.size());
+        this.metrics.count("failedFiles", failed);
+
+        final int failedFiles = failed;
+        LazyLog.info(ConvBatchConverter.LOGGER,
+                () -> String.join("", "Batch conversion summary:\n", String.join("\n", summary)));
+        LazyLog.info(ConvBatchConverter.LOGGER,
+                () -> String.join("", "Converted ", String.valueOf(files.size() - failedFiles), " of ",
+                        String.valueOf(files.size()), " files in ",
+                        String.valueOf(System.currentTimeMillis() - startTime), " ms, ",
+                        String.valueOf(failedFiles), " failed.")
+        );
+
+        return failedFiles;
+    }
+
+    /**
+     * Converts a single file.
+     * @param inputFile RDF file that is supposed to be converted.
+     * @param outputFiles Map with the output formats as keys and the corresponding output file names as values.
+     * @return Error message or null, if the file was converted successfully.
+     */
+    @SuppressWarnings("try")
+    private String convertFile(final Path inputFile, final Map<String, String> outputFiles) {
+        final long startTime = System.currentTimeMillis();
+        try {
+            if (this.store == null) {
+                RDFService.convertFile(inputFile.toString(), outputFiles, 1, null, this.metrics);
+            } else {
+                synchronized (this.store) {
+                    final StreamRDF sink = this.store.replaceGraph(inputFile.toString());
+                    try {
+                        RDFService.convertFile(inputFile.toString(), outputFiles, 1, sink, this.metrics);
+                        try (RunMetrics.Phase p = this.metrics.startPhase("tdbCommit")) {
+                            this.store.commit();
+                        }
+                    } finally {
+                        this.store.abortIfActive();
+                    }
+                }
+            }
+        } catch (RiotException | IOException e) {
+            ConvBatchConverter.LOGGER.error(
+                    String.join("", "Could not convert file '", inputFile.toString(), "': ", e.getMessage())
+            );
+            return e.getMessage();
+        }
+        LazyLog.info(ConvBatchConverter.LOGGER,
+                () -> String.join("", "Converted file '", inputFile.toString(), "' in ",
+                        String.valueOf(System.currentTimeMillis() - startTime), " ms")
+        );
+        return null;
+    }
+
+    /**
+     * Returns the output file name without file extension for an input file. If different input files
+     * would result in the same output file name e.g. "data.ttl" and "data.nt", the file extension of the
+     * input file is added to the output file name.
+     * @param inputFile RDF input file.
+     * @param usedNames Output file names that have already been used.
+     * @return Path and name of the output file without file extension.
+     */
+    private String outputBaseName(final Path inputFile, final Set<String> usedNames) {
+        final Path folder = this.outputFolder != null ? this.outputFolder : inputFile.toAbsolutePath().getParent();
+        final String fileName = Compression.stripSuffix(inputFile.getFileName().toString());
+        final int i = fileName.lastIndexOf('.');
+
+        String baseName = folder.resolve(
+                String.join("", i > 0 ? fileName.substring(0, i) : fileName, FileService.OUTPUT_SUFFIX)
+        ).toString();
+        if (!usedNames.add(baseName)) {
+            baseName = folder.resolve(
+                    String.join("", fileName.replace('.', '_'), FileService.OUTPUT_SUFFIX)
+            ).toString();
+            usedNames.add(baseName);
+        }
+        return baseName;
+    }
+
+    /**
+     * Returns the size of a file, files that cannot be accessed are treated as empty files.
+     * @param file Path of the file.
+     * @return Size of the file in bytes.
+     */
+    private static long fileSize(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+}
@@ -10,18 +10,28 @@
 
 package org.g_node.converter;
 
-import com.hp.hpl.jena.rdf.model.Model;
-
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
 import org.apache.log4j.Logger;
 import org.g_node.micro.commons.CliToolController;
+import org.g_node.micro.commons.Compression;
+import org.g_node.micro.commons.FileService;
+import org.g_node.micro.commons.LazyLog;
 import org.g_node.micro.commons.RDFService;
+import org.g_node.micro.commons.RunMetrics;
+import org.g_node.micro.commons.TDBStore;
 import org.g_node.srv.CliOptionService;
 import org.g_node.srv.CtrlCheckService;
 
@@ -44,26 +54,53 @@ public class ConvCliToolController implements CliToolController {
 
         final Option opHelp = CliOptionService.getHelpOpt("");
         final Option opIn = CliOptionService.getInFileOpt(
-                "Input RDF file that's supposed to be converted into a different RDF format.");
-        final Option opOut = CliOptionService.getOutFileOpt("");
+                String.join("", "Input RDF file that's supposed to be converted into a different RDF format. ",
+                        "A folder or a glob pattern like 'data/*.nt' converts all matching RDF files. ",
+                        "Input files ending with '.gz' or '.zst' are decompressed."));
+        final Option opOut = CliOptionService.getOutFileOpt(
+                String.join("", "Optional: Path and name of the output file. ",
+                        "Files with the same name will be overwritten. ",
+                        "Default file name uses format [inputFileName]_out. ",
+                        "Output files ending with '.gz' or '.zst' are compressed. ",
+                        "When converting multiple files, this is the folder receiving all output files, ",
+                        "by default output files are written next to the input files."));
         final Option opFormat = CliOptionService.getOutFormatOpt("");
+        final Option opThreads = CliOptionService.getThreadsOpt(
+                String.join("", "Optional: number of threads used to parse N-Triples and N-Quads input files. ",
+                        "Default is the number of available processors."));
+        final Option opTdb = CliOptionService.getTdbOpt("");
+        final Option opMetrics = CliOptionService.getMetricsOpt(
+                String.join("", "Optional: collect the duration and peak heap usage of all phases of the run as ",
+                        "well as throughput counters and write them to the JSON file [outputFileName]",
+                        RunMetrics.FILE_SUFFIX, ". When converting multiple files, the metrics of all files are ",
+                        "summed up and written to the file conv", RunMetrics.FILE_SUFFIX, " in the output folder."));
 
         options.addOption(opHelp);
         options.addOption(opIn);
         options.addOption(opOut);
         options.addOption(opFormat);
+        options.addOption(opThreads);
+        options.addOption(opTdb);
+        options.addOption(opMetrics);
+        options.addOption(CliOptionService.getMetricsTableOpt(""));
 
         return options;
     }
 
     /**
      * Method converting data from an input RDF file to an RDF file of a different supported RDF format.
+     * Output formats that can be written as a stream are written while the input file is parsed,
+     * see {@link RDFService#convertFile(String, Map)}. If a folder or a glob pattern is provided as input,
+     * all matching RDF files are converted, see {@link ConvBatchConverter}. If a TDB store is provided,
+     * the data of every input file additionally replaces the data of the same file in the store,
+     * see {@link TDBStore}.
      * @param cmd User provided {@link CommandLine} input.
      */
     public final void run(final CommandLine cmd) {
 
         final String inputFile = cmd.getOptionValue("i");
-        if (!CtrlCheckService.isExistingFile(inputFile)) {
+        final boolean isBatch = FileService.isGlob(inputFile) || Files.isDirectory(Paths.get(inputFile));
+        if (!isBatch && !CtrlCheckService.isExistingFile(inputFile)) {
             return;
         }
 
@@ -71,37 +108,148 @@ public class ConvCliToolController implements CliToolController {
                 .stream()
                 .map(c->c.toUpperCase(Locale.ENGLISH))
                 .collect(Collectors.toSet());
-        if (!CtrlCheckService.isSupportedInFileType(inputFile, checkExtension)) {
+        if (!isBatch && !CtrlCheckService.isSupportedInFileType(Compression.stripSuffix(inputFile), checkExtension)) {
             return;
         }
 
-        final String outputFormat = cmd.getOptionValue("f", "TTL").toUpperCase(Locale.ENGLISH);
-        if (!CtrlCheckService.isSupportedOutputFormat(outputFormat, RDFService.RDF_FORMAT_MAP.keySet())) {
+        final List<String> outputFormats = CliOptionService.getOutFormats(cmd, "TTL");
+        for (final String outputFormat : outputFormats) {
+            if (!CtrlCheckService.isSupportedOutputFormat(outputFormat, RDFService.RDF_FORMAT_MAP.keySet())) {
+                return;
+            }
+        }
+
+        final String threads = cmd.getOptionValue(
+                "threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        if (!CtrlCheckService.isPositiveInteger(threads, "--threads")) {
             return;
         }
 
-        final int i = inputFile.lastIndexOf('.');
-        final String defaultOutputFile = String.join("", inputFile.substring(0, i), "_out");
-        String outputFile = cmd.getOptionValue("o", defaultOutputFile);
+        TDBStore store = null;
+        if (cmd.hasOption("tdb")) {
+            try {
+                store = TDBStore.open(cmd.getOptionValue("tdb"));
+            } catch (IOException e) {
+                ConvCliToolController.LOGGER.error(String.join("", "Could not open TDB store: ", e.getMessage()));
+                return;
+            }
+        }
 
-        if (!outputFile.toLowerCase().endsWith(RDFService.RDF_FORMAT_EXTENSION.get(outputFormat))) {
-            outputFile = String.join("", outputFile, ".", RDFService.RDF_FORMAT_EXTENSION.get(outputFormat));
+        final RunMetrics metrics = CliOptionService.getMetrics(cmd);
+        try {
+            final String metricsFile;
+            if (isBatch) {
+                metricsFile = this.runBatch(inputFile, checkExtension, outputFormats, cmd.getOptionValue("o"),
+                        Integer.parseInt(threads), store, metrics);
+            } else {
+                metricsFile = this.runSingle(inputFile, outputFormats, cmd.getOptionValue("o"),
+                        Integer.parseInt(threads), store, metrics);
+            }
+            if (metricsFile != null) {
+                metrics.report(metricsFile, cmd.hasOption("metrics-table"));
+            }
+        } finally {
+            if (store != null) {
+                store.close();
+            }
         }
+    }
 
-        Model convData;
+    /**
+     * Converts a single RDF file.
+     * @param inputFile RDF file that is supposed to be converted.
+     * @param outputFormats Supported RDF output formats.
+     * @param outFile Path and name of the output file, null if the default file name is used.
+     * @param threads Number of threads used to parse N-Triples and N-Quads input files.
+     * @param store Store additionally receiving the data of the file, null if there is none.
+     * @param metrics Metrics of the run, see {@link RunMetrics}.
+     * @return Path and name of the metrics file of the run.
+     */
+    @SuppressWarnings("try")
+    private String runSingle(final String inputFile, final List<String> outputFormats, final String outFile,
+                             final int threads, final TDBStore store, final RunMetrics metrics) {
+
+        final String plainInputFile = Compression.stripSuffix(inputFile);
+        final int i = plainInputFile.lastIndexOf('.');
+        final String defaultOutputFile = String.join(
+                "", plainInputFile.substring(0, i), FileService.OUTPUT_SUFFIX, Compression.getSuffix(inputFile));
+        final String outputFile = outFile != null ? outFile : defaultOutputFile;
+        final Map<String, String> outputFiles = RDFService.getOutputFileNames(outputFile, outputFormats);
 
         try {
             ConvCliToolController.LOGGER.info("Reading input file...");
-            convData = RDFService.openModelFromFile(inputFile);
+            final StreamRDF sink = store != null ? store.replaceGraph(inputFile) : null;
+            RDFService.convertFile(inputFile, outputFiles, threads, sink, metrics);
+            if (store != null) {
+                try (RunMetrics.Phase p = metrics.startPhase("tdbCommit")) {
+                    store.commit();
+                }
+            }
+            metrics.rate("triples", "parseAndStream");
 
         } catch (RiotException e) {
             ConvCliToolController.LOGGER.error(e.getMessage());
             // TODO find out how to print stacktrace to log4j logfile
             e.printStackTrace();
-            return;
+        } catch (IOException e) {
+            ConvCliToolController.LOGGER.error(String.join("", "Could not write output file: ", e.getMessage()));
         }
+        return RunMetrics.fileName(outputFile);
+    }
+
+    /**
+     * Converts all RDF files of a folder or all RDF files matching a glob pattern.
+     * @param input Folder or glob pattern.
+     * @param checkExtension Set containing all supported upper case RDF file extensions.
+     * @param outputFormats Supported RDF output formats.
+     * @param outputFolder Folder receiving all output files, null if output files are
+     *                     written to the folders of the input files.
+     * @param threads Maximum number of files converted at the same time.
+     * @param store Store additionally receiving the data of all files, null if there is none.
+     * @param metrics Metrics of the run, see {@link RunMetrics}.
+     * @return Path and name of the metrics file of the run, null if no files have been converted.
+     */
+    private String runBatch(final String input, final Set<String> checkExtension, final List<String> outputFormats,
+                            final String outputFolder, final int threads, final TDBStore store,
+                            final RunMetrics metrics) {
+
+        final List<Path> inputFiles;
+        try {
+            inputFiles = FileService.listFiles(input, checkExtension);
+        } catch (IOException e) {
+            ConvCliToolController.LOGGER.error(String.join("", "Could not read input folder: ", e.getMessage()));
+            return null;
+        }
+        if (inputFiles.isEmpty()) {
+            ConvCliToolController.LOGGER.error(
+                    String.join("", "No supported RDF files found for input '", input, "'.",
+                            "\n\tOnly the following file formats are supported: \n\t", checkExtension.toString())
+            );
+            return null;
+        }
+
+        Path outFolder = null;
+        if (outputFolder != null) {
+            outFolder = Paths.get(outputFolder);
+            try {
+                Files.createDirectories(outFolder);
+            } catch (IOException e) {
+                ConvCliToolController.LOGGER.error(
+                        String.join("", "Could not create output folder ", outputFolder, ": ", e.getMessage())
+                );
+                return null;
+            }
+        }
+
+        LazyLog.info(ConvCliToolController.LOGGER,
+                () -> String.join("", "Converting ", String.valueOf(inputFiles.size()), " files using ",
+                        String.valueOf(threads), " threads...")
+        );
+        new ConvBatchConverter(outputFormats, outFolder, threads, store, metrics).convert(inputFiles);
+        metrics.rate("triples", "parseAndStream");
 
-        RDFService.saveModelToFile(outputFile, convData, outputFormat);
+        final Path metricsFolder = outFolder != null ? outFolder : inputFiles.get(0).toAbsolutePath().getParent();
+        return metricsFolder.resolve(String.join("", "conv", RunMetrics.FILE_SUFFIX)).toString();
     }
 
 }
@@ -0,0 +1,463 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.g_node.micro.commons.FileOutput;
+
+/**
+ * Versioned binary intermediate format for parsed LKT logbooks, allowing the output of
+ * {@link LKTLogParser} to be saved once and converted to RDF multiple times without
+ * having to parse the ODS file again.
+ *
+ * Layout of the format, all integers are big endian:
+ *  - magic bytes "LKTB" and the format version (int),
+ *  - string dictionary: number of entries (int) followed by each entry as
+ *    length (int) prefixed UTF-8 bytes,
+ *  - number of sheets (int) followed by each sheet as length (int) prefixed block.
+ * Within a sheet block all strings are references into the string dictionary, stored as
+ * variable length integers where 0 denotes a null value. Dates are stored as zig zag encoded variable
+ * length epoch days, experiment dates as zig zag encoded variable length epoch seconds (UTC).
+ * All lengths and counts are validated when reading, corrupt or truncated input results in an {@link IOException}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LKTLogBinaryFormat {
+    /**
+     * File extension of the binary intermediate format.
+     */
+    public static final String FILE_EXTENSION = "lktb";
+    /**
+     * Magic bytes identifying a file of this format.
+     */
+    private static final byte[] MAGIC = "LKTB".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Current version of the format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of the read and write buffers.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Bit mask of the payload bits of a variable length integer byte.
+     */
+    private static final int VAR_PAYLOAD = 0x7F;
+    /**
+     * Bit flagging that another byte of a variable length integer follows.
+     */
+    private static final int VAR_CONTINUE = 0x80;
+    /**
+     * Number of payload bits per byte of a variable length integer.
+     */
+    private static final int VAR_SHIFT = 7;
+    /**
+     * Maximum number of bits of a variable length integer.
+     */
+    private static final int VAR_MAX_SHIFT = 63;
+    /**
+     * Flag set, if the animal was on diet.
+     */
+    private static final int FLAG_ON_DIET = 1;
+    /**
+     * Flag set, if the entry contains the initial weight.
+     */
+    private static final int FLAG_INITIAL_WEIGHT = 2;
+    /**
+     * Flag set, if the entry contains a weight.
+     */
+    private static final int FLAG_WEIGHT = 4;
+
+    /**
+     * Writes parsed sheets to a file, overwriting any existing file.
+     * @param fileName Path and name of the output file.
+     * @param sheets Parsed sheets.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeFile(final String fileName, final List<LKTLogParserSheet> sheets) throws IOException {
+        try (FileOutput fo = FileOutput.open(fileName)) {
+            LKTLogBinaryFormat.write(fo.getStream(), sheets);
+            fo.commit();
+        }
+    }
+
+    /**
+     * Reads all sheets from a file of this format.
+     * @param fileName Path and name of the input file.
+     * @return Restored sheets.
+     * @throws IOException If the file cannot be read or is not a supported file of this format.
+     */
+    public static ArrayList<LKTLogParserSheet> readFile(final String fileName) throws IOException {
+        try (InputStream is = new BufferedInputStream(
+                Files.newInputStream(Paths.get(fileName)), LKTLogBinaryFormat.BUFFER_SIZE)) {
+            return LKTLogBinaryFormat.read(is);
+        }
+    }
+
+    /**
+     * Writes parsed sheets to an output stream. The stream is flushed but not closed.
+     * @param os Output stream.
+     * @param sheets Parsed sheets.
+     * @throws IOException If the sheets cannot be written.
+     */
+    public static void write(final OutputStream os, final List<LKTLogParserSheet> sheets) throws IOException {
+        final Map<String, Integer> dict = new HashMap<>();
+        final List<String> dictEntries = new ArrayList<>(0);
+        sheets.forEach(s -> LKTLogBinaryFormat.sheetStrings(s).forEach(
+                v -> {
+                    if (v != null && !dict.containsKey(v)) {
+                        dictEntries.add(v);
+                        dict.put(v, dictEntries.size());
+                    }
+                }));
+
+        final DataOutputStream out = new DataOutputStream(os);
+        out.write(LKTLogBinaryFormat.MAGIC);
+        out.writeInt(LKTLogBinaryFormat.VERSION);
+
+        out.writeInt(dictEntries.size());
+        for (final String v : dictEntries) {
+            final byte[] b = v.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(b.length);
+            out.write(b);
+        }
+
+        final ByteArrayOutputStream block = new ByteArrayOutputStream();
+        out.writeInt(sheets.size());
+        for (final LKTLogParserSheet s : sheets) {
+            block.reset();
+            LKTLogBinaryFormat.writeSheet(new DataOutputStream(block), s, dict);
+            out.writeInt(block.size());
+            block.writeTo(out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads all sheets from an input stream containing data of this format.
+     * @param is Input stream.
+     * @return Restored sheets.
+     * @throws IOException If the data cannot be read, is corrupt or truncated or is not of a supported
+     *  version of this format.
+     */
+    public static ArrayList<LKTLogParserSheet> read(final InputStream is) throws IOException {
+        final DataInputStream in = new DataInputStream(is);
+
+        final byte[] magic = new byte[LKTLogBinaryFormat.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, LKTLogBinaryFormat.MAGIC)) {
+            throw new IOException("Input is not a parsed LKT logbook file.");
+        }
+        final int version = in.readInt();
+        if (version != LKTLogBinaryFormat.VERSION) {
+            throw new IOException(String.join("", "Unsupported parsed LKT logbook file version ",
+                    String.valueOf(version), ", supported version is ", String.valueOf(LKTLogBinaryFormat.VERSION)));
+        }
+
+        // Lists grow with the data actually read, so invalid counts of a truncated file do not allocate memory.
+        final int dictSize = LKTLogBinaryFormat.readCount(in, "string dictionary size");
+        final List<String> dictEntries = new ArrayList<>(0);
+        dictEntries.add(null);
+        for (int i = 1; i <= dictSize; i = i + 1) {
+            final byte[] b = LKTLogBinaryFormat.readBytes(in, LKTLogBinaryFormat.readCount(in, "string length"));
+            dictEntries.add(new String(b, StandardCharsets.UTF_8));
+        }
+        final String[] dict = dictEntries.toArray(new String[dictEntries.size()]);
+
+        final int numSheets = LKTLogBinaryFormat.readCount(in, "number of sheets");
+        final ArrayList<LKTLogParserSheet> sheets = new ArrayList<>(0);
+        for (int i = 0; i < numSheets; i = i + 1) {
+            final byte[] block = LKTLogBinaryFormat.readBytes(in, LKTLogBinaryFormat.readCount(in, "sheet length"));
+            final ByteArrayInputStream blockIn = new ByteArrayInputStream(block);
+            sheets.add(LKTLogBinaryFormat.readSheet(new DataInputStream(blockIn), dict));
+            if (blockIn.available() != 0) {
+                throw new IOException(String.join("", "Invalid length of sheet ", String.valueOf(i + 1)));
+            }
+        }
+        return sheets;
+    }
+
+    /**
+     * Reads a length or count and checks that it is not negative.
+     * @param in Input the value is read from.
+     * @param desc Description of the value used in the error message.
+     * @return Value.
+     * @throws IOException If the value cannot be read or is negative.
+     */
+    private static int readCount(final DataInputStream in, final String desc) throws IOException {
+        final int val = in.readInt();
+        if (val < 0) {
+            throw new IOException(String.join("", "Invalid ", desc, " ", String.valueOf(val)));
+        }
+        return val;
+    }
+
+    /**
+     * Reads the provided number of bytes. Large lengths are read in chunks, so that the memory used
+     * depends on the data actually available and not on the length read from the input.
+     * @param in Input the bytes are read from.
+     * @param length Non negative number of bytes.
+     * @return Bytes read.
+     * @throws IOException If the bytes cannot be read or the input ends early.
+     */
+    private static byte[] readBytes(final DataInputStream in, final int length) throws IOException {
+        if (length <= LKTLogBinaryFormat.BUFFER_SIZE) {
+            final byte[] b = new byte[length];
+            in.readFully(b);
+            return b;
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(LKTLogBinaryFormat.BUFFER_SIZE);
+        final byte[] chunk = new byte[LKTLogBinaryFormat.BUFFER_SIZE];
+        int remaining = length;
+        while (remaining > 0) {
+            final int n = Math.min(remaining, chunk.length);
+            in.readFully(chunk, 0, n);
+            out.write(chunk, 0, n);
+            remaining = remaining - n;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Returns all String values of a sheet and its entries that are stored in the string dictionary.
+     * @param s Parsed sheet.
+     * @return List of String values, may contain null values.
+     */
+    private static List<String> sheetStrings(final LKTLogParserSheet s) {
+        final List<String> values = new ArrayList<>(Arrays.asList(
+                s.getSubjectID(), s.getSubjectSex(), s.getPermitNumber(), s.getSpecies(), s.getScientificName()));
+        s.getEntries().forEach(
+                e -> values.addAll(Arrays.asList(
+                        e.getProject(), e.getExperiment(), e.getParadigm(), e.getParadigmSpecifics(),
+                        e.getExperimenterName(), e.getCommentExperiment(), e.getCommentSubject(), e.getFeed())));
+        return values;
+    }
+
+    /**
+     * Writes a single sheet and all its entries.
+     * @param out Output the sheet is written to.
+     * @param s Parsed sheet.
+     * @param dict String dictionary mapping String values to their references.
+     * @throws IOException If the sheet cannot be written.
+     */
+    private static void writeSheet(final DataOutputStream out, final LKTLogParserSheet s,
+                                   final Map<String, Integer> dict) throws IOException {
+        LKTLogBinaryFormat.writeRef(out, s.getSubjectID(), dict);
+        LKTLogBinaryFormat.writeRef(out, s.getSubjectSex(), dict);
+        LKTLogBinaryFormat.writeDate(out, s.getDateOfBirth());
+        LKTLogBinaryFormat.writeDate(out, s.getDateOfWithdrawal());
+        LKTLogBinaryFormat.writeRef(out, s.getPermitNumber(), dict);
+        LKTLogBinaryFormat.writeRef(out, s.getSpecies(), dict);
+        LKTLogBinaryFormat.writeRef(out, s.getScientificName(), dict);
+
+        LKTLogBinaryFormat.writeVarLong(out, s.getEntries().size());
+        for (final LKTLogParserEntry e : s.getEntries()) {
+            LKTLogBinaryFormat.writeRef(out, e.getProject(), dict);
+            LKTLogBinaryFormat.writeRef(out, e.getExperiment(), dict);
+            LKTLogBinaryFormat.writeRef(out, e.getParadigm(), dict);
+            LKTLogBinaryFormat.writeRef(out, e.getParadigmSpecifics(), dict);
+            LKTLogBinaryFormat.writeVarLong(out,
+                    LKTLogBinaryFormat.zigZag(e.getExperimentDate().toEpochSecond(ZoneOffset.UTC)));
+            LKTLogBinaryFormat.writeRef(out, e.getExperimenterName(), dict);
+            LKTLogBinaryFormat.writeRef(out, e.getCommentExperiment(), dict);
+            LKTLogBinaryFormat.writeRef(out, e.getCommentSubject(), dict);
+            LKTLogBinaryFormat.writeRef(out, e.getFeed(), dict);
+
+            int flags = 0;
+            if (e.getIsOnDiet()) {
+                flags = flags | LKTLogBinaryFormat.FLAG_ON_DIET;
+            }
+            if (e.getIsInitialWeight()) {
+                flags = flags | LKTLogBinaryFormat.FLAG_INITIAL_WEIGHT;
+            }
+            if (e.getWeight() != null) {
+                flags = flags | LKTLogBinaryFormat.FLAG_WEIGHT;
+            }
+            out.writeByte(flags);
+            if (e.getWeight() != null) {
+                out.writeFloat(e.getWeight());
+            }
+        }
+    }
+
+    /**
+     * Reads a single sheet written by {@link #writeSheet(DataOutputStream, LKTLogParserSheet, Map)}.
+     * @param in Input the sheet is read from.
+     * @param dict String dictionary, index 0 is reserved for null values.
+     * @return Restored sheet.
+     * @throws IOException If the sheet cannot be read.
+     */
+    private static LKTLogParserSheet readSheet(final DataInputStream in, final String[] dict) throws IOException {
+        final LKTLogParserSheet s = new LKTLogParserSheet();
+        s.setSubjectID(LKTLogBinaryFormat.readRef(in, dict));
+        s.setSubjectSex(LKTLogBinaryFormat.readRef(in, dict));
+        s.setDateOfBirth(LKTLogBinaryFormat.readDate(in));
+        s.setDateOfWithdrawal(LKTLogBinaryFormat.readDate(in));
+        s.setPermitNumber(LKTLogBinaryFormat.readRef(in, dict));
+        s.setSpecies(LKTLogBinaryFormat.readRef(in, dict));
+        s.setScientificName(LKTLogBinaryFormat.readRef(in, dict));
+
+        final long numEntries = LKTLogBinaryFormat.readVarLong(in);
+        for (long i = 0; i < numEntries; i = i + 1) {
+            final LKTLogParserEntry e = new LKTLogParserEntry();
+            e.setProject(LKTLogBinaryFormat.readRef(in, dict));
+            e.setExperiment(LKTLogBinaryFormat.readRef(in, dict));
+            e.setParadigm(LKTLogBinaryFormat.readRef(in, dict));
+            e.setParadigmSpecifics(LKTLogBinaryFormat.readRef(in, dict));
+            try {
+                e.setExperimentDate(LocalDateTime.ofEpochSecond(
+                        LKTLogBinaryFormat.unZigZag(LKTLogBinaryFormat.readVarLong(in)), 0, ZoneOffset.UTC));
+            } catch (DateTimeException exc) {
+                throw new IOException(String.join("", "Invalid experiment date: ", exc.getMessage()));
+            }
+            e.setExperimenterName(LKTLogBinaryFormat.readRef(in, dict));
+            e.setCommentExperiment(LKTLogBinaryFormat.readRef(in, dict));
+            e.setCommentSubject(LKTLogBinaryFormat.readRef(in, dict));
+            e.setFeed(LKTLogBinaryFormat.readRef(in, dict));
+
+            final int flags = in.readUnsignedByte();
+            e.setIsOnDiet((flags & LKTLogBinaryFormat.FLAG_ON_DIET) != 0);
+            e.setIsInitialWeight((flags & LKTLogBinaryFormat.FLAG_INITIAL_WEIGHT) != 0);
+            if ((flags & LKTLogBinaryFormat.FLAG_WEIGHT) != 0) {
+                e.setWeight(Float.valueOf(in.readFloat()));
+            }
+            s.addEntry(e);
+        }
+        return s;
+    }
+
+    /**
+     * Writes the dictionary reference of a nullable String value.
+     * @param out Output the reference is written to.
+     * @param val String value.
+     * @param dict String dictionary.
+     * @throws IOException If the reference cannot be written.
+     */
+    private static void writeRef(final DataOutputStream out, final String val,
+                                 final Map<String, Integer> dict) throws IOException {
+        LKTLogBinaryFormat.writeVarLong(out, val == null ? 0 : dict.get(val));
+    }
+
+    /**
+     * Reads a String value by its dictionary reference.
+     * @param in Input the reference is read from.
+     * @param dict String dictionary.
+     * @return String value, can be null.
+     * @throws IOException If the reference cannot be read or is invalid.
+     */
+    private static String readRef(final DataInputStream in, final String[] dict) throws IOException {
+        final long ref = LKTLogBinaryFormat.readVarLong(in);
+        if (ref < 0 || ref >= dict.length) {
+            throw new IOException(String.join("", "Invalid string reference ", String.valueOf(ref)));
+        }
+        return dict[(int) ref];
+    }
+
+    /**
+     * Writes a nullable date as epoch day, null values are written as 0 and all
+     * other values are shifted by one.
+     * @param out Output the date is written to.
+     * @param val Date value.
+     * @throws IOException If the date cannot be written.
+     */
+    private static void writeDate(final DataOutputStream out, final LocalDate val) throws IOException {
+        LKTLogBinaryFormat.writeVarLong(out, val == null ? 0 : LKTLogBinaryFormat.zigZag(val.toEpochDay()) + 1);
+    }
+
+    /**
+     * Reads a date written by {@link #writeDate(DataOutputStream, LocalDate)}.
+     * @param in Input the date is read from.
+     * @return Date value, can be null.
+     * @throws IOException If the date cannot be read.
+     */
+    private static LocalDate readDate(final DataInputStream in) throws IOException {
+        final long val = LKTLogBinaryFormat.readVarLong(in);
+        try {
+            return val == 0 ? null : LocalDate.ofEpochDay(LKTLogBinaryFormat.unZigZag(val - 1));
+        } catch (DateTimeException exc) {
+            throw new IOException(String.join("", "Invalid date: ", exc.getMessage()));
+        }
+    }
+
+    /**
+     * Writes a non negative long as variable length integer using 7 bit groups.
+     * @param out Output the value is written to.
+     * @param val Non negative value.
+     * @throws IOException If the value cannot be written.
+     */
+    private static void writeVarLong(final DataOutputStream out, final long val) throws IOException {
+        long v = val;
+        while ((v & ~LKTLogBinaryFormat.VAR_PAYLOAD) != 0) {
+            out.writeByte((int) (v & LKTLogBinaryFormat.VAR_PAYLOAD) | LKTLogBinaryFormat.VAR_CONTINUE);
+            v = v >>> LKTLogBinaryFormat.VAR_SHIFT;
+        }
+        out.writeByte((int) v);
+    }
+
+    /**
+     * Reads a variable length integer written by {@link #writeVarLong(DataOutputStream, long)}.
+     * @param in Input the value is read from.
+     * @return Value.
+     * @throws IOException If the value cannot be read or is too long.
+     */
+    private static long readVarLong(final DataInputStream in) throws IOException {
+        long val = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > LKTLogBinaryFormat.VAR_MAX_SHIFT) {
+                throw new IOException("Invalid variable length integer");
+            }
+            b = in.readUnsignedByte();
+            val = val | ((long) (b & LKTLogBinaryFormat.VAR_PAYLOAD) << shift);
+            shift = shift + LKTLogBinaryFormat.VAR_SHIFT;
+        } while ((b & LKTLogBinaryFormat.VAR_CONTINUE) != 0);
+        return val;
+    }
+
+    /**
+     * Maps signed values to unsigned values, so that small negative values are stored compactly as well.
+     * @param val Signed value.
+     * @return Zig zag encoded value.
+     */
+    private static long zigZag(final long val) {
+        return (val << 1) ^ (val >> (Long.SIZE - 1));
+    }
+
+    /**
+     * Reverses {@link #zigZag(long)}.
+     * @param val Zig zag encoded value.
+     * @return Signed value.
+     */
+    private static long unZigZag(final long val) {
+        return (val >>> 1) ^ -(val & 1);
+    }
+
+}
@@ -10,21 +10,38 @@
 
 package org.g_node.crawler.LKTLogbook;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
+import org.apache.jena.riot.system.StreamRDF;
 import org.apache.log4j.Logger;
 import org.g_node.micro.commons.CliToolController;
+import org.g_node.micro.commons.LazyLog;
 import org.g_node.micro.commons.RDFService;
+import org.g_node.micro.commons.RunMetrics;
+import org.g_node.micro.commons.TDBStore;
 import org.g_node.srv.CliOptionService;
 import org.g_node.srv.CtrlCheckService;
 
 /**
- * Command class for the LKT crawler.
+ * Command class for the LKT crawler. The class does not keep any state between runs,
+ * one instance can run any number of subsequent or concurrent conversions.
  *
  * @author Michael Sonntag (sonntag@bio.lmu.de)
  */
@@ -36,18 +53,26 @@ public final class LKTLogCliToolController implements CliToolController {
     /**
      * File types that can be processed by this crawler.
      */
-    private static final Set<String> SUPPORTED_INPUT_FILE_TYPES = Collections.singleton("ODS");
+    private static final Set<String> SUPPORTED_INPUT_FILE_TYPES = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList("ODS", LKTLogBinaryFormat.FILE_EXTENSION.toUpperCase(Locale.ENGLISH))));
     /**
-     * ArrayList containing all messages that occurred while parsing the input file(s).
-     * All parser errors connected to missing values or incorrect value formats should
-     * be collected and written to a logfile, so that users can correct these
-     * mistakes ideally all at once before running the crawler again.
+     * Run mode parsing the input file and saving the parsed data to the
+     * binary intermediate format {@link LKTLogBinaryFormat}.
      */
-    private ArrayList<String> parserErrorMsg = new ArrayList<>(0);
+    private static final String MODE_PARSE = "PARSE";
+    /**
+     * Run mode converting the input file to RDF.
+     */
+    private static final String MODE_RDF = "RDF";
+    /**
+     * Run modes supported by this crawler.
+     */
+    private static final Set<String> SUPPORTED_MODES = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(LKTLogCliToolController.MODE_PARSE, LKTLogCliToolController.MODE_RDF)));
     /**
      * The actual crawler this class handles and provides.
      */
-    private LKTLogParser crawler;
+    private final LKTLogParser crawler;
 
     /**
      * Constructor.
@@ -69,10 +94,58 @@ public final class LKTLogCliToolController implements CliToolController {
         final Option opOut = CliOptionService.getOutFileOpt("");
         final Option opFormat = CliOptionService.getOutFormatOpt("");
 
+        final Option opMode = Option.builder("m")
+                .longOpt("mode")
+                .desc(String.join("", "Optional: run mode of the crawler. ",
+                        "'", LKTLogCliToolController.MODE_PARSE, "' parses an ODS input file and saves the parsed ",
+                        "data to a binary ", LKTLogBinaryFormat.FILE_EXTENSION, " file that can be used as input ",
+                        "file of subsequent runs. '", LKTLogCliToolController.MODE_RDF, "' converts an ODS or ",
+                        LKTLogBinaryFormat.FILE_EXTENSION, " input file to RDF. Default mode is '",
+                        LKTLogCliToolController.MODE_RDF, "'."))
+                .hasArg()
+                .valueSeparator()
+                .build();
+
+        final Option opNoCache = Option.builder()
+                .longOpt("no-cache")
+                .desc("Optional: parse all sheets of the input file, do not use or update the parse cache.")
+                .build();
+
+        final Option opCacheDir = Option.builder()
+                .longOpt("cache-dir")
+                .desc(String.join("", "Optional: folder of the parse cache. Default folder is ",
+                        LKTLogSheetCache.DEFAULT_CACHE_DIR.toString()))
+                .hasArg()
+                .valueSeparator()
+                .build();
+
+        final Option opTdb = CliOptionService.getTdbOpt("");
+
+        final Option opWatch = Option.builder()
+                .longOpt("watch")
+                .desc(String.join("", "Optional: watch the input folder and convert every ODS workbook of the folder ",
+                        "whenever it has been changed. Workbooks are converted once they have not been changed for ",
+                        String.valueOf(LKTLogWatcher.DEFAULT_DEBOUNCE_MS), " ms. The output file option denotes ",
+                        "the folder receiving all output files, by default output files are written to the ",
+                        "input folder. Runs until the process is stopped."))
+                .build();
+
+        final Option opThreads = CliOptionService.getThreadsOpt(
+                String.join("", "Optional: number of workbooks converted at the same time in watch mode. ",
+                        "Default is ", String.valueOf(LKTLogWatcher.DEFAULT_THREADS), "."));
+
         options.addOption(opHelp);
         options.addOption(opIn);
         options.addOption(opOut);
         options.addOption(opFormat);
+        options.addOption(opMode);
+        options.addOption(opNoCache);
+        options.addOption(opCacheDir);
+        options.addOption(opTdb);
+        options.addOption(opWatch);
+        options.addOption(opThreads);
+        options.addOption(CliOptionService.getMetricsOpt(""));
+        options.addOption(CliOptionService.getMetricsTableOpt(""));
 
         return options;
     }
@@ -80,46 +153,294 @@ public final class LKTLogCliToolController implements CliToolController {
     /**
      * Method to parse information from an input file to an output file using
      * the LKT crawler. Handles all checks related to input file, output file and
-     * file format before the parsing begins.
+     * file format before the parsing begins. In watch mode the input has to be a folder,
+     * all workbooks of the folder are converted whenever they change, see {@link LKTLogWatcher}.
      * @param cmd User provided {@link CommandLine} input.
      */
     public void run(final CommandLine cmd) {
 
         final String inputFile = cmd.getOptionValue("i");
-        if (!CtrlCheckService.isExistingFile(inputFile)) {
+        final boolean watch = cmd.hasOption("watch");
+        if (watch && !Files.isDirectory(Paths.get(inputFile))) {
+            LKTLogCliToolController.LOGGER.error(
+                    String.join("", "Input ", inputFile, " has to be a folder in watch mode.")
+            );
+            return;
+        }
+        if (!watch && !CtrlCheckService.isExistingFile(inputFile)) {
+            return;
+        }
+
+        if (!watch && !CtrlCheckService.isSupportedInFileType(
+                inputFile, LKTLogCliToolController.SUPPORTED_INPUT_FILE_TYPES)) {
             return;
         }
 
-        if (!CtrlCheckService.isSupportedInFileType(inputFile, LKTLogCliToolController.SUPPORTED_INPUT_FILE_TYPES)) {
+        final String mode = cmd.getOptionValue("m", LKTLogCliToolController.MODE_RDF).toUpperCase(Locale.ENGLISH);
+        if (!CtrlCheckService.isSupportedCliArgValue(mode, LKTLogCliToolController.SUPPORTED_MODES, "-m/--mode")) {
             return;
         }
 
-        final String outputFormat = cmd.getOptionValue("f", "TTL").toUpperCase(Locale.ENGLISH);
-        if (!CtrlCheckService.isSupportedOutputFormat(outputFormat, RDFService.RDF_FORMAT_MAP.keySet())) {
+        final boolean isParsedInput = !watch && inputFile.toLowerCase(Locale.ENGLISH)
+                .endsWith(String.join("", ".", LKTLogBinaryFormat.FILE_EXTENSION));
+        if (isParsedInput && LKTLogCliToolController.MODE_PARSE.equals(mode)) {
+            LKTLogCliToolController.LOGGER.error(
+                    String.join("", "Input file ", inputFile, " has already been parsed, please provide an ODS file.")
+            );
+            return;
+        }
+
+        final List<String> outputFormats = CliOptionService.getOutFormats(cmd, "TTL");
+        for (final String outputFormat : outputFormats) {
+            if (!CtrlCheckService.isSupportedOutputFormat(outputFormat, RDFService.RDF_FORMAT_MAP.keySet())) {
+                return;
+            }
+        }
+
+        LKTLogSheetCache sheetCache = null;
+        if (!cmd.hasOption("no-cache")) {
+            sheetCache = new LKTLogSheetCache(
+                    cmd.hasOption("cache-dir")
+                            ? Paths.get(cmd.getOptionValue("cache-dir")) : LKTLogSheetCache.DEFAULT_CACHE_DIR,
+                    LKTLogSheetCache.DEFAULT_MAX_BYTES);
+        }
+
+        if (watch) {
+            final String threads = cmd.getOptionValue("threads", String.valueOf(LKTLogWatcher.DEFAULT_THREADS));
+            if (!CtrlCheckService.isPositiveInteger(threads, "--threads")) {
+                return;
+            }
+            this.runWatch(Paths.get(inputFile), cmd, mode, outputFormats, sheetCache, Integer.parseInt(threads));
             return;
         }
 
         final int i = inputFile.lastIndexOf('.');
         final String defaultOutputFile = String.join("", inputFile.substring(0, i), "_out");
+        final String outputFile = cmd.getOptionValue("o", defaultOutputFile);
 
-        String outputFile = cmd.getOptionValue("o", defaultOutputFile);
-
-        if (!outputFile.toLowerCase().endsWith(RDFService.RDF_FORMAT_EXTENSION.get(outputFormat))) {
-            outputFile = String.join("", outputFile, ".", RDFService.RDF_FORMAT_EXTENSION.get(outputFormat));
+        final RunMetrics metrics = CliOptionService.getMetrics(cmd);
+        if (!cmd.hasOption("tdb")) {
+            this.convert(inputFile, outputFile, mode, outputFormats, sheetCache, null, metrics);
+        } else {
+            try (TDBStore store = TDBStore.open(cmd.getOptionValue("tdb"))) {
+                this.convert(inputFile, outputFile, mode, outputFormats, sheetCache, store, metrics);
+            } catch (IOException e) {
+                LKTLogCliToolController.LOGGER.error(String.join("", "Could not open TDB store: ", e.getMessage()));
+            }
         }
+        metrics.report(RunMetrics.fileName(outputFile), cmd.hasOption("metrics-table"));
+    }
+
+    /**
+     * Parses a single input file and saves the parsed data or converts it to RDF.
+     * @param inputFile Path and name of an ODS or parsed input file.
+     * @param outputFile Path and name of the output file.
+     * @param mode Run mode, see {@link #SUPPORTED_MODES}.
+     * @param outputFormats Supported RDF output formats.
+     * @param sheetCache Parse cache, null if all sheets are supposed to be parsed.
+     * @param store Store additionally receiving the RDF data, null if there is none.
+     * @param metrics Metrics of the run, see {@link RunMetrics}.
+     */
+    @SuppressWarnings("try")
+    private void convert(final String inputFile, final String outputFile, final String mode,
+                         final List<String> outputFormats, final LKTLogSheetCache sheetCache, final TDBStore store,
+                         final RunMetrics metrics) {
 
-        LKTLogCliToolController.LOGGER.info("Parsing input file...");
-        final ArrayList<LKTLogParserSheet> allSheets = this.crawler.parseFile(inputFile, this.parserErrorMsg);
+        final ArrayList<LKTLogParserSheet> allSheets;
+        if (inputFile.toLowerCase(Locale.ENGLISH).endsWith(String.join("", ".", LKTLogBinaryFormat.FILE_EXTENSION))) {
+            LKTLogCliToolController.LOGGER.info("Reading parsed input file...");
+            try (RunMetrics.Phase p = metrics.startPhase("readParsed")) {
+                allSheets = LKTLogBinaryFormat.readFile(inputFile);
+            } catch (IOException e) {
+                LKTLogCliToolController.LOGGER.error(
+                        String.join("", "Could not read parsed input file ", inputFile, ": ", e.getMessage())
+                );
+                return;
+            }
+        } else {
+            LKTLogCliToolController.LOGGER.info("Parsing input file...");
+            final LKTLogErrorReport report = new LKTLogErrorReport(
+                    inputFile, LKTLogCliToolController.errorReportBaseName(outputFile));
+            try {
+                allSheets = this.crawler.parseFile(new LKTLogParseContext(inputFile, sheetCache, report, metrics));
+                metrics.rate("rows", "parse");
+            } finally {
+                report.close();
+            }
 
-        if (this.parserErrorMsg.size() != 0) {
-            LKTLogCliToolController.LOGGER.error("");
-            this.parserErrorMsg.forEach(LKTLogCliToolController.LOGGER::error);
+            if (report.getErrorCount() > 0) {
+                report.logSummary();
+                return;
+            }
+        }
+
+        if (LKTLogCliToolController.MODE_PARSE.equals(mode)) {
+            final String parsedFile = LKTLogCliToolController.parsedOutputFile(outputFile);
+            LazyLog.info(LKTLogCliToolController.LOGGER,
+                    () -> String.join("", "Writing parsed data to file '", parsedFile, "'")
+            );
+            try (RunMetrics.Phase p = metrics.startPhase("writeParsed")) {
+                LKTLogBinaryFormat.writeFile(parsedFile, allSheets);
+            } catch (IOException e) {
+                LKTLogCliToolController.LOGGER.error(
+                        String.join("", "Could not write parsed data to file ", parsedFile, ": ", e.getMessage())
+                );
+            }
             return;
         }
 
         LKTLogCliToolController.LOGGER.info("Converting parsed data to RDF...");
-        final LKTLogToRDF convRDF = new LKTLogToRDF();
-        convRDF.createRDFModel(allSheets, inputFile, outputFile, outputFormat);
+        final Map<String, String> outputFiles = RDFService.getOutputFileNames(outputFile, outputFormats);
+        final LKTLogToRDF convRDF = new LKTLogToRDF(metrics);
+        if (store == null) {
+            convRDF.createRDFModel(allSheets, inputFile, outputFiles);
+        } else {
+            synchronized (store) {
+                final StreamRDF sink = store.replaceGraph(inputFile);
+                try {
+                    if (convRDF.createRDFModel(allSheets, inputFile, outputFiles, sink)) {
+                        try (RunMetrics.Phase p = metrics.startPhase("tdbCommit")) {
+                            store.commit();
+                        }
+                    }
+                } finally {
+                    store.abortIfActive();
+                }
+            }
+        }
+        metrics.rate("triples", "build");
+        metrics.rate("triples", "buildAndStream");
+    }
+
+    /**
+     * Watches a folder and converts every workbook of the folder whenever its content changes.
+     * Workbooks whose output files are missing or older than the workbook are converted right away.
+     * Runs until the process is stopped or the folder is no longer accessible.
+     * If metrics are enabled, every conversion writes its own metrics file.
+     * @param folder Watched folder.
+     * @param cmd User provided {@link CommandLine} input providing the output folder, the folder of the
+     *            TDB store and the metrics options.
+     * @param mode Run mode, see {@link #SUPPORTED_MODES}.
+     * @param outputFormats Supported RDF output formats.
+     * @param sheetCache Parse cache, null if all sheets are supposed to be parsed.
+     * @param threads Maximum number of workbooks converted at the same time.
+     */
+    private void runWatch(final Path folder, final CommandLine cmd, final String mode,
+                          final List<String> outputFormats, final LKTLogSheetCache sheetCache, final int threads) {
+
+        final String outFolder = cmd.getOptionValue("o");
+        final String tdbFolder = cmd.getOptionValue("tdb");
+        final Path outputFolder = outFolder != null ? Paths.get(outFolder) : folder;
+        final TDBStore store;
+        try {
+            Files.createDirectories(outputFolder);
+            store = tdbFolder != null ? TDBStore.open(tdbFolder) : null;
+        } catch (IOException e) {
+            LKTLogCliToolController.LOGGER.error(
+                    String.join("", "Could not create output folder or TDB store: ", e.getMessage())
+            );
+            return;
+        }
+
+        final Consumer<Path> converter = file -> {
+            final String outputFile = LKTLogCliToolController.watchOutputFile(file, outputFolder);
+            final RunMetrics metrics = CliOptionService.getMetrics(cmd);
+            this.convert(file.toString(), outputFile, mode, outputFormats, sheetCache, store, metrics);
+            metrics.report(RunMetrics.fileName(outputFile), cmd.hasOption("metrics-table"));
+        };
+
+        try (LKTLogWatcher watcher = new LKTLogWatcher(folder, converter, LKTLogWatcher.DEFAULT_DEBOUNCE_MS, threads)) {
+            int outdated = 0;
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(folder, LKTLogWatcher::isWorkbook)) {
+                for (final Path file : ds) {
+                    final String outputFile = LKTLogCliToolController.watchOutputFile(file, outputFolder);
+                    final Collection<String> outputFiles = LKTLogCliToolController.MODE_PARSE.equals(mode)
+                            ? Collections.singletonList(LKTLogCliToolController.parsedOutputFile(outputFile))
+                            : RDFService.getOutputFileNames(outputFile, outputFormats).values();
+                    if (LKTLogCliToolController.isOutdated(file, outputFiles)) {
+                        watcher.schedule(file);
+                        outdated = outdated + 1;
+                    } else {
+                        watcher.markConverted(file);
+                    }
+                }
+            }
+            final int outdatedFiles = outdated;
+            LazyLog.info(LKTLogCliToolController.LOGGER,
+                    () -> String.join("", "Watching folder '", folder.toString(), "' for changed workbooks, ",
+                            String.valueOf(outdatedFiles), " outdated workbooks are converted...")
+            );
+            watcher.watch();
+        } catch (IOException e) {
+            LKTLogCliToolController.LOGGER.error(
+                    String.join("", "Could not watch folder ", folder.toString(), ": ", e.getMessage())
+            );
+        } finally {
+            if (store != null) {
+                store.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the output file name without file extension of a watched workbook.
+     * @param workbook Path of the workbook.
+     * @param outputFolder Folder receiving all output files.
+     * @return Path and name of the output file.
+     */
+    private static String watchOutputFile(final Path workbook, final Path outputFolder) {
+        final String fileName = workbook.getFileName().toString();
+        return outputFolder.resolve(
+                String.join("", fileName.substring(0, fileName.lastIndexOf('.')), "_out")).toString();
+    }
+
+    /**
+     * Returns the path and name of the parser error report files without suffix, see {@link LKTLogErrorReport}.
+     * The file extension of the output file is removed e.g. "out.ttl" results in "out_errors.txt".
+     * @param outputFile Path and name of the output file.
+     * @return See description.
+     */
+    private static String errorReportBaseName(final String outputFile) {
+        final Path fileName = Paths.get(outputFile).getFileName();
+        final int i = outputFile.lastIndexOf('.');
+        if (fileName == null || i <= outputFile.length() - fileName.toString().length()) {
+            return outputFile;
+        }
+        return outputFile.substring(0, i);
+    }
+
+    /**
+     * Returns the name of the file receiving the parsed data, the file extension of the
+     * {@link LKTLogBinaryFormat} is added if required.
+     * @param outputFile Path and name of the output file.
+     * @return See description.
+     */
+    private static String parsedOutputFile(final String outputFile) {
+        if (outputFile.toLowerCase(Locale.ENGLISH).endsWith(LKTLogBinaryFormat.FILE_EXTENSION)) {
+            return outputFile;
+        }
+        return String.join("", outputFile, ".", LKTLogBinaryFormat.FILE_EXTENSION);
+    }
+
+    /**
+     * Checks if any output file of a workbook is missing or older than the workbook.
+     * @param workbook Path of the workbook.
+     * @param outputFiles Paths and names of all output files of the workbook.
+     * @return True if the workbook has to be converted.
+     */
+    private static boolean isOutdated(final Path workbook, final Collection<String> outputFiles) {
+        try {
+            final FileTime modified = Files.getLastModifiedTime(workbook);
+            for (final String outputFile : outputFiles) {
+                final Path out = Paths.get(outputFile);
+                if (!Files.exists(out) || Files.getLastModifiedTime(out).compareTo(modified) < 0) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            return true;
+        }
+        return false;
     }
 
 }
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import org.g_node.micro.commons.FileOutput;
+
+/**
+ * Writes every sheet generated by the {@link LKTLogGenerator} to a separate CSV file,
+ * see {@link LKTLogGenerator#csvFileName(String, int)}. Values are separated by comma,
+ * every row of a sheet results in one line.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class LKTLogCsvWriter implements LKTLogGenerator.RowSink, Closeable {
+    /**
+     * Path and base name of the CSV files.
+     */
+    private final String baseName;
+    /**
+     * Number of columns of every row.
+     */
+    private final int columns;
+    /**
+     * Output file of the current sheet.
+     */
+    private FileOutput file;
+    /**
+     * Writer of the current sheet.
+     */
+    private Writer writer;
+    /**
+     * Index of the current sheet.
+     */
+    private int sheet = -1;
+
+    /**
+     * Constructor.
+     * @param base Path and base name of the CSV files.
+     * @param columnCount Number of columns of every row.
+     */
+    LKTLogCsvWriter(final String base, final int columnCount) {
+        this.baseName = base;
+        this.columns = columnCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void startSheet(final String name) throws IOException {
+        this.sheet = this.sheet + 1;
+        this.file = FileOutput.open(LKTLogGenerator.csvFileName(this.baseName, this.sheet));
+        this.writer = new BufferedWriter(new OutputStreamWriter(this.file.getStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void row(final LKTLogGenerator.Cell[] cells) throws IOException {
+        for (int i = 0; i < cells.length; i = i + 1) {
+            if (i > 0) {
+                this.writer.write(',');
+            }
+            this.writer.write(LKTLogCsvWriter.csvValue(cells[i].getText()));
+        }
+        this.separators(this.columns - cells.length);
+        this.writer.write('\n');
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void blankRows(final int count) throws IOException {
+        for (int i = 0; i < count; i = i + 1) {
+            this.separators(this.columns - 1);
+            this.writer.write('\n');
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void endSheet() throws IOException {
+        this.writer.flush();
+        this.file.commit();
+        this.file.close();
+        this.file = null;
+    }
+
+    /**
+     * Closes the output file of the current sheet, if it has not been ended.
+     * An output file that has not been ended is removed.
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        if (this.file != null) {
+            this.file.close();
+        }
+    }
+
+    /**
+     * Writes the value separators of blank cells.
+     * @param count Number of separators.
+     * @throws IOException
+     */
+    private void separators(final int count) throws IOException {
+        for (int i = 0; i < count; i = i + 1) {
+            this.writer.write(',');
+        }
+    }
+
+    /**
+     * Quotes a value, if it contains a separator, a quote or a line break.
+     * @param value Cell value.
+     * @return CSV representation of the value.
+     */
+    private static String csvValue(final String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return String.join("", "\"", value.replace("\"", "\"\""), "\"");
+    }
+
+}
@@ -0,0 +1,367 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.jena.atlas.io.IndentedLineBuffer;
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.log4j.Logger;
+
+/**
+ * Report of the parser errors of a single input file. Every error is written to the report files
+ * as soon as it is found, only the number of errors per error type and per sheet is kept in memory,
+ * so the memory use does not depend on the number of invalid rows.
+ *
+ * The report consists of a plain text file containing the error messages followed by a summary and
+ * of a JSON lines file containing one JSON object per error with the fields "sheet", "row", "type" and
+ * "message", followed by a single summary object. The report files are only created once the first error
+ * is found; report files of previous runs are removed, if no errors are found.
+ * The first {@link #LOGGED_ERRORS} errors are logged as well.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LKTLogErrorReport implements Closeable {
+    /**
+     * Types of parser errors.
+     */
+    public enum ErrorType {
+        /**
+         * The input file could not be read.
+         */
+        READ_ERROR,
+        /**
+         * A sheet does not contain valid data.
+         */
+        INVALID_SHEET,
+        /**
+         * The header line of the experiment entries was not found.
+         */
+        MISSING_HEADER,
+        /**
+         * Missing or invalid animal data of a sheet.
+         */
+        INVALID_ANIMAL,
+        /**
+         * Invalid date of an animal or of an experiment entry.
+         */
+        INVALID_DATE,
+        /**
+         * Invalid weight of an experiment entry.
+         */
+        INVALID_WEIGHT,
+        /**
+         * Missing required value of an experiment entry.
+         */
+        MISSING_VALUE,
+        /**
+         * Duplicate experiment entry.
+         */
+        DUPLICATE_ENTRY
+    }
+
+    /**
+     * Suffix of the plain text report file.
+     */
+    public static final String TEXT_SUFFIX = "_errors.txt";
+    /**
+     * Suffix of the JSON lines report file.
+     */
+    public static final String JSON_SUFFIX = "_errors.jsonl";
+    /**
+     * Number of errors that are logged in addition to being written to the report files.
+     */
+    static final int LOGGED_ERRORS = 20;
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(LKTLogErrorReport.class.getName());
+    /**
+     * Path and name of the parsed input file.
+     */
+    private final String inputFile;
+    /**
+     * Path and name of the plain text report file.
+     */
+    private final String textFile;
+    /**
+     * Path and name of the JSON lines report file.
+     */
+    private final String jsonFile;
+    /**
+     * Number of errors per error type.
+     */
+    private final Map<ErrorType, Long> typeCounts = new EnumMap<>(ErrorType.class);
+    /**
+     * Number of errors per sheet in the order the sheets have been parsed.
+     */
+    private final Map<String, Long> sheetCounts = new LinkedHashMap<>();
+    /**
+     * Writer of the plain text report file, null until the first error is found or after a write error.
+     */
+    private Writer text;
+    /**
+     * Writer of the JSON lines report file, null until the first error is found or after a write error.
+     */
+    private Writer json;
+    /**
+     * Number of errors found so far.
+     */
+    private long errorCount;
+    /**
+     * True if writing to the report files failed.
+     */
+    private boolean failed;
+
+    /**
+     * Constructor.
+     * @param input Path and name of the parsed input file.
+     * @param baseName Path and name of the report files without suffix, see {@link #TEXT_SUFFIX}
+     *                 and {@link #JSON_SUFFIX}.
+     */
+    public LKTLogErrorReport(final String input, final String baseName) {
+        this.inputFile = input;
+        this.textFile = String.join("", baseName, LKTLogErrorReport.TEXT_SUFFIX);
+        this.jsonFile = String.join("", baseName, LKTLogErrorReport.JSON_SUFFIX);
+    }
+
+    /**
+     * Adds a parser error and writes it to the report files.
+     * @param sheet Name of the sheet containing the error, null if the error is not related to a single sheet.
+     * @param row Row of the sheet containing the error, -1 if the error is not related to a single row.
+     * @param type Type of the error.
+     * @param message Error message.
+     */
+    public void add(final String sheet, final long row, final ErrorType type, final String message) {
+        this.errorCount = this.errorCount + 1;
+        this.typeCounts.merge(type, 1L, Long::sum);
+        if (sheet != null) {
+            this.sheetCounts.merge(sheet, 1L, Long::sum);
+        }
+        if (this.errorCount <= LKTLogErrorReport.LOGGED_ERRORS) {
+            LKTLogErrorReport.LOGGER.error(message);
+        }
+        if (this.failed) {
+            return;
+        }
+
+        final JsonObject error = new JsonObject();
+        if (sheet != null) {
+            error.put("sheet", sheet);
+        }
+        if (row >= 0) {
+            error.put("row", row);
+        }
+        error.put("type", type.name());
+        error.put("message", message);
+        try {
+            if (this.text == null) {
+                this.open();
+            }
+            this.text.write(message);
+            this.text.write('\n');
+            this.writeJson(error);
+        } catch (IOException e) {
+            this.fail(e);
+        }
+    }
+
+    /**
+     * Returns the number of errors found so far.
+     * @return See description.
+     */
+    public long getErrorCount() {
+        return this.errorCount;
+    }
+
+    /**
+     * Returns the number of errors per error type.
+     * @return See description.
+     */
+    public Map<ErrorType, Long> getTypeCounts() {
+        return Collections.unmodifiableMap(this.typeCounts);
+    }
+
+    /**
+     * Returns the number of errors per sheet in the order the sheets have been parsed.
+     * @return See description.
+     */
+    public Map<String, Long> getSheetCounts() {
+        return Collections.unmodifiableMap(this.sheetCounts);
+    }
+
+    /**
+     * Returns the path and name of the plain text report file.
+     * @return See description.
+     */
+    public String getTextFile() {
+        return this.textFile;
+    }
+
+    /**
+     * Returns the path and name of the JSON lines report file.
+     * @return See description.
+     */
+    public String getJsonFile() {
+        return this.jsonFile;
+    }
+
+    /**
+     * Logs the number of errors per error type and per sheet and the names of the report files.
+     * Nothing is logged, if no errors have been found.
+     */
+    public void logSummary() {
+        if (this.errorCount == 0) {
+            return;
+        }
+        if (this.errorCount > LKTLogErrorReport.LOGGED_ERRORS) {
+            LKTLogErrorReport.LOGGER.error(
+                    String.join("", "... ", String.valueOf(this.errorCount - LKTLogErrorReport.LOGGED_ERRORS),
+                            " further parser errors are only contained in the report files.")
+            );
+        }
+        LKTLogErrorReport.LOGGER.error(
+                String.join("", "\n\t", String.valueOf(this.errorCount), " parser errors found in '",
+                        this.inputFile, "'", LKTLogErrorReport.counts("Errors per type", this.typeCounts),
+                        LKTLogErrorReport.counts("Errors per sheet", this.sheetCounts))
+        );
+        if (!this.failed) {
+            LKTLogErrorReport.LOGGER.error(
+                    String.join("", "\tReport files: '", this.textFile, "', '", this.jsonFile, "'")
+            );
+        }
+        LKTLogErrorReport.LOGGER.error(
+                "\n\tThere are parser errors present. Please resolve them and run the program again.");
+    }
+
+    /**
+     * Writes the summary to the report files and closes them. Report files of previous runs
+     * are removed, if no errors have been found.
+     */
+    @Override
+    public void close() {
+        try {
+            if (this.errorCount == 0) {
+                Files.deleteIfExists(Paths.get(this.textFile));
+                Files.deleteIfExists(Paths.get(this.jsonFile));
+            } else if (!this.failed) {
+                this.writeSummary();
+            }
+        } catch (IOException e) {
+            this.fail(e);
+        } finally {
+            this.closeWriters();
+        }
+    }
+
+    /**
+     * Opens both report files, existing files are replaced.
+     * @throws IOException Report files could not be opened.
+     */
+    private void open() throws IOException {
+        this.text = Files.newBufferedWriter(Paths.get(this.textFile), StandardCharsets.UTF_8);
+        this.json = Files.newBufferedWriter(Paths.get(this.jsonFile), StandardCharsets.UTF_8);
+        this.text.write(String.join("", "Parser errors of file '", this.inputFile, "'\n\n"));
+    }
+
+    /**
+     * Writes the number of errors per error type and per sheet to both report files.
+     * @throws IOException Report files could not be written.
+     */
+    private void writeSummary() throws IOException {
+        this.text.write(
+                String.join("", "\n", String.valueOf(this.errorCount), " parser errors",
+                        LKTLogErrorReport.counts("Errors per type", this.typeCounts),
+                        LKTLogErrorReport.counts("Errors per sheet", this.sheetCounts), "\n")
+        );
+
+        final JsonObject types = new JsonObject();
+        this.typeCounts.forEach((t, c) -> types.put(t.name(), c));
+        final JsonObject sheets = new JsonObject();
+        this.sheetCounts.forEach(sheets::put);
+        final JsonObject summary = new JsonObject();
+        summary.put("errors", this.errorCount);
+        summary.put("types", types);
+        summary.put("sheets", sheets);
+        final JsonObject line = new JsonObject();
+        line.put("summary", summary);
+        this.writeJson(line);
+    }
+
+    /**
+     * Writes a JSON object as a single line to the JSON lines report file.
+     * @param obj JSON object.
+     * @throws IOException Report file could not be written.
+     */
+    private void writeJson(final JsonObject obj) throws IOException {
+        final IndentedLineBuffer line = new IndentedLineBuffer();
+        line.setFlatMode(true);
+        JSON.write(line, obj);
+        this.json.write(line.asString());
+        this.json.write('\n');
+    }
+
+    /**
+     * Stops writing to the report files after a write error, errors are still counted.
+     * @param e Write error.
+     */
+    private void fail(final IOException e) {
+        LKTLogErrorReport.LOGGER.error(
+                String.join("", "Could not write parser error report '", this.textFile, "': ", e.getMessage())
+        );
+        this.failed = true;
+        this.closeWriters();
+    }
+
+    /**
+     * Closes both report files, close errors are ignored.
+     */
+    private void closeWriters() {
+        for (final Writer w : new Writer[]{this.text, this.json}) {
+            if (w != null) {
+                try {
+                    w.close();
+                } catch (IOException e) {
+                    LKTLogErrorReport.LOGGER.error(String.join("", "Could not close report file: ", e.getMessage()));
+                }
+            }
+        }
+        this.text = null;
+        this.json = null;
+    }
+
+    /**
+     * Formats error counts as indented lines.
+     * @param title Title of the counts.
+     * @param counts Number of errors per key.
+     * @param <K> Type of the keys.
+     * @return Formatted counts, empty if there are no counts.
+     */
+    private static <K> String counts(final String title, final Map<K, Long> counts) {
+        if (counts.isEmpty()) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder();
+        sb.append("\n\t").append(title).append(':');
+        counts.forEach((k, c) -> sb.append("\n\t\t").append(k).append(": ").append(c));
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.io.IOException;
+import java.util.Locale;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.CliToolController;
+import org.g_node.micro.commons.LazyLog;
+import org.g_node.srv.CliOptionService;
+import org.g_node.srv.CtrlCheckService;
+
+/**
+ * Command class of the LKT logbook generator, writes synthetic logbooks for scale and load testing,
+ * see {@link LKTLogGenerator}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LKTLogGenCliToolController implements CliToolController {
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(LKTLogGenCliToolController.class.getName());
+    /**
+     * Default output file.
+     */
+    private static final String DEFAULT_OUTPUT_FILE = "lkt_generated.ods";
+
+    /**
+     * Method returning the commandline options of the LKT logbook generator.
+     * @return Available commandline options.
+     */
+    public Options options() {
+        final Options options = new Options();
+
+        final Option opHelp = CliOptionService.getHelpOpt("");
+        final Option opOut = CliOptionService.getOutFileOpt(
+                String.join("", "Optional: Path and name of the generated logbook. Files ending with '.ods' ",
+                        "are written as ODS file, files ending with '.csv' are written as one CSV file per sheet ",
+                        "using format [outputFileName]_[sheetName].csv. ",
+                        "Files with the same name will be overwritten. Default file is ",
+                        LKTLogGenCliToolController.DEFAULT_OUTPUT_FILE, "."));
+
+        options.addOption(opHelp);
+        options.addOption(opOut);
+        options.addOption(LKTLogGenCliToolController.valueOption(
+                "sheets", "Optional: number of animal sheets. Default is 10."));
+        options.addOption(LKTLogGenCliToolController.valueOption(
+                "rows", "Optional: number of experiment entries per animal sheet. Default is 100."));
+        options.addOption(LKTLogGenCliToolController.valueOption(
+                "cardinality", String.join("", "Optional: number of distinct values of the text columns ",
+                        "e.g. projects, experiments or experimenters. Default is 10.")));
+        options.addOption(LKTLogGenCliToolController.valueOption(
+                "error-rate", String.join("", "Optional: probability between 0 and 1 of an animal sheet ",
+                        "or an experiment entry to contain a parser error. Default is 0.")));
+        options.addOption(LKTLogGenCliToolController.valueOption(
+                "blank-rows", "Optional: number of blank rows following the entries of every sheet. Default is 1."));
+        options.addOption(LKTLogGenCliToolController.valueOption(
+                "blank-columns", "Optional: number of blank columns following the data of every row. Default is 0."));
+        options.addOption(LKTLogGenCliToolController.valueOption(
+                "seed", String.join("", "Optional: seed of the random generator, the same seed and settings ",
+                        "always result in the same logbook. Default is 1.")));
+
+        return options;
+    }
+
+    /**
+     * Method generating a synthetic LKT logbook using the settings provided via the command line.
+     * @param cmd User provided {@link CommandLine} input.
+     */
+    public void run(final CommandLine cmd) {
+
+        final String outputFile = cmd.getOptionValue("o", LKTLogGenCliToolController.DEFAULT_OUTPUT_FILE);
+        final String lowerOutputFile = outputFile.toLowerCase(Locale.ENGLISH);
+        if (!lowerOutputFile.endsWith(".ods") && !lowerOutputFile.endsWith(".csv")) {
+            LKTLogGenCliToolController.LOGGER.error(
+                    String.join("", "Output file '", outputFile, "' has to end with '.ods' or '.csv'.")
+            );
+            return;
+        }
+
+        final String sheets = cmd.getOptionValue("sheets", "10");
+        final String rows = cmd.getOptionValue("rows", "100");
+        final String cardinality = cmd.getOptionValue("cardinality", "10");
+        final String blankRows = cmd.getOptionValue("blank-rows", "1");
+        final String blankColumns = cmd.getOptionValue("blank-columns", "0");
+        if (!CtrlCheckService.isPositiveInteger(sheets, "--sheets")
+                || !CtrlCheckService.isNonNegativeInteger(rows, "--rows")
+                || !CtrlCheckService.isPositiveInteger(cardinality, "--cardinality")
+                || !CtrlCheckService.isNonNegativeInteger(blankRows, "--blank-rows")
+                || !CtrlCheckService.isNonNegativeInteger(blankColumns, "--blank-columns")) {
+            return;
+        }
+
+        final double errorRate;
+        final long seed;
+        try {
+            errorRate = Double.parseDouble(cmd.getOptionValue("error-rate", "0"));
+            seed = Long.parseLong(cmd.getOptionValue("seed", "1"));
+        } catch (NumberFormatException e) {
+            LKTLogGenCliToolController.LOGGER.error(
+                    String.join("", "Invalid error rate or seed: ", e.getMessage())
+            );
+            return;
+        }
+        if (errorRate < 0 || errorRate > 1) {
+            LKTLogGenCliToolController.LOGGER.error(
+                    String.join("", "Error rate '", String.valueOf(errorRate), "' has to be between 0 and 1.")
+            );
+            return;
+        }
+
+        final LKTLogGenerator generator = new LKTLogGenerator(seed);
+        generator.setSheets(Integer.parseInt(sheets));
+        generator.setRows(Integer.parseInt(rows));
+        generator.setCardinality(Integer.parseInt(cardinality));
+        generator.setErrorRate(errorRate);
+        generator.setTrailingBlankRows(Integer.parseInt(blankRows));
+        generator.setTrailingBlankColumns(Integer.parseInt(blankColumns));
+
+        LazyLog.info(LKTLogGenCliToolController.LOGGER,
+                () -> String.join("", "Generating logbook with ", sheets, " sheets of ", rows, " entries each...")
+        );
+        final long startTime = System.currentTimeMillis();
+        final long errors;
+        try {
+            if (lowerOutputFile.endsWith(".ods")) {
+                errors = generator.writeODS(outputFile);
+            } else {
+                errors = generator.writeCSV(outputFile.substring(0, outputFile.length() - ".csv".length()));
+            }
+        } catch (IOException e) {
+            LKTLogGenCliToolController.LOGGER.error(
+                    String.join("", "Could not write output file: ", e.getMessage())
+            );
+            return;
+        }
+
+        LazyLog.info(LKTLogGenCliToolController.LOGGER,
+                () -> String.join("", "Wrote logbook '", outputFile, "' containing ", String.valueOf(errors),
+                        " sheets and entries with errors in ",
+                        String.valueOf(System.currentTimeMillis() - startTime), " ms")
+        );
+    }
+
+    /**
+     * Returns an option with a single value.
+     * @param longOpt Name of the option.
+     * @param desc Description of the option.
+     * @return See description.
+     */
+    private static Option valueOption(final String longOpt, final String desc) {
+        return Option.builder()
+                .longOpt(longOpt)
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.util.function.Consumer;
+import org.g_node.micro.commons.CliToolController;
+import org.g_node.micro.commons.CliToolProvider;
+
+/**
+ * Provider of the LKT logbook generator, registered with the short hand 'gen'.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LKTLogGenCliToolProvider implements CliToolProvider {
+    /**
+     * Method returning the short hand of the tool.
+     * @return Short hand of the tool.
+     */
+    public String name() {
+        return "gen";
+    }
+
+    /**
+     * Method creating the command class of the tool.
+     * @param toolRunner Runs any tool of the application.
+     * @return New {@link LKTLogGenCliToolController}.
+     */
+    public CliToolController create(final Consumer<String[]> toolRunner) {
+        return new LKTLogGenCliToolController();
+    }
+
+}
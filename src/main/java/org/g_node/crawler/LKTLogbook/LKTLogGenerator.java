@@ -0,0 +1,552 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Random;
+import org.g_node.micro.commons.FileOutput;
+
+/**
+ * Generator of synthetic LKT logbooks used for scale and load testing of the {@link LKTLogParser}.
+ * Every animal sheet follows the layout expected by the parser: the animal data in the fields of
+ * {@link LKTLogParser.AnFieldRange}, the header line in line {@link LKTLogParser#SHEET_HEADER_LINE} and
+ * the experiment entries in the columns of {@link LKTLogParser.EntryFieldRange} below the header line.
+ *
+ * The number of sheets and entries, the number of distinct values of the text columns, the rate of entries
+ * containing an error and the number of blank rows and columns trailing the data of every sheet can be configured.
+ * All values are drawn from a random generator using the provided seed, so the same settings always
+ * result in the same logbook.
+ *
+ * Logbooks are written as ODS file or as one CSV file per sheet. Rows are written as they are generated,
+ * so the size of a logbook is not limited by the available memory.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LKTLogGenerator {
+    /**
+     * Number of columns of the experiment entries.
+     */
+    private static final int COLUMNS = LKTLogParser.EntryFieldRange.values().length;
+    /**
+     * Header line of the experiment entries, see {@link LKTLogParser.EntryFieldRange}.
+     */
+    private static final String[] HEADER = {
+        LKTLogParser.FIRST_HEADER_ENTRY, "Date", "Paradigm", "Paradigm specifics", "On diet", "Initial weight",
+        "Weight", "Comment experiment", "Comment animal", "Feed", "Project", "Experiment", "Experimenter",
+    };
+    /**
+     * Labels of the animal data, see {@link LKTLogParser.AnFieldRange}.
+     */
+    private static final String[] ANIMAL_LABELS = {
+        "Animal ID", "Sex", "Date of birth", "Date of withdrawal", "Permit number", "Species", "Scientific name",
+    };
+    /**
+     * First names used for the experimenters.
+     */
+    private static final String[] FIRST_NAMES = {"Anna", "Ben", "Clara", "David", "Eva", "Felix", "Greta"};
+    /**
+     * Last names used for the experimenters.
+     */
+    private static final String[] LAST_NAMES = {"Fischer", "Huber", "Koch", "Meyer", "Schmidt", "Wagner"};
+    /**
+     * Date of the first experiment of the first sheet.
+     */
+    private static final LocalDateTime START_DATE = LocalDateTime.of(2014, 1, 6, 8, 0);
+    /**
+     * Formatter of the dates of the animal data.
+     */
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern(LKTLogParserSheet.SUPPORTED_DATE_PATTERN);
+    /**
+     * Formatter of the dates of the experiment entries.
+     */
+    private static final DateTimeFormatter DATE_TIME_FORMAT =
+            DateTimeFormatter.ofPattern(LKTLogParserEntry.SUPPORTED_DATE_TIME_PATTERN);
+
+    /**
+     * Seed of the random generator.
+     */
+    private final long seed;
+    /**
+     * Number of animal sheets.
+     */
+    private int sheets = 10;
+    /**
+     * Number of experiment entries per animal sheet.
+     */
+    private int rows = 100;
+    /**
+     * Number of distinct values of the text columns.
+     */
+    private int cardinality = 10;
+    /**
+     * Probability of a sheet or an entry to contain an error.
+     */
+    private double errorRate;
+    /**
+     * Number of blank rows following the experiment entries of every sheet.
+     */
+    private int trailingBlankRows = 1;
+    /**
+     * Number of blank columns following the data of every row.
+     */
+    private int trailingBlankColumns;
+
+    /**
+     * Constructor.
+     * @param randomSeed Seed of the random generator.
+     */
+    public LKTLogGenerator(final long randomSeed) {
+        this.seed = randomSeed;
+    }
+
+    /**
+     * Sets the number of animal sheets, default is 10.
+     * @param sheetCount Number of animal sheets.
+     */
+    public void setSheets(final int sheetCount) {
+        this.sheets = sheetCount;
+    }
+
+    /**
+     * Sets the number of experiment entries per animal sheet, default is 100.
+     * @param rowCount Number of experiment entries.
+     */
+    public void setRows(final int rowCount) {
+        this.rows = rowCount;
+    }
+
+    /**
+     * Sets the number of distinct values of the text columns e.g. projects, experiments
+     * or experimenters, default is 10.
+     * @param distinctValues Number of distinct values.
+     */
+    public void setCardinality(final int distinctValues) {
+        this.cardinality = distinctValues;
+    }
+
+    /**
+     * Sets the probability of an animal sheet or an experiment entry to contain an error
+     * the {@link LKTLogParser} reports as parser error, default is 0.
+     * @param rate Probability between 0 and 1.
+     */
+    public void setErrorRate(final double rate) {
+        this.errorRate = rate;
+    }
+
+    /**
+     * Sets the number of blank rows following the experiment entries of every sheet, default is 1.
+     * Spreadsheet applications usually store a large number of trailing blank rows.
+     * Note that the {@link LKTLogParser} does not parse the last row of a sheet.
+     * @param blankRows Number of blank rows.
+     */
+    public void setTrailingBlankRows(final int blankRows) {
+        this.trailingBlankRows = blankRows;
+    }
+
+    /**
+     * Sets the number of blank columns following the data of every row, default is 0.
+     * @param blankColumns Number of blank columns.
+     */
+    public void setTrailingBlankColumns(final int blankColumns) {
+        this.trailingBlankColumns = blankColumns;
+    }
+
+    /**
+     * Returns the name of an animal sheet.
+     * @param sheet Index of the sheet.
+     * @return See description.
+     */
+    public static String sheetName(final int sheet) {
+        return String.join("", "Animal_", String.valueOf(sheet + 1));
+    }
+
+    /**
+     * Returns the name of the CSV file of an animal sheet, see {@link #writeCSV(String)}.
+     * @param baseName Path and base name of the CSV files.
+     * @param sheet Index of the sheet.
+     * @return See description.
+     */
+    public static String csvFileName(final String baseName, final int sheet) {
+        return String.join("", baseName, "_", LKTLogGenerator.sheetName(sheet), ".csv");
+    }
+
+    /**
+     * Writes the logbook to an ODS file. Existing files are overwritten.
+     * @param fileName Path and name of the ODS file.
+     * @return Number of sheets and entries containing an error.
+     * @throws IOException
+     */
+    public long writeODS(final String fileName) throws IOException {
+        try (FileOutput fo = FileOutput.open(fileName)) {
+            final long errors = this.writeODS(fo.getStream());
+            fo.commit();
+            return errors;
+        }
+    }
+
+    /**
+     * Writes the logbook in ODS format to an output stream.
+     * @param out Output stream, it is not closed by this method.
+     * @return Number of sheets and entries containing an error.
+     * @throws IOException
+     */
+    public long writeODS(final OutputStream out) throws IOException {
+        final LKTLogOdsWriter writer = new LKTLogOdsWriter(out, this.columnCount());
+        final long errors = this.generate(writer);
+        writer.finish();
+        return errors;
+    }
+
+    /**
+     * Writes the logbook to one CSV file per animal sheet, see {@link #csvFileName(String, int)}.
+     * Values are separated by comma, every row of a sheet results in one line.
+     * Existing files are overwritten.
+     * @param baseName Path and base name of the CSV files.
+     * @return Number of sheets and entries containing an error.
+     * @throws IOException
+     */
+    public long writeCSV(final String baseName) throws IOException {
+        try (LKTLogCsvWriter writer = new LKTLogCsvWriter(baseName, this.columnCount())) {
+            return this.generate(writer);
+        }
+    }
+
+    /**
+     * Generates all animal sheets and sends their rows to the provided sink.
+     * @param sink Sink writing the rows.
+     * @return Number of sheets and entries containing an error.
+     * @throws IOException
+     */
+    private long generate(final RowSink sink) throws IOException {
+        final Random random = new Random(this.seed);
+        long errors = 0;
+
+        for (int s = 0; s < this.sheets; s = s + 1) {
+            sink.startSheet(LKTLogGenerator.sheetName(s));
+            errors = errors + this.writeAnimalData(sink, random, s);
+
+            final Cell[] header = new Cell[LKTLogGenerator.COLUMNS];
+            for (int i = 0; i < header.length; i = i + 1) {
+                header[i] = Cell.text(LKTLogGenerator.HEADER[i]);
+            }
+            sink.row(header);
+
+            LocalDateTime date = LKTLogGenerator.START_DATE.plusDays(s);
+            Cell[] previous = null;
+            for (int r = 0; r < this.rows; r = r + 1) {
+                date = date.plusMinutes(1 + random.nextInt(240));
+                final Cell[] entry = this.entry(random, r, date);
+                if (random.nextDouble() < this.errorRate) {
+                    LKTLogGenerator.injectEntryError(random, entry, previous);
+                    errors = errors + 1;
+                }
+                sink.row(entry);
+                previous = entry;
+            }
+            sink.blankRows(this.trailingBlankRows);
+            sink.endSheet();
+        }
+        return errors;
+    }
+
+    /**
+     * Writes the rows containing the animal data of a sheet up to the header line of the experiment entries.
+     * @param sink Sink writing the rows.
+     * @param random Random generator.
+     * @param sheet Index of the sheet.
+     * @return 1 if an error has been injected, 0 if not.
+     * @throws IOException
+     */
+    private int writeAnimalData(final RowSink sink, final Random random, final int sheet) throws IOException {
+        final LocalDate birth = LKTLogGenerator.START_DATE.toLocalDate().minusDays(60 + random.nextInt(300));
+        final LocalDate withdrawal = LKTLogGenerator.START_DATE.toLocalDate().plusDays(365 + random.nextInt(365));
+        final Cell[] values = {
+            Cell.text(String.join("", "ID", String.format("%06d", sheet + 1))),
+            Cell.text(random.nextBoolean() ? "m" : "f"),
+            Cell.date(birth.format(LKTLogGenerator.DATE_FORMAT), birth.toString()),
+            Cell.date(withdrawal.format(LKTLogGenerator.DATE_FORMAT), withdrawal.toString()),
+            Cell.text(String.join("", "55.2-1-54-2531-", String.valueOf(random.nextInt(this.cardinality)), "-16")),
+            Cell.text("Mouse"),
+            Cell.text("Mus musculus"),
+        };
+
+        int error = 0;
+        if (random.nextDouble() < this.errorRate) {
+            error = 1;
+            if (random.nextBoolean()) {
+                values[0] = Cell.EMPTY;
+            } else {
+                values[1] = Cell.text("x");
+            }
+        }
+
+        final LKTLogParser.AnFieldRange[] fields = LKTLogParser.AnFieldRange.values();
+        int line = 1;
+        for (int i = 0; i < fields.length; i = i + 1) {
+            final String field = fields[i].getField();
+            final int fieldLine = Integer.parseInt(field.substring(1));
+            final int fieldColumn = LKTLogGenerator.columnIndex(field);
+            sink.blankRows(fieldLine - line);
+
+            final Cell[] row = new Cell[fieldColumn + 1];
+            Arrays.fill(row, Cell.EMPTY);
+            row[fieldColumn - 1] = Cell.text(LKTLogGenerator.ANIMAL_LABELS[i]);
+            row[fieldColumn] = values[i];
+            sink.row(row);
+            line = fieldLine + 1;
+        }
+        sink.blankRows(LKTLogParser.SHEET_HEADER_LINE - line);
+        return error;
+    }
+
+    /**
+     * Creates a valid experiment entry.
+     * @param random Random generator.
+     * @param index Index of the entry.
+     * @param date Date of the experiment.
+     * @return Cells of the entry in the order of {@link LKTLogParser.EntryFieldRange}.
+     */
+    private Cell[] entry(final Random random, final int index, final LocalDateTime date) {
+        final int experimenter = random.nextInt(this.cardinality);
+        final float weight = 18 + random.nextInt(120) / 10f;
+        final Cell[] entry = new Cell[LKTLogGenerator.COLUMNS];
+        Arrays.fill(entry, Cell.EMPTY);
+
+        entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.DATEEXPERIMENT)] =
+                Cell.date(date.format(LKTLogGenerator.DATE_TIME_FORMAT), date.toString());
+        entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.PARADIGM)] =
+                Cell.text(this.value(random, "Paradigm "));
+        entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.WEIGHT)] =
+                Cell.number(String.valueOf(weight).replace('.', ','), String.valueOf(weight));
+        entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.PROJECT)] =
+                Cell.text(this.value(random, "Project "));
+        entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.EXPERIMENT)] =
+                Cell.text(this.value(random, "Experiment "));
+        entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.EXPERIMENTER)] =
+                Cell.text(String.join(" ",
+                        LKTLogGenerator.FIRST_NAMES[experimenter % LKTLogGenerator.FIRST_NAMES.length],
+                        LKTLogGenerator.LAST_NAMES[experimenter % LKTLogGenerator.LAST_NAMES.length],
+                        String.valueOf(experimenter)));
+
+        if (random.nextInt(4) == 0) {
+            entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.PARADIGMSPEC)] =
+                    Cell.text(this.value(random, "Specifics "));
+        }
+        if (random.nextInt(3) == 0) {
+            entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.ISONDIET)] = Cell.text("y");
+        }
+        if (index == 0) {
+            entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.ISINITIALWEIGHT)] = Cell.text("y");
+        }
+        if (random.nextInt(5) == 0) {
+            entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.COMMENTEXPERIMENT)] =
+                    Cell.text(this.value(random, "Experiment went as planned, note "));
+        }
+        if (random.nextInt(5) == 0) {
+            entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.COMMENTANIMAL)] =
+                    Cell.text(this.value(random, "Animal is healthy, note "));
+        }
+        if (random.nextInt(2) == 0) {
+            entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.FEED)] =
+                    Cell.text(this.value(random, "Feed "));
+        }
+        return entry;
+    }
+
+    /**
+     * Replaces values of a valid experiment entry to create one of the following parser errors:
+     * invalid date, invalid weight, missing project or duplicate entry.
+     * @param random Random generator.
+     * @param entry Experiment entry.
+     * @param previous Previous experiment entry, null if there is none.
+     */
+    private static void injectEntryError(final Random random, final Cell[] entry, final Cell[] previous) {
+        final int type = random.nextInt(4);
+        if (type == 0) {
+            entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.DATEEXPERIMENT)] = Cell.text("31.02.2015 25:61");
+        } else if (type == 1 || previous == null) {
+            entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.WEIGHT)] = Cell.text("approx. 20g");
+        } else if (type == 2) {
+            entry[LKTLogGenerator.column(LKTLogParser.EntryFieldRange.PROJECT)] = Cell.EMPTY;
+        } else {
+            final LKTLogParser.EntryFieldRange[] keys = {
+                LKTLogParser.EntryFieldRange.DATEEXPERIMENT, LKTLogParser.EntryFieldRange.PARADIGM,
+                LKTLogParser.EntryFieldRange.EXPERIMENT, LKTLogParser.EntryFieldRange.EXPERIMENTER,
+                LKTLogParser.EntryFieldRange.PROJECT,
+            };
+            for (final LKTLogParser.EntryFieldRange key : keys) {
+                entry[LKTLogGenerator.column(key)] = previous[LKTLogGenerator.column(key)];
+            }
+        }
+    }
+
+    /**
+     * Returns one of the distinct values of a text column.
+     * @param random Random generator.
+     * @param prefix Prefix of the value.
+     * @return See description.
+     */
+    private String value(final Random random, final String prefix) {
+        return String.join("", prefix, String.valueOf(random.nextInt(this.cardinality)));
+    }
+
+    /**
+     * Returns the zero based index of the column of an experiment entry field.
+     * @param field Experiment entry field.
+     * @return See description.
+     */
+    private static int column(final LKTLogParser.EntryFieldRange field) {
+        return LKTLogGenerator.columnIndex(field.getColumn());
+    }
+
+    /**
+     * Returns the zero based column index of a single letter ODS column or field e.g. "C" or "C2".
+     * @param field ODS column or field.
+     * @return See description.
+     */
+    private static int columnIndex(final String field) {
+        return field.charAt(0) - 'A';
+    }
+
+    /**
+     * Returns the number of columns of every row including the trailing blank columns.
+     * @return See description.
+     */
+    private int columnCount() {
+        return LKTLogGenerator.COLUMNS + this.trailingBlankColumns;
+    }
+
+    /**
+     * Single cell of a generated sheet.
+     */
+    static final class Cell {
+        /**
+         * Empty cell.
+         */
+        private static final Cell EMPTY = new Cell(null, "", null);
+        /**
+         * ODS value type of the cell, null for text cells.
+         */
+        private final String type;
+        /**
+         * Displayed text of the cell.
+         */
+        private final String text;
+        /**
+         * ODS value of the cell, null for text cells.
+         */
+        private final String value;
+
+        /**
+         * Constructor.
+         * @param valueType ODS value type of the cell, null for text cells.
+         * @param displayText Displayed text of the cell.
+         * @param odsValue ODS value of the cell, null for text cells.
+         */
+        private Cell(final String valueType, final String displayText, final String odsValue) {
+            this.type = valueType;
+            this.text = displayText;
+            this.value = odsValue;
+        }
+
+        /**
+         * Returns the ODS value type of the cell.
+         * @return See description, null for text cells.
+         */
+        String getType() {
+            return this.type;
+        }
+
+        /**
+         * Returns the displayed text of the cell.
+         * @return See description, empty for blank cells.
+         */
+        String getText() {
+            return this.text;
+        }
+
+        /**
+         * Returns the ODS value of the cell.
+         * @return See description, null for text cells.
+         */
+        String getValue() {
+            return this.value;
+        }
+
+        /**
+         * Creates a text cell.
+         * @param text Text of the cell.
+         * @return See description.
+         */
+        private static Cell text(final String text) {
+            return new Cell(null, text, null);
+        }
+
+        /**
+         * Creates a date cell.
+         * @param text Displayed date.
+         * @param isoDate ISO representation of the date.
+         * @return See description.
+         */
+        private static Cell date(final String text, final String isoDate) {
+            return new Cell("date", text, isoDate);
+        }
+
+        /**
+         * Creates a number cell.
+         * @param text Displayed number.
+         * @param number Plain representation of the number.
+         * @return See description.
+         */
+        private static Cell number(final String text, final String number) {
+            return new Cell("float", text, number);
+        }
+    }
+
+    /**
+     * Receives the rows of all generated sheets.
+     */
+    interface RowSink {
+        /**
+         * Starts a new sheet.
+         * @param name Name of the sheet.
+         * @throws IOException
+         */
+        void startSheet(String name) throws IOException;
+
+        /**
+         * Writes a row of the current sheet.
+         * @param cells Cells of the row.
+         * @throws IOException
+         */
+        void row(Cell[] cells) throws IOException;
+
+        /**
+         * Writes blank rows to the current sheet.
+         * @param count Number of blank rows, nothing is written if 0.
+         * @throws IOException
+         */
+        void blankRows(int count) throws IOException;
+
+        /**
+         * Ends the current sheet.
+         * @throws IOException
+         */
+        void endSheet() throws IOException;
+    }
+
+}
@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes the sheets generated by the {@link LKTLogGenerator} to an ODS file. The content of the file
+ * is written while the rows are generated, consecutive blank rows and trailing blank cells
+ * are written as single repeated elements like spreadsheet applications do.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class LKTLogOdsWriter implements LKTLogGenerator.RowSink {
+    /**
+     * Mime type of ODS files.
+     */
+    private static final String MIME_TYPE = "application/vnd.oasis.opendocument.spreadsheet";
+    /**
+     * Namespace of the OpenDocument office elements.
+     */
+    private static final String NS_OFFICE = "urn:oasis:names:tc:opendocument:xmlns:office:1.0";
+    /**
+     * Namespace of the OpenDocument table elements.
+     */
+    private static final String NS_TABLE = "urn:oasis:names:tc:opendocument:xmlns:table:1.0";
+    /**
+     * Namespace of the OpenDocument text elements.
+     */
+    private static final String NS_TEXT = "urn:oasis:names:tc:opendocument:xmlns:text:1.0";
+    /**
+     * Namespace of the OpenDocument manifest elements.
+     */
+    private static final String NS_MANIFEST = "urn:oasis:names:tc:opendocument:xmlns:manifest:1.0";
+    /**
+     * Modification time of all entries of the zip archive, so that the same content results in the same file.
+     */
+    private static final long ENTRY_TIME = 1451606400000L;
+    /**
+     * Zip archive of the ODS file.
+     */
+    private final ZipOutputStream zip;
+    /**
+     * Buffer between the XML writer and the zip archive, the XML writer writes many small chunks.
+     */
+    private final BufferedOutputStream content;
+    /**
+     * XML writer of the ODS content.
+     */
+    private final XMLStreamWriter xml;
+    /**
+     * Number of columns of every row.
+     */
+    private final int columns;
+
+    /**
+     * Constructor. Writes the mime type, the manifest and the styles of the ODS file and starts the content.
+     * @param out Output stream, it is not closed by this class.
+     * @param columnCount Number of columns of every row.
+     * @throws IOException
+     */
+    LKTLogOdsWriter(final OutputStream out, final int columnCount) throws IOException {
+        this.columns = columnCount;
+        this.zip = new ZipOutputStream(out);
+        // Compression dominates the time required to write large files.
+        this.zip.setLevel(Deflater.BEST_SPEED);
+
+        final byte[] mimeType = LKTLogOdsWriter.MIME_TYPE.getBytes(StandardCharsets.US_ASCII);
+        final CRC32 crc = new CRC32();
+        crc.update(mimeType);
+        final ZipEntry mimeEntry = LKTLogOdsWriter.entry("mimetype");
+        mimeEntry.setMethod(ZipEntry.STORED);
+        mimeEntry.setSize(mimeType.length);
+        mimeEntry.setCrc(crc.getValue());
+        this.zip.putNextEntry(mimeEntry);
+        this.zip.write(mimeType);
+        this.zip.closeEntry();
+
+        this.zip.putNextEntry(LKTLogOdsWriter.entry("META-INF/manifest.xml"));
+        this.writeText(String.join("\n",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                String.join("", "<manifest:manifest xmlns:manifest=\"", LKTLogOdsWriter.NS_MANIFEST,
+                        "\" manifest:version=\"1.2\">"),
+                String.join("", " <manifest:file-entry manifest:full-path=\"/\" manifest:version=\"1.2\" ",
+                        "manifest:media-type=\"", LKTLogOdsWriter.MIME_TYPE, "\"/>"),
+                " <manifest:file-entry manifest:full-path=\"content.xml\" manifest:media-type=\"text/xml\"/>",
+                " <manifest:file-entry manifest:full-path=\"styles.xml\" manifest:media-type=\"text/xml\"/>",
+                "</manifest:manifest>", ""));
+        this.zip.closeEntry();
+
+        this.zip.putNextEntry(LKTLogOdsWriter.entry("styles.xml"));
+        this.writeText(String.join("",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n",
+                "<office:document-styles xmlns:office=\"", LKTLogOdsWriter.NS_OFFICE, "\" office:version=\"1.2\"/>\n"));
+        this.zip.closeEntry();
+
+        this.zip.putNextEntry(LKTLogOdsWriter.entry("content.xml"));
+        this.content = new BufferedOutputStream(this.zip, 1 << 16);
+        try {
+            this.xml = XMLOutputFactory.newInstance().createXMLStreamWriter(this.content, "UTF-8");
+            this.xml.writeStartDocument("UTF-8", "1.0");
+            this.xml.writeStartElement("office", "document-content", LKTLogOdsWriter.NS_OFFICE);
+            this.xml.writeNamespace("office", LKTLogOdsWriter.NS_OFFICE);
+            this.xml.writeNamespace("table", LKTLogOdsWriter.NS_TABLE);
+            this.xml.writeNamespace("text", LKTLogOdsWriter.NS_TEXT);
+            this.xml.writeAttribute("office", LKTLogOdsWriter.NS_OFFICE, "version", "1.2");
+            this.xml.writeStartElement("office", "body", LKTLogOdsWriter.NS_OFFICE);
+            this.xml.writeStartElement("office", "spreadsheet", LKTLogOdsWriter.NS_OFFICE);
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void startSheet(final String name) throws IOException {
+        try {
+            this.xml.writeStartElement("table", "table", LKTLogOdsWriter.NS_TABLE);
+            this.xml.writeAttribute("table", LKTLogOdsWriter.NS_TABLE, "name", name);
+            this.xml.writeEmptyElement("table", "table-column", LKTLogOdsWriter.NS_TABLE);
+            this.xml.writeAttribute("table", LKTLogOdsWriter.NS_TABLE, "number-columns-repeated",
+                    String.valueOf(this.columns));
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void row(final LKTLogGenerator.Cell[] cells) throws IOException {
+        try {
+            this.xml.writeStartElement("table", "table-row", LKTLogOdsWriter.NS_TABLE);
+            for (final LKTLogGenerator.Cell c : cells) {
+                if (c.getText().isEmpty()) {
+                    this.xml.writeEmptyElement("table", "table-cell", LKTLogOdsWriter.NS_TABLE);
+                    continue;
+                }
+                this.xml.writeStartElement("table", "table-cell", LKTLogOdsWriter.NS_TABLE);
+                if (c.getType() == null) {
+                    this.xml.writeAttribute("office", LKTLogOdsWriter.NS_OFFICE, "value-type", "string");
+                } else {
+                    this.xml.writeAttribute("office", LKTLogOdsWriter.NS_OFFICE, "value-type", c.getType());
+                    this.xml.writeAttribute("office", LKTLogOdsWriter.NS_OFFICE,
+                            "date".equals(c.getType()) ? "date-value" : "value", c.getValue());
+                }
+                this.xml.writeStartElement("text", "p", LKTLogOdsWriter.NS_TEXT);
+                this.xml.writeCharacters(c.getText());
+                this.xml.writeEndElement();
+                this.xml.writeEndElement();
+            }
+            this.blankCells(this.columns - cells.length);
+            this.xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void blankRows(final int count) throws IOException {
+        if (count < 1) {
+            return;
+        }
+        try {
+            this.xml.writeStartElement("table", "table-row", LKTLogOdsWriter.NS_TABLE);
+            if (count > 1) {
+                this.xml.writeAttribute("table", LKTLogOdsWriter.NS_TABLE, "number-rows-repeated",
+                        String.valueOf(count));
+            }
+            this.blankCells(this.columns);
+            this.xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void endSheet() throws IOException {
+        try {
+            this.xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ends the content and finishes the zip archive of the ODS file. The output stream is not closed.
+     * @throws IOException
+     */
+    void finish() throws IOException {
+        try {
+            this.xml.writeEndDocument();
+            this.xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        this.content.flush();
+        this.zip.closeEntry();
+        this.zip.finish();
+    }
+
+    /**
+     * Writes blank cells as a single repeated cell.
+     * @param count Number of blank cells, nothing is written if 0.
+     * @throws XMLStreamException
+     */
+    private void blankCells(final int count) throws XMLStreamException {
+        if (count < 1) {
+            return;
+        }
+        this.xml.writeEmptyElement("table", "table-cell", LKTLogOdsWriter.NS_TABLE);
+        if (count > 1) {
+            this.xml.writeAttribute("table", LKTLogOdsWriter.NS_TABLE, "number-columns-repeated",
+                    String.valueOf(count));
+        }
+    }
+
+    /**
+     * Creates an entry of the zip archive.
+     * @param name Name of the entry.
+     * @return See description.
+     */
+    private static ZipEntry entry(final String name) {
+        final ZipEntry e = new ZipEntry(name);
+        e.setTime(LKTLogOdsWriter.ENTRY_TIME);
+        return e;
+    }
+
+    /**
+     * Writes text to the current entry of the zip archive.
+     * @param text UTF-8 text.
+     * @throws IOException
+     */
+    private void writeText(final String text) throws IOException {
+        final Writer w = new OutputStreamWriter(this.zip, StandardCharsets.UTF_8);
+        w.write(text);
+        w.flush();
+    }
+
+}
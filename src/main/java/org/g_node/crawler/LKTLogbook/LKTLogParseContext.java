@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.util.ArrayList;
+import org.g_node.micro.commons.RunMetrics;
+
+/**
+ * Holds the state of a single parse of an ODS input file by the {@link LKTLogParser}. A new context
+ * is created for every parsed file, so that a single parser instance can be used for
+ * any number of subsequent or concurrent parses.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LKTLogParseContext {
+    /**
+     * Path and name of the parsed ODS file.
+     */
+    private final String inputFile;
+    /**
+     * Cache of already parsed sheets, null if no cache should be used.
+     */
+    private final LKTLogSheetCache sheetCache;
+    /**
+     * ArrayList containing all messages that occurred while parsing the input file,
+     * null if the messages are only written to the error report.
+     * All parser errors connected to missing values or incorrect value formats should
+     * be collected and written to a logfile, so that users can correct these
+     * mistakes ideally all at once before running the crawler again.
+     */
+    private final ArrayList<String> parserErrorMessages;
+    /**
+     * Report receiving all parser errors, null if the errors are only collected in memory.
+     */
+    private final LKTLogErrorReport errorReport;
+    /**
+     * Number of parser errors that occurred while parsing the input file.
+     */
+    private long parserErrorCount;
+    /**
+     * Metrics of the current run.
+     */
+    private final RunMetrics metrics;
+
+    /**
+     * Constructor.
+     * @param file Path and name of the parsed ODS file.
+     * @param cache Cache of already parsed sheets, null if no cache should be used.
+     */
+    public LKTLogParseContext(final String file, final LKTLogSheetCache cache) {
+        this(file, cache, new ArrayList<>(0));
+    }
+
+    /**
+     * Constructor.
+     * @param file Path and name of the parsed ODS file.
+     * @param cache Cache of already parsed sheets, null if no cache should be used.
+     * @param errorMessages ArrayList collecting all parser error messages.
+     */
+    public LKTLogParseContext(final String file, final LKTLogSheetCache cache,
+                              final ArrayList<String> errorMessages) {
+        this(file, cache, errorMessages, RunMetrics.DISABLED);
+    }
+
+    /**
+     * Constructor.
+     * @param file Path and name of the parsed ODS file.
+     * @param cache Cache of already parsed sheets, null if no cache should be used.
+     * @param errorMessages ArrayList collecting all parser error messages.
+     * @param runMetrics Metrics of the current run, see {@link RunMetrics}.
+     */
+    public LKTLogParseContext(final String file, final LKTLogSheetCache cache,
+                              final ArrayList<String> errorMessages, final RunMetrics runMetrics) {
+        this(file, cache, errorMessages, null, runMetrics);
+    }
+
+    /**
+     * Constructor. Parser errors are only written to the provided error report, they are not kept in memory.
+     * @param file Path and name of the parsed ODS file.
+     * @param cache Cache of already parsed sheets, null if no cache should be used.
+     * @param report Report receiving all parser errors, see {@link LKTLogErrorReport}.
+     * @param runMetrics Metrics of the current run, see {@link RunMetrics}.
+     */
+    public LKTLogParseContext(final String file, final LKTLogSheetCache cache,
+                              final LKTLogErrorReport report, final RunMetrics runMetrics) {
+        this(file, cache, null, report, runMetrics);
+    }
+
+    /**
+     * Constructor.
+     * @param file Path and name of the parsed ODS file.
+     * @param cache Cache of already parsed sheets, null if no cache should be used.
+     * @param errorMessages ArrayList collecting all parser error messages, can be null.
+     * @param report Report receiving all parser errors, can be null.
+     * @param runMetrics Metrics of the current run, see {@link RunMetrics}.
+     */
+    private LKTLogParseContext(final String file, final LKTLogSheetCache cache, final ArrayList<String> errorMessages,
+                               final LKTLogErrorReport report, final RunMetrics runMetrics) {
+        this.inputFile = file;
+        this.sheetCache = cache;
+        this.parserErrorMessages = errorMessages;
+        this.errorReport = report;
+        this.metrics = runMetrics;
+    }
+
+    /**
+     * Returns the path and name of the parsed ODS file.
+     * @return See description.
+     */
+    public String getInputFile() {
+        return this.inputFile;
+    }
+
+    /**
+     * Returns the cache of already parsed sheets.
+     * @return See description, null if no cache should be used.
+     */
+    public LKTLogSheetCache getSheetCache() {
+        return this.sheetCache;
+    }
+
+    /**
+     * Returns the metrics of the current run.
+     * @return See description.
+     */
+    public RunMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Returns all messages that occurred while parsing the input file.
+     * @return See description, empty if the messages are only written to an error report.
+     */
+    public ArrayList<String> getParserErrorMessages() {
+        if (this.parserErrorMessages == null) {
+            return new ArrayList<>(0);
+        }
+        return this.parserErrorMessages;
+    }
+
+    /**
+     * Adds a parser error.
+     * @param sheet Name of the sheet containing the error, null if the error is not related to a single sheet.
+     * @param row Row of the sheet containing the error, -1 if the error is not related to a single row.
+     * @param type Type of the error.
+     * @param message Parser error message.
+     */
+    public void addParserError(final String sheet, final long row, final LKTLogErrorReport.ErrorType type,
+                               final String message) {
+        this.parserErrorCount = this.parserErrorCount + 1;
+        if (this.parserErrorMessages != null) {
+            this.parserErrorMessages.add(message);
+        }
+        if (this.errorReport != null) {
+            this.errorReport.add(sheet, row, type, message);
+        }
+    }
+
+    /**
+     * Returns the number of parser errors that occurred while parsing the input file.
+     * @return See description.
+     */
+    public long getParserErrorCount() {
+        return this.parserErrorCount;
+    }
+
+    /**
+     * Checks if any parser errors occurred.
+     * @return True if parser errors occurred.
+     */
+    public boolean hasParserErrors() {
+        return this.parserErrorCount > 0;
+    }
+
+}
@@ -16,11 +16,17 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.log4j.Logger;
+import org.g_node.micro.commons.CrawlerEvent;
+import org.g_node.micro.commons.CrawlerEvents;
+import org.g_node.micro.commons.LazyLog;
+import org.g_node.micro.commons.RunMetrics;
 import org.jopendocument.dom.spreadsheet.Sheet;
 import org.jopendocument.dom.spreadsheet.SpreadSheet;
 
 /**
  * Parser for the main ODS metadata file used in the lab of Kay Thurley.
+ * The parser does not hold any state, all state of a single parse is kept in a
+ * {@link LKTLogParseContext}, so one instance can be used for concurrent parses.
  *
  * @author Michael Sonntag (sonntag@bio.lmu.de)
  */
@@ -33,7 +39,7 @@ public final class LKTLogParser {
      * Line within the ODS file where the header of the
      * experiment description section is found.
      */
-    private static final Integer SHEET_HEADER_LINE = 23;
+    static final Integer SHEET_HEADER_LINE = 23;
     /**
      * String value of the first field of the header
      * of the experiment description section. This string is
@@ -41,20 +47,12 @@ public final class LKTLogParser {
      * the actual data entry lines are properly aligned for
      * the next parsing steps.
      */
-    private static final String FIRST_HEADER_ENTRY = "ImportID";
-    /**
-     * Reference of the parserErrorMessages in the corresponding controller class.
-     * ArrayList containing all messages that occurred while parsing the input file(s).
-     * All parser errors connected to missing values or incorrect value formats should
-     * be collected and written to a logfile, so that users can correct these
-     * mistakes ideally all at once before running the crawler again.
-     */
-    private ArrayList<String> parserErrorMessages;
+    static final String FIRST_HEADER_ENTRY = "ImportID";
     /**
      * Enumeration required to access fields in the ODS file
      * associated with basic information about the animal.
      */
-    private enum AnFieldRange {
+    enum AnFieldRange {
         /**
          * Animal SubjectID.
          */
@@ -98,7 +96,7 @@ public final class LKTLogParser {
          * Returns the ODS field associated with the current enumeration.
          * @return See description.
          */
-        private String getField() {
+        String getField() {
             return this.field;
         }
     }
@@ -107,7 +105,7 @@ public final class LKTLogParser {
      * Enumeration required to access columns in the ODS file
      * associated with information about experiments and log entries.
      */
-    private enum EntryFieldRange {
+    enum EntryFieldRange {
         /**
          * ID whether the entry has already been imported or not.
          * Should not be used any more.
@@ -177,7 +175,7 @@ public final class LKTLogParser {
          * Returns the ODS column associated with the current enumeration.
          * @return See description.
          */
-        private String getColumn() {
+        String getColumn() {
             return this.column;
         }
     }
@@ -185,98 +183,165 @@ public final class LKTLogParser {
      * Method for parsing the contents of a provided ODS input file.
      * This method will create a backup file of the original ODS file.
      * @param inputFile ODS file specific to Kay Thurleys usecase.
-     * @param parserErrMsg ArrayList collecting all parserErrorMessages in the corresponding
-     *                     {@link LKTLogCliToolController}.
+     * @param parserErrMsg ArrayList collecting all parser error messages of this parse.
      * @return Array list containing all data from all parsed ODS sheets.
      */
     public ArrayList<LKTLogParserSheet> parseFile(final String inputFile,
                                                         final ArrayList<String> parserErrMsg) {
+        return this.parseFile(inputFile, parserErrMsg, null);
+    }
 
-        this.parserErrorMessages = parserErrMsg;
+    /**
+     * Method for parsing the contents of a provided ODS input file.
+     * Sheets that have not changed since they were last parsed successfully
+     * are loaded from the provided parse cache instead of being parsed again.
+     * @param inputFile ODS file specific to Kay Thurleys usecase.
+     * @param parserErrMsg ArrayList collecting all parser error messages of this parse.
+     * @param sheetCache Cache of already parsed sheets, null if no cache should be used.
+     * @return Array list containing all data from all parsed ODS sheets.
+     */
+    public ArrayList<LKTLogParserSheet> parseFile(final String inputFile,
+                                                  final ArrayList<String> parserErrMsg,
+                                                  final LKTLogSheetCache sheetCache) {
+        return this.parseFile(new LKTLogParseContext(inputFile, sheetCache, parserErrMsg));
+    }
+
+    /**
+     * Method for parsing the contents of a provided ODS input file.
+     * Sheets that have not changed since they were last parsed successfully
+     * are loaded from the parse cache of the context instead of being parsed again.
+     * All parser errors are added to the context. The phases "load", "parse" and "hash" as well as the
+     * number of parsed sheets, sheets loaded from the parse cache, rows and parser errors are added
+     * to the metrics of the context.
+     * @param ctx Context of this parse containing the input file and the parse cache.
+     * @return Array list containing all data from all parsed ODS sheets.
+     */
+    @SuppressWarnings("try")
+    public ArrayList<LKTLogParserSheet> parseFile(final LKTLogParseContext ctx) {
 
         ArrayList<LKTLogParserSheet> allSheets = new ArrayList<>(0);
 
         LKTLogParser.LOGGER.info("Starting to parse provided file...");
         try {
-            final File odsFile = new File(inputFile);
+            final File odsFile = new File(ctx.getInputFile());
 
             // TODO will raise a null pointer exception, if the file is not an actual ODS file.
-            LKTLogParser.LOGGER.info(
-                    String.join(
+            final SpreadSheet odsSpreadSheet;
+            try (RunMetrics.Phase p = ctx.getMetrics().startPhase("load")) {
+                odsSpreadSheet = SpreadSheet.createFromFile(odsFile);
+            }
+            LazyLog.info(LKTLogParser.LOGGER,
+                    () -> String.join(
                             "", "File has # sheets: ",
-                            String.valueOf(SpreadSheet.createFromFile(odsFile).getSheetCount()))
+                            String.valueOf(odsSpreadSheet.getSheetCount()))
             );
 
-            allSheets = this.parseSheets(odsFile);
+            try (RunMetrics.Phase p = ctx.getMetrics().startPhase("parse")) {
+                allSheets = this.parseSheets(odsSpreadSheet, ctx);
+            }
             allSheets.forEach(
-                    s -> LKTLogParser.LOGGER.info(
-                            String.join(
+                    s -> LazyLog.info(LKTLogParser.LOGGER,
+                            () -> String.join(
                                     "", "CurrSheet: ", s.getSubjectID(),
                                     ", number of entries: ", String.valueOf(s.getEntries().size())
                             )
                     )
             );
 
-            if (this.parserErrorMessages.size() > 0) {
-                this.parserErrorMessages.add(
-                        "\n\tThere are parser errors present. Please resolve them and run the program again.");
-            }
-
         } catch (final IOException exp) {
-            this.parserErrorMessages.add(String.join("", "[Error] reading from input file: ", exp.getMessage()));
+            ctx.addParserError(null, -1, LKTLogErrorReport.ErrorType.READ_ERROR,
+                    String.join("", "[Error] reading from input file: ", exp.getMessage()));
             exp.printStackTrace();
         }
 
+        ctx.getMetrics().count("parserErrors", ctx.getParserErrorCount());
         return allSheets;
     }
 
     /**
      * Method parsing all sheets of the current ODS file.
-     * If parsing errors occur,  the corresponding message will be added to {@link #parserErrorMessages}.
+     * If parsing errors occur,  the corresponding message will be added to the context.
      * Parsing will continue to collect further possible parser errors.
-     * @param odsFile Input file.
+     * Sheets found in the parse cache are not parsed again, sheets parsed without errors
+     * are added to the parse cache.
+     * @param odsSpreadSheet Input spreadsheet.
+     * @param ctx Context of the current parse.
      * @return ArrayList containing parsed {@link LKTLogParserSheet}.
      */
-    private ArrayList<LKTLogParserSheet> parseSheets(final File odsFile) {
+    @SuppressWarnings("try")
+    private ArrayList<LKTLogParserSheet> parseSheets(final SpreadSheet odsSpreadSheet,
+                                                     final LKTLogParseContext ctx) {
 
+        final LKTLogSheetCache sheetCache = ctx.getSheetCache();
         final ArrayList<LKTLogParserSheet> allSheets = new ArrayList<>(0);
         Sheet currSheet;
 
         try {
-            for (int i = 0; i < SpreadSheet.createFromFile(odsFile).getSheetCount(); i = i + 1) {
+            for (int i = 0; i < odsSpreadSheet.getSheetCount(); i = i + 1) {
 
-                currSheet = SpreadSheet.createFromFile(odsFile).getSheet(i);
+                currSheet = odsSpreadSheet.getSheet(i);
                 final String sheetName = currSheet.getName();
 
-                if (currSheet.getRowCount() < LKTLogParser.SHEET_HEADER_LINE) {
-                    this.parserErrorMessages.add(String.join(
-                            "", "[Parser] sheet '", sheetName, "' does not contain valid data."
-                    ));
-                } else {
-
-                    LKTLogParserSheet currLKTLSheet = this.parseSheetVariables(currSheet);
-
-                    // Solution is not very robust, but coming up with a more robust solution would be wasted effort.
-                    final String checkHeaderCell = currSheet.getCellAt(
-                            String.join("", "A", String.valueOf(LKTLogParser.SHEET_HEADER_LINE))
-                    ).getTextValue();
+                ctx.getMetrics().count("sheets", 1);
+                String cacheKey = null;
+                if (sheetCache != null) {
+                    try (RunMetrics.Phase p = ctx.getMetrics().startPhase("hash");
+                         CrawlerEvent event = CrawlerEvents.hashSheet(sheetName)) {
+                        cacheKey = sheetCache.key(currSheet);
+                        event.rows(currSheet.getRowCount());
+                    }
+                    final LKTLogParserSheet cachedSheet = sheetCache.get(cacheKey);
+                    if (cachedSheet != null) {
+                        LazyLog.info(LKTLogParser.LOGGER,
+                                () -> String.join("", "Sheet '", sheetName, "' unchanged, using parse cache")
+                        );
+                        ctx.getMetrics().count("cachedSheets", 1);
+                        allSheets.add(cachedSheet);
+                        continue;
+                    }
+                }
 
-                    if (checkHeaderCell == null || !checkHeaderCell.equals(LKTLogParser.FIRST_HEADER_ENTRY)) {
-                        this.parserErrorMessages.add(String.join(
-                                "", "[Parser] sheet '", sheetName,
-                                "', HeaderEntry '", LKTLogParser.FIRST_HEADER_ENTRY,
-                                "' not found at required line ", EntryFieldRange.IMPORTID.getColumn(), ".",
-                                String.valueOf(LKTLogParser.SHEET_HEADER_LINE)
+                final long numErrors = ctx.getParserErrorCount();
+                try (CrawlerEvent event = CrawlerEvents.parseSheet(sheetName)) {
+                    if (currSheet.getRowCount() < LKTLogParser.SHEET_HEADER_LINE) {
+                        ctx.addParserError(sheetName, -1, LKTLogErrorReport.ErrorType.INVALID_SHEET, String.join(
+                                "", "[Parser] sheet '", sheetName, "' does not contain valid data."
                         ));
-
                     } else {
-                        currLKTLSheet = this.parseSheetEntries(currSheet, currLKTLSheet);
-                        allSheets.add(currLKTLSheet);
+
+                        LKTLogParserSheet currLKTLSheet = this.parseSheetVariables(currSheet, ctx);
+
+                        // Solution is not very robust, but coming up with a more robust solution
+                        // would be wasted effort.
+                        final String checkHeaderCell = currSheet.getCellAt(
+                                String.join("", "A", String.valueOf(LKTLogParser.SHEET_HEADER_LINE))
+                        ).getTextValue();
+
+                        if (checkHeaderCell == null || !checkHeaderCell.equals(LKTLogParser.FIRST_HEADER_ENTRY)) {
+                            ctx.addParserError(sheetName, LKTLogParser.SHEET_HEADER_LINE,
+                                    LKTLogErrorReport.ErrorType.MISSING_HEADER, String.join(
+                                            "", "[Parser] sheet '", sheetName,
+                                            "', HeaderEntry '", LKTLogParser.FIRST_HEADER_ENTRY,
+                                            "' not found at required line ", EntryFieldRange.IMPORTID.getColumn(), ".",
+                                            String.valueOf(LKTLogParser.SHEET_HEADER_LINE)
+                                    ));
+
+                        } else {
+                            currLKTLSheet = this.parseSheetEntries(currSheet, currLKTLSheet, ctx);
+                            ctx.getMetrics().count("rows", currLKTLSheet.getEntries().size());
+                            event.rows(currLKTLSheet.getEntries().size()).animal(currLKTLSheet.getSubjectID());
+                            allSheets.add(currLKTLSheet);
+
+                            if (sheetCache != null && ctx.getParserErrorCount() == numErrors) {
+                                sheetCache.put(cacheKey, currLKTLSheet);
+                            }
+                        }
                     }
                 }
             }
         } catch (final IOException exp) {
-            this.parserErrorMessages.add(String.join("", "[Error] reading from input file: ", exp.getMessage()));
+            ctx.addParserError(null, -1, LKTLogErrorReport.ErrorType.READ_ERROR,
+                    String.join("", "[Error] reading from input file: ", exp.getMessage()));
 
             exp.printStackTrace();
         }
@@ -286,9 +351,10 @@ public final class LKTLogParser {
     /**
      * Method for retrieving all sheet specific data from the current ODS sheet.
      * @param currSheet The current sheet from the ODS file.
+     * @param ctx Context of the current parse.
      * @return The current {@link LKTLogParserSheet} containing all parsed values.
      */
-    private LKTLogParserSheet parseSheetVariables(final Sheet currSheet) {
+    private LKTLogParserSheet parseSheetVariables(final Sheet currSheet, final LKTLogParseContext ctx) {
 
         final LKTLogParserSheet currLKTLSheet  = new LKTLogParserSheet();
         final String sheetName = currSheet.getName();
@@ -317,31 +383,36 @@ public final class LKTLogParser {
         parseSheetMessage = currLKTLSheet.isValidSheet();
         if (!parseSheetMessage.isEmpty()) {
             parseSheetMessage.forEach(
-                    m -> this.parserErrorMessages.add(String.join("", snMessage, m))
+                    m -> ctx.addParserError(sheetName, -1, LKTLogErrorReport.ErrorType.INVALID_ANIMAL,
+                            String.join("", snMessage, m))
             );
         }
         if (!checkDateBirth.isEmpty()) {
-            this.parserErrorMessages.add(String.join("", snMessage, checkDateBirth));
+            ctx.addParserError(sheetName, -1, LKTLogErrorReport.ErrorType.INVALID_DATE,
+                    String.join("", snMessage, checkDateBirth));
         }
         if (!checkDateWithdrawal.isEmpty()) {
-            this.parserErrorMessages.add(String.join("", snMessage, checkDateWithdrawal));
+            ctx.addParserError(sheetName, -1, LKTLogErrorReport.ErrorType.INVALID_DATE,
+                    String.join("", snMessage, checkDateWithdrawal));
         }
         return currLKTLSheet;
     }
 
     /**
      * Method for parsing the experiment entries of an animal sheet.
-     * If parsing errors occur, the corresponding message will be added to {@link #parserErrorMessages}.
+     * If parsing errors occur, the corresponding message will be added to the context.
      * Parsing will continue to collect further possible parser errors.
      * Use case note: Every entry row is checked for duplicate entries of the field combination
      * Experiment date, Experimenter, Experiment and Paradigm. If such a duplicate row is detected
      * a parser error will be created.
      * @param currFileSheet The current sheet of the parsed ODS file.
      * @param currLKTSheet The current {@link LKTLogParserSheet}.
+     * @param ctx Context of the current parse.
      * @return The current {@link LKTLogParserSheet} containing the parsed
      *  experiment entries.
      */
-    private LKTLogParserSheet parseSheetEntries(final Sheet currFileSheet, final LKTLogParserSheet currLKTSheet) {
+    private LKTLogParserSheet parseSheetEntries(final Sheet currFileSheet, final LKTLogParserSheet currLKTSheet,
+                                                final LKTLogParseContext ctx) {
 
         String parseEntryMessage;
 
@@ -350,7 +421,7 @@ public final class LKTLogParser {
 
         for (int i = LKTLogParser.SHEET_HEADER_LINE + 1; i < currFileSheet.getRowCount(); i = i + 1) {
 
-            final LKTLogParserEntry currEntry = this.parseSheetEntriesVariables(currFileSheet, String.valueOf(i));
+            final LKTLogParserEntry currEntry = this.parseSheetEntriesVariables(currFileSheet, i, ctx);
 
             final boolean checkEmptyReqField = !currEntry.getProject().isEmpty()
                     || !currEntry.getExperiment().isEmpty()
@@ -368,18 +439,20 @@ public final class LKTLogParser {
                         currEntry.getParadigm());
 
                 if (checkEntries.containsKey(checkIdentEntry)) {
-                    this.parserErrorMessages.add(String.join(
-                            "", "[Parser] sheet '", currFileSheet.getName(), "', rows ",
-                            String.valueOf(checkEntries.get(checkIdentEntry)), " and ", String.valueOf(i),
-                            " contain duplicate entries.",
-                            "\n\tThe fields 'Date', 'Experiment', 'Paradigm' and 'Experimenter' have to be unique."
-                    ));
+                    ctx.addParserError(currFileSheet.getName(), i, LKTLogErrorReport.ErrorType.DUPLICATE_ENTRY,
+                            String.join(
+                                    "", "[Parser] sheet '", currFileSheet.getName(), "', rows ",
+                                    String.valueOf(checkEntries.get(checkIdentEntry)), " and ", String.valueOf(i),
+                                    " contain duplicate entries.",
+                                    "\n\tThe fields 'Date', 'Experiment', 'Paradigm' and 'Experimenter' ",
+                                    "have to be unique."
+                            ));
                 } else {
                     checkEntries.put(checkIdentEntry, i);
                 }
 
             } else if (!currEntry.getIsEmptyLine() && checkEmptyReqField) {
-                this.parserErrorMessages.add(String.join(
+                ctx.addParserError(currFileSheet.getName(), i, LKTLogErrorReport.ErrorType.MISSING_VALUE, String.join(
                         "", "[Parser] sheet '", currFileSheet.getName(), "' row ",
                         String.valueOf(i), ", missing value: ", parseEntryMessage
                 ));
@@ -393,12 +466,15 @@ public final class LKTLogParser {
      * Method parsing all variables of a single entry of the current
      * ODS sheet.
      * @param currSheet The current ODS sheet.
-     * @param currLine Number of the current line in the current ODS sheet.
+     * @param row Number of the current line in the current ODS sheet.
+     * @param ctx Context of the current parse.
      * @return The {@link LKTLogParserEntry} containing the parsed values from
      *  the current single entry.
      */
-    private LKTLogParserEntry parseSheetEntriesVariables(final Sheet currSheet, final String currLine) {
+    private LKTLogParserEntry parseSheetEntriesVariables(final Sheet currSheet, final int row,
+                                                         final LKTLogParseContext ctx) {
 
+        final String currLine = String.valueOf(row);
         String checkExperimentDate;
 
         final LKTLogParserEntry currEntry = new LKTLogParserEntry();
@@ -417,7 +493,7 @@ public final class LKTLogParser {
                 String.join("", EntryFieldRange.DATEEXPERIMENT.getColumn(), currLine)).getTextValue()
         );
         if (!checkExperimentDate.isEmpty()) {
-            this.parserErrorMessages.add(String.join(
+            ctx.addParserError(currSheet.getName(), row, LKTLogErrorReport.ErrorType.INVALID_DATE, String.join(
                     "", "[Parser] sheet '", currSheet.getName(), "' row ",
                     currLine, "\n\t", checkExperimentDate
             ));
@@ -439,7 +515,7 @@ public final class LKTLogParser {
         final String currMsg = currEntry.setWeight(currSheet.getCellAt(
                 String.join("", EntryFieldRange.WEIGHT.getColumn(), currLine)).getTextValue());
         if (!"".equals(currMsg)) {
-            this.parserErrorMessages.add(String.join(
+            ctx.addParserError(currSheet.getName(), row, LKTLogErrorReport.ErrorType.INVALID_WEIGHT, String.join(
                     "", "[Parser] sheet '", currSheet.getName(),
                     "' row ", currLine, " ", currMsg
             ));
@@ -25,7 +25,7 @@ public final class LKTLogParserEntry {
      * Pattern that all DateTime values have to be formatted in
      * to be accepted by this parser.
      */
-    private static final String SUPPORTED_DATE_TIME_PATTERN = "dd.MM.yyyy HH:mm";
+    static final String SUPPORTED_DATE_TIME_PATTERN = "dd.MM.yyyy HH:mm";
     /**
      * Formatter used to test DateTime values
      * for the pattern {@link #SUPPORTED_DATE_TIME_PATTERN}.
@@ -212,6 +212,18 @@ public final class LKTLogParserEntry {
         return errMsg;
     }
 
+    /**
+     * Set the already validated date of the experiment.
+     * Used when restoring a previously parsed entry.
+     * @param expdt Date and time of the experiment.
+     */
+    void setExperimentDate(final LocalDateTime expdt) {
+        if (expdt != null) {
+            this.setIsEmptyLine(false);
+        }
+        this.experimentDate = expdt;
+    }
+
     /**
      * Return the name of the experimenter.
      * @return See description.
@@ -295,6 +307,15 @@ public final class LKTLogParserEntry {
         this.isOnDiet = isod != null && "y".equals(isod);
     }
 
+    /**
+     * Set if the animal is on diet at the current entry.
+     * Used when restoring a previously parsed entry.
+     * @param isod True if the animal is on diet.
+     */
+    void setIsOnDiet(final boolean isod) {
+        this.isOnDiet = isod;
+    }
+
     /**
      * Return a boolean value if the current entry contains the
      * initial weight for diet calculations.
@@ -312,6 +333,15 @@ public final class LKTLogParserEntry {
         this.isInitialWeight = isInWeight != null && "y".equals(isInWeight);
     }
 
+    /**
+     * Set if the current entry is the initial weight for diet calculations.
+     * Used when restoring a previously parsed entry.
+     * @param isInWeight True if the entry contains the initial weight.
+     */
+    void setIsInitialWeight(final boolean isInWeight) {
+        this.isInitialWeight = isInWeight;
+    }
+
     /**
      * Return the animal weight of the current entry.
      * @return See description.
@@ -343,6 +373,15 @@ public final class LKTLogParserEntry {
         return msg;
     }
 
+    /**
+     * Set the already validated animal weight for the current entry.
+     * Used when restoring a previously parsed entry.
+     * @param wght Animal weight, null if no weight was provided.
+     */
+    void setWeight(final Float wght) {
+        this.weight = wght;
+    }
+
     /**
      * Return boolean value if the current entry contains no values.
      * @return See description.
@@ -27,7 +27,7 @@ public final class LKTLogParserSheet {
      * Pattern that all Date values have to be formatted in
      * to be accepted by this parser.
      */
-    private static final String SUPPORTED_DATE_PATTERN = "dd.MM.yyyy";
+    static final String SUPPORTED_DATE_PATTERN = "dd.MM.yyyy";
     /**
      * Formatter used to test Date values
      * for the pattern {@link #SUPPORTED_DATE_PATTERN}.
@@ -141,6 +141,15 @@ public final class LKTLogParserSheet {
         return errMsg;
     }
 
+    /**
+     * Set the already validated date of birth of the animal of the current ODS sheet.
+     * Used when restoring a previously parsed sheet.
+     * @param dob Date of birth of the animal.
+     */
+    void setDateOfBirth(final LocalDate dob) {
+        this.dateOfBirth = dob;
+    }
+
     /**
      * Return the withdrawal date of the the animal of the current ODS sheet.
      * @return Animal withdrawal date in format {@link #SUPPORTED_DATE_PATTERN}.
@@ -173,6 +182,15 @@ public final class LKTLogParserSheet {
         return errMsg;
     }
 
+    /**
+     * Set the already validated withdrawal date of the animal of the current ODS sheet.
+     * Used when restoring a previously parsed sheet.
+     * @param dow Withdrawal date of the animal.
+     */
+    void setDateOfWithdrawal(final LocalDate dow) {
+        this.dateOfWithdrawal = dow;
+    }
+
     /**
      * Return the permit number of the animal of the current ODS sheet.
      * @return See description.
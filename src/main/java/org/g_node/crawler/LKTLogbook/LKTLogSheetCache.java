@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.FileCache;
+import org.jdom.output.XMLOutputter;
+import org.jopendocument.dom.spreadsheet.Sheet;
+
+/**
+ * Cache for already parsed and validated {@link LKTLogParserSheet}s. Sheets are identified
+ * by a hash of the raw XML of the corresponding ODS sheet, so a sheet is only parsed again, if
+ * its content has changed since the last run of the crawler. Cached sheets are stored
+ * using the {@link LKTLogBinaryFormat}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LKTLogSheetCache {
+    /**
+     * Default folder of the parse cache.
+     */
+    public static final Path DEFAULT_CACHE_DIR =
+            Paths.get(System.getProperty("user.home"), ".crawler-to-rdf", "cache", "lkt");
+    /**
+     * Default maximum size of the parse cache in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+    /**
+     * Version of the cached data. Has to be increased whenever the parser or the
+     * cache entry layout changes, so that previously cached sheets are no longer used.
+     */
+    private static final String CACHE_VERSION = "LKTLogSheetCache/2";
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(LKTLogSheetCache.class.getName());
+    /**
+     * Cache storing the binary sheet entries.
+     */
+    private final FileCache cache;
+
+    /**
+     * Constructor.
+     * @param dir Folder of the parse cache.
+     * @param maxBytes Maximum number of bytes the parse cache is allowed to use.
+     */
+    public LKTLogSheetCache(final Path dir, final long maxBytes) {
+        this.cache = new FileCache(dir, maxBytes);
+    }
+
+    /**
+     * Creates the cache key of an ODS sheet by hashing the raw XML of the sheet.
+     * @param sheet ODS sheet.
+     * @return Hexadecimal String of the SHA-1 hash of the sheet content.
+     * @throws IOException If the sheet could not be serialized.
+     */
+    public String key(final Sheet sheet) throws IOException {
+        final MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        md.update(LKTLogSheetCache.CACHE_VERSION.getBytes(StandardCharsets.UTF_8));
+
+        final OutputStream discard = new OutputStream() {
+            @Override
+            public void write(final int b) {
+            }
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+            }
+        };
+        try (DigestOutputStream dos = new DigestOutputStream(discard, md)) {
+            new XMLOutputter().output(sheet.getElement(), dos);
+        }
+
+        return Hex.encodeHexString(md.digest());
+    }
+
+    /**
+     * Fetch a previously parsed sheet from the cache.
+     * @param key Cache key of the sheet, see {@link #key(Sheet)}.
+     * @return Parsed sheet or null, if the sheet is not available from the cache.
+     */
+    public LKTLogParserSheet get(final String key) {
+        final byte[] content = this.cache.get(key);
+        if (content == null) {
+            return null;
+        }
+        try {
+            final List<LKTLogParserSheet> sheets = LKTLogBinaryFormat.read(new ByteArrayInputStream(content));
+            if (sheets.size() != 1) {
+                throw new IOException("Cache entry does not contain exactly one sheet.");
+            }
+            return sheets.get(0);
+        } catch (IOException e) {
+            LKTLogSheetCache.LOGGER.warn(String.join("", "Ignoring invalid parse cache entry ", key));
+            return null;
+        }
+    }
+
+    /**
+     * Add a parsed and validated sheet to the cache.
+     * @param key Cache key of the sheet, see {@link #key(Sheet)}.
+     * @param sheet Parsed and validated sheet.
+     */
+    public void put(final String key, final LKTLogParserSheet sheet) {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try {
+            LKTLogBinaryFormat.write(bos, Collections.singletonList(sheet));
+        } catch (IOException e) {
+            LKTLogSheetCache.LOGGER.warn(String.join("", "Could not cache sheet ", sheet.getSubjectID()));
+            return;
+        }
+        this.cache.put(key, bos.toByteArray());
+    }
+
+}
@@ -20,21 +20,38 @@ import com.hp.hpl.jena.rdf.model.Resource;
 import com.hp.hpl.jena.vocabulary.DCTerms;
 import com.hp.hpl.jena.vocabulary.RDF;
 import com.hp.hpl.jena.vocabulary.RDFS;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import org.apache.jena.riot.lang.StreamRDFCounting;
+import org.apache.jena.riot.system.StreamOps;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.log4j.Logger;
 import org.g_node.micro.commons.AppUtils;
+import org.g_node.micro.commons.CrawlerEvent;
+import org.g_node.micro.commons.CrawlerEvents;
+import org.g_node.micro.commons.FileOutput;
+import org.g_node.micro.commons.LazyLog;
 import org.g_node.micro.commons.RDFService;
 import org.g_node.micro.commons.RDFUtils;
+import org.g_node.micro.commons.RunMetrics;
 
 /**
  * Class converting parsed data to RDF.
  */
 public final class LKTLogToRDF {
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(LKTLogToRDF.class.getName());
     /**
      * Namespace used to identify RDF resources and properties specific for the current use case.
      */
@@ -55,18 +72,37 @@ public final class LKTLogToRDF {
      * Map containing all the experimenters with their newly created UUIDs contained in the parsed ODS sheet.
      */
     private Map<String, String> experimenterList;
+    /**
+     * Map containing all the permit numbers with their newly created UUIDs contained in the parsed ODS sheet.
+     */
+    private Map<String, String> permitList;
     /**
      * Main RDF model containing all the parsed information from the ODS sheet.
      */
     private Model model;
+    /**
+     * Metrics of the current run.
+     */
+    private final RunMetrics metrics;
 
     /**
      * Constructor.
      */
     public LKTLogToRDF() {
+        this(RunMetrics.DISABLED);
+    }
+
+    /**
+     * Constructor.
+     * @param runMetrics Metrics of the current run receiving the phases "build", "buildAndStream"
+     *                   and "serialize" and the number of created triples, see {@link RunMetrics}.
+     */
+    public LKTLogToRDF(final RunMetrics runMetrics) {
+        this.metrics = runMetrics;
         this.projectList = new HashMap<>();
         this.subjectList = new HashMap<>();
         this.experimenterList = new HashMap<>();
+        this.permitList = new HashMap<>();
         this.model = ModelFactory.createDefaultModel();
 
         this.model.setNsPrefix(RDFUtils.RDF_NS_RDF_ABR, RDFUtils.RDF_NS_RDF);
@@ -91,6 +127,144 @@ public final class LKTLogToRDF {
      */
     public void createRDFModel(final ArrayList<LKTLogParserSheet> allSheets, final String inputFile,
                                 final String outputFile, final String outputFormat) {
+        this.createRDFModel(allSheets, inputFile, Collections.singletonMap(outputFormat, outputFile));
+    }
+
+    /**
+     * Adds all data from a parsed ODS sheet to an RDF model and writes the results to one designated
+     * output file per requested RDF format. The RDF model is created only once and all output files
+     * are written concurrently.
+     * Output files of streaming formats (see {@link RDFService#isStreamingFormat(String)}) are written
+     * while the data is converted: the statements created for the provenance and for each parsed sheet
+     * are written as one block grouped by subject and are removed from the main RDF model afterwards.
+     * The main RDF model is only kept in full, if non streaming formats have been requested as well.
+     * See {@link #createRDFModel(ArrayList, String, String, String)} for data specific notes.
+     * @param allSheets Data from the parsed ODS sheets.
+     * @param inputFile Name and path of the input file
+     * @param outputFiles Map containing the RDF output formats as keys and the
+     *                    names and paths of the corresponding output files as values.
+     */
+    public void createRDFModel(final ArrayList<LKTLogParserSheet> allSheets, final String inputFile,
+                               final Map<String, String> outputFiles) {
+        this.createRDFModel(allSheets, inputFile, outputFiles, null);
+    }
+
+    /**
+     * Adds all data from a parsed ODS sheet to an RDF model and writes the results to one designated
+     * output file per requested RDF format, see {@link #createRDFModel(ArrayList, String, Map)}.
+     * All statements are additionally sent to the provided sink e.g. a {@link org.g_node.micro.commons.TDBStore}.
+     * Writing every streamed output file is recorded as {@link CrawlerEvents#serialize(String, String)} event.
+     * @param allSheets Data from the parsed ODS sheets.
+     * @param inputFile Name and path of the input file
+     * @param outputFiles Map containing the RDF output formats as keys and the
+     *                    names and paths of the corresponding output files as values.
+     * @param sink Stream additionally receiving all statements, can be null.
+     * @return True if all streamed output files have been written.
+     */
+    @SuppressWarnings("try")
+    public boolean createRDFModel(final ArrayList<LKTLogParserSheet> allSheets, final String inputFile,
+                                  final Map<String, String> outputFiles, final StreamRDF sink) {
+
+        final Map<String, String> streamFiles = new LinkedHashMap<>();
+        final Map<String, String> modelFiles = new LinkedHashMap<>();
+        outputFiles.forEach(
+                (format, file) -> {
+                    if (RDFService.isStreamingFormat(format)) {
+                        streamFiles.put(format, file);
+                    } else {
+                        modelFiles.put(format, file);
+                    }
+                }
+        );
+
+        if (streamFiles.isEmpty() && sink == null) {
+            try (RunMetrics.Phase p = this.metrics.startPhase("build")) {
+                this.addAllSheets(allSheets, inputFile, null, null);
+            }
+            this.metrics.count("triples", this.model.size());
+            try (RunMetrics.Phase p = this.metrics.startPhase("serialize")) {
+                RDFService.saveModelToFiles(modelFiles, this.model);
+            }
+            return true;
+        }
+
+        Model fullModel = null;
+        if (!modelFiles.isEmpty()) {
+            fullModel = ModelFactory.createDefaultModel();
+            fullModel.setNsPrefixes(this.model.getNsPrefixMap());
+        }
+
+        final List<FileOutput> outFiles = new ArrayList<>(streamFiles.size());
+        final List<CrawlerEvent> events = new ArrayList<>(streamFiles.size());
+        final List<StreamRDF> rdfStreams = new ArrayList<>(streamFiles.size() + 2);
+        final StreamRDFCounting counter = StreamRDFLib.count();
+        boolean success = true;
+        try (RunMetrics.Phase p = this.metrics.startPhase("buildAndStream")) {
+            for (final Map.Entry<String, String> f : streamFiles.entrySet()) {
+                LazyLog.info(LKTLogToRDF.LOGGER,
+                        () -> String.join(
+                                "", "Writing data to RDF file '", f.getValue(), "' using format '", f.getKey(), "'"
+                        )
+                );
+                final FileOutput fo = FileOutput.open(f.getValue());
+                outFiles.add(fo);
+                events.add(CrawlerEvents.serialize(f.getValue(), f.getKey()));
+
+                final StreamRDF rdfStream = RDFService.getStreamWriter(fo.getStream(), f.getKey());
+                rdfStream.start();
+                StreamOps.sendPrefixesToStream(this.model, rdfStream);
+                rdfStreams.add(rdfStream);
+            }
+            if (sink != null) {
+                sink.start();
+                rdfStreams.add(sink);
+            }
+            counter.start();
+            rdfStreams.add(counter);
+
+            this.addAllSheets(allSheets, inputFile, rdfStreams, fullModel);
+            this.metrics.count("triples", counter.count());
+
+            rdfStreams.forEach(StreamRDF::finish);
+            for (final FileOutput fo : outFiles) {
+                fo.commit();
+            }
+
+        } catch (IOException e) {
+            LKTLogToRDF.LOGGER.error(String.join("", "Could not write output file: ", e.getMessage()));
+            success = false;
+        } finally {
+            outFiles.forEach(
+                    fo -> {
+                        try {
+                            fo.close();
+                        } catch (IOException e) {
+                            LKTLogToRDF.LOGGER.error("Error closing file stream.");
+                        }
+                    }
+            );
+            events.forEach(e -> e.triples(counter.count()).close());
+        }
+
+        if (fullModel != null) {
+            try (RunMetrics.Phase p = this.metrics.startPhase("serialize")) {
+                RDFService.saveModelToFiles(modelFiles, fullModel);
+            }
+        }
+        return success;
+    }
+
+    /**
+     * Adds the provenance and the data of all parsed ODS sheets to the main RDF model.
+     * If RDF streams are provided, the statements of the provenance and of every sheet are sent
+     * to the RDF streams and moved from the main RDF model to the provided full RDF model.
+     * @param allSheets Data from the parsed ODS sheets.
+     * @param inputFile Name and path of the input file.
+     * @param rdfStreams Streams receiving the statements, null if the main RDF model should keep all statements.
+     * @param fullModel RDF model collecting all statements sent to the RDF streams, can be null.
+     */
+    private void addAllSheets(final ArrayList<LKTLogParserSheet> allSheets, final String inputFile,
+                              final List<StreamRDF> rdfStreams, final Model fullModel) {
 
         final String provDateTime = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
         final String provID = AppUtils.getHashSHA(new ArrayList<>(Arrays.asList(inputFile, provDateTime)));
@@ -104,10 +278,35 @@ public final class LKTLogToRDF {
                 )
                 .addLiteral(DCTerms.subject,
                         "This RDF file was created by parsing data from the file indicated in the source literal");
+        this.flushToStreams(rdfStreams, fullModel);
+
+        allSheets.stream().forEach(
+                a -> {
+                    try (CrawlerEvent event = CrawlerEvents.rdfSheet(a.getSubjectID())) {
+                        final long numTriples = this.model.size();
+                        this.addSubject(a, provID);
+                        event.rows(a.getEntries().size()).triples(this.model.size() - numTriples);
+                        this.flushToStreams(rdfStreams, fullModel);
+                    }
+                }
+        );
+    }
 
-        allSheets.stream().forEach(a -> this.addSubject(a, provID));
-
-        RDFService.saveModelToFile(outputFile, this.model, outputFormat);
+    /**
+     * Sends all statements of the main RDF model grouped by subject to the provided RDF streams
+     * and moves them to the provided full RDF model.
+     * @param rdfStreams Streams receiving the statements, nothing happens if null.
+     * @param fullModel RDF model collecting all statements, can be null.
+     */
+    private void flushToStreams(final List<StreamRDF> rdfStreams, final Model fullModel) {
+        if (rdfStreams == null) {
+            return;
+        }
+        rdfStreams.forEach(s -> RDFService.sendModelBySubject(this.model, s));
+        if (fullModel != null) {
+            fullModel.add(this.model);
+        }
+        this.model.removeAll();
     }
 
     /**
@@ -136,12 +335,21 @@ public final class LKTLogToRDF {
             this.subjectList.put(subjectID, AppUtils.getHashSHA(subjListID));
         }
 
-        final String permitHashID = AppUtils.getHashSHA(Collections.singletonList(currSheet.getPermitNumber()));
+        final String permitNumber = currSheet.getPermitNumber();
+        // Add RDF Permit instance only once to the RDF model, it is shared by all subjects of a permit
+        // and would otherwise be written again with every streamed sheet.
+        if (!this.permitList.containsKey(permitNumber)) {
 
-        final Resource permit = this.createInst(permitHashID)
-                .addProperty(this.mainProp("hasProvenance"), this.fetchInstance(provID))
-                .addProperty(RDF.type, this.mainRes("Permit"))
-                .addLiteral(this.mainProp("hasNumber"), currSheet.getPermitNumber());
+            final String permitHashID = AppUtils.getHashSHA(Collections.singletonList(permitNumber));
+            this.permitList.put(permitNumber, permitHashID);
+
+            this.createInst(permitHashID)
+                    .addProperty(this.mainProp("hasProvenance"), this.fetchInstance(provID))
+                    .addProperty(RDF.type, this.mainRes("Permit"))
+                    .addLiteral(this.mainProp("hasNumber"), permitNumber);
+        }
+        // Fetch RDF Permit instance.
+        final Resource permit = this.fetchInstance(this.permitList.get(permitNumber));
 
         final Resource subject = this.createInst(this.subjectList.get(subjectID))
                 .addProperty(this.mainProp("hasProvenance"), this.fetchInstance(provID))
@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.LazyLog;
+
+/**
+ * Watches a folder for changed ODS workbooks and converts every changed workbook using a small worker pool.
+ * Rapid successive saves of a workbook are debounced: a workbook is converted once it has not been changed
+ * for the debounce delay. LibreOffice lock files are ignored and workbooks whose content is identical to the
+ * content of their last conversion are skipped, so that only workbooks that actually changed are converted.
+ * The same workbook is never converted by two workers at the same time.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LKTLogWatcher implements Closeable {
+    /**
+     * Default delay in milliseconds a workbook has to remain unchanged before it is converted.
+     */
+    public static final long DEFAULT_DEBOUNCE_MS = 2000;
+    /**
+     * Default number of workbooks converted at the same time.
+     */
+    public static final int DEFAULT_THREADS = 2;
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(LKTLogWatcher.class.getName());
+    /**
+     * File name prefix of LibreOffice lock files.
+     */
+    private static final String LOCK_FILE_PREFIX = ".~lock.";
+    /**
+     * File extension of watched workbooks.
+     */
+    private static final String WORKBOOK_EXTENSION = ".ods";
+    /**
+     * Size of the buffer used to hash the content of workbooks.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Watched folder.
+     */
+    private final Path folder;
+    /**
+     * Converts a single workbook.
+     */
+    private final Consumer<Path> converter;
+    /**
+     * Delay in milliseconds a workbook has to remain unchanged before it is converted.
+     */
+    private final long debounceMs;
+    /**
+     * Worker pool converting the workbooks.
+     */
+    private final ScheduledExecutorService executor;
+    /**
+     * Service receiving the file system events of the watched folder.
+     */
+    private final WatchService watchService;
+    /**
+     * Last scheduled conversion of every workbook, cancelled if the workbook changes again before it has started.
+     */
+    private final Map<Path, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+    /**
+     * Content hashes of all workbooks at the time of their last conversion.
+     */
+    private final Map<Path, String> converted = new ConcurrentHashMap<>();
+    /**
+     * Locks making sure a workbook is converted by a single worker at a time.
+     */
+    private final Map<Path, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor, starts watching the folder.
+     * @param watchFolder Folder containing the workbooks.
+     * @param workbookConverter Converts a single workbook.
+     * @param debounce Delay in milliseconds a workbook has to remain unchanged before it is converted.
+     * @param threads Maximum number of workbooks converted at the same time.
+     * @throws IOException If the folder cannot be watched.
+     */
+    public LKTLogWatcher(final Path watchFolder, final Consumer<Path> workbookConverter, final long debounce,
+                         final int threads) throws IOException {
+        this.folder = watchFolder;
+        this.converter = workbookConverter;
+        this.debounceMs = debounce;
+        this.watchService = watchFolder.getFileSystem().newWatchService();
+        watchFolder.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.executor = Executors.newScheduledThreadPool(threads);
+    }
+
+    /**
+     * Checks if a file is a workbook watched by this class, LibreOffice lock files are no workbooks.
+     * @param file Path of the file.
+     * @return True if the file is an ODS workbook.
+     */
+    public static boolean isWorkbook(final Path file) {
+        final String name = file.getFileName().toString();
+        return !name.startsWith(LKTLogWatcher.LOCK_FILE_PREFIX)
+                && name.toLowerCase(Locale.ENGLISH).endsWith(LKTLogWatcher.WORKBOOK_EXTENSION);
+    }
+
+    /**
+     * Schedules the conversion of a workbook after the debounce delay. An already scheduled conversion
+     * of the same workbook is cancelled, so that rapid successive saves result in a single conversion.
+     * @param file Path of the workbook.
+     */
+    public void schedule(final Path file) {
+        this.pending.compute(
+                file,
+                (p, scheduled) -> {
+                    if (scheduled != null) {
+                        scheduled.cancel(false);
+                    }
+                    return this.executor.schedule(() -> this.convert(p), this.debounceMs, TimeUnit.MILLISECONDS);
+                }
+        );
+    }
+
+    /**
+     * Marks a workbook as converted in its current state, so that it is only converted
+     * again once its content has changed.
+     * @param file Path of the workbook.
+     */
+    public void markConverted(final Path file) {
+        try {
+            this.converted.put(file, LKTLogWatcher.contentHash(file));
+        } catch (IOException e) {
+            LKTLogWatcher.LOGGER.warn(String.join("", "Could not read workbook '", file.toString(), "'"));
+        }
+    }
+
+    /**
+     * Processes the file system events of the watched folder until the watcher is closed or
+     * the folder is no longer accessible. Scheduled conversions are finished before this method returns.
+     */
+    public void watch() {
+        try {
+            boolean watching = true;
+            while (watching) {
+                final WatchKey key;
+                try {
+                    key = this.watchService.take();
+                } catch (ClosedWatchServiceException e) {
+                    break;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                key.pollEvents().forEach(this::handleEvent);
+                if (!key.reset()) {
+                    LKTLogWatcher.LOGGER.error(
+                            String.join("", "Watched folder '", this.folder.toString(), "' is no longer accessible.")
+                    );
+                    watching = false;
+                }
+            }
+        } finally {
+            this.executor.shutdown();
+            try {
+                this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stops watching the folder, {@link #watch()} returns once all scheduled conversions are done.
+     */
+    @Override
+    public void close() {
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            LKTLogWatcher.LOGGER.error(String.join("", "Could not stop watching folder: ", e.getMessage()));
+        }
+    }
+
+    /**
+     * Handles a single file system event of the watched folder.
+     * @param event File system event.
+     */
+    private void handleEvent(final WatchEvent<?> event) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            LKTLogWatcher.LOGGER.warn("Missed file system events, checking all workbooks.");
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(this.folder, LKTLogWatcher::isWorkbook)) {
+                ds.forEach(this::schedule);
+            } catch (IOException e) {
+                LKTLogWatcher.LOGGER.error(String.join("", "Could not read watched folder: ", e.getMessage()));
+            }
+            return;
+        }
+
+        final Path file = this.folder.resolve((Path) event.context());
+        if (!LKTLogWatcher.isWorkbook(file)) {
+            return;
+        }
+        if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+            final ScheduledFuture<?> scheduled = this.pending.remove(file);
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            this.converted.remove(file);
+            return;
+        }
+        LazyLog.debug(LKTLogWatcher.LOGGER, () -> String.join("", "Workbook '", file.toString(), "' changed."));
+        this.schedule(file);
+    }
+
+    /**
+     * Converts a workbook, if its content has changed since its last conversion.
+     * @param file Path of the workbook.
+     */
+    private void convert(final Path file) {
+        synchronized (this.locks.computeIfAbsent(file, p -> new Object())) {
+            if (!Files.isRegularFile(file)) {
+                return;
+            }
+
+            final String hash;
+            try {
+                hash = LKTLogWatcher.contentHash(file);
+            } catch (IOException e) {
+                LKTLogWatcher.LOGGER.error(
+                        String.join("", "Could not read workbook '", file.toString(), "': ", e.getMessage())
+                );
+                return;
+            }
+            if (hash.equals(this.converted.get(file))) {
+                LazyLog.info(LKTLogWatcher.LOGGER,
+                        () -> String.join("", "Workbook '", file.toString(), "' is unchanged."));
+                return;
+            }
+
+            final long startTime = System.currentTimeMillis();
+            LazyLog.info(LKTLogWatcher.LOGGER,
+                    () -> String.join("", "Converting changed workbook '", file.toString(), "'..."));
+            try {
+                this.converter.accept(file);
+            } catch (RuntimeException e) {
+                LKTLogWatcher.LOGGER.error(
+                        String.join("", "Could not convert workbook '", file.toString(), "': ", e.toString())
+                );
+                return;
+            }
+            this.converted.put(file, hash);
+            LazyLog.info(LKTLogWatcher.LOGGER,
+                    () -> String.join("", "Converted workbook '", file.toString(), "' in ",
+                            String.valueOf(System.currentTimeMillis() - startTime), " ms")
+            );
+        }
+    }
+
+    /**
+     * Returns the content hash of a file.
+     * @param file Path of the file.
+     * @return Hexadecimal String of the SHA-1 hash of the file content.
+     * @throws IOException If the file cannot be read.
+     */
+    private static String contentHash(final Path file) throws IOException {
+        final MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        final byte[] buffer = new byte[LKTLogWatcher.BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read = in.read(buffer);
+            while (read >= 0) {
+                md.update(buffer, 0, read);
+                read = in.read(buffer);
+            }
+        }
+        return Hex.encodeHexString(md.digest());
+    }
+
+}
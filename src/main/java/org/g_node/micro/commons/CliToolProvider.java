@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.util.function.Consumer;
+
+/**
+ * Interface for providers of g-node RDF microservice commandline tools. Providers are discovered via
+ * {@link java.util.ServiceLoader} and have to be listed in the file
+ * META-INF/services/org.g_node.micro.commons.CliToolProvider. A provider must not load any classes of
+ * its tool before {@link #create(Consumer)} is called, so that only the selected tool is loaded.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public interface CliToolProvider {
+    /**
+     * Method returning the short hand of the tool, required to select the tool on the commandline.
+     * @return Short hand of the tool.
+     */
+    String name();
+
+    /**
+     * Method creating the command class of the tool.
+     * @param toolRunner Runs any tool of the application with the provided commandline arguments,
+     *                   the first argument is the short hand of the tool.
+     * @return Command class of the tool.
+     */
+    CliToolController create(Consumer<String[]> toolRunner);
+}
@@ -0,0 +1,352 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service class for reading and writing compressed files. The compression of a file is determined by
+ * its file extension: ".gz" files are compressed using gzip, ".zst" files are compressed using zstd.
+ * The compression extension follows the actual file extension e.g. "data.nt.gz".
+ * Output files are compressed on a separate thread, so compressing the data does
+ * not slow down serializing the data.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class Compression {
+    /**
+     * File extension of gzip compressed files.
+     */
+    public static final String GZIP_EXTENSION = "gz";
+    /**
+     * File extension of zstd compressed files.
+     */
+    public static final String ZSTD_EXTENSION = "zst";
+    /**
+     * All supported compression file extensions.
+     */
+    public static final List<String> COMPRESSION_EXTENSIONS =
+            Collections.unmodifiableList(Arrays.asList(Compression.GZIP_EXTENSION, Compression.ZSTD_EXTENSION));
+    /**
+     * Size of the blocks handed from the serializing thread to the compressing thread.
+     */
+    private static final int BLOCK_SIZE = 256 * 1024;
+    /**
+     * Maximum number of blocks waiting to be compressed.
+     */
+    private static final int QUEUE_SIZE = 8;
+    /**
+     * Buffer size of the compressing and decompressing streams.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Returns the compression file extension of a file name.
+     * @param fileName Name of the file.
+     * @return Supported compression file extension including the leading dot e.g. ".gz",
+     *  an empty String, if the file is not compressed.
+     */
+    public static String getSuffix(final String fileName) {
+        final String lower = fileName.toLowerCase(Locale.ENGLISH);
+        for (final String ext : Compression.COMPRESSION_EXTENSIONS) {
+            final String suffix = String.join("", ".", ext);
+            if (lower.endsWith(suffix) && lower.length() > suffix.length()) {
+                return fileName.substring(fileName.length() - suffix.length());
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Returns if a file is compressed according to its file extension.
+     * @param fileName Name of the file.
+     * @return True if the file ends with a supported compression file extension.
+     */
+    public static boolean isCompressed(final String fileName) {
+        return !Compression.getSuffix(fileName).isEmpty();
+    }
+
+    /**
+     * Removes the compression file extension from a file name e.g. "data.nt.gz" becomes "data.nt".
+     * @param fileName Name of the file.
+     * @return File name without compression file extension.
+     */
+    public static String stripSuffix(final String fileName) {
+        return fileName.substring(0, fileName.length() - Compression.getSuffix(fileName).length());
+    }
+
+    /**
+     * Wraps an input stream into a decompressing stream, if the file name ends with a
+     * supported compression file extension.
+     * @param fileName Name of the file the input stream reads.
+     * @param in Input stream reading the raw file.
+     * @return Stream reading the decompressed data or the provided stream, if the file is not compressed.
+     * @throws IOException If the compressed data cannot be read.
+     */
+    public static InputStream decompress(final String fileName, final InputStream in) throws IOException {
+        final String suffix = Compression.getSuffix(fileName).toLowerCase(Locale.ENGLISH);
+        if (suffix.endsWith(Compression.GZIP_EXTENSION)) {
+            return new GZIPInputStream(in, Compression.BUFFER_SIZE);
+        } else if (suffix.endsWith(Compression.ZSTD_EXTENSION)) {
+            return new BufferedInputStream(new ZstdInputStream(in), Compression.BUFFER_SIZE);
+        }
+        return in;
+    }
+
+    /**
+     * Wraps an output stream into a compressing stream, if the file name ends with a supported compression
+     * file extension. The data is compressed on a separate thread. The compressing stream has to be closed
+     * to write all remaining data, closing it also closes the provided output stream.
+     * @param fileName Name of the file the output stream writes.
+     * @param out Output stream writing the raw file.
+     * @return Stream compressing the data or null, if the file is not compressed.
+     * @throws IOException If the compressing stream cannot be created.
+     */
+    public static AsyncOutputStream compress(final String fileName, final OutputStream out) throws IOException {
+        final String suffix = Compression.getSuffix(fileName).toLowerCase(Locale.ENGLISH);
+        if (suffix.endsWith(Compression.GZIP_EXTENSION)) {
+            return new AsyncOutputStream(new GzipOutputStream(out), fileName);
+        } else if (suffix.endsWith(Compression.ZSTD_EXTENSION)) {
+            return new AsyncOutputStream(new ZstdOutputStream(out), fileName);
+        }
+        return null;
+    }
+
+    /**
+     * Gzip compressing output stream, which releases its native compressor when it is closed,
+     * even if writing the remaining data fails.
+     */
+    private static final class GzipOutputStream extends GZIPOutputStream {
+
+        /**
+         * Constructor.
+         * @param out Output stream receiving the compressed data.
+         * @throws IOException If the gzip header cannot be written.
+         */
+        GzipOutputStream(final OutputStream out) throws IOException {
+            super(out, Compression.BUFFER_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                this.def.end();
+            }
+        }
+    }
+
+    /**
+     * Output stream handing blocks of data to a separate thread, which writes them to the wrapped
+     * output stream. Errors of the writing thread are reported when the stream is closed.
+     * The wrapped output stream is closed when the writing thread ends, also after an error or
+     * if the stream has been aborted, so the native compressor is released right away.
+     */
+    public static final class AsyncOutputStream extends OutputStream {
+        /**
+         * Block marking the end of the data.
+         */
+        private static final byte[] END = new byte[0];
+        /**
+         * Blocks waiting to be written.
+         */
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(Compression.QUEUE_SIZE);
+        /**
+         * Thread writing the blocks to the wrapped output stream.
+         */
+        private final Thread writer;
+        /**
+         * Block currently being filled.
+         */
+        private byte[] block = new byte[Compression.BLOCK_SIZE];
+        /**
+         * Number of bytes in the current block.
+         */
+        private int count;
+        /**
+         * True if the stream has been closed.
+         */
+        private boolean closed;
+        /**
+         * First error of the writing thread.
+         */
+        private volatile IOException failure;
+
+        /**
+         * Constructor, starts the writing thread.
+         * @param target Output stream receiving the data.
+         * @param name Name of the written file, used to name the writing thread.
+         */
+        AsyncOutputStream(final OutputStream target, final String name) {
+            this.writer = new Thread(() -> this.writeBlocks(target), String.join("", "compress-", name));
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (this.count == this.block.length) {
+                this.flushBlock();
+            }
+            this.block[this.count] = (byte) b;
+            this.count = this.count + 1;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            int pos = off;
+            int remaining = len;
+            while (remaining > 0) {
+                if (this.count == this.block.length) {
+                    this.flushBlock();
+                }
+                final int n = Math.min(remaining, this.block.length - this.count);
+                System.arraycopy(b, pos, this.block, this.count, n);
+                this.count = this.count + n;
+                pos = pos + n;
+                remaining = remaining - n;
+            }
+        }
+
+        /**
+         * Writes all remaining data, waits for the writing thread to finish and closes the wrapped output stream.
+         * @throws IOException If the data could not be written.
+         */
+        @Override
+        public void close() throws IOException {
+            if (this.closed) {
+                return;
+            }
+            this.flushBlock();
+            this.closed = true;
+            this.put(AsyncOutputStream.END);
+            try {
+                this.writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while compressing data.");
+            }
+            if (this.failure != null) {
+                throw this.failure;
+            }
+        }
+
+        /**
+         * Stops the writing thread without writing the remaining data.
+         */
+        public void abort() {
+            this.closed = true;
+            this.writer.interrupt();
+            try {
+                this.writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Hands the current block to the writing thread.
+         * @throws IOException If the stream has been closed or the writing thread failed.
+         */
+        private void flushBlock() throws IOException {
+            if (this.closed) {
+                throw new IOException("Stream closed.");
+            }
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            if (this.count == 0) {
+                return;
+            }
+            this.put(this.count == this.block.length ? this.block : Arrays.copyOf(this.block, this.count));
+            this.block = new byte[Compression.BLOCK_SIZE];
+            this.count = 0;
+        }
+
+        /**
+         * Adds a block to the queue of the writing thread.
+         * @param b Block of data.
+         * @throws IOException If interrupted while waiting for the writing thread.
+         */
+        private void put(final byte[] b) throws IOException {
+            try {
+                this.queue.put(b);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while compressing data.");
+            }
+        }
+
+        /**
+         * Main method of the writing thread. Blocks are discarded after an error,
+         * so that the serializing thread is never blocked by a full queue.
+         * The wrapped output stream is closed on every exit path.
+         * @param target Output stream receiving the data.
+         */
+        private void writeBlocks(final OutputStream target) {
+            boolean targetClosed = false;
+            try {
+                byte[] b = this.queue.take();
+                while (b != AsyncOutputStream.END) {
+                    if (this.failure == null) {
+                        try {
+                            target.write(b);
+                        } catch (IOException e) {
+                            this.failure = e;
+                        }
+                    }
+                    b = this.queue.take();
+                }
+                if (this.failure == null) {
+                    targetClosed = true;
+                    target.close();
+                }
+            } catch (InterruptedException e) {
+                this.failure = new InterruptedIOException("Compression aborted.");
+            } catch (IOException e) {
+                this.failure = e;
+            } finally {
+                if (!targetClosed) {
+                    AsyncOutputStream.closeQuietly(target);
+                }
+            }
+        }
+
+        /**
+         * Closes the wrapped output stream after an error or after the stream has been aborted.
+         * The written data is discarded in these cases, so close errors are ignored.
+         * @param target Output stream receiving the data.
+         */
+        private static void closeQuietly(final OutputStream target) {
+            try {
+                target.close();
+            } catch (IOException e) {
+                // The data is discarded anyway, only the resources of the stream have to be released.
+            }
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.hp.hpl.jena.query.QuerySolution;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import java.util.List;
+
+/**
+ * {@link ResultSet} counting the rows read from another result set, so that the number of rows
+ * of a streamed result is known once it has been written, without holding the result in memory.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class CountingResultSet implements ResultSet {
+    /**
+     * Result set the rows are read from.
+     */
+    private final ResultSet result;
+    /**
+     * Number of rows read so far.
+     */
+    private long rows;
+
+    /**
+     * Constructor.
+     * @param resultSet Result set the rows are read from.
+     */
+    public CountingResultSet(final ResultSet resultSet) {
+        this.result = resultSet;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.result.hasNext();
+    }
+
+    @Override
+    public QuerySolution next() {
+        return this.nextSolution();
+    }
+
+    @Override
+    public QuerySolution nextSolution() {
+        final QuerySolution s = this.result.nextSolution();
+        this.rows = this.rows + 1;
+        return s;
+    }
+
+    @Override
+    public Binding nextBinding() {
+        final Binding b = this.result.nextBinding();
+        this.rows = this.rows + 1;
+        return b;
+    }
+
+    @Override
+    public int getRowNumber() {
+        return this.result.getRowNumber();
+    }
+
+    @Override
+    public List<String> getResultVars() {
+        return this.result.getResultVars();
+    }
+
+    @Override
+    public Model getResourceModel() {
+        return this.result.getResourceModel();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Rows of a result set cannot be removed.");
+    }
+
+    /**
+     * Returns the number of rows read so far.
+     * @return See description.
+     */
+    public long getRows() {
+        return this.rows;
+    }
+
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+/**
+ * Java Flight Recorder event timing a single crawler step e.g. the parsing of one logbook sheet.
+ * Events are created by {@link CrawlerEvents}, the event is timed from its creation until it is closed.
+ * If the event is not recorded, all methods return immediately.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public interface CrawlerEvent extends AutoCloseable {
+    /**
+     * Sets the number of processed rows or entries.
+     * @param rows Number of rows.
+     * @return This event.
+     */
+    CrawlerEvent rows(long rows);
+
+    /**
+     * Sets the number of created or written RDF statements.
+     * @param triples Number of RDF statements.
+     * @return This event.
+     */
+    CrawlerEvent triples(long triples);
+
+    /**
+     * Sets the ID of the animal of the processed sheet.
+     * @param animalID Animal ID.
+     * @return This event.
+     */
+    CrawlerEvent animal(String animalID);
+
+    /**
+     * Ends the event and commits it, if it is recorded and lasted longer than its threshold.
+     */
+    @Override
+    void close();
+}
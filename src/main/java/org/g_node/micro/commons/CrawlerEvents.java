@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+/**
+ * Creates the Java Flight Recorder events of the crawler steps, see {@link CrawlerEvent}.
+ * The events allow to correlate e.g. garbage collections or allocation spikes of a recording
+ * with single logbook sheets. They are listed in category 'Crawler-to-RDF' of the recording:
+ * 'org.g_node.ParseSheet', 'org.g_node.HashSheet', 'org.g_node.RDFSheet' and 'org.g_node.Serialize'.
+ * The threshold of the events can be set in the recording settings to record slow steps only.
+ *
+ * Events are only created if a recording of the event type is running, otherwise a shared
+ * event instance that does nothing is returned. On Java runtimes without Flight Recorder support
+ * no event is ever created.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class CrawlerEvents {
+    /**
+     * Event returned if an event type is not recorded.
+     */
+    static final CrawlerEvent DISABLED = new CrawlerEvent() {
+        public CrawlerEvent rows(final long rows) {
+            return this;
+        }
+        public CrawlerEvent triples(final long triples) {
+            return this;
+        }
+        public CrawlerEvent animal(final String animalID) {
+            return this;
+        }
+        public void close() {
+        }
+    };
+    /**
+     * True if the Java runtime supports Flight Recorder events.
+     */
+    private static final boolean AVAILABLE = CrawlerEvents.isAvailable();
+
+    /**
+     * Prevent instantiation.
+     */
+    private CrawlerEvents() {
+    }
+
+    /**
+     * Starts the event of parsing a single logbook sheet.
+     * @param sheet Name of the sheet.
+     * @return Started event.
+     */
+    public static CrawlerEvent parseSheet(final String sheet) {
+        return CrawlerEvents.AVAILABLE ? CrawlerJfrEvents.parseSheet(sheet) : CrawlerEvents.DISABLED;
+    }
+
+    /**
+     * Starts the event of hashing the content of a single logbook sheet.
+     * @param sheet Name of the sheet.
+     * @return Started event.
+     */
+    public static CrawlerEvent hashSheet(final String sheet) {
+        return CrawlerEvents.AVAILABLE ? CrawlerJfrEvents.hashSheet(sheet) : CrawlerEvents.DISABLED;
+    }
+
+    /**
+     * Starts the event of converting a single parsed logbook sheet to RDF.
+     * @param animalID Animal ID of the sheet.
+     * @return Started event.
+     */
+    public static CrawlerEvent rdfSheet(final String animalID) {
+        return CrawlerEvents.AVAILABLE ? CrawlerJfrEvents.rdfSheet(animalID) : CrawlerEvents.DISABLED;
+    }
+
+    /**
+     * Starts the event of serializing RDF data to a file.
+     * @param file Path and name of the output file.
+     * @param format RDF format of the output file.
+     * @return Started event.
+     */
+    public static CrawlerEvent serialize(final String file, final String format) {
+        return CrawlerEvents.AVAILABLE ? CrawlerJfrEvents.serialize(file, format) : CrawlerEvents.DISABLED;
+    }
+
+    /**
+     * Checks if the Java runtime supports Flight Recorder events.
+     * @return True if the Flight Recorder API is available.
+     */
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, CrawlerEvents.class.getClassLoader());
+            return CrawlerJfrEvents.register();
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event classes of the crawler steps, see {@link CrawlerEvents}.
+ * This class is only loaded if the Java runtime supports Flight Recorder events.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class CrawlerJfrEvents {
+    /**
+     * Type of the parse sheet event.
+     */
+    private static final EventType PARSE_SHEET = EventType.getEventType(ParseSheetEvent.class);
+    /**
+     * Type of the hash sheet event.
+     */
+    private static final EventType HASH_SHEET = EventType.getEventType(HashSheetEvent.class);
+    /**
+     * Type of the RDF sheet event.
+     */
+    private static final EventType RDF_SHEET = EventType.getEventType(RDFSheetEvent.class);
+    /**
+     * Type of the serialize event.
+     */
+    private static final EventType SERIALIZE = EventType.getEventType(SerializeEvent.class);
+
+    /**
+     * Prevent instantiation.
+     */
+    private CrawlerJfrEvents() {
+    }
+
+    /**
+     * Registers all event types.
+     * @return True if all event types have been registered.
+     */
+    static boolean register() {
+        return CrawlerJfrEvents.PARSE_SHEET != null && CrawlerJfrEvents.HASH_SHEET != null
+                && CrawlerJfrEvents.RDF_SHEET != null && CrawlerJfrEvents.SERIALIZE != null;
+    }
+
+    /**
+     * Starts the event of parsing a single logbook sheet, see {@link CrawlerEvents#parseSheet(String)}.
+     * @param sheet Name of the sheet.
+     * @return Started event or {@link CrawlerEvents#DISABLED}, if the event is not recorded.
+     */
+    static CrawlerEvent parseSheet(final String sheet) {
+        if (!CrawlerJfrEvents.PARSE_SHEET.isEnabled()) {
+            return CrawlerEvents.DISABLED;
+        }
+        final ParseSheetEvent event = new ParseSheetEvent();
+        event.sheet = sheet;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Starts the event of hashing a single logbook sheet, see {@link CrawlerEvents#hashSheet(String)}.
+     * @param sheet Name of the sheet.
+     * @return Started event or {@link CrawlerEvents#DISABLED}, if the event is not recorded.
+     */
+    static CrawlerEvent hashSheet(final String sheet) {
+        if (!CrawlerJfrEvents.HASH_SHEET.isEnabled()) {
+            return CrawlerEvents.DISABLED;
+        }
+        final HashSheetEvent event = new HashSheetEvent();
+        event.sheet = sheet;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Starts the event of converting a single logbook sheet to RDF, see {@link CrawlerEvents#rdfSheet(String)}.
+     * @param animalID Animal ID of the sheet.
+     * @return Started event or {@link CrawlerEvents#DISABLED}, if the event is not recorded.
+     */
+    static CrawlerEvent rdfSheet(final String animalID) {
+        if (!CrawlerJfrEvents.RDF_SHEET.isEnabled()) {
+            return CrawlerEvents.DISABLED;
+        }
+        final RDFSheetEvent event = new RDFSheetEvent();
+        event.animal = animalID;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Starts the event of serializing RDF data to a file, see {@link CrawlerEvents#serialize(String, String)}.
+     * @param file Path and name of the output file.
+     * @param format RDF format of the output file.
+     * @return Started event or {@link CrawlerEvents#DISABLED}, if the event is not recorded.
+     */
+    static CrawlerEvent serialize(final String file, final String format) {
+        if (!CrawlerJfrEvents.SERIALIZE.isEnabled()) {
+            return CrawlerEvents.DISABLED;
+        }
+        final SerializeEvent event = new SerializeEvent();
+        event.file = file;
+        event.format = format;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Fields and methods shared by all crawler events.
+     */
+    @Category("Crawler-to-RDF")
+    @StackTrace(false)
+    private abstract static class CrawlerJfrEvent extends Event implements CrawlerEvent {
+        /**
+         * Number of processed rows or entries.
+         */
+        @Label("Rows")
+        protected long rows;
+        /**
+         * Number of created or written RDF statements.
+         */
+        @Label("Triples")
+        protected long triples;
+
+        /**
+         * {@inheritDoc}
+         */
+        public CrawlerEvent rows(final long rowCount) {
+            this.rows = rowCount;
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public CrawlerEvent triples(final long tripleCount) {
+            this.triples = tripleCount;
+            return this;
+        }
+
+        /**
+         * Ignored by events not related to a single animal.
+         * @param animalID Animal ID.
+         * @return This event.
+         */
+        public CrawlerEvent animal(final String animalID) {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void close() {
+            this.end();
+            if (this.shouldCommit()) {
+                this.commit();
+            }
+        }
+    }
+
+    /**
+     * Parsing of a single logbook sheet.
+     */
+    @Name("org.g_node.ParseSheet")
+    @Label("Parse Sheet")
+    @Description("Parsing of a single LKT logbook sheet, rows are the parsed entries")
+    private static final class ParseSheetEvent extends CrawlerJfrEvent {
+        /**
+         * Name of the sheet.
+         */
+        @Label("Sheet")
+        private String sheet;
+        /**
+         * Animal ID of the sheet.
+         */
+        @Label("Animal ID")
+        private String animal;
+
+        /**
+         * Sets the animal ID of the parsed sheet.
+         * @param animalID Animal ID.
+         * @return This event.
+         */
+        @Override
+        public CrawlerEvent animal(final String animalID) {
+            this.animal = animalID;
+            return this;
+        }
+    }
+
+    /**
+     * Hashing of the content of a single logbook sheet.
+     */
+    @Name("org.g_node.HashSheet")
+    @Label("Hash Sheet")
+    @Description("Hashing of the content of a single LKT logbook sheet for the parse cache, rows are all sheet rows")
+    private static final class HashSheetEvent extends CrawlerJfrEvent {
+        /**
+         * Name of the sheet.
+         */
+        @Label("Sheet")
+        private String sheet;
+    }
+
+    /**
+     * Conversion of a single parsed logbook sheet to RDF.
+     */
+    @Name("org.g_node.RDFSheet")
+    @Label("RDF Sheet")
+    @Description("Conversion of a single parsed LKT logbook sheet to RDF, rows are the converted entries")
+    private static final class RDFSheetEvent extends CrawlerJfrEvent {
+        /**
+         * Animal ID of the sheet.
+         */
+        @Label("Animal ID")
+        private String animal;
+
+        /**
+         * Sets the animal ID of the converted sheet.
+         * @param animalID Animal ID.
+         * @return This event.
+         */
+        @Override
+        public CrawlerEvent animal(final String animalID) {
+            this.animal = animalID;
+            return this;
+        }
+    }
+
+    /**
+     * Serialization of RDF data to a file.
+     */
+    @Name("org.g_node.Serialize")
+    @Label("Serialize RDF")
+    @Description("Serialization of RDF data to a file")
+    private static final class SerializeEvent extends CrawlerJfrEvent {
+        /**
+         * Path and name of the output file.
+         */
+        @Label("File")
+        private String file;
+        /**
+         * RDF format of the output file.
+         */
+        @Label("Format")
+        private String format;
+    }
+
+}
@@ -0,0 +1,298 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.log4j.Logger;
+
+/**
+ * Simple content addressed cache storing binary entries as individual files within a cache folder.
+ * Entries are identified by a key, usually a hexadecimal hash String. The last modified time
+ * of an entry file is updated whenever the entry is read, which allows evicting the least recently
+ * used entries as soon as the total size of the cache folder exceeds the provided size cap.
+ * The total size is determined once and kept up to date by every write of this instance, the cache folder
+ * is only scanned again when the size cap is exceeded.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class FileCache {
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(FileCache.class.getName());
+    /**
+     * File extension of all entry files of the cache.
+     */
+    private static final String ENTRY_EXTENSION = ".bin";
+    /**
+     * Folder containing the cache entry files.
+     */
+    private final Path cacheDir;
+    /**
+     * Maximum number of bytes all entries of the cache are allowed to use.
+     */
+    private final long maxBytes;
+    /**
+     * Total size of all entries in bytes, -1 until the cache folder has been scanned.
+     */
+    private long totalBytes = -1;
+
+    /**
+     * Constructor.
+     * @param dir Folder where the cache entries are stored. Will be created if it does not exist.
+     * @param maxSize Maximum number of bytes all cache entries are allowed to use.
+     */
+    public FileCache(final Path dir, final long maxSize) {
+        this.cacheDir = dir;
+        this.maxBytes = maxSize;
+    }
+
+    /**
+     * Returns the folder containing the entries of this cache.
+     * @return See description.
+     */
+    public Path getCacheDir() {
+        return this.cacheDir;
+    }
+
+    /**
+     * Fetch the content of a cache entry. Reading an entry marks it as recently used.
+     * @param key Key of the requested entry.
+     * @return Content of the entry or null, if the cache does not contain an entry
+     *  with this key or the entry could not be read.
+     */
+    public synchronized byte[] get(final String key) {
+        final Path entry = this.entryPath(key);
+        if (!Files.exists(entry)) {
+            return null;
+        }
+        try {
+            final byte[] content = Files.readAllBytes(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return content;
+        } catch (IOException e) {
+            FileCache.LOGGER.warn(String.join("", "Could not read cache entry '", entry.toString(), "'"));
+            return null;
+        }
+    }
+
+    /**
+     * Fetch the file of a cache entry, so that large entries can be read as a stream.
+     * Fetching an entry marks it as recently used.
+     * @param key Key of the requested entry.
+     * @return Path of the entry file or null, if the cache does not contain an entry with this key.
+     */
+    public synchronized Path getFile(final String key) {
+        final Path entry = this.entryPath(key);
+        if (!Files.exists(entry)) {
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            FileCache.LOGGER.warn(String.join("", "Could not access cache entry '", entry.toString(), "'"));
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Add an entry to the cache or replace an existing entry with the same key.
+     * The entry is written to a temporary file first and moved in place afterwards, so that
+     * an interrupted write never leaves an incomplete entry. Least recently used entries are
+     * evicted afterwards, if the cache exceeds its size cap.
+     * @param key Key of the entry.
+     * @param content Content of the entry.
+     */
+    public synchronized void put(final String key, final byte[] content) {
+        if (content.length > this.maxBytes) {
+            return;
+        }
+        try {
+            Files.createDirectories(this.cacheDir);
+            final Path tmp = Files.createTempFile(this.cacheDir, key, ".tmp");
+            Files.write(tmp, content);
+            this.moveToEntry(key, tmp);
+        } catch (IOException e) {
+            FileCache.LOGGER.warn(
+                    String.join("", "Could not write cache entry '", key, "': ", e.getMessage())
+            );
+        }
+    }
+
+    /**
+     * Add a file as entry to the cache or replace an existing entry with the same key. The file
+     * is moved into the cache, it has to be located within the cache folder e.g. by creating it
+     * via {@link #createTempFile()}. Files exceeding the size cap of the cache are deleted instead.
+     * @param key Key of the entry.
+     * @param file File containing the content of the entry.
+     */
+    public synchronized void putFile(final String key, final Path file) {
+        try {
+            if (Files.size(file) > this.maxBytes) {
+                Files.deleteIfExists(file);
+                return;
+            }
+            this.moveToEntry(key, file);
+        } catch (IOException e) {
+            FileCache.LOGGER.warn(
+                    String.join("", "Could not write cache entry '", key, "': ", e.getMessage())
+            );
+        }
+    }
+
+    /**
+     * Removes an entry from the cache e.g. if its content turned out to be invalid.
+     * @param key Key of the entry.
+     */
+    public synchronized void remove(final String key) {
+        final Path entry = this.entryPath(key);
+        try {
+            final long size = Files.exists(entry) ? Files.size(entry) : 0;
+            if (Files.deleteIfExists(entry) && this.totalBytes >= 0) {
+                this.totalBytes = this.totalBytes - size;
+            }
+        } catch (IOException e) {
+            FileCache.LOGGER.warn(String.join("", "Could not remove cache entry '", entry.toString(), "'"));
+        }
+    }
+
+    /**
+     * Creates an empty temporary file within the cache folder, which can be added to the cache
+     * using {@link #putFile(String, Path)}. The cache folder is created if it does not exist.
+     * @return Path of the temporary file.
+     * @throws IOException If the cache folder or the file cannot be created.
+     */
+    public Path createTempFile() throws IOException {
+        Files.createDirectories(this.cacheDir);
+        return Files.createTempFile(this.cacheDir, "entry", ".tmp");
+    }
+
+    /**
+     * Moves a file in place of the entry with the provided key and evicts least recently used entries
+     * afterwards, if the cache exceeds its size cap.
+     * @param key Key of the entry.
+     * @param file File within the cache folder containing the content of the entry.
+     * @throws IOException If the file cannot be moved or the cache folder cannot be read.
+     */
+    private void moveToEntry(final String key, final Path file) throws IOException {
+        final Path entry = this.entryPath(key);
+        if (this.totalBytes < 0) {
+            this.totalBytes = FileCache.entrySize(this.listEntries());
+        }
+        final long replaced = Files.exists(entry) ? Files.size(entry) : 0;
+        final long added = Files.size(file);
+        Files.move(file, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.totalBytes = this.totalBytes - replaced + added;
+        if (this.totalBytes > this.maxBytes) {
+            this.evict();
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the size of all entries is below the size cap.
+     * The cache folder is scanned again, so that entries written by other processes are included.
+     * @throws IOException If the cache folder cannot be read.
+     */
+    private void evict() throws IOException {
+        final List<Path> entries = this.listEntries();
+        long totalSize = FileCache.entrySize(entries);
+        this.totalBytes = totalSize;
+        if (totalSize <= this.maxBytes) {
+            return;
+        }
+
+        entries.sort(Comparator.comparing(FileCache::lastModified));
+        for (final Path p : entries) {
+            if (totalSize <= this.maxBytes) {
+                break;
+            }
+            // Entries may have been removed by another process since the cache folder was listed.
+            try {
+                final long size = Files.size(p);
+                Files.deleteIfExists(p);
+                totalSize = totalSize - size;
+                LazyLog.debug(FileCache.LOGGER,
+                        () -> String.join("", "Evicted cache entry '", p.getFileName().toString(), "'"));
+            } catch (IOException e) {
+                LazyLog.debug(FileCache.LOGGER,
+                        () -> String.join("", "Could not evict cache entry '", p.toString(), "'"));
+            }
+        }
+        this.totalBytes = totalSize;
+    }
+
+    /**
+     * Returns all entry files of the cache folder.
+     * @return See description.
+     * @throws IOException If the cache folder cannot be read.
+     */
+    private List<Path> listEntries() throws IOException {
+        final List<Path> entries = new ArrayList<>(0);
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(this.cacheDir,
+                String.join("", "*", FileCache.ENTRY_EXTENSION))) {
+            for (final Path p : ds) {
+                entries.add(p);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the total size of entry files, files that cannot be accessed are ignored.
+     * @param entries Entry files.
+     * @return Total size in bytes.
+     */
+    private static long entrySize(final List<Path> entries) {
+        long size = 0;
+        for (final Path p : entries) {
+            try {
+                size = size + Files.size(p);
+            } catch (IOException e) {
+                LazyLog.debug(FileCache.LOGGER,
+                        () -> String.join("", "Could not access cache entry '", p.toString(), "'"));
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the file of the entry with the provided key.
+     * @param key Key of the entry.
+     * @return Path of the entry file.
+     */
+    private Path entryPath(final String key) {
+        return this.cacheDir.resolve(String.join("", key, FileCache.ENTRY_EXTENSION));
+    }
+
+    /**
+     * Returns the last modified time of a cache entry, entries that cannot be accessed
+     * are treated as the oldest entries.
+     * @param p Path of the entry file.
+     * @return Last modified time of the file.
+     */
+    private static FileTime lastModified(final Path p) {
+        try {
+            return Files.getLastModifiedTime(p);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+}
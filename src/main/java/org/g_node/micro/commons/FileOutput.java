@@ -0,0 +1,313 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.log4j.Logger;
+
+/**
+ * Output file used by all tools of this service to write data to disk.
+ * Data is written through a large direct buffer to a {@link FileChannel} of a temporary file
+ * in the folder of the output file. Only when {@link #commit()} is called, the temporary file is
+ * optionally synced to disk and renamed to the actual output file. If the output file is closed without
+ * being committed, e.g. due to an error, the temporary file is removed and any existing output file
+ * remains untouched.
+ *
+ * Output files ending with a compression file extension like "data.nt.gz" are compressed on a separate
+ * thread, see {@link Compression}.
+ *
+ * The size of the write buffer and whether files are synced to disk before they are renamed can be
+ * configured using the system properties {@value #BUFFER_SIZE_PROPERTY} (bytes) and {@value #FSYNC_PROPERTY}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class FileOutput implements Closeable {
+    /**
+     * System property setting the size of the write buffer in bytes.
+     */
+    public static final String BUFFER_SIZE_PROPERTY = "crawler.output.bufferSize";
+    /**
+     * System property defining if output files are synced to disk before they are renamed.
+     */
+    public static final String FSYNC_PROPERTY = "crawler.output.fsync";
+    /**
+     * Default size of the write buffer in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(FileOutput.class.getName());
+    /**
+     * Number of bytes in a megabyte, used to log the write throughput.
+     */
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+    /**
+     * Number of nanoseconds in a second, used to log the write throughput.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+    /**
+     * Number of nanoseconds in a millisecond, used to log the write duration.
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+    /**
+     * The actual output file.
+     */
+    private final Path target;
+    /**
+     * Temporary file the data is written to before it is renamed to the actual output file.
+     */
+    private final Path tmpFile;
+    /**
+     * Channel writing to the temporary file.
+     */
+    private final FileChannel channel;
+    /**
+     * Buffered output stream writing to the channel.
+     */
+    private final ChannelOutputStream stream;
+    /**
+     * Stream compressing the data before it is written to the channel, null if the output file is not compressed.
+     */
+    private final Compression.AsyncOutputStream compressor;
+    /**
+     * Time in nanoseconds the output file was opened.
+     */
+    private final long startTime;
+    /**
+     * True if the output file has been committed or closed.
+     */
+    private boolean closed;
+
+    /**
+     * Constructor.
+     * @param targetFile The actual output file.
+     * @param tmp Temporary file the data is written to.
+     * @param fc Channel writing to the temporary file.
+     * @param bufferSize Size of the write buffer in bytes.
+     * @throws IOException If the compressing stream cannot be created.
+     */
+    private FileOutput(final Path targetFile, final Path tmp, final FileChannel fc,
+                       final int bufferSize) throws IOException {
+        this.target = targetFile;
+        this.tmpFile = tmp;
+        this.channel = fc;
+        this.stream = new ChannelOutputStream(fc, bufferSize);
+        this.compressor = Compression.compress(targetFile.getFileName().toString(), this.stream);
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * Opens an output file. The file is written using the configured buffer size.
+     * @param fileName Path and name of the output file. Any existing file with the same path and name will be
+     *                 overwritten as soon as the output file is committed.
+     * @return Opened output file.
+     * @throws IOException If the output file cannot be opened.
+     */
+    public static FileOutput open(final String fileName) throws IOException {
+        return FileOutput.open(fileName, Integer.getInteger(
+                FileOutput.BUFFER_SIZE_PROPERTY, FileOutput.DEFAULT_BUFFER_SIZE));
+    }
+
+    /**
+     * Opens an output file.
+     * @param fileName Path and name of the output file. Any existing file with the same path and name will be
+     *                 overwritten as soon as the output file is committed.
+     * @param bufferSize Size of the write buffer in bytes.
+     * @return Opened output file.
+     * @throws IOException If the output file cannot be opened.
+     */
+    public static FileOutput open(final String fileName, final int bufferSize) throws IOException {
+        if (fileName.isEmpty()) {
+            throw new IOException("No output file name provided.");
+        }
+        final Path target = Paths.get(fileName).toAbsolutePath();
+        if (Files.isDirectory(target)) {
+            throw new IOException(String.join("", "Output file ", fileName, " is a directory."));
+        }
+
+        // Files.createTempFile would restrict the permissions of the output file to the owner.
+        Path tmp = null;
+        FileChannel fc = null;
+        while (fc == null) {
+            tmp = target.resolveSibling(String.join("", ".", target.getFileName().toString(), ".",
+                    Long.toHexString(ThreadLocalRandom.current().nextLong()), ".tmp"));
+            try {
+                fc = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+            } catch (FileAlreadyExistsException e) {
+                fc = null;
+            }
+        }
+        try {
+            return new FileOutput(target, tmp, fc, Math.max(bufferSize, 1));
+        } catch (IOException e) {
+            fc.close();
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the output stream writing to this output file. The stream must not be closed
+     * directly, use {@link #commit()} or {@link #close()} instead.
+     * @return See description.
+     */
+    public OutputStream getStream() {
+        return this.compressor != null ? this.compressor : this.stream;
+    }
+
+    /**
+     * Writes all buffered data, finishes compressing the data, syncs the file to disk if configured and replaces
+     * the actual output file by the temporary file. Logs the write throughput.
+     * @throws IOException If the data cannot be written or the file cannot be renamed.
+     */
+    public void commit() throws IOException {
+        if (this.closed) {
+            throw new IOException(String.join("", "Output file ", this.target.toString(), " is already closed."));
+        }
+        if (this.compressor != null) {
+            this.compressor.close();
+        }
+        this.stream.flushBuffer();
+        final long bytes = this.channel.size();
+        if (Boolean.getBoolean(FileOutput.FSYNC_PROPERTY)) {
+            this.channel.force(true);
+        }
+        this.channel.close();
+
+        // The output file is only marked as closed once the temporary file has been moved,
+        // so that close() still removes the temporary file if the move fails.
+        try {
+            Files.move(this.tmpFile, this.target,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(this.tmpFile, this.target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        this.closed = true;
+
+        final long nanos = Math.max(System.nanoTime() - this.startTime, 1);
+        LazyLog.info(FileOutput.LOGGER,
+                () -> String.format(Locale.ENGLISH, "Wrote %.2f MB to '%s' in %d ms (%.2f MB/s)",
+                        bytes / FileOutput.MEGABYTE, this.target.toString(), nanos / FileOutput.NANOS_PER_MILLI,
+                        bytes / FileOutput.MEGABYTE / (nanos / FileOutput.NANOS_PER_SECOND))
+        );
+    }
+
+    /**
+     * Closes the output file. If the output file has not been committed, all data
+     * written so far is discarded and the actual output file remains untouched.
+     * @throws IOException If the temporary file cannot be removed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        if (this.compressor != null) {
+            this.compressor.abort();
+        }
+        try {
+            this.channel.close();
+        } finally {
+            Files.deleteIfExists(this.tmpFile);
+        }
+    }
+
+    /**
+     * Output stream writing data through a direct buffer to a {@link FileChannel}.
+     * Writes larger than the buffer are passed to the channel directly.
+     */
+    private static final class ChannelOutputStream extends OutputStream {
+        /**
+         * Channel the data is written to.
+         */
+        private final FileChannel fc;
+        /**
+         * Direct write buffer.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Constructor.
+         * @param channel Channel the data is written to.
+         * @param bufferSize Size of the write buffer in bytes.
+         */
+        ChannelOutputStream(final FileChannel channel, final int bufferSize) {
+            this.fc = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (!this.buffer.hasRemaining()) {
+                this.flushBuffer();
+            }
+            this.buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (len > this.buffer.remaining()) {
+                this.flushBuffer();
+                if (len > this.buffer.capacity()) {
+                    final ByteBuffer src = ByteBuffer.wrap(b, off, len);
+                    while (src.hasRemaining()) {
+                        this.fc.write(src);
+                    }
+                    return;
+                }
+            }
+            this.buffer.put(b, off, len);
+        }
+
+        /**
+         * Data is only written to the channel when the buffer is full or when the output file is committed,
+         * since serializers tend to flush frequently.
+         */
+        @Override
+        public void flush() {
+        }
+
+        /**
+         * The stream is closed by the enclosing {@link FileOutput}.
+         */
+        @Override
+        public void close() {
+        }
+
+        /**
+         * Writes all buffered data to the channel.
+         * @throws IOException If the data cannot be written.
+         */
+        void flushBuffer() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.fc.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+    }
+
+}
@@ -10,10 +10,14 @@
 
 package org.g_node.micro.commons;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
@@ -23,6 +27,15 @@ import java.util.Set;
  * @author Michael Sonntag (sonntag@bio.lmu.de)
  */
 public final class FileService {
+    /**
+     * Suffix added by the tools to the names of the output files they create, e.g. "data_out.ttl".
+     */
+    public static final String OUTPUT_SUFFIX = "_out";
+    /**
+     * File extension of temporary files, see {@link FileOutput}.
+     */
+    private static final String TMP_EXTENSION = ".tmp";
+
     /**
      * Method for validating that a file actually exists.
      * @param checkFile Path and filename of the provided file.
@@ -73,6 +86,70 @@ public final class FileService {
         return correctFileType;
     }
 
+    /**
+     * Returns if the provided path contains glob pattern characters, see {@link FileService#listFiles(String, Set)}.
+     * @param path Path that is supposed to be checked.
+     * @return True if the path contains any of the characters '*', '?', '[' or '{'.
+     */
+    public static boolean isGlob(final String path) {
+        return path.indexOf('*') >= 0 || path.indexOf('?') >= 0 || path.indexOf('[') >= 0 || path.indexOf('{') >= 0;
+    }
+
+    /**
+     * Lists all files of a folder or all files matching a glob pattern, that are of a supported file extension.
+     * Compressed files are listed, if the file extension preceding the compression file extension is supported,
+     * see {@link Compression}.
+     * Glob patterns are only supported in the last element of the path e.g. "data/session_*.nt".
+     * Sub folders are not searched. Temporary files and output files created by the tools,
+     * see {@link #OUTPUT_SUFFIX}, are skipped, so that rerunning a tool on a folder does not process
+     * the results of the previous run. Output files are only listed, if the glob pattern names them
+     * explicitly e.g. "data/*_out.ttl".
+     * @param folderOrGlob Path of a folder or glob pattern.
+     * @param fileExtensions Set containing all supported upper case file extensions.
+     * @return Matching files in no particular order.
+     * @throws IOException If the folder cannot be read.
+     */
+    public static List<Path> listFiles(final String folderOrGlob, final Set<String> fileExtensions)
+            throws IOException {
+
+        Path folder = Paths.get(".");
+        String glob = "*";
+        if (FileService.isGlob(folderOrGlob)) {
+            final int i = Math.max(folderOrGlob.lastIndexOf('/'), folderOrGlob.lastIndexOf(File.separatorChar));
+            if (i >= 0) {
+                folder = Paths.get(folderOrGlob.substring(0, i + 1));
+            }
+            glob = folderOrGlob.substring(i + 1);
+        } else {
+            folder = Paths.get(folderOrGlob);
+        }
+
+        final boolean skipOutput = !glob.contains(FileService.OUTPUT_SUFFIX);
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(folder, glob)) {
+            for (final Path p : ds) {
+                final String fileName = Compression.stripSuffix(p.getFileName().toString());
+                if (Files.isRegularFile(p)
+                        && FileService.checkFileExtension(fileName, fileExtensions)
+                        && !fileName.endsWith(FileService.TMP_EXTENSION)
+                        && !(skipOutput && FileService.isOutputFile(fileName))) {
+                    files.add(p);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Returns if a file name is the name of an output file created by the tools, see {@link #OUTPUT_SUFFIX}.
+     * @param fileName Name of the file without compression file extension.
+     * @return True if the file name without file extension ends with the output suffix.
+     */
+    private static boolean isOutputFile(final String fileName) {
+        final int i = fileName.lastIndexOf('.');
+        return (i > 0 ? fileName.substring(0, i) : fileName).endsWith(FileService.OUTPUT_SUFFIX);
+    }
+
     /**
      * Creates a backup file with a timestamp and the string "backup" in its name.
      * @param file Name of the file that is to be copied.
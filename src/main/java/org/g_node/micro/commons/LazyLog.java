@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.util.function.Supplier;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * Log4j logging with lazily built messages. The message supplier is only called,
+ * if the logger is enabled for the level of the message, so no message strings are
+ * joined on hot paths when e.g. info messages are disabled.
+ *
+ * Example: {@code LazyLog.info(LOGGER, () -> String.join("", "Parsed sheet ", sheetName))}
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class LazyLog {
+
+    /**
+     * Prevent instantiation.
+     */
+    private LazyLog() {
+    }
+
+    /**
+     * Logs a debug message.
+     * @param logger Logger of the calling class.
+     * @param message Supplier of the message, only called if debug messages are enabled.
+     */
+    public static void debug(final Logger logger, final Supplier<String> message) {
+        LazyLog.log(logger, Level.DEBUG, message);
+    }
+
+    /**
+     * Logs an info message.
+     * @param logger Logger of the calling class.
+     * @param message Supplier of the message, only called if info messages are enabled.
+     */
+    public static void info(final Logger logger, final Supplier<String> message) {
+        LazyLog.log(logger, Level.INFO, message);
+    }
+
+    /**
+     * Logs a warning message.
+     * @param logger Logger of the calling class.
+     * @param message Supplier of the message, only called if warning messages are enabled.
+     */
+    public static void warn(final Logger logger, final Supplier<String> message) {
+        LazyLog.log(logger, Level.WARN, message);
+    }
+
+    /**
+     * Logs an error message.
+     * @param logger Logger of the calling class.
+     * @param message Supplier of the message, only called if error messages are enabled.
+     */
+    public static void error(final Logger logger, final Supplier<String> message) {
+        LazyLog.log(logger, Level.ERROR, message);
+    }
+
+    /**
+     * Logs a message, if the logger is enabled for the provided level.
+     * @param logger Logger of the calling class.
+     * @param level Level of the message.
+     * @param message Supplier of the message.
+     */
+    private static void log(final Logger logger, final Level level, final Supplier<String> message) {
+        if (logger.isEnabledFor(level)) {
+            logger.log(level, message.get());
+        }
+    }
+
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input layer reading large files via memory mapped {@link FileChannel}s. The data is read directly from the
+ * page cache without being copied into an intermediate stream buffer first. Since a single mapping is limited
+ * to 2 GB, large files are mapped in consecutive windows while they are read. Small files are read through
+ * a regular buffered stream, since mapping a file is more expensive than reading a few kilobytes.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class MappedFileInput {
+    /**
+     * Files smaller than this number of bytes are not mapped.
+     */
+    public static final long MIN_MAPPED_SIZE = 1024 * 1024;
+    /**
+     * Default size of a mapped window in bytes.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+    /**
+     * Buffer size of the regular input streams used for small files.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Opens an input stream reading a file. Files of at least {@link #MIN_MAPPED_SIZE} bytes are read
+     * through memory mapped windows of the default window size.
+     * @param fileName Path and name of the input file.
+     * @return Input stream reading the file, has to be closed by the caller.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static InputStream open(final String fileName) throws IOException {
+        final Path file = Paths.get(fileName);
+        if (Files.size(file) < MappedFileInput.MIN_MAPPED_SIZE) {
+            return new BufferedInputStream(Files.newInputStream(file), MappedFileInput.BUFFER_SIZE);
+        }
+        return MappedFileInput.openMapped(fileName, MappedFileInput.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Opens an input stream reading a whole file through memory mapped windows.
+     * @param fileName Path and name of the input file.
+     * @param windowSize Maximum number of bytes mapped at once.
+     * @return Input stream reading the file, has to be closed by the caller.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static InputStream openMapped(final String fileName, final int windowSize) throws IOException {
+        final FileChannel fc = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        return new MappedInputStream(fc, 0, fc.size(), windowSize, true);
+    }
+
+    /**
+     * Opens an input stream reading a range of an already opened file through a single memory mapped window.
+     * Closing the stream does not close the channel. Multiple ranges of the same channel can be read concurrently.
+     * @param fc Channel of the input file.
+     * @param start Offset of the first byte of the range.
+     * @param end Offset of the first byte after the range, the range must not exceed 2 GB.
+     * @return Input stream reading the range.
+     */
+    public static InputStream openRange(final FileChannel fc, final long start, final long end) {
+        return new MappedInputStream(fc, start, end, Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Input stream reading a range of a file through consecutive memory mapped windows.
+     */
+    private static final class MappedInputStream extends InputStream {
+        /**
+         * Channel of the input file.
+         */
+        private final FileChannel fc;
+        /**
+         * Offset of the first byte after the range that is read.
+         */
+        private final long end;
+        /**
+         * Maximum number of bytes mapped at once.
+         */
+        private final int windowSize;
+        /**
+         * True if the channel is closed with this stream.
+         */
+        private final boolean closeChannel;
+        /**
+         * Offset of the first byte of the next window.
+         */
+        private long nextWindow;
+        /**
+         * Currently mapped window, null before the first read and after the stream has been closed.
+         */
+        private MappedByteBuffer window;
+
+        /**
+         * Constructor.
+         * @param channel Channel of the input file.
+         * @param rangeStart Offset of the first byte of the range that is read.
+         * @param rangeEnd Offset of the first byte after the range that is read.
+         * @param maxWindow Maximum number of bytes mapped at once.
+         * @param closeFc True if the channel is closed with this stream.
+         */
+        MappedInputStream(final FileChannel channel, final long rangeStart, final long rangeEnd,
+                          final int maxWindow, final boolean closeFc) {
+            this.fc = channel;
+            this.nextWindow = rangeStart;
+            this.end = rangeEnd;
+            this.windowSize = maxWindow;
+            this.closeChannel = closeFc;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!this.ensureWindow()) {
+                return -1;
+            }
+            return this.window.get() & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.ensureWindow()) {
+                return -1;
+            }
+            final int n = Math.min(len, this.window.remaining());
+            this.window.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n && this.ensureWindow()) {
+                final int step = (int) Math.min(n - skipped, this.window.remaining());
+                this.window.position(this.window.position() + step);
+                skipped = skipped + step;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            final long remaining = (this.window != null ? this.window.remaining() : 0) + this.end - this.nextWindow;
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.window = null;
+            this.nextWindow = this.end;
+            if (this.closeChannel) {
+                this.fc.close();
+            }
+        }
+
+        /**
+         * Maps the next window, if the current window has been read completely.
+         * @return False if the end of the range has been reached.
+         * @throws IOException If the next window cannot be mapped.
+         */
+        private boolean ensureWindow() throws IOException {
+            if (this.window != null && this.window.hasRemaining()) {
+                return true;
+            }
+            if (this.nextWindow >= this.end) {
+                return false;
+            }
+            final long size = Math.min(this.windowSize, this.end - this.nextWindow);
+            this.window = this.fc.map(FileChannel.MapMode.READ_ONLY, this.nextWindow, size);
+            this.nextWindow = this.nextWindow + size;
+            return true;
+        }
+    }
+
+}
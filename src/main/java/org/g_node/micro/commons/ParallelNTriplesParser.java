@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.sparql.core.Quad;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.ReaderRIOT;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.lang.LabelToNode;
+import org.apache.jena.riot.system.ParserProfile;
+import org.apache.jena.riot.system.RiotLib;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.log4j.Logger;
+
+/**
+ * Parser reading line based RDF files (N-Triples and N-Quads) using multiple threads.
+ * The input file is split into chunks aligned to line breaks, the chunks are parsed concurrently
+ * and the parsed statements are sent to the destination {@link StreamRDF} in the order of the input file.
+ * Only a limited number of chunks is held in memory at any time. All chunks of a file share the
+ * same blank node scope, so blank node labels used in different chunks refer to the same blank node.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class ParallelNTriplesParser {
+    /**
+     * Default size of a chunk in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ParallelNTriplesParser.class.getName());
+    /**
+     * Number of chunks per thread that are parsed or waiting to be sent to the destination at the same time.
+     */
+    private static final int CHUNKS_PER_THREAD = 2;
+    /**
+     * Number of bytes read at once when searching for the line break ending a chunk.
+     */
+    private static final int SCAN_SIZE = 4096;
+
+    /**
+     * Returns if files of an RDF language can be parsed by this parser.
+     * @param lang RDF language of a file, can be null.
+     * @return True if the language is N-Triples or N-Quads.
+     */
+    public static boolean isSupported(final Lang lang) {
+        return RDFLanguages.NTRIPLES.equals(lang) || RDFLanguages.NQUADS.equals(lang);
+    }
+
+    /**
+     * Parses an N-Triples or N-Quads file using the default chunk size.
+     * @param fileName Path and name of the input file.
+     * @param lang RDF language of the input file, see {@link #isSupported(Lang)}.
+     * @param dest Destination receiving the parsed statements.
+     * @param threads Number of threads used to parse the file.
+     * @return Number of parsed statements.
+     * @throws IOException If the input file cannot be read.
+     * @throws RiotException If the input file contains invalid statements.
+     */
+    public static long parse(final String fileName, final Lang lang, final StreamRDF dest,
+                             final int threads) throws IOException {
+        return ParallelNTriplesParser.parse(fileName, lang, dest, threads, ParallelNTriplesParser.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Parses an N-Triples or N-Quads file. Logs the number of parsed statements per second.
+     * @param fileName Path and name of the input file.
+     * @param lang RDF language of the input file, see {@link #isSupported(Lang)}.
+     * @param dest Destination receiving the parsed statements.
+     * @param threads Number of threads used to parse the file.
+     * @param chunkSize Minimal size of a chunk in bytes, chunks always end with a line break.
+     * @return Number of parsed statements.
+     * @throws IOException If the input file cannot be read.
+     * @throws RiotException If the input file contains invalid statements.
+     */
+    public static long parse(final String fileName, final Lang lang, final StreamRDF dest,
+                             final int threads, final int chunkSize) throws IOException {
+
+        final long startTime = System.currentTimeMillis();
+        final UUID blankNodeSeed = UUID.randomUUID();
+        long statements = 0;
+
+        try (FileChannel fc = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            final List<Long> bounds = ParallelNTriplesParser.chunkBounds(fc, chunkSize);
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            final Deque<Future<ChunkCollector>> pending = new ArrayDeque<>();
+
+            dest.start();
+            try {
+                int next = 0;
+                while (next < bounds.size() - 1 || !pending.isEmpty()) {
+                    while (next < bounds.size() - 1
+                            && pending.size() < threads * ParallelNTriplesParser.CHUNKS_PER_THREAD) {
+                        final long start = bounds.get(next);
+                        final long end = bounds.get(next + 1);
+                        pending.add(executor.submit(
+                                () -> ParallelNTriplesParser.parseChunk(fc, start, end, lang, blankNodeSeed)
+                        ));
+                        next = next + 1;
+                    }
+                    statements = statements + pending.poll().get().sendTo(dest);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while parsing input file.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RiotException) {
+                    throw (RiotException) e.getCause();
+                } else if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+            dest.finish();
+        }
+
+        final long duration = Math.max(System.currentTimeMillis() - startTime, 1);
+        final long parsed = statements;
+        LazyLog.info(ParallelNTriplesParser.LOGGER,
+                () -> String.format(Locale.ENGLISH,
+                        "Parsed %d statements in %d ms using %d threads (%.0f statements/s)",
+                        parsed, duration, threads, parsed * 1000.0 / duration)
+        );
+
+        return parsed;
+    }
+
+    /**
+     * Splits a file into chunks of at least the provided size, every chunk but the last one ends with a line break.
+     * @param fc Channel of the input file.
+     * @param chunkSize Minimal size of a chunk in bytes.
+     * @return Start offset of every chunk followed by the size of the file.
+     * @throws IOException If the input file cannot be read.
+     */
+    private static List<Long> chunkBounds(final FileChannel fc, final int chunkSize) throws IOException {
+        final long size = fc.size();
+        final List<Long> bounds = new ArrayList<>();
+        final ByteBuffer scan = ByteBuffer.allocate(ParallelNTriplesParser.SCAN_SIZE);
+
+        long pos = 0;
+        bounds.add(pos);
+        while (size - pos > chunkSize) {
+            long lineEnd = -1;
+            long scanPos = pos + chunkSize;
+            while (lineEnd < 0 && scanPos < size) {
+                scan.clear();
+                final int read = fc.read(scan, scanPos);
+                if (read < 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i = i + 1) {
+                    if (scan.get(i) == '\n') {
+                        lineEnd = scanPos + i;
+                        break;
+                    }
+                }
+                scanPos = scanPos + read;
+            }
+            if (lineEnd < 0 || lineEnd + 1 >= size) {
+                break;
+            }
+            pos = lineEnd + 1;
+            bounds.add(pos);
+        }
+        bounds.add(size);
+
+        return bounds;
+    }
+
+    /**
+     * Reads and parses a single chunk of the input file. The chunk is read through a memory mapped
+     * view of the file, see {@link MappedFileInput#openRange(FileChannel, long, long)}.
+     * Every chunk uses its own parser profile, which creates blank nodes from the shared seed.
+     * @param fc Channel of the input file.
+     * @param start Offset of the first byte of the chunk.
+     * @param end Offset of the first byte after the chunk.
+     * @param lang RDF language of the input file.
+     * @param blankNodeSeed Seed shared by all chunks of the file, used to create blank nodes from labels.
+     * @return Statements of the chunk.
+     */
+    private static ChunkCollector parseChunk(final FileChannel fc, final long start, final long end,
+                                             final Lang lang, final UUID blankNodeSeed) {
+        final ChunkCollector collector = new ChunkCollector();
+        final ParserProfile profile = RiotLib.profile(lang, null);
+        profile.setLabelToNode(LabelToNode.createScopeByDocumentHash(blankNodeSeed));
+        final ReaderRIOT reader = RDFDataMgr.createReader(lang);
+        reader.setParserProfile(profile);
+        try {
+            reader.read(MappedFileInput.openRange(fc, start, end), null, null, collector, null);
+        } catch (RiotException e) {
+            throw new RiotException(
+                    String.join("", "Error in the chunk starting at byte ", String.valueOf(start), ": ", e.getMessage())
+            );
+        }
+
+        return collector;
+    }
+
+    /**
+     * {@link StreamRDF} collecting the statements of a single chunk.
+     */
+    private static final class ChunkCollector extends StreamRDFBase {
+        /**
+         * Parsed triples.
+         */
+        private final List<Triple> triples = new ArrayList<>();
+        /**
+         * Parsed quads.
+         */
+        private final List<Quad> quads = new ArrayList<>();
+
+        @Override
+        public void triple(final Triple triple) {
+            this.triples.add(triple);
+        }
+
+        @Override
+        public void quad(final Quad quad) {
+            this.quads.add(quad);
+        }
+
+        /**
+         * Sends all collected statements to a destination stream.
+         * @param dest Destination stream.
+         * @return Number of sent statements.
+         */
+        long sendTo(final StreamRDF dest) {
+            this.triples.forEach(dest::triple);
+            this.quads.forEach(dest::quad);
+            return this.triples.size() + this.quads.size();
+        }
+    }
+
+}
@@ -0,0 +1,456 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.hp.hpl.jena.datatypes.RDFDatatype;
+import com.hp.hpl.jena.datatypes.TypeMapper;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.rdf.model.AnonId;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.ResultSetStream;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
+import com.hp.hpl.jena.sparql.engine.binding.BindingFactory;
+import com.hp.hpl.jena.sparql.engine.binding.BindingMap;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.apache.jena.atlas.RuntimeIOException;
+
+/**
+ * Compact binary row format for SPARQL SELECT results. Rows are written and read one at a time,
+ * so neither writing nor reading a result requires the whole result to be held in memory.
+ *
+ * Layout of the format, all integers are big endian:
+ *  - magic bytes "CRQR" and the format version (int),
+ *  - number of variables (variable length integer) followed by the variable names,
+ *  - one block per row starting with the byte 1, followed by one term per variable,
+ *  - the byte 0 marking the end of the results.
+ * Each term starts with a type byte: 0 unbound, 1 IRI, 2 blank node, 3 literal without datatype,
+ * 4 language tagged literal, 5 typed literal. IRIs, blank node labels, languages and datatypes are
+ * written as references into a string dictionary built up while writing: the reference 0 is followed
+ * by a new string, which is added to the dictionary, all other references denote the string added
+ * at position reference - 1. The dictionary is limited in size, strings exceeding the limit are always
+ * written inline. Literal values and variable names are written inline as variable length integer
+ * length prefixed UTF-8 bytes.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class QueryResultBinaryFormat {
+    /**
+     * File extension of the binary result format.
+     */
+    public static final String FILE_EXTENSION = "srb";
+    /**
+     * Magic bytes identifying a file of this format.
+     */
+    private static final byte[] MAGIC = "CRQR".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Current version of the format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of the read and write buffers.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Maximum number of entries of the string dictionary.
+     */
+    private static final int MAX_DICTIONARY_SIZE = 64 * 1024;
+    /**
+     * Byte starting a row.
+     */
+    private static final int ROW = 1;
+    /**
+     * Byte marking the end of the results.
+     */
+    private static final int END = 0;
+    /**
+     * Term type of unbound variables.
+     */
+    private static final int UNBOUND = 0;
+    /**
+     * Term type of IRIs.
+     */
+    private static final int IRI = 1;
+    /**
+     * Term type of blank nodes.
+     */
+    private static final int BLANK = 2;
+    /**
+     * Term type of literals without datatype and language.
+     */
+    private static final int PLAIN_LITERAL = 3;
+    /**
+     * Term type of language tagged literals.
+     */
+    private static final int LANG_LITERAL = 4;
+    /**
+     * Term type of typed literals.
+     */
+    private static final int TYPED_LITERAL = 5;
+    /**
+     * Bit mask of the payload bits of a variable length integer byte.
+     */
+    private static final int VAR_PAYLOAD = 0x7F;
+    /**
+     * Bit flagging that another byte of a variable length integer follows.
+     */
+    private static final int VAR_CONTINUE = 0x80;
+    /**
+     * Number of payload bits per byte of a variable length integer.
+     */
+    private static final int VAR_SHIFT = 7;
+
+    /**
+     * Writes all rows of a result set.
+     * @param os Output the results are written to, the stream is flushed but not closed.
+     * @param result Result set that is supposed to be written.
+     * @return Number of written rows.
+     * @throws IOException If the results cannot be written.
+     */
+    public static long write(final OutputStream os, final ResultSet result) throws IOException {
+        final DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(os, QueryResultBinaryFormat.BUFFER_SIZE));
+        out.write(QueryResultBinaryFormat.MAGIC);
+        out.writeInt(QueryResultBinaryFormat.VERSION);
+
+        final List<Var> vars = Var.varList(result.getResultVars());
+        QueryResultBinaryFormat.writeVarLong(out, vars.size());
+        for (final Var v : vars) {
+            QueryResultBinaryFormat.writeString(out, v.getVarName());
+        }
+
+        final Map<String, Integer> dict = new HashMap<>();
+        long rows = 0;
+        while (result.hasNext()) {
+            final Binding b = result.nextBinding();
+            out.writeByte(QueryResultBinaryFormat.ROW);
+            for (final Var v : vars) {
+                QueryResultBinaryFormat.writeTerm(out, b.get(v), dict);
+            }
+            rows = rows + 1;
+        }
+        out.writeByte(QueryResultBinaryFormat.END);
+        out.flush();
+        return rows;
+    }
+
+    /**
+     * Returns a result set reading the rows of the binary format one at a time. The stream
+     * is read while iterating the result set and closed once the last row has been read.
+     * @param is Input the results are read from.
+     * @return Result set of the stored results.
+     * @throws IOException If the input is not of this format or cannot be read.
+     * @throws RuntimeIOException If a row cannot be read while iterating the result set.
+     */
+    public static ResultSet read(final InputStream is) throws IOException {
+        final DataInputStream in = new DataInputStream(
+                new BufferedInputStream(is, QueryResultBinaryFormat.BUFFER_SIZE));
+
+        final byte[] magic = new byte[QueryResultBinaryFormat.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, QueryResultBinaryFormat.MAGIC)) {
+            throw new IOException("Input is not a binary query result file.");
+        }
+        final int version = in.readInt();
+        if (version != QueryResultBinaryFormat.VERSION) {
+            throw new IOException(
+                    String.join("", "Unsupported binary query result version ", String.valueOf(version))
+            );
+        }
+
+        final int numVars = (int) QueryResultBinaryFormat.readVarLong(in);
+        final List<String> varNames = new ArrayList<>(numVars);
+        for (int i = 0; i < numVars; i = i + 1) {
+            varNames.add(QueryResultBinaryFormat.readString(in));
+        }
+
+        return new ResultSetStream(varNames, null, new RowIterator(in, Var.varList(varNames)));
+    }
+
+    /**
+     * Writes a single term.
+     * @param out Output the term is written to.
+     * @param node Term, null if the variable is unbound.
+     * @param dict String dictionary.
+     * @throws IOException If the term cannot be written.
+     */
+    private static void writeTerm(final DataOutputStream out, final Node node,
+                                  final Map<String, Integer> dict) throws IOException {
+        if (node == null) {
+            out.writeByte(QueryResultBinaryFormat.UNBOUND);
+        } else if (node.isURI()) {
+            out.writeByte(QueryResultBinaryFormat.IRI);
+            QueryResultBinaryFormat.writeRef(out, node.getURI(), dict);
+        } else if (node.isBlank()) {
+            out.writeByte(QueryResultBinaryFormat.BLANK);
+            QueryResultBinaryFormat.writeRef(out, node.getBlankNodeLabel(), dict);
+        } else if (node.isLiteral() && !node.getLiteralLanguage().isEmpty()) {
+            out.writeByte(QueryResultBinaryFormat.LANG_LITERAL);
+            QueryResultBinaryFormat.writeString(out, node.getLiteralLexicalForm());
+            QueryResultBinaryFormat.writeRef(out, node.getLiteralLanguage(), dict);
+        } else if (node.isLiteral() && node.getLiteralDatatypeURI() != null) {
+            out.writeByte(QueryResultBinaryFormat.TYPED_LITERAL);
+            QueryResultBinaryFormat.writeString(out, node.getLiteralLexicalForm());
+            QueryResultBinaryFormat.writeRef(out, node.getLiteralDatatypeURI(), dict);
+        } else if (node.isLiteral()) {
+            out.writeByte(QueryResultBinaryFormat.PLAIN_LITERAL);
+            QueryResultBinaryFormat.writeString(out, node.getLiteralLexicalForm());
+        } else {
+            throw new IOException(String.join("", "Unsupported result term ", node.toString()));
+        }
+    }
+
+    /**
+     * Reads a single term written by {@link #writeTerm(DataOutputStream, Node, Map)}.
+     * @param in Input the term is read from.
+     * @param dict String dictionary.
+     * @return Term, null if the variable is unbound.
+     * @throws IOException If the term cannot be read or is invalid.
+     */
+    private static Node readTerm(final DataInputStream in, final List<String> dict) throws IOException {
+        final int type = in.readUnsignedByte();
+        switch (type) {
+            case QueryResultBinaryFormat.UNBOUND:
+                return null;
+            case QueryResultBinaryFormat.IRI:
+                return NodeFactory.createURI(QueryResultBinaryFormat.readRef(in, dict));
+            case QueryResultBinaryFormat.BLANK:
+                return NodeFactory.createAnon(new AnonId(QueryResultBinaryFormat.readRef(in, dict)));
+            case QueryResultBinaryFormat.PLAIN_LITERAL:
+                return NodeFactory.createLiteral(QueryResultBinaryFormat.readString(in));
+            case QueryResultBinaryFormat.LANG_LITERAL:
+                final String lex = QueryResultBinaryFormat.readString(in);
+                return NodeFactory.createLiteral(lex, QueryResultBinaryFormat.readRef(in, dict), false);
+            case QueryResultBinaryFormat.TYPED_LITERAL:
+                final String value = QueryResultBinaryFormat.readString(in);
+                final RDFDatatype dt = TypeMapper.getInstance().getSafeTypeByName(
+                        QueryResultBinaryFormat.readRef(in, dict));
+                return NodeFactory.createLiteral(value, dt);
+            default:
+                throw new IOException(String.join("", "Invalid term type ", String.valueOf(type)));
+        }
+    }
+
+    /**
+     * Writes a String as dictionary reference, new Strings are written inline and added to the
+     * dictionary while it has not reached its maximum size.
+     * @param out Output the reference is written to.
+     * @param val String value.
+     * @param dict String dictionary.
+     * @throws IOException If the reference cannot be written.
+     */
+    private static void writeRef(final DataOutputStream out, final String val,
+                                 final Map<String, Integer> dict) throws IOException {
+        final Integer ref = dict.get(val);
+        if (ref != null) {
+            QueryResultBinaryFormat.writeVarLong(out, ref + 1);
+            return;
+        }
+        QueryResultBinaryFormat.writeVarLong(out, 0);
+        QueryResultBinaryFormat.writeString(out, val);
+        if (dict.size() < QueryResultBinaryFormat.MAX_DICTIONARY_SIZE) {
+            dict.put(val, dict.size());
+        }
+    }
+
+    /**
+     * Reads a String written by {@link #writeRef(DataOutputStream, String, Map)}.
+     * @param in Input the reference is read from.
+     * @param dict String dictionary.
+     * @return String value.
+     * @throws IOException If the reference cannot be read or is invalid.
+     */
+    private static String readRef(final DataInputStream in, final List<String> dict) throws IOException {
+        final long ref = QueryResultBinaryFormat.readVarLong(in);
+        if (ref == 0) {
+            final String val = QueryResultBinaryFormat.readString(in);
+            if (dict.size() < QueryResultBinaryFormat.MAX_DICTIONARY_SIZE) {
+                dict.add(val);
+            }
+            return val;
+        }
+        if (ref > dict.size()) {
+            throw new IOException(String.join("", "Invalid string reference ", String.valueOf(ref)));
+        }
+        return dict.get((int) ref - 1);
+    }
+
+    /**
+     * Writes a String as length prefixed UTF-8 bytes.
+     * @param out Output the String is written to.
+     * @param val String value.
+     * @throws IOException If the String cannot be written.
+     */
+    private static void writeString(final DataOutputStream out, final String val) throws IOException {
+        final byte[] b = val.getBytes(StandardCharsets.UTF_8);
+        QueryResultBinaryFormat.writeVarLong(out, b.length);
+        out.write(b);
+    }
+
+    /**
+     * Reads a String written by {@link #writeString(DataOutputStream, String)}.
+     * @param in Input the String is read from.
+     * @return String value.
+     * @throws IOException If the String cannot be read.
+     */
+    private static String readString(final DataInputStream in) throws IOException {
+        final long length = QueryResultBinaryFormat.readVarLong(in);
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException(String.join("", "Invalid string length ", String.valueOf(length)));
+        }
+        final byte[] b = new byte[(int) length];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a non negative long as variable length integer using 7 bit groups.
+     * @param out Output the value is written to.
+     * @param val Non negative value.
+     * @throws IOException If the value cannot be written.
+     */
+    private static void writeVarLong(final DataOutputStream out, final long val) throws IOException {
+        long v = val;
+        while ((v & ~QueryResultBinaryFormat.VAR_PAYLOAD) != 0) {
+            out.writeByte((int) (v & QueryResultBinaryFormat.VAR_PAYLOAD) | QueryResultBinaryFormat.VAR_CONTINUE);
+            v = v >>> QueryResultBinaryFormat.VAR_SHIFT;
+        }
+        out.writeByte((int) v);
+    }
+
+    /**
+     * Reads a variable length integer written by {@link #writeVarLong(DataOutputStream, long)}.
+     * @param in Input the value is read from.
+     * @return Value.
+     * @throws IOException If the value cannot be read.
+     */
+    private static long readVarLong(final DataInputStream in) throws IOException {
+        long val = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            val = val | ((long) (b & QueryResultBinaryFormat.VAR_PAYLOAD) << shift);
+            shift = shift + QueryResultBinaryFormat.VAR_SHIFT;
+        } while ((b & QueryResultBinaryFormat.VAR_CONTINUE) != 0);
+        return val;
+    }
+
+    /**
+     * Iterator reading one row at a time.
+     */
+    private static final class RowIterator implements Iterator<Binding> {
+        /**
+         * Input the rows are read from.
+         */
+        private final DataInputStream in;
+        /**
+         * Variables of the results.
+         */
+        private final List<Var> vars;
+        /**
+         * String dictionary, built up while reading.
+         */
+        private final List<String> dict = new ArrayList<>();
+        /**
+         * Next row, null if it has not been read yet.
+         */
+        private Binding next;
+        /**
+         * True if the end of the results has been reached.
+         */
+        private boolean finished;
+
+        /**
+         * Constructor.
+         * @param input Input the rows are read from.
+         * @param variables Variables of the results.
+         */
+        RowIterator(final DataInputStream input, final List<Var> variables) {
+            this.in = input;
+            this.vars = variables;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.next == null && !this.finished) {
+                try {
+                    this.next = this.readRow();
+                } catch (IOException e) {
+                    this.close();
+                    throw new RuntimeIOException(e);
+                }
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public Binding next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Binding b = this.next;
+            this.next = null;
+            return b;
+        }
+
+        /**
+         * Reads the next row.
+         * @return Next row, null if the end of the results has been reached.
+         * @throws IOException If the row cannot be read.
+         */
+        private Binding readRow() throws IOException {
+            final int marker = this.in.readUnsignedByte();
+            if (marker == QueryResultBinaryFormat.END) {
+                this.close();
+                return null;
+            } else if (marker != QueryResultBinaryFormat.ROW) {
+                throw new IOException(String.join("", "Invalid row marker ", String.valueOf(marker)));
+            }
+            final BindingMap b = BindingFactory.create();
+            for (final Var v : this.vars) {
+                final Node n = QueryResultBinaryFormat.readTerm(this.in, this.dict);
+                if (n != null) {
+                    b.add(v, n);
+                }
+            }
+            return b;
+        }
+
+        /**
+         * Closes the input once all rows have been read or reading failed.
+         */
+        private void close() {
+            this.finished = true;
+            try {
+                this.in.close();
+            } catch (IOException e) {
+                throw new RuntimeIOException(e);
+            }
+        }
+    }
+
+}
@@ -10,19 +10,38 @@
 
 package org.g_node.micro.commons;
 
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
 import com.hp.hpl.jena.query.ResultSet;
 import com.hp.hpl.jena.query.ResultSetFormatter;
 import com.hp.hpl.jena.rdf.model.Model;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.shared.Lock;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.lang.StreamRDFCounting;
+import org.apache.jena.riot.system.StreamOps;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.riot.system.StreamRDFWriter;
 import org.apache.log4j.Logger;
 
 /**
@@ -33,11 +52,14 @@ import org.apache.log4j.Logger;
 public final class RDFService {
     /**
      * Map returning the RDF formats supported by this service.
+     * TTL-STREAM writes Turtle in blocks of statements grouped by subject without
+     * analysing the whole graph, see {@link RDFService#isStreamingFormat(String)}.
      */
     public static final Map<String, RDFFormat> RDF_FORMAT_MAP =
             Collections.unmodifiableMap(new HashMap<String, RDFFormat>(3) {
                 {
                     put("TTL", RDFFormat.TURTLE_PRETTY);
+                    put("TTL-STREAM", RDFFormat.TURTLE_BLOCKS);
                     put("RDF/XML", RDFFormat.RDFXML);
                     put("NTRIPLES", RDFFormat.NTRIPLES);
                     put("JSON-LD", RDFFormat.JSONLD);
@@ -51,6 +73,7 @@ public final class RDFService {
             Collections.unmodifiableMap(new HashMap<String, String>(3) {
                 {
                     put("TTL", "ttl");
+                    put("TTL-STREAM", "ttl");
                     put("RDF/XML", "rdf");
                     put("NTRIPLES", "nt");
                     put("JSON-LD", "jsonld");
@@ -66,6 +89,9 @@ public final class RDFService {
             Collections.unmodifiableMap(new HashMap<String, String>(0) {
                 {
                     put("CSV", "csv");
+                    put("TSV", "tsv");
+                    put("JSON", "srj");
+                    put("BIN", QueryResultBinaryFormat.FILE_EXTENSION);
                 }
             });
 
@@ -77,12 +103,62 @@ public final class RDFService {
     /**
      * Open an RDF file, load the data and return the RDF model. Method will not check,
      * if the file is actually a valid RDF file or if the file extension matches
-     * the content of the file.
+     * the content of the file. Compressed files are decompressed, see {@link Compression}.
      * @param fileName Path and filename of a valid RDF file.
      * @return Model created from the data within the provided RDF file.
      */
     public static Model openModelFromFile(final String fileName) {
-        return RDFDataMgr.loadModel(fileName);
+        if (!Compression.isCompressed(fileName)
+                && !RDFLanguages.NTRIPLES.equals(RDFLanguages.filenameToLang(fileName))) {
+            return RDFDataMgr.loadModel(fileName);
+        }
+        final Model model = ModelFactory.createDefaultModel();
+        RDFService.parseFile(fileName, StreamRDFLib.graph(model.getGraph()));
+        return model;
+    }
+
+    /**
+     * Parses an RDF file and sends all statements to a {@link StreamRDF} without keeping them in memory.
+     * Uncompressed N-Triples and N-Quads files are parsed using the provided number of threads,
+     * see {@link ParallelNTriplesParser}, the statements are still sent in the order of the file.
+     * @param fileName Path and filename of a valid RDF file.
+     * @param dest Stream receiving the statements.
+     * @param threads Number of threads used to parse line based files.
+     * @throws IOException If the file cannot be read.
+     * @throws RiotException If the file cannot be parsed.
+     */
+    public static void parseFile(final String fileName, final StreamRDF dest, final int threads)
+            throws IOException {
+        final Lang lang = RDFLanguages.filenameToLang(fileName);
+        if (threads > 1 && !Compression.isCompressed(fileName) && ParallelNTriplesParser.isSupported(lang)) {
+            ParallelNTriplesParser.parse(fileName, lang, dest, threads);
+        } else {
+            RDFService.parseFile(fileName, dest);
+        }
+    }
+
+    /**
+     * Parses an RDF file and sends all statements to a {@link StreamRDF}. Line based
+     * RDF files are read using {@link MappedFileInput}, compressed files are decompressed,
+     * see {@link Compression}.
+     * @param fileName Path and filename of a valid RDF file.
+     * @param dest Stream receiving the statements.
+     * @throws RiotException If the file cannot be read or parsed.
+     */
+    private static void parseFile(final String fileName, final StreamRDF dest) {
+        final Lang lang = RDFLanguages.filenameToLang(Compression.stripSuffix(fileName));
+        if (!Compression.isCompressed(fileName) && !ParallelNTriplesParser.isSupported(lang)) {
+            RDFDataMgr.parse(dest, fileName);
+            return;
+        }
+        if (lang == null) {
+            throw new RiotException(String.join("", "Unknown RDF format of file ", fileName));
+        }
+        try (InputStream in = Compression.decompress(fileName, MappedFileInput.open(fileName))) {
+            RDFDataMgr.parse(dest, in, Paths.get(fileName).toAbsolutePath().toUri().toString(), lang);
+        } catch (IOException e) {
+            throw new RiotException(String.join("", "Could not read file ", fileName, ": ", e.getMessage()), e);
+        }
     }
 
     /**
@@ -95,32 +171,298 @@ public final class RDFService {
      */
     public static void saveModelToFile(final String fileName, final Model model, final String format) {
 
-        final File file = new File(fileName);
-
+        final FileOutput out;
         try {
-            final FileOutputStream fos = new FileOutputStream(file);
-            RDFService.LOGGER.info(
-                    String.join(
+            out = FileOutput.open(fileName);
+        } catch (IOException exc) {
+            LazyLog.error(RDFService.LOGGER, () -> String.join("", "Could not open output file ", fileName));
+            return;
+        }
+
+        try (FileOutput fo = out;
+             CrawlerEvent event = CrawlerEvents.serialize(fileName, format)) {
+            LazyLog.info(RDFService.LOGGER,
+                    () -> String.join(
                             "", "Writing data to RDF file '", fileName, "' using format '", format, "'"
                     )
             );
             if (RDFService.RDF_FORMAT_MAP.containsKey(format)) {
-                try {
-                    RDFDataMgr.write(fos, model, RDFService.RDF_FORMAT_MAP.get(format));
-                    fos.close();
-                } catch (IOException ioExc) {
-                    RDFService.LOGGER.error("Error closing file stream.");
-                }
+                event.triples(model.size());
+                RDFDataMgr.write(fo.getStream(), model, RDFService.RDF_FORMAT_MAP.get(format));
+                fo.commit();
             } else {
-                RDFService.LOGGER.error(
-                        String.join("", "Error when saving output file: output format '",
+                LazyLog.error(RDFService.LOGGER,
+                        () -> String.join("", "Error when saving output file: output format '",
                                 format, "' is not supported.")
                 );
             }
-        } catch (FileNotFoundException exc) {
-            RDFService.LOGGER.error(String.join("", "Could not open output file ", fileName));
+        } catch (IOException ioExc) {
+            LazyLog.error(RDFService.LOGGER,
+                    () -> String.join("", "Error writing output file ", fileName, ": ", ioExc.getMessage())
+            );
         }
     }
+
+    /**
+     * Returns the names of the output files for a list of RDF output formats. Every output file
+     * name ends with the file extension of its format, see {@link RDFService#RDF_FORMAT_EXTENSION}.
+     * If the provided output file name already ends with the file extension of one of the requested formats,
+     * this extension is replaced for all other formats, otherwise the extension is appended.
+     * If multiple requested formats share the same file extension, the name of the format
+     * is added to the output file names of all but the first of these formats.
+     * If the provided output file name ends with a compression file extension e.g. "out.nt.gz",
+     * all output files are compressed, see {@link Compression}.
+     * @param outputFileName Path and name of the output file as provided by the user.
+     * @param formats Supported RDF output formats.
+     * @return Map with the output formats as keys and the corresponding output file names as values,
+     *  in the order of the provided formats.
+     */
+    public static Map<String, String> getOutputFileNames(final String outputFileName, final List<String> formats) {
+        final String compression = Compression.getSuffix(outputFileName);
+        final String outputFile = Compression.stripSuffix(outputFileName);
+        String baseName = outputFile;
+        for (final String format : formats) {
+            final String ext = String.join("", ".", RDFService.RDF_FORMAT_EXTENSION.get(format));
+            if (outputFile.toLowerCase(Locale.ENGLISH).endsWith(ext)) {
+                baseName = outputFile.substring(0, outputFile.length() - ext.length());
+                break;
+            }
+        }
+
+        final Map<String, String> outputFiles = new LinkedHashMap<>();
+        for (final String format : formats) {
+            final String ext = RDFService.RDF_FORMAT_EXTENSION.get(format);
+            String fileName = String.join("", baseName, ".", ext, compression);
+            if (outputFiles.containsValue(fileName)) {
+                fileName = String.join("", baseName, "_", format.toLowerCase(Locale.ENGLISH).replace('/', '-'),
+                        ".", ext, compression);
+            }
+            outputFiles.put(format, fileName);
+        }
+        return outputFiles;
+    }
+
+    /**
+     * Returns if an RDF format supported by this service can be written as a stream of statements
+     * without having to analyse the whole RDF model first, see {@link RDFService#getStreamWriter}.
+     * @param format Supported RDF format, see {@link RDFService#RDF_FORMAT_MAP}.
+     * @return True if the format can be written as a stream.
+     */
+    public static boolean isStreamingFormat(final String format) {
+        return RDFService.RDF_FORMAT_MAP.containsKey(format)
+                && StreamRDFWriter.registered(RDFService.RDF_FORMAT_MAP.get(format));
+    }
+
+    /**
+     * Returns a {@link StreamRDF} writing all statements it receives to an output stream using
+     * a streaming RDF format. Statements sharing the same subject are grouped, if the format supports it and
+     * the statements are sent consecutively. The caller has to call {@link StreamRDF#start()} and
+     * {@link StreamRDF#finish()} and is responsible for closing the output stream.
+     * @param out Output stream the statements are written to.
+     * @param format Streaming RDF format, see {@link RDFService#isStreamingFormat(String)}.
+     * @return Stream writer.
+     */
+    public static StreamRDF getStreamWriter(final OutputStream out, final String format) {
+        return StreamRDFWriter.getWriterStream(out, RDFService.RDF_FORMAT_MAP.get(format));
+    }
+
+    /**
+     * Sends all statements of an RDF model to a {@link StreamRDF}, grouped by subject.
+     * @param model RDF model.
+     * @param stream Stream receiving the statements.
+     */
+    public static void sendModelBySubject(final Model model, final StreamRDF stream) {
+        final Graph graph = model.getGraph();
+        model.listSubjects().forEachRemaining(
+                s -> StreamOps.sendTriplesToStream(graph.find(s.asNode(), Node.ANY, Node.ANY), stream)
+        );
+    }
+
+    /**
+     * Write an RDF model to multiple output files using different RDF file formats supported by this tool.
+     * Every file is serialized on a separate thread, so writing all files takes about as long as
+     * writing the file with the slowest format. The model must not be changed while it is written.
+     * This method will overwrite any files with the same path and filename.
+     * @param outputFiles Map with the output formats as keys and the corresponding output file names as values,
+     *                    see {@link RDFService#getOutputFileNames(String, List)}.
+     * @param model RDF model that's supposed to be written to the files.
+     */
+    public static void saveModelToFiles(final Map<String, String> outputFiles, final Model model) {
+
+        if (outputFiles.size() == 1) {
+            final Map.Entry<String, String> out = outputFiles.entrySet().iterator().next();
+            RDFService.saveModelToFile(out.getValue(), model, out.getKey());
+            return;
+        }
+
+        final long startTime = System.currentTimeMillis();
+        final ExecutorService executor = Executors.newFixedThreadPool(outputFiles.size());
+        final List<Future<?>> writers = new ArrayList<>(outputFiles.size());
+        try {
+            outputFiles.forEach(
+                    (format, fileName) -> writers.add(executor.submit(
+                            () -> {
+                                model.enterCriticalSection(Lock.READ);
+                                try {
+                                    RDFService.saveModelToFile(fileName, model, format);
+                                } finally {
+                                    model.leaveCriticalSection();
+                                }
+                            }
+                    ))
+            );
+            for (final Future<?> w : writers) {
+                w.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            RDFService.LOGGER.error("Interrupted while writing output files.");
+        } catch (ExecutionException e) {
+            LazyLog.error(RDFService.LOGGER,
+                    () -> String.join("", "Error when writing output files: ", e.getCause().getMessage())
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LazyLog.info(RDFService.LOGGER,
+                () -> String.join("", "Wrote ", String.valueOf(outputFiles.size()), " output files in ",
+                        String.valueOf(System.currentTimeMillis() - startTime), " ms")
+        );
+    }
+
+    /**
+     * Converts an RDF file to multiple output files using RDF file formats supported by this tool.
+     * The input file is parsed only once and the statements are passed on to the output files
+     * of all streaming formats as they are parsed, see {@link RDFService#isStreamingFormat(String)},
+     * so converting to streaming formats only needs a constant amount of memory independent of the size
+     * of the input file. Only if non streaming formats are requested, the statements are additionally
+     * collected in an RDF model which is written to the remaining output files once the input file
+     * has been parsed. If the input file cannot be parsed, no output files are written.
+     * This method will overwrite any files with the same path and filename.
+     * @param inputFile Path and filename of a valid RDF file.
+     * @param outputFiles Map with the output formats as keys and the corresponding output file names as values,
+     *                    see {@link RDFService#getOutputFileNames(String, List)}.
+     * @throws IOException If an output file cannot be written.
+     * @throws org.apache.jena.riot.RiotException If the input file cannot be parsed.
+     */
+    public static void convertFile(final String inputFile, final Map<String, String> outputFiles)
+            throws IOException {
+        RDFService.convertFile(inputFile, outputFiles, 1);
+    }
+
+    /**
+     * Converts an RDF file to multiple output files using RDF file formats supported by this tool,
+     * see {@link RDFService#convertFile(String, Map)}. N-Triples and N-Quads input files are parsed
+     * using the provided number of threads, see {@link ParallelNTriplesParser}.
+     * @param inputFile Path and filename of a valid RDF file.
+     * @param outputFiles Map with the output formats as keys and the corresponding output file names as values,
+     *                    see {@link RDFService#getOutputFileNames(String, List)}.
+     * @param threads Number of threads used to parse line based input files.
+     * @throws IOException If the input file cannot be read or an output file cannot be written.
+     * @throws org.apache.jena.riot.RiotException If the input file cannot be parsed.
+     */
+    public static void convertFile(final String inputFile, final Map<String, String> outputFiles,
+                                   final int threads) throws IOException {
+        RDFService.convertFile(inputFile, outputFiles, threads, null);
+    }
+
+    /**
+     * Converts an RDF file to multiple output files, see {@link RDFService#convertFile(String, Map, int)},
+     * and additionally sends all parsed statements to another stream e.g. a {@link TDBStore}.
+     * @param inputFile Path and filename of a valid RDF file.
+     * @param outputFiles Map with the output formats as keys and the corresponding output file names as values,
+     *                    see {@link RDFService#getOutputFileNames(String, List)}.
+     * @param threads Number of threads used to parse line based input files.
+     * @param sink Stream additionally receiving all parsed statements, can be null.
+     * @throws IOException If the input file cannot be read or an output file cannot be written.
+     * @throws org.apache.jena.riot.RiotException If the input file cannot be parsed.
+     */
+    public static void convertFile(final String inputFile, final Map<String, String> outputFiles,
+                                   final int threads, final StreamRDF sink) throws IOException {
+        RDFService.convertFile(inputFile, outputFiles, threads, sink, RunMetrics.DISABLED);
+    }
+
+    /**
+     * Converts an RDF file to multiple output files, see {@link RDFService#convertFile(String, Map, int, StreamRDF)},
+     * and adds the phases "parseAndStream" and "serialize" and the number of parsed triples to the provided metrics.
+     * Writing every streamed output file is recorded as {@link CrawlerEvents#serialize(String, String)} event.
+     * @param inputFile Path and filename of a valid RDF file.
+     * @param outputFiles Map with the output formats as keys and the corresponding output file names as values,
+     *                    see {@link RDFService#getOutputFileNames(String, List)}.
+     * @param threads Number of threads used to parse line based input files.
+     * @param sink Stream additionally receiving all parsed statements, can be null.
+     * @param metrics Metrics of the current run, see {@link RunMetrics}.
+     * @throws IOException If the input file cannot be read or an output file cannot be written.
+     * @throws org.apache.jena.riot.RiotException If the input file cannot be parsed.
+     */
+    @SuppressWarnings("try")
+    public static void convertFile(final String inputFile, final Map<String, String> outputFiles,
+                                   final int threads, final StreamRDF sink, final RunMetrics metrics)
+            throws IOException {
+
+        final Map<String, String> modelFiles = new LinkedHashMap<>();
+        final List<FileOutput> outFiles = new ArrayList<>(outputFiles.size());
+        final List<CrawlerEvent> events = new ArrayList<>(outputFiles.size());
+        final List<StreamRDF> rdfStreams = new ArrayList<>(outputFiles.size());
+        Model model = null;
+
+        try {
+            for (final Map.Entry<String, String> f : outputFiles.entrySet()) {
+                if (!RDFService.isStreamingFormat(f.getKey())) {
+                    modelFiles.put(f.getKey(), f.getValue());
+                    continue;
+                }
+                LazyLog.info(RDFService.LOGGER,
+                        () -> String.join(
+                                "", "Writing data to RDF file '", f.getValue(), "' using format '", f.getKey(), "'"
+                        )
+                );
+                final FileOutput fo = FileOutput.open(f.getValue());
+                outFiles.add(fo);
+                events.add(CrawlerEvents.serialize(f.getValue(), f.getKey()));
+                rdfStreams.add(RDFService.getStreamWriter(fo.getStream(), f.getKey()));
+            }
+            if (!modelFiles.isEmpty()) {
+                model = ModelFactory.createDefaultModel();
+                rdfStreams.add(StreamRDFLib.graph(model.getGraph()));
+            }
+            if (sink != null) {
+                rdfStreams.add(sink);
+            }
+            StreamRDFCounting counter = null;
+            if (metrics.isEnabled() || !events.isEmpty()) {
+                counter = StreamRDFLib.count();
+                rdfStreams.add(counter);
+            }
+
+            try (RunMetrics.Phase p = metrics.startPhase("parseAndStream")) {
+                RDFService.parseFile(inputFile, new StreamRDFTee(rdfStreams), threads);
+            }
+            if (counter != null) {
+                metrics.count("triples", counter.count());
+                for (final CrawlerEvent event : events) {
+                    event.triples(counter.count());
+                }
+            }
+
+            for (final FileOutput fo : outFiles) {
+                fo.commit();
+            }
+        } finally {
+            for (final FileOutput fo : outFiles) {
+                fo.close();
+            }
+            events.forEach(CrawlerEvent::close);
+        }
+
+        if (model != null) {
+            try (RunMetrics.Phase p = metrics.startPhase("serialize")) {
+                RDFService.saveModelToFiles(modelFiles, model);
+            }
+        }
+    }
+
     /**
      * Helper method saving an RDF model to a file in a specified RDF format.
      * This method will overwrite any files with the same path and filename.
@@ -129,67 +471,67 @@ public final class RDFService {
      * @param format Specified {@link RDFFormat} of the output file.
      */
     public static void plainSaveModelToFile(final Model m, final String fileName, final RDFFormat format) {
-        final File file = new File(fileName);
-
-        try {
-            final FileOutputStream fos = new FileOutputStream(file);
-            try {
-                RDFDataMgr.write(fos, m, format);
-                fos.close();
-            } catch (IOException ioExc) {
-                ioExc.printStackTrace();
-            }
-        } catch (FileNotFoundException exc) {
-            exc.printStackTrace();
+        try (FileOutput fo = FileOutput.open(fileName)) {
+            RDFDataMgr.write(fo.getStream(), m, format);
+            fo.commit();
+        } catch (IOException ioExc) {
+            LazyLog.error(RDFService.LOGGER,
+                    () -> String.join("", "Error writing output file ", fileName, ": ", ioExc.getMessage())
+            );
         }
     }
 
     /**
      * Helper method saving a JENA RDF {@link ResultSet} to an output file in a specified output format.
+     * The rows are written while they are read from the result set, so the result set is never
+     * held in memory as a whole. Supported formats are CSV, TSV, SPARQL JSON results and the
+     * binary row format of {@link QueryResultBinaryFormat}.
      * @param result JENA RDF {@link ResultSet} that will be saved.
      * @param resultFileFormat String containing a {@link #QUERY_RESULT_FILE_FORMATS} entry.
      * @param fileName String containing Path and Name of the file the results are written to.
+     *                 The file extension of the format is added, if the file name does not end with it.
+     * @return True if the results have been written, false if not.
      */
-    public static void saveResultsToSupportedFile(final ResultSet result,
-                                                  final String resultFileFormat,
-                                                  final String fileName) {
+    public static boolean saveResultsToSupportedFile(final ResultSet result,
+                                                     final String resultFileFormat,
+                                                     final String fileName) {
 
         final String resFileFormat = resultFileFormat.toUpperCase(Locale.ENGLISH);
 
-        if (QUERY_RESULT_FILE_FORMATS.containsKey(resFileFormat)) {
-
-            final String fileExt = QUERY_RESULT_FILE_FORMATS.get(resFileFormat);
-            final String outFile = !FileService.checkFileExtension(fileName, fileExt.toUpperCase(Locale.ENGLISH))
-                    ? String.join("", fileName, ".", fileExt) : fileName;
-
-            try {
-                final File file = new File(outFile);
+        if (!QUERY_RESULT_FILE_FORMATS.containsKey(resFileFormat)) {
+            LazyLog.error(RDFService.LOGGER,
+                    () -> String.join("", "Output file format ", resultFileFormat, " is not supported by this service.")
+            );
+            return false;
+        }
 
-                if (!file.exists()) {
-                    file.createNewFile();
-                }
+        final String fileExt = QUERY_RESULT_FILE_FORMATS.get(resFileFormat);
+        final String plainFileName = Compression.stripSuffix(fileName);
+        final String outFile = !FileService.checkFileExtension(plainFileName, fileExt.toUpperCase(Locale.ENGLISH))
+                ? String.join("", plainFileName, ".", fileExt, Compression.getSuffix(fileName)) : fileName;
 
-                final FileOutputStream fop = new FileOutputStream(file);
+        try (FileOutput fo = FileOutput.open(outFile)) {
 
-                RDFService.LOGGER.info(String.join("", "Write query to file...\t\t(", outFile, ")"));
+            LazyLog.info(RDFService.LOGGER, () -> String.join("", "Write query to file...\t\t(", outFile, ")"));
 
-                if ("CSV".equals(resFileFormat)) {
-                    ResultSetFormatter.outputAsCSV(fop, result);
-                }
+            if ("CSV".equals(resFileFormat)) {
+                ResultSetFormatter.outputAsCSV(fo.getStream(), result);
+            } else if ("TSV".equals(resFileFormat)) {
+                ResultSetFormatter.outputAsTSV(fo.getStream(), result);
+            } else if ("JSON".equals(resFileFormat)) {
+                ResultSetFormatter.outputAsJSON(fo.getStream(), result);
+            } else {
+                QueryResultBinaryFormat.write(fo.getStream(), result);
+            }
 
-                fop.flush();
-                fop.close();
+            fo.commit();
 
-            } catch (IOException e) {
-                RDFService.LOGGER.error(String.join("", "Cannot write to file...\t\t(", outFile, ")"));
-                RDFService.LOGGER.error(e.getMessage());
-                e.printStackTrace();
-            }
-        } else {
-            RDFService.LOGGER.error(
-                    String.join("", "Output file format ", resultFileFormat, " is not supported by this service.")
-            );
+        } catch (IOException e) {
+            LazyLog.error(RDFService.LOGGER, () -> String.join("", "Cannot write to file...\t\t(", outFile, ")"));
+            RDFService.LOGGER.error(e.getMessage());
+            return false;
         }
+        return true;
     }
 
 }
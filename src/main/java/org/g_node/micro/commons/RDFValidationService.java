@@ -0,0 +1,292 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.ReaderRIOT;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.RiotParseException;
+import org.apache.jena.riot.system.ErrorHandler;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.log4j.Logger;
+
+/**
+ * Service class validating the syntax of RDF files in a single pass. Files are validated by
+ * streaming all statements into a sink, so validating a file only needs a constant amount of memory,
+ * unless the parsed model is requested as well. Errors are reported with line and column.
+ * Since N-Triples and N-Quads files are line based, parsing continues with the next line
+ * after an error, so multiple errors can be reported at once. Parsing all other formats stops
+ * at the first error the parser cannot recover from.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RDFValidationService {
+    /**
+     * Default maximum number of reported errors.
+     */
+    public static final int DEFAULT_MAX_ERRORS = 10;
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RDFValidationService.class.getName());
+
+    /**
+     * Validates the syntax of an RDF file without keeping the parsed statements.
+     * @param fileName Path and filename of the RDF file, compressed files are supported, see {@link Compression}.
+     * @param maxErrors Maximum number of reported errors, validation stops once this number is reached.
+     * @return Validation result without RDF model.
+     */
+    public static Result validate(final String fileName, final int maxErrors) {
+        return new Result(RDFValidationService.validate(fileName, maxErrors, StreamRDFLib.sinkNull()), null);
+    }
+
+    /**
+     * Validates the syntax of an RDF file and returns the parsed RDF model,
+     * so that valid files do not have to be parsed a second time.
+     * @param fileName Path and filename of the RDF file, compressed files are supported, see {@link Compression}.
+     * @param maxErrors Maximum number of reported errors, validation stops once this number is reached.
+     * @return Validation result, contains the RDF model if the file is valid.
+     */
+    public static Result validateAndLoad(final String fileName, final int maxErrors) {
+        final Model model = ModelFactory.createDefaultModel();
+        final List<String> errors = RDFValidationService.validate(
+                fileName, maxErrors, StreamRDFLib.graph(model.getGraph()));
+        return new Result(errors, errors.isEmpty() ? model : null);
+    }
+
+    /**
+     * Parses an RDF file and collects all errors. Line based files are parsed again
+     * starting with the line after an unrecoverable error.
+     * @param fileName Path and filename of the RDF file.
+     * @param maxErrors Maximum number of reported errors.
+     * @param sink Stream receiving the parsed statements.
+     * @return Error messages including line and column, empty if the file is valid.
+     */
+    private static List<String> validate(final String fileName, final int maxErrors, final StreamRDF sink) {
+        final List<String> errors = new ArrayList<>();
+
+        final Lang lang = RDFLanguages.filenameToLang(Compression.stripSuffix(fileName));
+        if (lang == null) {
+            errors.add(String.join("", "Unknown RDF format of file ", fileName));
+            return errors;
+        }
+        final boolean isLineBased = RDFLanguages.NTRIPLES.equals(lang) || RDFLanguages.NQUADS.equals(lang);
+        final String baseIRI = Paths.get(fileName).toAbsolutePath().toUri().toString();
+
+        long skipLines = 0;
+        boolean done = false;
+        while (!done) {
+            final CollectingErrorHandler handler = new CollectingErrorHandler(errors, maxErrors, skipLines);
+            done = true;
+            try (InputStream in = Compression.decompress(fileName, MappedFileInput.open(fileName))) {
+                if (RDFValidationService.skipLines(in, skipLines) < skipLines) {
+                    break;
+                }
+                final ReaderRIOT reader = RDFDataMgr.createReader(lang);
+                reader.setErrorHandler(handler);
+                reader.read(in, baseIRI, lang.getContentType(), sink, null);
+            } catch (MaxErrorsException e) {
+                RDFValidationService.LOGGER.debug("Maximum number of errors reached.");
+            } catch (RiotException | RuntimeIOException e) {
+                long line = handler.lastLine;
+                if (!handler.reported) {
+                    final boolean hasPosition = e instanceof RiotParseException;
+                    line = hasPosition ? ((RiotParseException) e).getLine() : -1;
+                    handler.add(e.getMessage(), line, hasPosition ? ((RiotParseException) e).getCol() : -1);
+                }
+                if (isLineBased && line > 0 && errors.size() < maxErrors) {
+                    skipLines = skipLines + line;
+                    done = false;
+                }
+            } catch (IOException e) {
+                errors.add(String.join("", "Could not read file ", fileName, ": ", e.getMessage()));
+            }
+        }
+
+        return errors;
+    }
+
+    /**
+     * Skips a number of lines of an input stream.
+     * @param in Input stream.
+     * @param lines Number of lines that are supposed to be skipped.
+     * @return Number of skipped lines, less than requested if the end of the stream has been reached.
+     * @throws IOException If the stream cannot be read.
+     */
+    private static long skipLines(final InputStream in, final long lines) throws IOException {
+        long skipped = 0;
+        while (skipped < lines) {
+            final int b = in.read();
+            if (b < 0) {
+                break;
+            } else if (b == '\n') {
+                skipped = skipped + 1;
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Result of the validation of an RDF file.
+     */
+    public static final class Result {
+        /**
+         * Error messages, empty if the file is valid.
+         */
+        private final List<String> errors;
+        /**
+         * Parsed RDF model, null if the model was not requested or the file is invalid.
+         */
+        private final Model model;
+
+        /**
+         * Constructor.
+         * @param errorMessages Error messages, empty if the file is valid.
+         * @param parsedModel Parsed RDF model, can be null.
+         */
+        Result(final List<String> errorMessages, final Model parsedModel) {
+            this.errors = Collections.unmodifiableList(errorMessages);
+            this.model = parsedModel;
+        }
+
+        /**
+         * Returns if the validated file is a valid RDF file.
+         * @return See description.
+         */
+        public boolean isValid() {
+            return this.errors.isEmpty();
+        }
+
+        /**
+         * Returns the error messages including line and column of each error.
+         * @return See description.
+         */
+        public List<String> getErrors() {
+            return this.errors;
+        }
+
+        /**
+         * Returns the parsed RDF model, see {@link RDFValidationService#validateAndLoad(String, int)}.
+         * @return Parsed RDF model, null if the model was not requested or the file is invalid.
+         */
+        public Model getModel() {
+            return this.model;
+        }
+    }
+
+    /**
+     * Exception stopping the parser once the maximum number of errors has been reached.
+     */
+    private static final class MaxErrorsException extends RiotException {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Error handler collecting all errors instead of stopping at the first error.
+     */
+    private static final class CollectingErrorHandler implements ErrorHandler {
+        /**
+         * Collected error messages.
+         */
+        private final List<String> errors;
+        /**
+         * Maximum number of collected errors.
+         */
+        private final int maxErrors;
+        /**
+         * Number of lines preceding the parsed part of the file.
+         */
+        private final long lineOffset;
+        /**
+         * Line of the last reported error relative to the parsed part of the file.
+         */
+        private long lastLine = -1;
+        /**
+         * True if the last error has been reported to this handler.
+         */
+        private boolean reported;
+
+        /**
+         * Constructor.
+         * @param errorMessages List receiving the error messages.
+         * @param max Maximum number of collected errors.
+         * @param offset Number of lines preceding the parsed part of the file.
+         */
+        CollectingErrorHandler(final List<String> errorMessages, final int max, final long offset) {
+            this.errors = errorMessages;
+            this.maxErrors = max;
+            this.lineOffset = offset;
+        }
+
+        @Override
+        public void warning(final String message, final long line, final long col) {
+            RDFValidationService.LOGGER.warn(this.format(message, line, col));
+        }
+
+        @Override
+        public void error(final String message, final long line, final long col) {
+            this.add(message, line, col);
+            this.reported = false;
+        }
+
+        @Override
+        public void fatal(final String message, final long line, final long col) {
+            this.add(message, line, col);
+            throw new RiotParseException(message, line, col);
+        }
+
+        /**
+         * Adds an error message and stops parsing, if the maximum number of errors has been reached.
+         * @param message Error message.
+         * @param line Line of the error relative to the parsed part of the file, negative if unknown.
+         * @param col Column of the error, negative if unknown.
+         */
+        void add(final String message, final long line, final long col) {
+            this.lastLine = line;
+            this.reported = true;
+            this.errors.add(this.format(message, line, col));
+            if (this.errors.size() >= this.maxErrors) {
+                throw new MaxErrorsException();
+            }
+        }
+
+        /**
+         * Formats an error message including line and column of the error.
+         * @param message Error message.
+         * @param line Line of the error relative to the parsed part of the file, negative if unknown.
+         * @param col Column of the error, negative if unknown.
+         * @return Formatted error message.
+         */
+        private String format(final String message, final long line, final long col) {
+            if (line < 0) {
+                return message;
+            }
+            return String.format(Locale.ENGLISH, "[line: %d, col: %-2d] %s", line + this.lineOffset, col, message);
+        }
+    }
+
+}
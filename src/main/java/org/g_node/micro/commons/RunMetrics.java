@@ -0,0 +1,450 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.log4j.Logger;
+
+/**
+ * Collects timing and throughput metrics of a single tool run: the duration and the peak heap usage
+ * of every phase of the run, counters e.g. of processed rows or triples and gauges for single values.
+ * A phase can be started multiple times or on multiple threads, its durations are summed up.
+ * The metrics can be written as JSON summary and printed as table.
+ * All methods of the {@link #DISABLED} instance return immediately without collecting anything,
+ * so instrumented code does not need to check if metrics are enabled.
+ * The peak heap usage of a phase is the approximate peak usage of the whole heap of the process
+ * while the phase was running, phases running at the same time therefore share their peak heap usage.
+ * The peak usage of the heap memory pools is JVM-wide; it is reset at every sample and the sampled
+ * peak is handed to all collecting instances, so concurrent runs e.g. in serve mode do not lose
+ * each other's peaks.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RunMetrics {
+    /**
+     * Metrics instance that does not collect anything.
+     */
+    public static final RunMetrics DISABLED = new RunMetrics(false);
+    /**
+     * Suffix of the names of metrics files, see {@link #fileName(String)}.
+     */
+    public static final String FILE_SUFFIX = "_metrics.json";
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RunMetrics.class.getName());
+    /**
+     * Phase returned by the {@link #DISABLED} instance.
+     */
+    private static final Phase NO_PHASE = () -> { };
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final long NANOS_PER_MS = 1000000L;
+    /**
+     * Number of bytes per megabyte.
+     */
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+    /**
+     * True if metrics are collected.
+     */
+    private final boolean enabled;
+    /**
+     * Start time of the run in nanoseconds.
+     */
+    private final long startTime;
+    /**
+     * Statistics of all phases in the order they have been started first.
+     */
+    private final Map<String, PhaseStats> phases = new LinkedHashMap<>();
+    /**
+     * Phases that are currently running.
+     */
+    private final List<RunningPhase> running = new ArrayList<>();
+    /**
+     * All counters of the run.
+     */
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    /**
+     * All gauges of the run.
+     */
+    private final Map<String, Long> gauges = new ConcurrentHashMap<>();
+    /**
+     * Peak heap usage of the whole run in bytes.
+     */
+    private long peakHeap;
+    /**
+     * Peak heap usage sampled since the last sample of this instance in bytes, see {@link HeapPools#sample()}.
+     */
+    private final AtomicLong unsampledPeak = new AtomicLong();
+
+    /**
+     * Constructor.
+     * @param enable True if metrics are supposed to be collected.
+     */
+    private RunMetrics(final boolean enable) {
+        this.enabled = enable;
+        this.startTime = System.nanoTime();
+        if (enable) {
+            HeapPools.register(this);
+            this.samplePeakHeap();
+        }
+    }
+
+    /**
+     * Returns a new metrics instance starting the run or the {@link #DISABLED} instance.
+     * @param enable True if metrics are supposed to be collected.
+     * @return See description.
+     */
+    public static RunMetrics create(final boolean enable) {
+        return enable ? new RunMetrics(true) : RunMetrics.DISABLED;
+    }
+
+    /**
+     * Returns the name of the metrics file of an output file, the name of the output file
+     * without file extensions followed by {@link #FILE_SUFFIX}.
+     * @param outputFile Path and name of the output file.
+     * @return Path and name of the metrics file.
+     */
+    public static String fileName(final String outputFile) {
+        final Path path = Paths.get(Compression.stripSuffix(outputFile));
+        final String name = path.getFileName().toString();
+        final int i = name.lastIndexOf('.');
+        return path.resolveSibling(
+                String.join("", i > 0 ? name.substring(0, i) : name, RunMetrics.FILE_SUFFIX)).toString();
+    }
+
+    /**
+     * Returns if metrics are collected.
+     * @return See description.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Starts a phase of the run, the phase ends when the returned {@link Phase} is closed.
+     * @param name Name of the phase.
+     * @return Running phase.
+     */
+    public Phase startPhase(final String name) {
+        if (!this.enabled) {
+            return RunMetrics.NO_PHASE;
+        }
+        final RunningPhase phase = new RunningPhase(name);
+        synchronized (this) {
+            this.samplePeakHeap();
+            this.running.add(phase);
+        }
+        return phase;
+    }
+
+    /**
+     * Adds a value to a counter.
+     * @param name Name of the counter.
+     * @param delta Value added to the counter.
+     */
+    public void count(final String name, final long delta) {
+        if (!this.enabled) {
+            return;
+        }
+        this.counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Returns the current value of a counter.
+     * @param name Name of the counter.
+     * @return Value of the counter, 0 if the counter does not exist.
+     */
+    public long getCount(final String name) {
+        final LongAdder counter = this.counters.get(name);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * Sets the value of a gauge.
+     * @param name Name of the gauge.
+     * @param value Current value.
+     */
+    public void gauge(final String name, final long value) {
+        if (!this.enabled) {
+            return;
+        }
+        this.gauges.put(name, value);
+    }
+
+    /**
+     * Sets the gauge "[counter]PerSecond" to the value of a counter divided by the duration of a phase.
+     * Nothing happens, if the phase has not ended yet.
+     * @param counter Name of the counter.
+     * @param phase Name of the phase.
+     */
+    public void rate(final String counter, final String phase) {
+        if (!this.enabled) {
+            return;
+        }
+        final long duration;
+        synchronized (this) {
+            final PhaseStats stats = this.phases.get(phase);
+            duration = stats != null ? stats.duration : 0;
+        }
+        if (duration > 0) {
+            this.gauge(String.join("", counter, "PerSecond"), this.getCount(counter) * 1000000000L / duration);
+        }
+    }
+
+    /**
+     * Writes all metrics as JSON object. Every phase contains the number of times it has been
+     * started, its summed up duration in milliseconds and its peak heap usage in bytes.
+     * @param out Stream receiving the JSON object, the stream is not closed.
+     */
+    public synchronized void writeJson(final OutputStream out) {
+        this.samplePeakHeap();
+        final JsonObject json = new JsonObject();
+        json.put("durationMs", (System.nanoTime() - this.startTime) / RunMetrics.NANOS_PER_MS);
+        json.put("peakHeapBytes", this.peakHeap);
+
+        final JsonObject phaseJson = new JsonObject();
+        this.phases.forEach(
+                (name, stats) -> {
+                    final JsonObject p = new JsonObject();
+                    p.put("count", stats.count);
+                    p.put("durationMs", stats.duration / RunMetrics.NANOS_PER_MS);
+                    p.put("peakHeapBytes", stats.peakHeap);
+                    phaseJson.put(name, p);
+                }
+        );
+        json.put("phases", phaseJson);
+
+        final JsonObject counterJson = new JsonObject();
+        new TreeMap<>(this.counters).forEach((name, c) -> counterJson.put(name, c.sum()));
+        json.put("counters", counterJson);
+
+        final JsonObject gaugeJson = new JsonObject();
+        new TreeMap<>(this.gauges).forEach(gaugeJson::put);
+        json.put("gauges", gaugeJson);
+
+        JSON.write(out, json);
+    }
+
+    /**
+     * Returns all metrics as table with one line per phase, counter and gauge.
+     * @return See description.
+     */
+    public synchronized String toTable() {
+        this.samplePeakHeap();
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ENGLISH, "%-24s %8s %12s %16s",
+                "Phase", "Count", "Time [ms]", "Peak heap [MB]"));
+        this.phases.forEach(
+                (name, stats) -> lines.add(String.format(Locale.ENGLISH, "%-24s %8d %12d %16.1f", name, stats.count,
+                        stats.duration / RunMetrics.NANOS_PER_MS, stats.peakHeap / RunMetrics.BYTES_PER_MB))
+        );
+        lines.add(String.format(Locale.ENGLISH, "%-24s %8s %12d %16.1f", "total", "",
+                (System.nanoTime() - this.startTime) / RunMetrics.NANOS_PER_MS,
+                this.peakHeap / RunMetrics.BYTES_PER_MB));
+        new TreeMap<>(this.counters).forEach(
+                (name, c) -> lines.add(String.format(Locale.ENGLISH, "%-24s %38d", name, c.sum()))
+        );
+        new TreeMap<>(this.gauges).forEach(
+                (name, value) -> lines.add(String.format(Locale.ENGLISH, "%-24s %38d", name, value))
+        );
+        return String.join("\n", lines);
+    }
+
+    /**
+     * Writes all metrics to a JSON file and optionally logs them as table. Nothing happens,
+     * if metrics are not collected.
+     * @param fileName Path and name of the JSON file.
+     * @param printTable True if the metrics are supposed to be logged as table as well.
+     */
+    public void report(final String fileName, final boolean printTable) {
+        if (!this.enabled) {
+            return;
+        }
+        if (printTable) {
+            LazyLog.info(RunMetrics.LOGGER, () -> String.join("", "Metrics of this run:\n", this.toTable()));
+        }
+        LazyLog.info(RunMetrics.LOGGER, () -> String.join("", "Writing metrics to file '", fileName, "'"));
+        try (FileOutput fo = FileOutput.open(fileName)) {
+            this.writeJson(fo.getStream());
+            fo.commit();
+        } catch (IOException e) {
+            RunMetrics.LOGGER.error(String.join("", "Could not write metrics file: ", e.getMessage()));
+        }
+    }
+
+    /**
+     * Adds the peak heap usage since the last sample of this instance to all running phases and to the run
+     * and starts a new sample.
+     */
+    private synchronized void samplePeakHeap() {
+        HeapPools.sample();
+        final long peak = this.unsampledPeak.getAndSet(0);
+        for (final RunningPhase phase : this.running) {
+            phase.peakHeap = Math.max(phase.peakHeap, peak);
+        }
+        this.peakHeap = Math.max(this.peakHeap, peak);
+    }
+
+    /**
+     * Ends a running phase and adds its duration and peak heap usage to the statistics of the phase.
+     * @param phase Running phase.
+     */
+    private synchronized void endPhase(final RunningPhase phase) {
+        final long duration = System.nanoTime() - phase.start;
+        this.samplePeakHeap();
+        this.running.remove(phase);
+        final PhaseStats stats = this.phases.computeIfAbsent(phase.name, k -> new PhaseStats());
+        stats.count = stats.count + 1;
+        stats.duration = stats.duration + duration;
+        stats.peakHeap = Math.max(stats.peakHeap, phase.peakHeap);
+    }
+
+    /**
+     * A running phase of a run, the phase ends when it is closed.
+     */
+    public interface Phase extends AutoCloseable {
+        /**
+         * Ends the phase.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Phase started by {@link #startPhase(String)}.
+     */
+    private final class RunningPhase implements Phase {
+        /**
+         * Name of the phase.
+         */
+        private final String name;
+        /**
+         * Start time of the phase in nanoseconds.
+         */
+        private final long start;
+        /**
+         * Peak heap usage while the phase was running in bytes.
+         */
+        private long peakHeap;
+        /**
+         * True if the phase has ended.
+         */
+        private boolean ended;
+
+        /**
+         * Constructor.
+         * @param phaseName Name of the phase.
+         */
+        private RunningPhase(final String phaseName) {
+            this.name = phaseName;
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * Ends the phase, closing a phase more than once has no effect.
+         */
+        @Override
+        public void close() {
+            synchronized (RunMetrics.this) {
+                if (this.ended) {
+                    return;
+                }
+                this.ended = true;
+                RunMetrics.this.endPhase(this);
+            }
+        }
+    }
+
+    /**
+     * Holder of the memory pools of the heap, the pools are only looked up once metrics are collected.
+     * Since resetting the peak usage of a pool affects all instances, every sampled peak
+     * is handed to all registered instances.
+     */
+    private static final class HeapPools {
+        /**
+         * All memory pools of the heap.
+         */
+        private static final List<MemoryPoolMXBean> POOLS = Collections.unmodifiableList(
+                ManagementFactory.getMemoryPoolMXBeans().stream()
+                        .filter(p -> p.getType() == MemoryType.HEAP)
+                        .collect(Collectors.toList()));
+        /**
+         * All collecting instances, instances are removed once they are no longer used.
+         */
+        private static final Set<RunMetrics> INSTANCES = Collections.newSetFromMap(new WeakHashMap<>());
+
+        /**
+         * Registers a collecting instance.
+         * @param metrics Collecting instance.
+         */
+        private static synchronized void register(final RunMetrics metrics) {
+            HeapPools.INSTANCES.add(metrics);
+        }
+
+        /**
+         * Reads and resets the peak usage of all heap pools and adds it to the unsampled peak
+         * of all registered instances.
+         */
+        private static synchronized void sample() {
+            long peak = 0;
+            for (final MemoryPoolMXBean pool : HeapPools.POOLS) {
+                peak = peak + pool.getPeakUsage().getUsed();
+                pool.resetPeakUsage();
+            }
+            final long sampled = peak;
+            for (final RunMetrics metrics : HeapPools.INSTANCES) {
+                metrics.unsampledPeak.accumulateAndGet(sampled, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Statistics of all runs of a phase.
+     */
+    private static final class PhaseStats {
+        /**
+         * Number of times the phase has been started.
+         */
+        private long count;
+        /**
+         * Summed up duration of the phase in nanoseconds.
+         */
+        private long duration;
+        /**
+         * Peak heap usage of the phase in bytes.
+         */
+        private long peakHeap;
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.sparql.core.Quad;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.jena.riot.system.StreamRDF;
+
+/**
+ * {@link StreamRDF} forwarding everything it receives to multiple other {@link StreamRDF}s,
+ * in the order the streams were provided.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class StreamRDFTee implements StreamRDF {
+    /**
+     * Streams receiving the forwarded data.
+     */
+    private final List<StreamRDF> sinks;
+
+    /**
+     * Constructor.
+     * @param streams Streams receiving the forwarded data.
+     */
+    public StreamRDFTee(final List<StreamRDF> streams) {
+        this.sinks = new ArrayList<>(streams);
+    }
+
+    @Override
+    public void start() {
+        this.sinks.forEach(StreamRDF::start);
+    }
+
+    @Override
+    public void triple(final Triple triple) {
+        for (final StreamRDF s : this.sinks) {
+            s.triple(triple);
+        }
+    }
+
+    @Override
+    public void quad(final Quad quad) {
+        for (final StreamRDF s : this.sinks) {
+            s.quad(quad);
+        }
+    }
+
+    @Override
+    public void base(final String base) {
+        this.sinks.forEach(s -> s.base(base));
+    }
+
+    @Override
+    public void prefix(final String prefix, final String iri) {
+        this.sinks.forEach(s -> s.prefix(prefix, iri));
+    }
+
+    @Override
+    public void finish() {
+        this.sinks.forEach(StreamRDF::finish);
+    }
+
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.query.Dataset;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.ReadWrite;
+import com.hp.hpl.jena.sparql.core.DatasetGraph;
+import com.hp.hpl.jena.sparql.core.Quad;
+import com.hp.hpl.jena.tdb.TDB;
+import com.hp.hpl.jena.tdb.TDBFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.log4j.Logger;
+
+/**
+ * Persistent indexed RDF store backed by a local Apache Jena TDB directory. The statements of every
+ * source file are kept in a named graph identified by the file URI of the source file, so that loading
+ * a source file again replaces only the statements of this file and keeps the rest of the store.
+ * Queries run against the union of all named graphs. All changes are made within a transaction,
+ * which is aborted if the store is closed without being committed.
+ * Stores opened on the same folder within one process share the TDB connection of the folder,
+ * the connection is only released when the last of these stores is closed.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class TDBStore implements Closeable {
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(TDBStore.class.getName());
+    /**
+     * Number of open stores per folder, the TDB connection of a folder is released once it drops to zero.
+     */
+    private static final Map<String, Integer> OPEN_STORES = new HashMap<>();
+    /**
+     * Folder of the TDB store.
+     */
+    private final String location;
+    /**
+     * TDB dataset.
+     */
+    private final Dataset dataset;
+    /**
+     * Name of the graph replaced within the current write transaction, null if there is none.
+     */
+    private Node graph;
+    /**
+     * Number of statements added within the current write transaction.
+     */
+    private long statements;
+    /**
+     * Time the current transaction was started in milliseconds.
+     */
+    private long startTime;
+    /**
+     * True if the store has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Constructor.
+     * @param folder Folder of the TDB store.
+     * @param tdbDataset TDB dataset.
+     */
+    private TDBStore(final String folder, final Dataset tdbDataset) {
+        this.location = folder;
+        this.dataset = tdbDataset;
+    }
+
+    /**
+     * Opens the TDB store of a folder, the folder and an empty store are created, if they do not exist.
+     * @param folder Folder of the TDB store.
+     * @return Opened TDB store.
+     * @throws IOException If the folder cannot be created or is not a folder.
+     */
+    public static TDBStore open(final String folder) throws IOException {
+        Files.createDirectories(Paths.get(folder));
+        final String realFolder = Paths.get(folder).toRealPath().toString();
+        synchronized (TDBStore.OPEN_STORES) {
+            final Dataset ds = TDBFactory.createDataset(realFolder);
+            TDBStore.OPEN_STORES.merge(realFolder, 1, Integer::sum);
+            return new TDBStore(realFolder, ds);
+        }
+    }
+
+    /**
+     * Returns the name of the graph containing the statements of a source file.
+     * @param sourceFile Path and name of the source file.
+     * @return File URI of the absolute path of the source file.
+     */
+    public static String graphName(final String sourceFile) {
+        return Paths.get(sourceFile).toAbsolutePath().normalize().toUri().toString();
+    }
+
+    /**
+     * Starts a write transaction replacing the graph of a source file. The graph is emptied and
+     * all statements sent to the returned stream are added to it, the graph names of quads are ignored.
+     * The changes become visible once {@link #commit()} has been called, they are discarded
+     * by {@link #abortIfActive()} or {@link #close()}.
+     * @param sourceFile Path and name of the source file.
+     * @return Stream receiving the statements of the source file.
+     */
+    public StreamRDF replaceGraph(final String sourceFile) {
+        this.startTime = System.currentTimeMillis();
+        this.dataset.begin(ReadWrite.WRITE);
+        this.graph = NodeFactory.createURI(TDBStore.graphName(sourceFile));
+        this.statements = 0;
+
+        final DatasetGraph dsg = this.dataset.asDatasetGraph();
+        dsg.deleteAny(this.graph, Node.ANY, Node.ANY, Node.ANY);
+
+        return new StreamRDFBase() {
+            @Override
+            public void triple(final Triple triple) {
+                dsg.add(TDBStore.this.graph, triple.getSubject(), triple.getPredicate(), triple.getObject());
+                TDBStore.this.statements = TDBStore.this.statements + 1;
+            }
+
+            @Override
+            public void quad(final Quad quad) {
+                dsg.add(TDBStore.this.graph, quad.getSubject(), quad.getPredicate(), quad.getObject());
+                TDBStore.this.statements = TDBStore.this.statements + 1;
+            }
+        };
+    }
+
+    /**
+     * Commits the current write transaction.
+     */
+    public void commit() {
+        this.dataset.commit();
+        this.dataset.end();
+        LazyLog.info(TDBStore.LOGGER,
+                () -> String.join("", "Stored ", String.valueOf(this.statements), " statements in graph <",
+                        this.graph.getURI(), "> of TDB store '", this.location, "' in ",
+                        String.valueOf(System.currentTimeMillis() - this.startTime), " ms")
+        );
+        this.graph = null;
+    }
+
+    /**
+     * Starts a read transaction and returns a query execution running a query against the union
+     * of all graphs of the store. The read transaction ends when the store is closed.
+     * @param query SPARQL query.
+     * @return Query execution.
+     */
+    public QueryExecution query(final Query query) {
+        this.dataset.begin(ReadWrite.READ);
+        final QueryExecution qe = QueryExecutionFactory.create(query, this.dataset);
+        qe.getContext().set(TDB.symUnionDefaultGraph, true);
+        return qe;
+    }
+
+    /**
+     * Aborts the current write transaction, if it has not been committed.
+     */
+    public void abortIfActive() {
+        if (this.graph != null) {
+            LazyLog.info(TDBStore.LOGGER,
+                    () -> String.join("", "Discarding changes of TDB store '", this.location, "'"));
+            this.dataset.abort();
+            this.dataset.end();
+            this.graph = null;
+        }
+    }
+
+    /**
+     * Aborts an uncommitted write transaction and ends a read transaction. The TDB connection
+     * of the folder is released, if no other store of the same folder is open.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.abortIfActive();
+        if (this.dataset.isInTransaction()) {
+            this.dataset.end();
+        }
+        synchronized (TDBStore.OPEN_STORES) {
+            if (TDBStore.OPEN_STORES.merge(this.location, -1, Integer::sum) == 0) {
+                TDBStore.OPEN_STORES.remove(this.location);
+                TDBFactory.release(this.dataset);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,403 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.query;
+
+import com.hp.hpl.jena.query.Dataset;
+import com.hp.hpl.jena.query.DatasetFactory;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryException;
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.QueryFactory;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.sparql.core.DatasetGraph;
+import com.hp.hpl.jena.sparql.core.DatasetGraphFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.CliToolController;
+import org.g_node.micro.commons.Compression;
+import org.g_node.micro.commons.CountingResultSet;
+import org.g_node.micro.commons.FileService;
+import org.g_node.micro.commons.LazyLog;
+import org.g_node.micro.commons.QueryResultBinaryFormat;
+import org.g_node.micro.commons.RDFService;
+import org.g_node.micro.commons.TDBStore;
+import org.g_node.srv.CliOptionService;
+import org.g_node.srv.CtrlCheckService;
+
+/**
+ * Controller class for the SPARQL query tool. Loads one or more RDF files and runs a SPARQL SELECT
+ * query over their union. The results are written to the output file while they are computed,
+ * see {@link RDFService#saveResultsToSupportedFile(com.hp.hpl.jena.query.ResultSet, String, String)}.
+ * If a persistent {@link TDBStore} is provided, the input files are loaded into the store, replacing the
+ * data of the same files loaded in earlier runs, and the query is run against the indexed data of all files
+ * of the store, so that repeated queries do not have to parse the input files again.
+ * Results of queries over input files are cached, see {@link QueryResultCache}, so a query is only run
+ * again, if the query or the content of an input file has changed.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class QueryCliToolController implements CliToolController {
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(QueryCliToolController.class.getName());
+
+    /**
+     * Method returning the commandline options of the SPARQL query tool.
+     * @return Available commandline options.
+     */
+    public final Options options() {
+        final Options options = new Options();
+
+        final Option opHelp = CliOptionService.getHelpOpt("");
+        final Option opIn = CliOptionService.getInFileOpt(
+                String.join("", "Input RDF files that are supposed to be queried. Multiple files can be provided ",
+                        "as comma separated list, a folder or a glob pattern like 'data/*.nt' adds all matching ",
+                        "RDF files. Input files ending with '.gz' or '.zst' are decompressed. ",
+                        "Optional if a TDB store is provided."));
+        opIn.setRequired(false);
+        final Option opQuery = CliOptionService.getQueryOpt("");
+        final Option opOut = CliOptionService.getOutFileOpt(
+                String.join("", "Optional: Path and name of the result file. ",
+                        "Files with the same name will be overwritten. ",
+                        "Default file name uses format [inputFileName]_query."));
+        final Option opFormat = CliOptionService.getOutFormatOpt(
+                String.join("", "Optional: format of the result file. ",
+                        "Supported file formats: ", RDFService.QUERY_RESULT_FILE_FORMATS.keySet().toString(),
+                        "\nDefault setting is the CSV format."));
+        final Option opThreads = CliOptionService.getThreadsOpt(
+                String.join("", "Optional: number of threads used to parse N-Triples and N-Quads input files. ",
+                        "Default is the number of available processors."));
+        final Option opTdb = CliOptionService.getTdbOpt(
+                String.join("", "Optional: folder of a persistent TDB store. Input files are loaded into the ",
+                        "store, replacing the data loaded from the same files in earlier runs, and the query ",
+                        "is run against all data of the store. The store is created, if it does not exist."));
+        final Option opNoCache = Option.builder()
+                .longOpt("no-cache")
+                .desc("Optional: do not use the query result cache.")
+                .build();
+        final Option opCacheDir = Option.builder()
+                .longOpt("cache-dir")
+                .desc(String.join("", "Optional: folder of the query result cache. Default folder is ",
+                        QueryResultCache.DEFAULT_CACHE_DIR.toString()))
+                .hasArg()
+                .valueSeparator()
+                .build();
+
+        options.addOption(opHelp);
+        options.addOption(opIn);
+        options.addOption(opQuery);
+        options.addOption(opOut);
+        options.addOption(opFormat);
+        options.addOption(opThreads);
+        options.addOption(opTdb);
+        options.addOption(opNoCache);
+        options.addOption(opCacheDir);
+
+        return options;
+    }
+
+    /**
+     * Method loading the input RDF files, running the SPARQL query and writing the results to a file.
+     * @param cmd User provided {@link CommandLine} input.
+     */
+    public final void run(final CommandLine cmd) {
+
+        final String tdbFolder = cmd.getOptionValue("tdb");
+        if (!cmd.hasOption("i") && tdbFolder == null) {
+            QueryCliToolController.LOGGER.error("Either input files (-i) or a TDB store (--tdb) have to be provided.");
+            return;
+        }
+
+        final Set<String> checkExtension = RDFService.RDF_FORMAT_EXTENSION.values()
+                .stream()
+                .map(c->c.toUpperCase(Locale.ENGLISH))
+                .collect(Collectors.toSet());
+        final List<String> inputFiles = new ArrayList<>();
+        if (cmd.hasOption("i")) {
+            inputFiles.addAll(this.getInputFiles(cmd.getOptionValue("i"), checkExtension));
+            if (inputFiles.isEmpty()) {
+                return;
+            }
+        }
+
+        final String outputFormat = cmd.getOptionValue("f", "CSV").toUpperCase(Locale.ENGLISH);
+        if (!CtrlCheckService.isSupportedOutputFormat(
+                outputFormat, RDFService.QUERY_RESULT_FILE_FORMATS.keySet())) {
+            return;
+        }
+
+        final String threads = cmd.getOptionValue(
+                "threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        if (!CtrlCheckService.isPositiveInteger(threads, "--threads")) {
+            return;
+        }
+
+        final Query query;
+        try {
+            query = QueryFactory.create(this.readQuery(cmd.getOptionValue("q")));
+        } catch (QueryException | IOException e) {
+            QueryCliToolController.LOGGER.error(String.join("", "Invalid SPARQL query: ", e.getMessage()));
+            return;
+        }
+        if (!query.isSelectType()) {
+            QueryCliToolController.LOGGER.error("Only SPARQL SELECT queries are supported.");
+            return;
+        }
+
+        final String outputFile;
+        if (inputFiles.isEmpty()) {
+            outputFile = cmd.getOptionValue(
+                    "o", String.join("", Paths.get(tdbFolder).toAbsolutePath().normalize().toString(), "_query"));
+        } else {
+            final String plainInputFile = Compression.stripSuffix(inputFiles.get(0));
+            final int i = plainInputFile.lastIndexOf('.');
+            outputFile = cmd.getOptionValue(
+                    "o", String.join("", i > 0 ? plainInputFile.substring(0, i) : plainInputFile, "_query"));
+        }
+
+        if (tdbFolder != null) {
+            this.runOnStore(tdbFolder, inputFiles, Integer.parseInt(threads), query, outputFormat, outputFile);
+            return;
+        }
+
+        QueryResultCache cache = null;
+        String cacheKey = null;
+        if (!cmd.hasOption("no-cache")) {
+            cache = new QueryResultCache(
+                    cmd.hasOption("cache-dir")
+                            ? Paths.get(cmd.getOptionValue("cache-dir")) : QueryResultCache.DEFAULT_CACHE_DIR,
+                    QueryResultCache.DEFAULT_MAX_BYTES);
+            try {
+                cacheKey = cache.key(query, inputFiles);
+            } catch (IOException e) {
+                QueryCliToolController.LOGGER.error(String.join("", "Could not read input file: ", e.getMessage()));
+                return;
+            }
+            if (this.writeCachedResults(cache, cacheKey, outputFormat, outputFile)) {
+                return;
+            }
+        }
+
+        final long loadStart = System.currentTimeMillis();
+        final DatasetGraph dsg = DatasetGraphFactory.createMem();
+        try {
+            for (final String file : inputFiles) {
+                LazyLog.info(QueryCliToolController.LOGGER,
+                        () -> String.join("", "Reading input file '", file, "'..."));
+                RDFService.parseFile(file, StreamRDFLib.dataset(dsg), Integer.parseInt(threads));
+            }
+        } catch (RiotException | IOException e) {
+            QueryCliToolController.LOGGER.error(String.join("", "Could not read input file: ", e.getMessage()));
+            return;
+        }
+        LazyLog.info(QueryCliToolController.LOGGER,
+                () -> String.join("", "Loaded ", String.valueOf(inputFiles.size()), " files in ",
+                        String.valueOf(System.currentTimeMillis() - loadStart), " ms")
+        );
+
+        final Dataset dataset = DatasetFactory.create(dsg);
+        this.runQuery(() -> QueryExecutionFactory.create(query, dataset), outputFormat, outputFile, cache, cacheKey);
+    }
+
+    /**
+     * Writes the cached results of a query to a file. Invalid cache entries are removed.
+     * @param cache Query result cache.
+     * @param cacheKey Cache key of the query, see {@link QueryResultCache#key(Query, List)}.
+     * @param outputFormat Supported result file format, see {@link RDFService#QUERY_RESULT_FILE_FORMATS}.
+     * @param outputFile Path and name of the result file.
+     * @return True if the results were available from the cache, false if the query has to be run.
+     */
+    private boolean writeCachedResults(final QueryResultCache cache, final String cacheKey,
+                                       final String outputFormat, final String outputFile) {
+        final long startTime = System.currentTimeMillis();
+        try (InputStream in = cache.get(cacheKey)) {
+            if (in == null) {
+                QueryCliToolController.LOGGER.info("Query result cache miss.");
+                return false;
+            }
+            final ResultSet result = QueryResultBinaryFormat.read(in);
+            QueryCliToolController.LOGGER.info("Query result cache hit, input files are not loaded.");
+            this.saveResults(result, outputFormat, outputFile, startTime);
+        } catch (IOException | RuntimeIOException e) {
+            QueryCliToolController.LOGGER.warn(String.join("", "Removing invalid query result cache entry ", cacheKey));
+            cache.remove(cacheKey);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Loads the input files into a persistent TDB store, every file replacing the data loaded from
+     * the same file in earlier runs, and runs the query against all data of the store.
+     * @param tdbFolder Folder of the TDB store.
+     * @param inputFiles RDF files that are loaded into the store, can be empty.
+     * @param threads Number of threads used to parse N-Triples and N-Quads input files.
+     * @param query SPARQL SELECT query.
+     * @param outputFormat Supported result file format, see {@link RDFService#QUERY_RESULT_FILE_FORMATS}.
+     * @param outputFile Path and name of the result file.
+     */
+    private void runOnStore(final String tdbFolder, final List<String> inputFiles, final int threads,
+                            final Query query, final String outputFormat, final String outputFile) {
+        try (TDBStore store = TDBStore.open(tdbFolder)) {
+            for (final String file : inputFiles) {
+                LazyLog.info(QueryCliToolController.LOGGER,
+                        () -> String.join("", "Loading input file '", file, "'..."));
+                final StreamRDF sink = store.replaceGraph(file);
+                RDFService.parseFile(file, sink, threads);
+                store.commit();
+            }
+            this.runQuery(() -> store.query(query), outputFormat, outputFile, null, null);
+        } catch (RiotException e) {
+            QueryCliToolController.LOGGER.error(String.join("", "Could not read input file: ", e.getMessage()));
+        } catch (IOException e) {
+            QueryCliToolController.LOGGER.error(String.join("", "Could not use TDB store: ", e.getMessage()));
+        }
+    }
+
+    /**
+     * Runs a SELECT query and streams the results to a file. If a query result cache is provided,
+     * the results are written to the cache first and added to the cache once the result file
+     * has been written.
+     * @param execution Creates the query execution of the SPARQL SELECT query.
+     * @param outputFormat Supported result file format, see {@link RDFService#QUERY_RESULT_FILE_FORMATS}.
+     * @param outputFile Path and name of the result file.
+     * @param cache Query result cache, null if the results are not supposed to be cached.
+     * @param cacheKey Cache key of the query, see {@link QueryResultCache#key(Query, List)}.
+     */
+    private void runQuery(final Supplier<QueryExecution> execution, final String outputFormat,
+                          final String outputFile, final QueryResultCache cache, final String cacheKey) {
+        final long startTime = System.currentTimeMillis();
+        try (QueryExecution qe = execution.get()) {
+            if (cache == null) {
+                this.saveResults(qe.execSelect(), outputFormat, outputFile, startTime);
+                return;
+            }
+
+            final Path resultFile = cache.write(qe.execSelect());
+            final boolean saved;
+            try (InputStream in = Files.newInputStream(resultFile)) {
+                saved = this.saveResults(QueryResultBinaryFormat.read(in), outputFormat, outputFile, startTime);
+            }
+            if (saved) {
+                cache.put(cacheKey, resultFile);
+            } else {
+                Files.deleteIfExists(resultFile);
+            }
+        } catch (QueryException e) {
+            QueryCliToolController.LOGGER.error(String.join("", "Query failed: ", e.getMessage()));
+        } catch (IOException e) {
+            QueryCliToolController.LOGGER.error(
+                    String.join("", "Could not write query result cache entry: ", e.getMessage()));
+        }
+    }
+
+    /**
+     * Writes query results to a file, the number of rows and the time since the query
+     * was started are logged.
+     * @param result Query results.
+     * @param outputFormat Supported result file format, see {@link RDFService#QUERY_RESULT_FILE_FORMATS}.
+     * @param outputFile Path and name of the result file.
+     * @param startTime Time the query was started in milliseconds.
+     * @return True if the results have been written, false if not.
+     */
+    private boolean saveResults(final ResultSet result, final String outputFormat, final String outputFile,
+                                final long startTime) {
+        final CountingResultSet counted = new CountingResultSet(result);
+        if (!RDFService.saveResultsToSupportedFile(counted, outputFormat, outputFile)) {
+            return false;
+        }
+
+        final long duration = System.currentTimeMillis() - startTime;
+        LazyLog.info(QueryCliToolController.LOGGER,
+                () -> String.format(Locale.ENGLISH, "Query returned %d rows in %d ms (%.0f rows/s)",
+                        counted.getRows(), duration, counted.getRows() * 1000.0 / Math.max(duration, 1))
+        );
+        return true;
+    }
+
+    /**
+     * Returns all RDF files denoted by a comma separated list of files, folders and glob patterns.
+     * Errors are logged and result in an empty list.
+     * @param input Comma separated list of files, folders and glob patterns.
+     * @param checkExtension Set containing all supported upper case RDF file extensions.
+     * @return Paths of the RDF files, empty if any input is invalid.
+     */
+    private List<String> getInputFiles(final String input, final Set<String> checkExtension) {
+        final List<String> files = new ArrayList<>();
+        for (final String in : input.split(",")) {
+            final String entry = in.trim();
+            if (FileService.isGlob(entry) || Files.isDirectory(Paths.get(entry))) {
+                final List<Path> matches;
+                try {
+                    matches = FileService.listFiles(entry, checkExtension);
+                } catch (IOException e) {
+                    QueryCliToolController.LOGGER.error(
+                            String.join("", "Could not read input folder: ", e.getMessage()));
+                    return new ArrayList<>();
+                }
+                if (matches.isEmpty()) {
+                    QueryCliToolController.LOGGER.error(
+                            String.join("", "No supported RDF files found for input '", entry, "'."));
+                    return new ArrayList<>();
+                }
+                matches.forEach(p -> files.add(p.toString()));
+            } else if (!CtrlCheckService.isExistingFile(entry)
+                    || !CtrlCheckService.isSupportedInFileType(Compression.stripSuffix(entry), checkExtension)) {
+                return new ArrayList<>();
+            } else {
+                files.add(entry);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Returns the query provided via the command line. If the value denotes an existing file,
+     * the query is read from this file.
+     * @param query SPARQL query or path of a file containing the query.
+     * @return SPARQL query.
+     * @throws IOException If the query file cannot be read.
+     */
+    private String readQuery(final String query) throws IOException {
+        Path queryFile = null;
+        try {
+            queryFile = Paths.get(query);
+        } catch (InvalidPathException e) {
+            QueryCliToolController.LOGGER.debug("Query is not a file name.");
+        }
+        if (queryFile != null && Files.isRegularFile(queryFile)) {
+            return new String(Files.readAllBytes(queryFile), StandardCharsets.UTF_8);
+        }
+        return query;
+    }
+
+}
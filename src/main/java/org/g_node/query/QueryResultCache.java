@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.query;
+
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.ResultSet;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.FileCache;
+import org.g_node.micro.commons.QueryResultBinaryFormat;
+
+/**
+ * Cache for the results of SPARQL SELECT queries. Results are identified by the normalized query text
+ * and a fingerprint of all input files, so a query is only run again, if the query or the content of
+ * an input file has changed since it has been cached. Cached results are stored using the
+ * {@link QueryResultBinaryFormat} and can be written to any supported result file format.
+ * The content hash of an input file is cached by path, size and last modified time of the file,
+ * so unchanged input files are not read again to create the fingerprint.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class QueryResultCache {
+    /**
+     * Default folder of the query result cache.
+     */
+    public static final Path DEFAULT_CACHE_DIR =
+            Paths.get(System.getProperty("user.home"), ".crawler-to-rdf", "cache", "query");
+    /**
+     * Default maximum size of the query result cache in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+    /**
+     * Version of the cached data. Has to be increased whenever the result format
+     * or the cache key changes, so that previously cached results are no longer used.
+     */
+    private static final String CACHE_VERSION = "QueryResultCache/2";
+    /**
+     * Prefix of the keys of cached content hashes of input files.
+     */
+    private static final String FILE_HASH_VERSION = "QueryResultCache/file/1";
+    /**
+     * Coarsest last modified time resolution of common file systems in milliseconds (FAT uses 2 seconds).
+     * A file modified within this time before its content is hashed could be modified again
+     * without changing its last modified time.
+     */
+    private static final long MTIME_RESOLUTION = 2000;
+    /**
+     * Size of the buffer used to hash the content of input files.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(QueryResultCache.class.getName());
+    /**
+     * Cache storing the binary results and the content hashes of input files.
+     */
+    private final FileCache cache;
+
+    /**
+     * Constructor.
+     * @param dir Folder of the query result cache.
+     * @param maxBytes Maximum number of bytes the query result cache is allowed to use.
+     */
+    public QueryResultCache(final Path dir, final long maxBytes) {
+        this.cache = new FileCache(dir, maxBytes);
+    }
+
+    /**
+     * Creates the cache key of a query run against a list of input files by hashing the normalized
+     * query text and path, size and content hash of every input file. The input files are sorted
+     * by their absolute path, so the key does not depend on the order of the input files.
+     * @param query Parsed SPARQL query, its serialization is used as normalized query text.
+     * @param inputFiles Paths of all input files of the query.
+     * @return Hexadecimal String of the SHA-1 hash of query and input files.
+     * @throws IOException If an input file cannot be read.
+     */
+    public String key(final Query query, final List<String> inputFiles) throws IOException {
+        final MessageDigest md = QueryResultCache.sha1();
+        QueryResultCache.update(md, QueryResultCache.CACHE_VERSION);
+        QueryResultCache.update(md, query.serialize());
+        // Folders and glob patterns list their files in no particular order.
+        final List<Path> paths = inputFiles.stream()
+                .map(f -> Paths.get(f).toAbsolutePath().normalize())
+                .sorted()
+                .collect(Collectors.toList());
+        for (final Path path : paths) {
+            QueryResultCache.update(md, path.toString());
+            QueryResultCache.update(md, String.valueOf(Files.size(path)));
+            QueryResultCache.update(md, this.contentHash(path));
+        }
+        return Hex.encodeHexString(md.digest());
+    }
+
+    /**
+     * Opens the cached results of a query.
+     * @param key Cache key of the query, see {@link #key(Query, List)}.
+     * @return Stream of the results in the {@link QueryResultBinaryFormat} or null,
+     *  if the results are not available from the cache.
+     */
+    public InputStream get(final String key) {
+        final Path entry = this.cache.getFile(key);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return Files.newInputStream(entry);
+        } catch (IOException e) {
+            QueryResultCache.LOGGER.warn(String.join("", "Could not read query result cache entry ", key));
+            return null;
+        }
+    }
+
+    /**
+     * Writes query results to a temporary file within the cache folder. The file can be added to the cache
+     * using {@link #put(String, Path)} once it has been used, it has to be deleted otherwise.
+     * @param result Query results.
+     * @return Temporary file containing the results in the {@link QueryResultBinaryFormat}.
+     * @throws IOException If the file cannot be written.
+     */
+    public Path write(final ResultSet result) throws IOException {
+        final Path tmp = this.cache.createTempFile();
+        try (OutputStream os = Files.newOutputStream(tmp)) {
+            QueryResultBinaryFormat.write(os, result);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return tmp;
+    }
+
+    /**
+     * Add query results written by {@link #write(ResultSet)} to the cache.
+     * @param key Cache key of the query, see {@link #key(Query, List)}.
+     * @param resultFile Temporary file containing the results, the file is moved into the cache.
+     */
+    public void put(final String key, final Path resultFile) {
+        this.cache.putFile(key, resultFile);
+    }
+
+    /**
+     * Removes the cached results of a query e.g. if the cache entry turned out to be invalid.
+     * @param key Cache key of the query, see {@link #key(Query, List)}.
+     */
+    public void remove(final String key) {
+        this.cache.remove(key);
+    }
+
+    /**
+     * Returns the content hash of a file. Hashes are cached by path, size and last modified time
+     * of the file, so the content is only read, if the file has been modified or is unknown.
+     * Files modified within {@link #MTIME_RESOLUTION} of the current time are always read and their
+     * hash is not cached, since the file could be modified again without changing its last modified time.
+     * @param path Absolute path of the file.
+     * @return Hexadecimal String of the SHA-1 hash of the file content.
+     * @throws IOException If the file cannot be read.
+     */
+    private String contentHash(final Path path) throws IOException {
+        final long modified = Files.getLastModifiedTime(path).toMillis();
+        final boolean recent = System.currentTimeMillis() - modified < QueryResultCache.MTIME_RESOLUTION;
+
+        final MessageDigest md = QueryResultCache.sha1();
+        QueryResultCache.update(md, QueryResultCache.FILE_HASH_VERSION);
+        QueryResultCache.update(md, path.toString());
+        QueryResultCache.update(md, String.valueOf(Files.size(path)));
+        QueryResultCache.update(md, String.valueOf(modified));
+        final String fileKey = Hex.encodeHexString(md.digest());
+
+        final byte[] cached = recent ? null : this.cache.get(fileKey);
+        if (cached != null) {
+            return new String(cached, StandardCharsets.US_ASCII);
+        }
+
+        final MessageDigest content = QueryResultCache.sha1();
+        final byte[] buffer = new byte[QueryResultCache.BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read = in.read(buffer);
+            while (read >= 0) {
+                content.update(buffer, 0, read);
+                read = in.read(buffer);
+            }
+        }
+        final String hash = Hex.encodeHexString(content.digest());
+        if (!recent) {
+            this.cache.put(fileKey, hash.getBytes(StandardCharsets.US_ASCII));
+        }
+        return hash;
+    }
+
+    /**
+     * Returns a new SHA-1 message digest.
+     * @return See description.
+     * @throws IOException If SHA-1 is not supported by the JVM.
+     */
+    private static MessageDigest sha1() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Adds a value followed by a separator to a message digest.
+     * @param md Message digest.
+     * @param value Value that is supposed to be added.
+     */
+    private static void update(final MessageDigest md, final String value) {
+        md.update(value.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+    }
+
+}
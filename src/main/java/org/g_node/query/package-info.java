@@ -0,0 +1,14 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ *
+ * Provides all required classes to run SPARQL queries over RDF files
+ * and stream the results to a file.
+ */
+
+package org.g_node.query;
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.serve;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Layout;
+import org.apache.log4j.MDC;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Log4j appender capturing the log messages of individual jobs. A job is identified by the
+ * {@link #JOB_KEY} entry of the log4j {@link MDC}, which is inherited by all threads started
+ * by the job. Messages of a job are written to the writer registered for the job,
+ * messages without a registered job are ignored.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+final class JobLogAppender extends AppenderSkeleton {
+    /**
+     * Key of the job ID within the log4j {@link MDC}.
+     */
+    static final String JOB_KEY = "job";
+    /**
+     * Writers receiving the log messages of all running jobs, identified by job ID.
+     */
+    private final Map<String, PrintWriter> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param jobLayout Layout of the log messages.
+     */
+    JobLogAppender(final Layout jobLayout) {
+        this.setLayout(jobLayout);
+    }
+
+    /**
+     * Starts capturing the log messages of a job. Has to be called from the thread running the job,
+     * the job ID is added to the {@link MDC} of this thread.
+     * @param jobId ID of the job.
+     * @param writer Writer receiving the log messages of the job.
+     */
+    void startJob(final String jobId, final PrintWriter writer) {
+        this.jobs.put(jobId, writer);
+        MDC.put(JobLogAppender.JOB_KEY, jobId);
+    }
+
+    /**
+     * Stops capturing the log messages of a job. Has to be called from the thread running the job.
+     * @param jobId ID of the job.
+     */
+    void endJob(final String jobId) {
+        MDC.remove(JobLogAppender.JOB_KEY);
+        this.jobs.remove(jobId);
+    }
+
+    @Override
+    protected void append(final LoggingEvent event) {
+        final Object jobId = event.getMDC(JobLogAppender.JOB_KEY);
+        if (jobId == null) {
+            return;
+        }
+        final PrintWriter writer = this.jobs.get(jobId.toString());
+        if (writer == null) {
+            return;
+        }
+        synchronized (writer) {
+            writer.print(this.layout.format(event));
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.jobs.clear();
+        this.closed = true;
+    }
+
+    @Override
+    public boolean requiresLayout() {
+        return true;
+    }
+
+}
@@ -0,0 +1,327 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.serve;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.g_node.micro.commons.LazyLog;
+
+/**
+ * Server running the tools of the application as jobs of a single long-running process, so that
+ * JVM startup, class loading and the initialization of Jena are only paid once.
+ * The server listens on a loopback TCP port only. Since any local user can connect to a loopback port,
+ * the server writes a random access token to a token file readable by its owner only; the first line
+ * of every connection has to contain this token, connections without it are rejected.
+ * Every connection submits a single job as one line following the token line,
+ * containing the tool arguments, the same arguments that would be passed on the command line,
+ * separated by tab characters, e.g. "conv\t-i\tdata.ttl\t-f\tNTRIPLES". Jobs are run concurrently
+ * on a bounded worker pool. The log messages of the job are sent back over the connection while
+ * the job is running, followed by a final line "END OK [milliseconds]" or "END FAILED [message]".
+ * The request "shutdown" stops the server once all running jobs are done. The token file
+ * is removed when the server is closed.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class JobServer implements Closeable {
+    /**
+     * Request stopping the server.
+     */
+    public static final String SHUTDOWN = "shutdown";
+    /**
+     * Prefix of the last line sent for every job.
+     */
+    public static final String END = "END";
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(JobServer.class.getName());
+    /**
+     * Separator of the tool arguments within a request line.
+     */
+    private static final String ARG_SEPARATOR = "\t";
+    /**
+     * Layout of the log messages sent to the clients.
+     */
+    private static final String LOG_PATTERN = "[%-5p] %m%n";
+    /**
+     * Number of random bytes of the access token.
+     */
+    private static final int TOKEN_BYTES = 32;
+    /**
+     * Runs a single job with the provided tool arguments.
+     */
+    private final Consumer<String[]> runner;
+    /**
+     * Worker pool running the jobs.
+     */
+    private final ExecutorService executor;
+    /**
+     * Appender capturing the log messages of every job.
+     */
+    private final JobLogAppender logAppender;
+    /**
+     * Number of jobs submitted so far, used as job ID.
+     */
+    private final AtomicLong jobCount = new AtomicLong();
+    /**
+     * Socket accepting the connections of the clients.
+     */
+    private final ServerSocket serverSocket;
+    /**
+     * File containing the access token.
+     */
+    private final Path tokenFile;
+    /**
+     * Access token clients have to send as the first line of every connection.
+     */
+    private final byte[] token;
+
+    /**
+     * Constructor, binds the server to a loopback port and writes a new access token to the token file.
+     * @param jobRunner Runs a single job with the provided tool arguments.
+     * @param port Loopback port the server listens on, 0 uses any free port.
+     * @param threads Maximum number of jobs running at the same time.
+     * @param accessTokenFile File receiving the access token, an existing file is replaced.
+     * @throws IOException If the port cannot be used or the token file cannot be written.
+     */
+    public JobServer(final Consumer<String[]> jobRunner, final int port, final int threads,
+                     final Path accessTokenFile) throws IOException {
+        this.runner = jobRunner;
+        this.tokenFile = accessTokenFile.toAbsolutePath();
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        try {
+            this.token = JobServer.writeToken(this.tokenFile);
+        } catch (IOException e) {
+            JobServer.closeQuietly(this.serverSocket);
+            throw e;
+        }
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.logAppender = new JobLogAppender(new PatternLayout(JobServer.LOG_PATTERN));
+        this.logAppender.setName(String.join("", JobServer.class.getSimpleName(), "-",
+                String.valueOf(this.serverSocket.getLocalPort())));
+        Logger.getRootLogger().addAppender(this.logAppender);
+    }
+
+    /**
+     * Returns the loopback port the server listens on.
+     * @return See description.
+     */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the file containing the access token.
+     * @return See description.
+     */
+    public Path getTokenFile() {
+        return this.tokenFile;
+    }
+
+    /**
+     * Accepts connections and submits their jobs until a shutdown request is received
+     * or the server is closed. Returns once all running jobs are done.
+     */
+    public void serve() {
+        try {
+            this.acceptConnections();
+        } finally {
+            this.executor.shutdown();
+            try {
+                this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Logger.getRootLogger().removeAppender(this.logAppender);
+        }
+    }
+
+    /**
+     * Accepts connections and submits their jobs until the server socket is closed.
+     */
+    private void acceptConnections() {
+        while (!this.serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (IOException e) {
+                if (!this.serverSocket.isClosed()) {
+                    JobServer.LOGGER.error(String.join("", "Could not accept connection: ", e.getMessage()));
+                }
+                continue;
+            }
+            try {
+                this.executor.submit(() -> this.handle(socket));
+            } catch (RejectedExecutionException e) {
+                JobServer.closeQuietly(socket);
+            }
+        }
+    }
+
+    /**
+     * Reads the access token and the request of a connection and runs the requested job.
+     * @param socket Connection of a client.
+     */
+    private void handle(final Socket socket) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(
+                     new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+
+            if (!this.isValidToken(in.readLine())) {
+                JobServer.LOGGER.warn("Rejected connection without valid access token.");
+                out.println(String.join(" ", JobServer.END, "FAILED", "Invalid access token."));
+                out.flush();
+                return;
+            }
+
+            final String request = in.readLine();
+            if (request == null || request.trim().isEmpty()) {
+                out.println(String.join(" ", JobServer.END, "FAILED", "Empty request."));
+            } else if (JobServer.SHUTDOWN.equals(request.trim())) {
+                JobServer.LOGGER.info("Received shutdown request.");
+                out.println(String.join(" ", JobServer.END, "OK", "0"));
+                out.flush();
+                this.close();
+            } else {
+                this.runJob(request.split(JobServer.ARG_SEPARATOR), out);
+            }
+            out.flush();
+
+        } catch (IOException e) {
+            JobServer.LOGGER.error(String.join("", "Could not handle connection: ", e.getMessage()));
+        }
+    }
+
+    /**
+     * Runs a single job, its log messages are sent to the client.
+     * @param args Tool arguments of the job.
+     * @param out Writer sending the log messages to the client.
+     */
+    private void runJob(final String[] args, final PrintWriter out) {
+        final String jobId = String.valueOf(this.jobCount.incrementAndGet());
+        if ("serve".equals(args[0])) {
+            out.println(String.join(" ", JobServer.END, "FAILED", "Tool 'serve' cannot be run as a job."));
+            return;
+        }
+
+        LazyLog.info(JobServer.LOGGER,
+                () -> String.join("", "Starting job ", jobId, ": '", String.join(" ", args), "'"));
+        final long startTime = System.currentTimeMillis();
+        String result;
+        this.logAppender.startJob(jobId, out);
+        try {
+            this.runner.accept(args);
+            result = String.join(" ", "OK", String.valueOf(System.currentTimeMillis() - startTime));
+        } catch (RuntimeException e) {
+            JobServer.LOGGER.error(String.join("", "Job ", jobId, " failed: ", e.toString()));
+            result = String.join(" ", "FAILED", e.toString());
+        } finally {
+            this.logAppender.endJob(jobId);
+        }
+        synchronized (out) {
+            out.println(String.join(" ", JobServer.END, result));
+        }
+        LazyLog.info(JobServer.LOGGER,
+                () -> String.join("", "Finished job ", jobId, " in ",
+                        String.valueOf(System.currentTimeMillis() - startTime), " ms"));
+    }
+
+    /**
+     * Stops accepting connections and removes the token file,
+     * running jobs are finished before {@link #serve()} returns.
+     */
+    @Override
+    public void close() {
+        JobServer.closeQuietly(this.serverSocket);
+        try {
+            Files.deleteIfExists(this.tokenFile);
+        } catch (IOException e) {
+            JobServer.LOGGER.warn(String.join("", "Could not remove token file: ", e.getMessage()));
+        }
+    }
+
+    /**
+     * Compares a token sent by a client with the access token in constant time.
+     * @param clientToken Token sent by the client, can be null.
+     * @return True if the token matches the access token.
+     */
+    private boolean isValidToken(final String clientToken) {
+        return clientToken != null
+                && MessageDigest.isEqual(this.token, clientToken.trim().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Creates a new random access token and writes it to a token file readable and writable by its owner only.
+     * An existing token file is removed first, so that the permissions of the new file are not inherited.
+     * @param file Path of the token file.
+     * @return Access token as ASCII bytes of its hexadecimal representation.
+     * @throws IOException If the token file cannot be written.
+     */
+    private static byte[] writeToken(final Path file) throws IOException {
+        final byte[] random = new byte[JobServer.TOKEN_BYTES];
+        new SecureRandom().nextBytes(random);
+        final byte[] token = Hex.encodeHexString(random).getBytes(StandardCharsets.US_ASCII);
+
+        Files.createDirectories(file.getParent());
+        Files.deleteIfExists(file);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            final File f = Files.createFile(file).toFile();
+            if (!(f.setReadable(false, false) && f.setReadable(true, true)
+                    && f.setWritable(false, false) && f.setWritable(true, true))) {
+                Files.deleteIfExists(file);
+                throw new IOException(String.join("", "Could not restrict access to token file ", file.toString()));
+            }
+        }
+        Files.write(file, token);
+        return token;
+    }
+
+    /**
+     * Closes a socket, errors are ignored.
+     * @param socket Socket that is supposed to be closed.
+     */
+    private static void closeQuietly(final Closeable socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LazyLog.debug(JobServer.LOGGER, () -> String.join("", "Could not close socket: ", e.getMessage()));
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.serve;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.jena.riot.RIOT;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.CliToolController;
+import org.g_node.micro.commons.LazyLog;
+import org.g_node.srv.CliOptionService;
+import org.g_node.srv.CtrlCheckService;
+
+/**
+ * Controller class for the serve mode. Keeps a single warm process running and runs the
+ * tools of the application as concurrent jobs submitted via a loopback TCP port, see {@link JobServer}.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class ServeCliToolController implements CliToolController {
+    /**
+     * Default loopback port of the server.
+     */
+    public static final int DEFAULT_PORT = 7531;
+    /**
+     * Largest valid TCP port.
+     */
+    private static final int MAX_PORT = 65535;
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ServeCliToolController.class.getName());
+    /**
+     * Runs a single job with the provided tool arguments.
+     */
+    private final Consumer<String[]> runner;
+
+    /**
+     * Constructor.
+     * @param jobRunner Runs a single job with the provided tool arguments,
+     *                  the first argument is the shorthand of the tool.
+     */
+    public ServeCliToolController(final Consumer<String[]> jobRunner) {
+        this.runner = jobRunner;
+    }
+
+    /**
+     * Method returning the commandline options of the serve mode.
+     * @return Available commandline options.
+     */
+    public final Options options() {
+        final Options options = new Options();
+
+        final Option opHelp = CliOptionService.getHelpOpt("");
+        final Option opPort = Option.builder("p")
+                .longOpt("port")
+                .desc(String.join("", "Optional: loopback port the server listens on. Default port is ",
+                        String.valueOf(ServeCliToolController.DEFAULT_PORT), "."))
+                .hasArg()
+                .valueSeparator()
+                .build();
+        final Option opTokenFile = Option.builder()
+                .longOpt("token-file")
+                .desc(String.join("", "Optional: file receiving the access token clients have to send as the first ",
+                        "line of every connection. Default is ~/.crawler-to-rdf/serve_[port].token."))
+                .hasArg()
+                .valueSeparator()
+                .build();
+        final Option opThreads = CliOptionService.getThreadsOpt(
+                String.join("", "Optional: maximum number of jobs running at the same time. ",
+                        "Default is the number of available processors."));
+
+        options.addOption(opHelp);
+        options.addOption(opPort);
+        options.addOption(opTokenFile);
+        options.addOption(opThreads);
+
+        return options;
+    }
+
+    /**
+     * Method starting the server, returns once the server has received a shutdown request
+     * and all running jobs are done.
+     * @param cmd User provided {@link CommandLine} input.
+     */
+    public final void run(final CommandLine cmd) {
+
+        final String port = cmd.getOptionValue("p", String.valueOf(ServeCliToolController.DEFAULT_PORT));
+        if (!CtrlCheckService.isIntegerInRange(port, 1, ServeCliToolController.MAX_PORT, "-p/--port")) {
+            return;
+        }
+        final Path tokenFile = cmd.hasOption("token-file") ? Paths.get(cmd.getOptionValue("token-file"))
+                : Paths.get(System.getProperty("user.home"), ".crawler-to-rdf",
+                        String.join("", "serve_", port, ".token"));
+
+        final String threads = cmd.getOptionValue(
+                "threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        if (!CtrlCheckService.isPositiveInteger(threads, "--threads")) {
+            return;
+        }
+
+        RIOT.init();
+
+        try (JobServer server = new JobServer(
+                this.runner, Integer.parseInt(port), Integer.parseInt(threads), tokenFile)) {
+            LazyLog.info(ServeCliToolController.LOGGER,
+                    () -> String.join("", "Serving jobs on loopback port ", String.valueOf(server.getPort()),
+                            " using ", threads, " threads, access token in '", server.getTokenFile().toString(),
+                            "'...")
+            );
+            server.serve();
+            ServeCliToolController.LOGGER.info("Server stopped.");
+        } catch (IOException e) {
+            ServeCliToolController.LOGGER.error(String.join("", "Could not start server: ", e.getMessage()));
+        }
+    }
+
+}
@@ -10,8 +10,14 @@
 
 package org.g_node.srv;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.g_node.micro.commons.RDFService;
+import org.g_node.micro.commons.RunMetrics;
 
 /**
  * Class provides CLI {@link Option}s that are common
@@ -64,6 +70,7 @@ public final class CliOptionService {
         final String defaultDesc = String.join(
                 "", "Optional: Path and name of the output file. ",
                 "Files with the same name will be overwritten. ",
+                "Output files ending with '.gz' or '.zst' are compressed. ",
                 "Default file name uses format [inputFileName]_out.");
         final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
 
@@ -84,7 +91,9 @@ public final class CliOptionService {
     public static Option getOutFormatOpt(final String altDesc) {
 
         final String defaultDesc = String.join(
-                "", "Optional: format of the RDF file that will be written.\n",
+                "", "Optional: format of the RDF file that will be written. ",
+                "Multiple formats can be provided as comma separated list e.g. 'TTL,NTRIPLES', ",
+                "the data will then be written to one file per format.\n",
                 "Supported file formats: ", RDFService.RDF_FORMAT_MAP.keySet().toString(),
                 "\nDefault setting is the Turtle (TTL) format.");
         final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
@@ -96,4 +105,137 @@ public final class CliOptionService {
                 .valueSeparator()
                 .build();
     }
+
+    /**
+     * Returns option setting the number of threads a tool is allowed to use.
+     * Commandline option will always be "--threads".
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option parsing the number of threads.
+     */
+    public static Option getThreadsOpt(final String altDesc) {
+
+        final String defaultDesc = String.join(
+                "", "Optional: number of threads used for processing. ",
+                "Default is the number of available processors.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("threads")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option required to parse a SPARQL query from the command line.
+     * Commandline option shorthand will always be "-q" and "-query". This
+     * option will always be "required".
+     * @param altDesc Alternative description replacing the default description.
+     * @return Required CLI option parsing a SPARQL query.
+     */
+    public static Option getQueryOpt(final String altDesc) {
+
+        final String defaultDesc = String.join(
+                "", "SPARQL SELECT query that is supposed to be run. ",
+                "Either the query itself or the path of a file containing the query.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder("q")
+                .longOpt("query")
+                .desc(desc)
+                .required()
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option setting the folder of a persistent TDB store, see {@link org.g_node.micro.commons.TDBStore}.
+     * Commandline option will always be "--tdb".
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option parsing the folder of a TDB store.
+     */
+    public static Option getTdbOpt(final String altDesc) {
+
+        final String defaultDesc = String.join(
+                "", "Optional: folder of a persistent TDB store. The RDF data is additionally loaded into ",
+                "the store, replacing the data loaded from the same input file in earlier runs. ",
+                "The store is created, if it does not exist.");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("tdb")
+                .desc(desc)
+                .hasArg()
+                .valueSeparator()
+                .build();
+    }
+
+    /**
+     * Returns option enabling the metrics of a run, see {@link RunMetrics}.
+     * Commandline option will always be "--metrics".
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option enabling metrics.
+     */
+    public static Option getMetricsOpt(final String altDesc) {
+
+        final String defaultDesc = String.join(
+                "", "Optional: collect the duration and peak heap usage of all phases of the run as well as ",
+                "throughput counters and write them to the JSON file [outputFileName]", RunMetrics.FILE_SUFFIX, ".");
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("metrics")
+                .desc(desc)
+                .build();
+    }
+
+    /**
+     * Returns option enabling the metrics of a run and printing them as table, see {@link RunMetrics}.
+     * Commandline option will always be "--metrics-table".
+     * @param altDesc Alternative description replacing the default description.
+     * @return CLI option enabling metrics printed as table.
+     */
+    public static Option getMetricsTableOpt(final String altDesc) {
+
+        final String defaultDesc = "Optional: same as --metrics, the metrics are additionally printed as table.";
+        final String desc = !altDesc.isEmpty() ? altDesc : defaultDesc;
+
+        return Option.builder()
+                .longOpt("metrics-table")
+                .desc(desc)
+                .build();
+    }
+
+    /**
+     * Returns new metrics for a run, metrics are only collected if the user provided
+     * the metrics option or the metrics table option, see {@link #getMetricsOpt(String)}.
+     * @param cmd User provided {@link CommandLine} input.
+     * @return Metrics of the run or {@link RunMetrics#DISABLED}.
+     */
+    public static RunMetrics getMetrics(final CommandLine cmd) {
+        return RunMetrics.create(cmd.hasOption("metrics") || cmd.hasOption("metrics-table"));
+    }
+
+    /**
+     * Returns the upper case output formats provided via the output format option,
+     * see {@link #getOutFormatOpt(String)}. Multiple formats are separated by comma,
+     * duplicate formats are removed.
+     * @param cmd User provided {@link CommandLine} input.
+     * @param defaultFormat Format used, if the user did not provide any output format.
+     * @return List of requested output formats in the order they were provided.
+     */
+    public static List<String> getOutFormats(final CommandLine cmd, final String defaultFormat) {
+        final List<String> formats = Arrays.stream(cmd.getOptionValue("f", defaultFormat).split(","))
+                .map(f -> f.trim().toUpperCase(Locale.ENGLISH))
+                .filter(f -> !f.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+
+        if (formats.isEmpty()) {
+            formats.add(defaultFormat.toUpperCase(Locale.ENGLISH));
+        }
+        return formats;
+    }
 }
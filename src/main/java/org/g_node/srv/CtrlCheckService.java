@@ -12,10 +12,10 @@ package org.g_node.srv;
 
 import java.util.Locale;
 import java.util.Set;
-import org.apache.jena.riot.RiotException;
 import org.apache.log4j.Logger;
 import org.g_node.micro.commons.FileService;
-import org.g_node.micro.commons.RDFService;
+import org.g_node.micro.commons.LazyLog;
+import org.g_node.micro.commons.RDFValidationService;
 
 /**
  * Class providing checks common to tools implemented in this service.
@@ -34,12 +34,12 @@ public final class CtrlCheckService {
      */
     public static boolean isExistingFile(final String inputFile) {
 
-        CtrlCheckService.LOGGER.info(
-                String.join("", "Checking file '", inputFile, "'...")
+        LazyLog.info(CtrlCheckService.LOGGER,
+                () -> String.join("", "Checking file '", inputFile, "'...")
         );
         if (!FileService.checkFile(inputFile)) {
-            CtrlCheckService.LOGGER.error(
-                    String.join("", "Input file ", inputFile, " does not exist.")
+            LazyLog.error(CtrlCheckService.LOGGER,
+                    () -> String.join("", "Input file ", inputFile, " does not exist.")
             );
             return false;
         }
@@ -56,8 +56,8 @@ public final class CtrlCheckService {
 
         CtrlCheckService.LOGGER.info("Checking input format...");
         if (!FileService.checkFileExtension(inputFile, checkExtension)) {
-            CtrlCheckService.LOGGER.error(
-                    String.join("",
+            LazyLog.error(CtrlCheckService.LOGGER,
+                    () -> String.join("",
                             "Input RDF file ", inputFile, " cannot be read.",
                             "\n\tOnly the following file formats are supported: \n\t",
                             checkExtension.toString()
@@ -77,10 +77,12 @@ public final class CtrlCheckService {
      */
     public static boolean isSupportedOutputFormat(final String outputFormat,
                                                   final Set<String> supportedOutFormats) {
-        CtrlCheckService.LOGGER.info(String.join("", "Checking output format...\t\t(", outputFormat, ")"));
+        LazyLog.info(CtrlCheckService.LOGGER,
+                () -> String.join("", "Checking output format...\t\t(", outputFormat, ")")
+        );
         if (!supportedOutFormats.contains(outputFormat.toUpperCase(Locale.ENGLISH))) {
-            CtrlCheckService.LOGGER.error(
-                    String.join("",
+            LazyLog.error(CtrlCheckService.LOGGER,
+                    () -> String.join("",
                             "Unsupported output format: '", outputFormat, "'",
                             "\n\t\tPlease use one of the following: ", supportedOutFormats.toString())
             );
@@ -100,10 +102,12 @@ public final class CtrlCheckService {
     public static boolean isSupportedCliArgValue(final String cliArgValue,
                                                  final Set<String> argValSet,
                                                  final String cliArgDesc) {
-        CtrlCheckService.LOGGER.info(String.join("", "Checking value of command line option '", cliArgDesc, "'..."));
+        LazyLog.info(CtrlCheckService.LOGGER,
+                () -> String.join("", "Checking value of command line option '", cliArgDesc, "'...")
+        );
         if (!argValSet.contains(cliArgValue.toUpperCase(Locale.ENGLISH))) {
-            CtrlCheckService.LOGGER.error(
-                    String.join("",
+            LazyLog.error(CtrlCheckService.LOGGER,
+                    () -> String.join("",
                             "'", cliArgValue, "' is not a supported value of command line option '", cliArgDesc, "'.",
                             "\n\t\t Please use one of the following: ",
                             String.join(" ", argValSet)
@@ -115,25 +119,96 @@ public final class CtrlCheckService {
     }
 
     /**
-     * Method tries to open a supported file assuming, that it is an RDF file.
-     * If a RiotException occurs it most likely is not a valid RDF file and a
-     * corresponding message is displayed and logged.
-     * NOTE: If the input file has a file extension, that is not supported by
-     * Apache Jena e.g. a file with the file ending "txt", the file will not be
-     * closed properly after the RiotException has been raised. Only after the
-     * program is closed, the file will be available again. Maybe this issue will be
-     * resolved in a later Apache Jena version.
+     * Checks if the value of a command line argument is a positive integer.
+     * @param cliArgValue Value of the command line argument.
+     * @param cliArgDesc Name of the command line argument, used in the error message.
+     * @return True if the value is a positive integer, false if not.
+     */
+    public static boolean isPositiveInteger(final String cliArgValue, final String cliArgDesc) {
+        int value;
+        try {
+            value = Integer.parseInt(cliArgValue);
+        } catch (NumberFormatException e) {
+            value = 0;
+        }
+        if (value > 0) {
+            return true;
+        }
+        LazyLog.error(CtrlCheckService.LOGGER,
+                () -> String.join("",
+                        "'", cliArgValue, "' is not a positive number, as required by command line option '",
+                        cliArgDesc, "'.")
+        );
+        return false;
+    }
+
+    /**
+     * Checks if the value of a command line argument is an integer within a range.
+     * @param cliArgValue Value of the command line argument.
+     * @param min Smallest allowed value.
+     * @param max Largest allowed value.
+     * @param cliArgDesc Name of the command line argument, used in the error message.
+     * @return True if the value is an integer between min and max inclusive, false if not.
+     */
+    public static boolean isIntegerInRange(final String cliArgValue, final int min, final int max,
+                                           final String cliArgDesc) {
+        long value;
+        try {
+            value = Long.parseLong(cliArgValue);
+        } catch (NumberFormatException e) {
+            value = (long) min - 1;
+        }
+        if (value >= min && value <= max) {
+            return true;
+        }
+        LazyLog.error(CtrlCheckService.LOGGER,
+                () -> String.join("",
+                        "'", cliArgValue, "' is not a number between ", String.valueOf(min), " and ",
+                        String.valueOf(max), ", as required by command line option '", cliArgDesc, "'.")
+        );
+        return false;
+    }
+
+    /**
+     * Checks if the value of a command line argument is zero or a positive integer.
+     * @param cliArgValue Value of the command line argument.
+     * @param cliArgDesc Name of the command line argument, used in the error message.
+     * @return True if the value is zero or a positive integer, false if not.
+     */
+    public static boolean isNonNegativeInteger(final String cliArgValue, final String cliArgDesc) {
+        int value;
+        try {
+            value = Integer.parseInt(cliArgValue);
+        } catch (NumberFormatException e) {
+            value = -1;
+        }
+        if (value >= 0) {
+            return true;
+        }
+        LazyLog.error(CtrlCheckService.LOGGER,
+                () -> String.join("",
+                        "'", cliArgValue, "' is not zero or a positive number, as required by command line option '",
+                        cliArgDesc, "'.")
+        );
+        return false;
+    }
+
+    /**
+     * Method validates the syntax of a supported file assuming, that it is an RDF file.
+     * The file is parsed in a single pass without loading the RDF model, see
+     * {@link RDFValidationService}. If the file is not a valid RDF file, the line and column
+     * of the first errors are displayed and logged.
      * @param file Path and filename of the file that is supposed to be checked.
-     * @return True if the file can be opened and the model loaded, false if not.
+     * @return True if the file is a valid RDF file, false if not.
      */
     public static boolean isValidRdfFile(final String file) {
-        try {
-            RDFService.openModelFromFile(file);
-        } catch (RiotException e) {
-            CtrlCheckService.LOGGER.error(
-                    String.join("",
+        final RDFValidationService.Result result =
+                RDFValidationService.validate(file, RDFValidationService.DEFAULT_MAX_ERRORS);
+        if (!result.isValid()) {
+            LazyLog.error(CtrlCheckService.LOGGER,
+                    () -> String.join("",
                             "Failed to load file '", file, "'. Ensure it is a valid RDF file.",
-                            "\n\t\tActual error message: ", e.getMessage())
+                            "\n\t\tActual error message: ", String.join("\n\t\t", result.getErrors()))
             );
             return false;
         }
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.stats;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct values using a fixed amount of memory.
+ * With the default precision of 14 the sketch uses 16 KB and the standard error of the
+ * estimate is about 0.8%, independent of the number of added values.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class HyperLogLog {
+    /**
+     * Default precision, number of hash bits selecting a register.
+     */
+    public static final int DEFAULT_PRECISION = 14;
+    /**
+     * Number of hash bits selecting a register.
+     */
+    private final int precision;
+    /**
+     * Registers containing the maximum rank of all hashes selecting the register.
+     */
+    private final byte[] registers;
+
+    /**
+     * Constructor using the default precision.
+     */
+    public HyperLogLog() {
+        this(HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    /**
+     * Constructor.
+     * @param bits Number of hash bits selecting a register, between 4 and 18.
+     *             The sketch uses 2^bits bytes of memory.
+     */
+    public HyperLogLog(final int bits) {
+        if (bits < 4 || bits > 18) {
+            throw new IllegalArgumentException(
+                    String.join("", "Precision has to be between 4 and 18: ", String.valueOf(bits)));
+        }
+        this.precision = bits;
+        this.registers = new byte[1 << bits];
+    }
+
+    /**
+     * Adds a value to the sketch.
+     * @param value Value that is supposed to be counted.
+     */
+    public void add(final String value) {
+        this.addHash(HyperLogLog.hash(value));
+    }
+
+    /**
+     * Adds the 64 bit hash of a value to the sketch.
+     * @param hash Uniformly distributed 64 bit hash of the value.
+     */
+    public void addHash(final long hash) {
+        final int index = (int) (hash >>> (Long.SIZE - this.precision));
+        final long rest = (hash << this.precision) | (1L << (this.precision - 1));
+        final byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > this.registers[index]) {
+            this.registers[index] = rank;
+        }
+    }
+
+    /**
+     * Returns the estimated number of distinct values added to the sketch.
+     * Small numbers of values are estimated using linear counting.
+     * @return See description.
+     */
+    public long cardinality() {
+        final int m = this.registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < m; i = i + 1) {
+            sum = sum + 1.0 / (1L << this.registers[i]);
+            if (this.registers[i] == 0) {
+                zeros = zeros + 1;
+            }
+        }
+
+        final double alpha = 0.7213 / (1 + 1.079 / m);
+        final double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Returns a 64 bit hash of a String using FNV-1a followed by the MurmurHash3 finalizer,
+     * which distributes the bits of similar Strings e.g. IRIs sharing a long prefix.
+     * @param value String that is supposed to be hashed.
+     * @return See description.
+     */
+    static long hash(final String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i = i + 1) {
+            h = (h ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+}
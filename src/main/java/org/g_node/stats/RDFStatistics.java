@@ -0,0 +1,310 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.stats;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.sparql.core.Quad;
+import com.hp.hpl.jena.vocabulary.RDF;
+import com.hp.hpl.jena.vocabulary.XSD;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonArray;
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.jena.riot.system.StreamRDFBase;
+
+/**
+ * {@link org.apache.jena.riot.system.StreamRDF} collecting statistics of all statements it receives:
+ * the number of triples and quads, the estimated number of distinct subjects and objects,
+ * the number of statements per predicate and the number of literals per datatype.
+ * Distinct values are estimated using {@link HyperLogLog} sketches and the number of tracked
+ * predicates and datatypes is limited, so the memory used does not depend on the number of statements.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class RDFStatistics extends StreamRDFBase {
+    /**
+     * Default maximum number of predicates and datatypes counted separately.
+     */
+    public static final int DEFAULT_MAX_TRACKED = 10000;
+    /**
+     * Datatype of language tagged literals.
+     */
+    private static final String LANG_STRING = String.join("", RDF.getURI(), "langString");
+    /**
+     * Datatype of literals without datatype and language tag.
+     */
+    private static final String PLAIN_STRING = XSD.xstring.getURI();
+    /**
+     * Maximum number of predicates and datatypes counted separately.
+     */
+    private final int maxTracked;
+    /**
+     * Estimates the number of distinct subjects.
+     */
+    private final HyperLogLog subjects = new HyperLogLog();
+    /**
+     * Estimates the number of distinct objects.
+     */
+    private final HyperLogLog objects = new HyperLogLog();
+    /**
+     * Number of statements per predicate.
+     */
+    private final Map<String, long[]> predicates = new HashMap<>();
+    /**
+     * Number of literals per datatype.
+     */
+    private final Map<String, long[]> datatypes = new HashMap<>();
+    /**
+     * Number of triples.
+     */
+    private long triples;
+    /**
+     * Number of quads.
+     */
+    private long quads;
+    /**
+     * Number of literal objects.
+     */
+    private long literals;
+    /**
+     * Number of blank node subjects and objects.
+     */
+    private long blankNodes;
+    /**
+     * Number of statements whose predicate exceeded the maximum number of tracked predicates.
+     */
+    private long otherPredicates;
+    /**
+     * Number of literals whose datatype exceeded the maximum number of tracked datatypes.
+     */
+    private long otherDatatypes;
+
+    /**
+     * Constructor using the default maximum number of tracked predicates and datatypes.
+     */
+    public RDFStatistics() {
+        this(RDFStatistics.DEFAULT_MAX_TRACKED);
+    }
+
+    /**
+     * Constructor.
+     * @param maxTrackedValues Maximum number of predicates and datatypes counted separately,
+     *                         statements exceeding this number are summed up as "other".
+     */
+    public RDFStatistics(final int maxTrackedValues) {
+        this.maxTracked = maxTrackedValues;
+    }
+
+    @Override
+    public void triple(final Triple triple) {
+        this.triples = this.triples + 1;
+        this.add(triple.getSubject(), triple.getPredicate(), triple.getObject());
+    }
+
+    @Override
+    public void quad(final Quad quad) {
+        this.quads = this.quads + 1;
+        this.add(quad.getSubject(), quad.getPredicate(), quad.getObject());
+    }
+
+    /**
+     * Returns the number of all statements.
+     * @return Number of triples and quads.
+     */
+    public long getStatements() {
+        return this.triples + this.quads;
+    }
+
+    /**
+     * Returns the estimated number of distinct subjects.
+     * @return See description.
+     */
+    public long getDistinctSubjects() {
+        return this.subjects.cardinality();
+    }
+
+    /**
+     * Returns the estimated number of distinct objects.
+     * @return See description.
+     */
+    public long getDistinctObjects() {
+        return this.objects.cardinality();
+    }
+
+    /**
+     * Returns the number of statements per predicate IRI, ordered by descending count.
+     * @return See description.
+     */
+    public List<Map.Entry<String, Long>> getPredicateHistogram() {
+        return RDFStatistics.sorted(this.predicates);
+    }
+
+    /**
+     * Returns the number of literals per datatype IRI, ordered by descending count.
+     * Language tagged literals are counted as rdf:langString, literals without datatype as xsd:string.
+     * @return See description.
+     */
+    public List<Map.Entry<String, Long>> getDatatypeHistogram() {
+        return RDFStatistics.sorted(this.datatypes);
+    }
+
+    /**
+     * Writes the statistics as JSON object.
+     * @param out Stream receiving the JSON object, the stream is not closed.
+     */
+    public void writeJson(final OutputStream out) {
+        final JsonObject json = new JsonObject();
+        json.put("statements", this.getStatements());
+        json.put("triples", this.triples);
+        json.put("quads", this.quads);
+        json.put("distinctSubjects", this.getDistinctSubjects());
+        json.put("distinctObjects", this.getDistinctObjects());
+        json.put("literals", this.literals);
+        json.put("blankNodes", this.blankNodes);
+        json.put("predicates", RDFStatistics.toJson(this.getPredicateHistogram()));
+        json.put("otherPredicates", this.otherPredicates);
+        json.put("datatypes", RDFStatistics.toJson(this.getDatatypeHistogram()));
+        json.put("otherDatatypes", this.otherDatatypes);
+        JSON.write(out, json);
+    }
+
+    /**
+     * Writes the statistics as CSV file using the columns "type", "name" and "count".
+     * @param out Stream receiving the CSV data, the stream is flushed but not closed.
+     */
+    public void writeCsv(final OutputStream out) {
+        final PrintWriter w = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        w.print("type,name,count\n");
+        RDFStatistics.csvLine(w, "summary", "statements", this.getStatements());
+        RDFStatistics.csvLine(w, "summary", "triples", this.triples);
+        RDFStatistics.csvLine(w, "summary", "quads", this.quads);
+        RDFStatistics.csvLine(w, "summary", "distinctSubjects", this.getDistinctSubjects());
+        RDFStatistics.csvLine(w, "summary", "distinctObjects", this.getDistinctObjects());
+        RDFStatistics.csvLine(w, "summary", "literals", this.literals);
+        RDFStatistics.csvLine(w, "summary", "blankNodes", this.blankNodes);
+        RDFStatistics.csvLine(w, "summary", "otherPredicates", this.otherPredicates);
+        RDFStatistics.csvLine(w, "summary", "otherDatatypes", this.otherDatatypes);
+        for (final Map.Entry<String, Long> e : this.getPredicateHistogram()) {
+            RDFStatistics.csvLine(w, "predicate", e.getKey(), e.getValue());
+        }
+        for (final Map.Entry<String, Long> e : this.getDatatypeHistogram()) {
+            RDFStatistics.csvLine(w, "datatype", e.getKey(), e.getValue());
+        }
+        w.flush();
+    }
+
+    /**
+     * Adds a single statement to the statistics.
+     * @param s Subject of the statement.
+     * @param p Predicate of the statement.
+     * @param o Object of the statement.
+     */
+    private void add(final Node s, final Node p, final Node o) {
+        this.subjects.add(s.toString());
+        this.objects.add(o.toString());
+
+        if (this.count(this.predicates, p.toString())) {
+            this.otherPredicates = this.otherPredicates + 1;
+        }
+        if (s.isBlank()) {
+            this.blankNodes = this.blankNodes + 1;
+        }
+        if (o.isBlank()) {
+            this.blankNodes = this.blankNodes + 1;
+        } else if (o.isLiteral()) {
+            this.literals = this.literals + 1;
+            String datatype = o.getLiteralDatatypeURI();
+            if (!o.getLiteralLanguage().isEmpty()) {
+                datatype = RDFStatistics.LANG_STRING;
+            } else if (datatype == null) {
+                datatype = RDFStatistics.PLAIN_STRING;
+            }
+            if (this.count(this.datatypes, datatype)) {
+                this.otherDatatypes = this.otherDatatypes + 1;
+            }
+        }
+    }
+
+    /**
+     * Increments the counter of a key, new keys are only added while the maximum number
+     * of tracked values has not been reached.
+     * @param counts Map containing the counters.
+     * @param key Key whose counter is supposed to be incremented.
+     * @return True if the key could not be tracked.
+     */
+    private boolean count(final Map<String, long[]> counts, final String key) {
+        long[] c = counts.get(key);
+        if (c == null) {
+            if (counts.size() >= this.maxTracked) {
+                return true;
+            }
+            c = new long[1];
+            counts.put(key, c);
+        }
+        c[0] = c[0] + 1;
+        return false;
+    }
+
+    /**
+     * Returns the entries of a counter map ordered by descending count and ascending key.
+     * @param counts Map containing the counters.
+     * @return See description.
+     */
+    private static List<Map.Entry<String, Long>> sorted(final Map<String, long[]> counts) {
+        final List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.size());
+        counts.forEach((k, v) -> entries.add(new AbstractMap.SimpleImmutableEntry<>(k, v[0])));
+        entries.sort((a, b) -> a.getValue().equals(b.getValue())
+                ? a.getKey().compareTo(b.getKey()) : Long.compare(b.getValue(), a.getValue()));
+        return entries;
+    }
+
+    /**
+     * Converts a histogram to a JSON array of objects containing "iri" and "count".
+     * @param entries Entries of the histogram.
+     * @return See description.
+     */
+    private static JsonArray toJson(final List<Map.Entry<String, Long>> entries) {
+        final JsonArray array = new JsonArray();
+        for (final Map.Entry<String, Long> e : entries) {
+            final JsonObject entry = new JsonObject();
+            entry.put("iri", e.getKey());
+            entry.put("count", e.getValue());
+            array.add(entry);
+        }
+        return array;
+    }
+
+    /**
+     * Writes a single CSV line, the name is quoted as required by RFC 4180.
+     * @param w Writer receiving the line.
+     * @param type Value of the type column.
+     * @param name Value of the name column.
+     * @param count Value of the count column.
+     */
+    private static void csvLine(final PrintWriter w, final String type, final String name, final long count) {
+        String field = name;
+        if (name.indexOf(',') >= 0 || name.indexOf('"') >= 0 || name.indexOf('\n') >= 0) {
+            field = String.join("", "\"", name.replace("\"", "\"\""), "\"");
+        }
+        w.print(String.join(",", type, field, String.valueOf(count)));
+        w.print('\n');
+    }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.stats;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.jena.riot.RiotException;
+import org.apache.log4j.Logger;
+import org.g_node.micro.commons.CliToolController;
+import org.g_node.micro.commons.Compression;
+import org.g_node.micro.commons.FileOutput;
+import org.g_node.micro.commons.LazyLog;
+import org.g_node.micro.commons.RDFService;
+import org.g_node.srv.CliOptionService;
+import org.g_node.srv.CtrlCheckService;
+
+/**
+ * Controller class for the RDF statistics tool. Collects statistics of an RDF file
+ * in a single streaming pass, see {@link RDFStatistics}, and writes them to a JSON or CSV file.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class StatsCliToolController implements CliToolController {
+    /**
+     * Supported output formats of the statistics file.
+     */
+    public static final Set<String> STATS_FORMATS =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList("JSON", "CSV")));
+    /**
+     * Access to the main LOGGER.
+     */
+    private static final Logger LOGGER = Logger.getLogger(StatsCliToolController.class.getName());
+
+    /**
+     * Method returning the commandline options of the RDF statistics tool.
+     * @return Available commandline options.
+     */
+    public final Options options() {
+        final Options options = new Options();
+
+        final Option opHelp = CliOptionService.getHelpOpt("");
+        final Option opIn = CliOptionService.getInFileOpt(
+                String.join("", "Input RDF file the statistics are collected from. ",
+                        "Input files ending with '.gz' or '.zst' are decompressed."));
+        final Option opOut = CliOptionService.getOutFileOpt(
+                String.join("", "Optional: Path and name of the statistics file. ",
+                        "Files with the same name will be overwritten. ",
+                        "Default file name uses format [inputFileName]_stats."));
+        final Option opFormat = CliOptionService.getOutFormatOpt(
+                String.join("", "Optional: format of the statistics file. ",
+                        "Supported file formats: ", StatsCliToolController.STATS_FORMATS.toString(),
+                        "\nDefault setting is the JSON format."));
+        final Option opThreads = CliOptionService.getThreadsOpt(
+                String.join("", "Optional: number of threads used to parse N-Triples and N-Quads input files. ",
+                        "Default is the number of available processors."));
+
+        options.addOption(opHelp);
+        options.addOption(opIn);
+        options.addOption(opOut);
+        options.addOption(opFormat);
+        options.addOption(opThreads);
+
+        return options;
+    }
+
+    /**
+     * Method collecting the statistics of an RDF file and writing them to a JSON or CSV file.
+     * @param cmd User provided {@link CommandLine} input.
+     */
+    public final void run(final CommandLine cmd) {
+
+        final String inputFile = cmd.getOptionValue("i");
+        if (!CtrlCheckService.isExistingFile(inputFile)) {
+            return;
+        }
+
+        final Set<String> checkExtension = RDFService.RDF_FORMAT_EXTENSION.values()
+                .stream()
+                .map(c->c.toUpperCase(Locale.ENGLISH))
+                .collect(Collectors.toSet());
+        if (!CtrlCheckService.isSupportedInFileType(Compression.stripSuffix(inputFile), checkExtension)) {
+            return;
+        }
+
+        final String outputFormat = cmd.getOptionValue("f", "JSON").toUpperCase(Locale.ENGLISH);
+        if (!CtrlCheckService.isSupportedOutputFormat(outputFormat, StatsCliToolController.STATS_FORMATS)) {
+            return;
+        }
+
+        final String threads = cmd.getOptionValue(
+                "threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        if (!CtrlCheckService.isPositiveInteger(threads, "--threads")) {
+            return;
+        }
+
+        final String plainInputFile = Compression.stripSuffix(inputFile);
+        final String defaultOutputFile = String.join("", plainInputFile.substring(0, plainInputFile.lastIndexOf('.')),
+                "_stats.", outputFormat.toLowerCase(Locale.ENGLISH));
+        final String outputFile = cmd.getOptionValue("o", defaultOutputFile);
+
+        final long startTime = System.currentTimeMillis();
+        final RDFStatistics stats = new RDFStatistics();
+        try {
+            StatsCliToolController.LOGGER.info("Reading input file...");
+            RDFService.parseFile(inputFile, stats, Integer.parseInt(threads));
+        } catch (RiotException | IOException e) {
+            StatsCliToolController.LOGGER.error(
+                    String.join("", "Could not read input file '", inputFile, "': ", e.getMessage())
+            );
+            return;
+        }
+        LazyLog.info(StatsCliToolController.LOGGER,
+                () -> String.join("", "Collected statistics of ", String.valueOf(stats.getStatements()),
+                        " statements in ", String.valueOf(System.currentTimeMillis() - startTime), " ms")
+        );
+
+        LazyLog.info(StatsCliToolController.LOGGER,
+                () -> String.join("", "Writing statistics to file '", outputFile, "' using format '", outputFormat, "'")
+        );
+        try (FileOutput fo = FileOutput.open(outputFile)) {
+            if ("CSV".equals(outputFormat)) {
+                stats.writeCsv(fo.getStream());
+            } else {
+                stats.writeJson(fo.getStream());
+            }
+            fo.commit();
+        } catch (IOException e) {
+            StatsCliToolController.LOGGER.error(
+                    String.join("", "Could not write output file: ", e.getMessage())
+            );
+        }
+    }
+
+}
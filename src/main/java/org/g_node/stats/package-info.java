@@ -0,0 +1,14 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ *
+ * Provides all required classes to collect statistics of RDF files
+ * in a single streaming pass using a bounded amount of memory.
+ */
+
+package org.g_node.stats;
@@ -73,6 +73,12 @@ public class AppTest {
         assertThat(this.outStream.toString()).contains("No tool selected!");
     }
 
+    @Test
+    public void testRegisteredTools() throws Exception {
+        currApp.run(new String[0]);
+        assertThat(this.outStream.toString()).contains("lkt", "conv", "stats", "query", "serve", "gen");
+    }
+
     @Test
     public void testRunWrongCrawler() throws Exception {
         final String[] wrongCrawler = new String[1];
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node;
+
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import org.apache.commons.io.IOUtils;
+import org.g_node.micro.commons.CliToolProvider;
+
+/**
+ * Startup benchmark of the main App. Starts a new JVM for the application help and for the help of
+ * every registered tool and measures the time until the process has exited, so that registering,
+ * selecting and creating the tool are included. The time until the first output, which only covers
+ * JVM and logging startup since the App logs its start line first, is reported for comparison.
+ * Run with the test classpath, e.g.
+ * 'java -cp target/classes:target/test-classes:[dependencies] org.g_node.StartupBenchmark [runs]'.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public final class StartupBenchmark {
+
+    private static final int DEFAULT_RUNS = 10;
+
+    /**
+     * Prevent instantiation.
+     */
+    private StartupBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark and prints the median and minimum time to exit and the median time
+     * to first output of every scenario.
+     * @param args Optional number of measured runs per scenario.
+     * @throws Exception
+     */
+    public static void main(final String[] args) throws Exception {
+        final int runs = args.length > 0 ? Integer.parseInt(args[0]) : StartupBenchmark.DEFAULT_RUNS;
+
+        final List<String[]> scenarios = new ArrayList<>();
+        scenarios.add(new String[0]);
+        scenarios.add(new String[]{"iDoNotExist"});
+        for (final CliToolProvider provider : ServiceLoader.load(CliToolProvider.class)) {
+            scenarios.add(new String[]{provider.name(), "-h"});
+        }
+
+        for (final String[] scenario : scenarios) {
+            StartupBenchmark.measure(scenario);
+            final List<Long> exitTimes = new ArrayList<>();
+            final List<Long> outputTimes = new ArrayList<>();
+            for (int i = 0; i < runs; i = i + 1) {
+                final long[] times = StartupBenchmark.measure(scenario);
+                outputTimes.add(times[0]);
+                exitTimes.add(times[1]);
+            }
+            Collections.sort(exitTimes);
+            Collections.sort(outputTimes);
+            System.out.println(String.format("%-20s exit median %5d ms, min %5d ms, first output median %5d ms",
+                    String.join(" ", "App", String.join(" ", scenario)), exitTimes.get(exitTimes.size() / 2),
+                    exitTimes.get(0), outputTimes.get(outputTimes.size() / 2)));
+        }
+    }
+
+    /**
+     * Starts the App in a new JVM and measures the time until its first output and until the process has exited.
+     * @param appArgs Commandline arguments of the App.
+     * @return Time to first output and time to exit in milliseconds.
+     * @throws Exception
+     */
+    private static long[] measure(final String[] appArgs) throws Exception {
+        final List<String> command = new ArrayList<>(Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), App.class.getName()));
+        command.addAll(Arrays.asList(appArgs));
+
+        final long start = System.nanoTime();
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        final long firstOutput;
+        try (InputStream in = process.getInputStream()) {
+            in.read();
+            firstOutput = (System.nanoTime() - start) / 1000000;
+            IOUtils.skip(in, Long.MAX_VALUE);
+        }
+        process.waitFor();
+        return new long[]{firstOutput, (System.nanoTime() - start) / 1000000};
+    }
+
+}
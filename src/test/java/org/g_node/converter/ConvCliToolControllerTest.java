@@ -54,7 +54,7 @@ public class ConvCliToolControllerTest {
     public void optionsTest() {
         Options checkOpt = this.convCont.options();
 
-        assertThat(checkOpt.getOptions().size()).isEqualTo(4);
+        assertThat(checkOpt.getOptions().size()).isEqualTo(8);
 
         assertThat(checkOpt.hasOption("-i")).isTrue();
         assertThat(checkOpt.hasLongOption("in-file")).isTrue();
@@ -69,6 +69,14 @@ public class ConvCliToolControllerTest {
         assertThat(checkOpt.getOption("-f").isRequired()).isFalse();
 
         assertThat(checkOpt.hasOption("-h")).isTrue();
+
+        assertThat(checkOpt.hasLongOption("threads")).isTrue();
+        assertThat(checkOpt.getOption("threads").isRequired()).isFalse();
+
+        assertThat(checkOpt.hasLongOption("tdb")).isTrue();
+        assertThat(checkOpt.hasLongOption("metrics")).isTrue();
+        assertThat(checkOpt.hasLongOption("metrics-table")).isTrue();
+        assertThat(checkOpt.getOption("tdb").isRequired()).isFalse();
     }
 
     /**
@@ -228,4 +236,68 @@ public class ConvCliToolControllerTest {
         System.setErr(errout);
     }
 
+    /**
+     * Tests converting all RDF files of a folder and of a glob pattern within a single run.
+     * @throws Exception
+     */
+    @Test
+    public void runBatchTest() throws Exception {
+        final PrintStream stdout = System.out;
+        final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outStream));
+
+        Logger rootLogger = Logger.getRootLogger();
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(
+                new ConsoleAppender(
+                        new PatternLayout("[%-5p] %m%n")
+                )
+        );
+
+        final Path testFileFolder = Paths.get(System.getProperty("java.io.tmpdir"), "convBatchTest");
+        final Path inFolder = testFileFolder.resolve("in");
+        final Path outFolder = testFileFolder.resolve("out");
+        FileUtils.write(inFolder.resolve("a.ttl").toFile(),
+                "<http://example.org/a> <http://example.org/p> \"a\" .");
+        FileUtils.write(inFolder.resolve("b.nt").toFile(),
+                "<http://example.org/b> <http://example.org/p> \"b\" .\n");
+        FileUtils.write(inFolder.resolve("broken.rdf").toFile(), "I shall crash!");
+        FileUtils.write(inFolder.resolve("ignored.txt").toFile(), "Not an RDF file");
+
+        final CommandLineParser parser = new DefaultParser();
+        final Options useOptions = this.convCont.options();
+
+        // Test converting a folder, failing files do not stop the conversion of the remaining files.
+        CommandLine cmd = parser.parse(useOptions, new String[]{
+                "-i", inFolder.toString(), "-o", outFolder.toString(), "-f", "NTRIPLES", "--threads", "2",
+                "--metrics-table"}, false);
+        this.convCont.run(cmd);
+
+        assertThat(Files.exists(outFolder.resolve("a_out.nt"))).isTrue();
+        assertThat(Files.exists(outFolder.resolve("b_out.nt"))).isTrue();
+        assertThat(outStream.toString()).contains(String.join("", "FAILED  ", inFolder.resolve("broken.rdf").toString()));
+        assertThat(outStream.toString()).contains("Converted 2 of 3 files");
+        assertThat(outStream.toString()).contains("Metrics of this run:", "parseAndStream");
+        final String metrics = FileUtils.readFileToString(outFolder.resolve("conv_metrics.json").toFile());
+        assertThat(metrics).contains("\"parseAndStream\"", "\"files\" : 3", "\"failedFiles\" : 1",
+                "\"triples\" : 2");
+        outStream.reset();
+
+        // Test converting files matching a glob pattern next to the input files.
+        cmd = parser.parse(useOptions, new String[]{"-i", inFolder.resolve("*.ttl").toString()}, false);
+        this.convCont.run(cmd);
+
+        assertThat(Files.exists(inFolder.resolve("a_out.ttl"))).isTrue();
+        assertThat(outStream.toString()).contains("Converted 1 of 1 files");
+        assertThat(Files.exists(inFolder.resolve("conv_metrics.json"))).isFalse();
+        outStream.reset();
+
+        // Clean up
+        if (Files.exists(testFileFolder)) {
+            FileUtils.deleteDirectory(testFileFolder.toFile());
+        }
+        rootLogger.removeAllAppenders();
+        System.setOut(stdout);
+    }
+
 }
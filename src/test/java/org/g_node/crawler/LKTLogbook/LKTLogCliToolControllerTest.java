@@ -10,13 +10,23 @@
 
 package org.g_node.crawler.LKTLogbook;
 
+import com.hp.hpl.jena.rdf.model.Model;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import javax.swing.table.DefaultTableModel;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -24,15 +34,20 @@ import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.MissingArgumentException;
 import org.apache.commons.cli.Options;
 import org.apache.commons.io.FileUtils;
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonObject;
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.log4j.PatternLayout;
+import org.g_node.micro.commons.RDFService;
+import org.g_node.micro.commons.RunMetrics;
 import org.jopendocument.dom.spreadsheet.SpreadSheet;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Unit tests for the {@link LKTLogCliToolController} class.
@@ -91,6 +106,19 @@ public class LKTLogCliToolControllerTest {
         System.setOut(this.stdout);
     }
 
+    /**
+     * Adds the parse cache folder within the temporary test folder to the provided arguments,
+     * so that test runs never use the default parse cache within the home folder of the user.
+     * @param args Command line arguments.
+     * @return Command line arguments including the cache folder option.
+     */
+    private String[] withCacheDir(final String[] args) {
+        final String[] cacheArgs = Arrays.copyOf(args, args.length + 2);
+        cacheArgs[args.length] = "--cache-dir";
+        cacheArgs[args.length + 1] = this.testFileFolder.resolve("cache").toString();
+        return cacheArgs;
+    }
+
     /**
      * Tests for the {@link CommandLine} {@link Options} of the RDF to RDF converter tool.
      * @throws Exception
@@ -99,7 +127,7 @@ public class LKTLogCliToolControllerTest {
     public void testOptions() throws Exception {
         Options checkOpt = this.logCtrl.options();
 
-        assertThat(checkOpt.getOptions().size()).isEqualTo(4);
+        assertThat(checkOpt.getOptions().size()).isEqualTo(12);
 
         assertThat(checkOpt.hasOption("-i")).isTrue();
         assertThat(checkOpt.hasLongOption("in-file")).isTrue();
@@ -114,6 +142,24 @@ public class LKTLogCliToolControllerTest {
         assertThat(checkOpt.getOption("-f").isRequired()).isFalse();
 
         assertThat(checkOpt.hasOption("-h")).isTrue();
+
+        assertThat(checkOpt.hasOption("-m")).isTrue();
+        assertThat(checkOpt.hasLongOption("mode")).isTrue();
+        assertThat(checkOpt.getOption("-m").isRequired()).isFalse();
+
+        assertThat(checkOpt.hasLongOption("no-cache")).isTrue();
+        assertThat(checkOpt.hasLongOption("cache-dir")).isTrue();
+        assertThat(checkOpt.getOption("cache-dir").isRequired()).isFalse();
+
+        assertThat(checkOpt.hasLongOption("tdb")).isTrue();
+        assertThat(checkOpt.getOption("tdb").isRequired()).isFalse();
+
+        assertThat(checkOpt.hasLongOption("watch")).isTrue();
+        assertThat(checkOpt.hasLongOption("threads")).isTrue();
+        assertThat(checkOpt.getOption("threads").isRequired()).isFalse();
+
+        assertThat(checkOpt.hasLongOption("metrics")).isTrue();
+        assertThat(checkOpt.hasLongOption("metrics-table")).isTrue();
     }
 
     /**
@@ -180,7 +226,7 @@ public class LKTLogCliToolControllerTest {
         args = new String[2];
         args[0] = "-i";
         args[1] = currODSTestFile.toString();
-        cmd = parser.parse(useOptions, args, false);
+        cmd = parser.parse(useOptions, this.withCacheDir(args), false);
         this.logCtrl.run(cmd);
 
         assertThat(this.outStream.toString()).contains(
@@ -196,7 +242,7 @@ public class LKTLogCliToolControllerTest {
         args[0] = "-i";
         args[1] = Paths.get(invODSTestFile.toURI()).toFile().toString();
 
-        cmd = parser.parse(useOptions, args, false);
+        cmd = parser.parse(useOptions, this.withCacheDir(args), false);
         this.logCtrl.run(cmd);
 
         assertThat(this.outStream.toString())
@@ -226,7 +272,7 @@ public class LKTLogCliToolControllerTest {
         args[2] = "-o";
         args[3] = this.testFileFolder.resolve("out.ttl").toString();
 
-        cmd = parser.parse(useOptions, args, false);
+        cmd = parser.parse(useOptions, this.withCacheDir(args), false);
         this.logCtrl.run(cmd);
 
         assertThat(this.outStream.toString())
@@ -235,6 +281,264 @@ public class LKTLogCliToolControllerTest {
                                 this.testFileFolder.resolve("out.ttl").toString(),
                                 "' using format 'TTL'")
                 );
+        assertThat(Files.exists(this.testFileFolder.resolve("out_metrics.json"))).isFalse();
+        this.outStream.reset();
+
+        this.logCtrl.run(parser.parse(useOptions, new String[]{args[0], args[1], args[2], args[3], "--no-cache",
+                "--metrics"}, false));
+        final String metrics = FileUtils.readFileToString(this.testFileFolder.resolve("out_metrics.json").toFile());
+        assertThat(metrics).contains("\"load\"", "\"parse\"", "\"build\"", "\"serialize\"", "\"rows\"",
+                "\"sheets\"", "\"triples\"", "\"rowsPerSecond\"", "\"peakHeapBytes\"");
+        assertThat(this.outStream.toString()).doesNotContain("Metrics of this run:");
+        this.outStream.reset();
+    }
+
+    /**
+     * Tests that a single {@link LKTLogCliToolController} instance can run concurrent conversions
+     * and that parser errors of a previous run do not affect later runs.
+     * @throws Exception
+     */
+    @Test
+    public void runTestConcurrentRuns() throws Exception {
+        final CommandLineParser parser = new DefaultParser();
+        final Options useOptions = this.logCtrl.options();
+        final String validFile = Paths.get(this.getClass().getResource("/lkt_test.ods").toURI()).toString();
+        final String invalidFile = Paths.get(this.getClass().getResource("/lkt_test_invalid.ods").toURI()).toString();
+
+        this.logCtrl.run(parser.parse(useOptions, new String[]{"-i", invalidFile, "--no-cache"}, false));
+        assertThat(this.outStream.toString()).contains("There are parser errors present.");
+        this.outStream.reset();
+
+        final int runs = 8;
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        final List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < runs; i = i + 1) {
+            final String[] args = {
+                    "-i", i % 2 == 0 ? validFile : invalidFile,
+                    "-o", this.testFileFolder.resolve(String.join("", "out", String.valueOf(i))).toString(),
+                    "--no-cache",
+            };
+            final CommandLine cmd = parser.parse(useOptions, args, false);
+            results.add(pool.submit(() -> this.logCtrl.run(cmd)));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        for (final Future<?> result : results) {
+            result.get();
+        }
+
+        for (int i = 0; i < runs; i = i + 1) {
+            final Path outFile = this.testFileFolder.resolve(String.join("", "out", String.valueOf(i), ".ttl"));
+            assertThat(Files.exists(outFile)).isEqualTo(i % 2 == 0);
+        }
+        this.outStream.reset();
+    }
+
+    /**
+     * Tests that parser errors are written to the plain text and JSON lines report files together with
+     * the number of errors per error type and per sheet and that the report files are removed by a valid run.
+     * @throws Exception
+     */
+    @Test
+    public void runTestErrorReport() throws Exception {
+        final CommandLineParser parser = new DefaultParser();
+        final Options useOptions = this.logCtrl.options();
+        final String invalidFile = Paths.get(this.getClass().getResource("/lkt_test_invalid.ods").toURI()).toString();
+        final String validFile = Paths.get(this.getClass().getResource("/lkt_test.ods").toURI()).toString();
+        final String outFile = this.testFileFolder.resolve("report.ttl").toString();
+        final Path textReport = this.testFileFolder.resolve(String.join("", "report", LKTLogErrorReport.TEXT_SUFFIX));
+        final Path jsonReport = this.testFileFolder.resolve(String.join("", "report", LKTLogErrorReport.JSON_SUFFIX));
+
+        this.logCtrl.run(parser.parse(useOptions, new String[]{"-i", invalidFile, "-o", outFile, "--no-cache"}, false));
+        assertThat(this.outStream.toString()).contains("parser errors found in", "Errors per type:",
+                "Errors per sheet:", textReport.toString(), "There are parser errors present.");
+        this.outStream.reset();
+
+        final List<String> lines = Files.readAllLines(jsonReport, StandardCharsets.UTF_8);
+        assertThat(lines.size()).isGreaterThan(1);
+        for (int i = 0; i < lines.size() - 1; i = i + 1) {
+            final JsonObject error = JSON.parse(lines.get(i));
+            assertThat(error.hasKey("type")).isTrue();
+            assertThat(error.hasKey("message")).isTrue();
+            assertThat(FileUtils.readFileToString(textReport.toFile()))
+                    .contains(error.get("message").getAsString().value());
+        }
+        final JsonObject summary = JSON.parse(lines.get(lines.size() - 1)).get("summary").getAsObject();
+        assertThat(summary.get("errors").getAsNumber().value().intValue()).isEqualTo(lines.size() - 1);
+        assertThat(summary.get("types").getAsObject().keys()).isNotEmpty();
+        assertThat(summary.get("sheets").getAsObject().keys()).isNotEmpty();
+
+        this.logCtrl.run(parser.parse(useOptions, new String[]{"-i", validFile, "-o", outFile, "--no-cache"}, false));
+        assertThat(Files.exists(textReport)).isFalse();
+        assertThat(Files.exists(jsonReport)).isFalse();
+        this.outStream.reset();
+    }
+
+    /**
+     * Tests that unchanged sheets of a valid ods file are loaded from the parse cache
+     * on a second run and that the cache is not used, if the user disables it.
+     * @throws Exception
+     */
+    @Test
+    public void runTestParseCache() throws Exception {
+        final CommandLineParser parser = new DefaultParser();
+        final Options useOptions = this.logCtrl.options();
+
+        final URL validODSTestFile = this.getClass().getResource("/lkt_test.ods");
+        final String[] args = {
+                "-i", Paths.get(validODSTestFile.toURI()).toFile().toString(),
+                "-o", this.testFileFolder.resolve("out.ttl").toString(),
+                "--cache-dir", this.testFileFolder.resolve("cache").toString(),
+        };
+
+        this.logCtrl.run(parser.parse(useOptions, args, false));
+        assertThat(this.outStream.toString()).doesNotContain("using parse cache");
+        assertThat(this.testFileFolder.resolve("cache").toFile().list()).isNotEmpty();
+        this.outStream.reset();
+
+        this.logCtrl.run(parser.parse(useOptions, args, false));
+        assertThat(this.outStream.toString()).contains("using parse cache");
+        assertThat(this.outStream.toString()).contains("' using format 'TTL'");
+        this.outStream.reset();
+
+        final String[] noCacheArgs = new String[args.length + 1];
+        System.arraycopy(args, 0, noCacheArgs, 0, args.length);
+        noCacheArgs[args.length] = "--no-cache";
+
+        this.logCtrl.run(parser.parse(useOptions, noCacheArgs, false));
+        assertThat(this.outStream.toString()).doesNotContain("using parse cache");
+        this.outStream.reset();
+    }
+
+    /**
+     * Tests that the parse mode writes the parsed data of a valid ods file to the binary intermediate
+     * format and that the RDF mode converts this file to RDF.
+     * @throws Exception
+     */
+    @Test
+    public void runTestParseMode() throws Exception {
+        final CommandLineParser parser = new DefaultParser();
+        final Options useOptions = this.logCtrl.options();
+        final Path parsedFile = this.testFileFolder.resolve("parsed.lktb");
+
+        final URL validODSTestFile = this.getClass().getResource("/lkt_test.ods");
+        final String[] parseArgs = {
+                "-i", Paths.get(validODSTestFile.toURI()).toFile().toString(),
+                "-o", this.testFileFolder.resolve("parsed").toString(),
+                "-m", "parse", "--no-cache",
+        };
+
+        this.logCtrl.run(parser.parse(useOptions, parseArgs, false));
+        assertThat(this.outStream.toString()).contains(
+                String.join("", "Writing parsed data to file '", parsedFile.toString(), "'"));
+        assertThat(Files.exists(parsedFile)).isTrue();
+        this.outStream.reset();
+
+        final ArrayList<LKTLogParserSheet> parsed = new LKTLogParser().parseFile(
+                Paths.get(validODSTestFile.toURI()).toFile().toString(), new ArrayList<>(0), null);
+        final ArrayList<LKTLogParserSheet> restored = LKTLogBinaryFormat.readFile(parsedFile.toString());
+        assertThat(restored).hasSameSizeAs(parsed);
+        for (int i = 0; i < parsed.size(); i = i + 1) {
+            assertThat(restored.get(i).getSubjectID()).isEqualTo(parsed.get(i).getSubjectID());
+            assertThat(restored.get(i).getDateOfBirth()).isEqualTo(parsed.get(i).getDateOfBirth());
+            assertThat(restored.get(i).getEntries()).hasSameSizeAs(parsed.get(i).getEntries());
+            for (int j = 0; j < parsed.get(i).getEntries().size(); j = j + 1) {
+                final LKTLogParserEntry expEntry = parsed.get(i).getEntries().get(j);
+                final LKTLogParserEntry resEntry = restored.get(i).getEntries().get(j);
+                assertThat(resEntry.getExperimentDate()).isEqualTo(expEntry.getExperimentDate());
+                assertThat(resEntry.getExperimenterName()).isEqualTo(expEntry.getExperimenterName());
+                assertThat(resEntry.getWeight()).isEqualTo(expEntry.getWeight());
+                assertThat(resEntry.getIsOnDiet()).isEqualTo(expEntry.getIsOnDiet());
+                assertThat(resEntry.getCommentSubject()).isEqualTo(expEntry.getCommentSubject());
+            }
+        }
+
+        // Truncated files and invalid lengths are reported as IOException.
+        final byte[] content = Files.readAllBytes(parsedFile);
+        final Path corruptFile = this.testFileFolder.resolve("corrupt.lktb");
+        Files.write(corruptFile, Arrays.copyOf(content, content.length - 3));
+        assertThatThrownBy(() -> LKTLogBinaryFormat.readFile(corruptFile.toString())).isInstanceOf(IOException.class);
+        final byte[] negativeLength = content.clone();
+        Arrays.fill(negativeLength, 12, 16, (byte) 0xFF);
+        Files.write(corruptFile, negativeLength);
+        assertThatThrownBy(() -> LKTLogBinaryFormat.readFile(corruptFile.toString()))
+                .isInstanceOf(IOException.class).hasMessageContaining("Invalid");
+        final byte[] hugeLength = content.clone();
+        hugeLength[12] = (byte) 0x7F;
+        Files.write(corruptFile, hugeLength);
+        assertThatThrownBy(() -> LKTLogBinaryFormat.readFile(corruptFile.toString())).isInstanceOf(IOException.class);
+
+        final String[] rdfArgs = {"-i", parsedFile.toString(), "-o", this.testFileFolder.resolve("out").toString()};
+        this.logCtrl.run(parser.parse(useOptions, rdfArgs, false));
+        assertThat(this.outStream.toString()).contains("Reading parsed input file...");
+        assertThat(this.outStream.toString()).doesNotContain("Parsing input file...");
+        assertThat(Files.exists(this.testFileFolder.resolve("out.ttl"))).isTrue();
+        this.outStream.reset();
+
+        this.logCtrl.run(parser.parse(useOptions, new String[]{"-i", parsedFile.toString(), "-m", "parse"}, false));
+        assertThat(this.outStream.toString()).contains("has already been parsed");
+        this.outStream.reset();
+    }
+
+    /**
+     * Tests that a valid ods file is written to multiple RDF formats in a single run and that
+     * the streaming Turtle output results in the same RDF graph as the pretty Turtle output.
+     * Statements of resources shared by several sheets must neither be repeated in streamed output files
+     * nor be counted again in the run metrics.
+     * @throws Exception
+     */
+    @Test
+    public void runTestStreamingFormat() throws Exception {
+        final CommandLineParser parser = new DefaultParser();
+        final Options useOptions = this.logCtrl.options();
+
+        final URL validODSTestFile = this.getClass().getResource("/lkt_test.ods");
+        final String[] args = {
+                "-i", Paths.get(validODSTestFile.toURI()).toFile().toString(),
+                "-o", this.testFileFolder.resolve("out").toString(),
+                "-f", "TTL,TTL-STREAM,NTRIPLES", "--no-cache",
+        };
+        this.logCtrl.run(parser.parse(useOptions, args, false));
+
+        final Path prettyFile = this.testFileFolder.resolve("out.ttl");
+        final Path streamFile = this.testFileFolder.resolve("out_ttl-stream.ttl");
+        final Path ntFile = this.testFileFolder.resolve("out.nt");
+        assertThat(this.outStream.toString()).contains(
+                String.join("", "Writing data to RDF file '", streamFile.toString(), "' using format 'TTL-STREAM'"));
+
+        final Model prettyModel = RDFService.openModelFromFile(prettyFile.toString());
+        assertThat(prettyModel.isEmpty()).isFalse();
+        assertThat(RDFService.openModelFromFile(streamFile.toString()).isIsomorphicWith(prettyModel)).isTrue();
+        assertThat(RDFService.openModelFromFile(ntFile.toString()).isIsomorphicWith(prettyModel)).isTrue();
+        this.outStream.reset();
+
+        // Permits, projects and experimenters shared by all sheets are streamed only once.
+        final String sharedFile = this.testFileFolder.resolve("shared.ods").toString();
+        final LKTLogGenerator generator = new LKTLogGenerator(3);
+        generator.setSheets(4);
+        generator.setRows(5);
+        generator.setCardinality(1);
+        generator.writeODS(sharedFile);
+        final String[] sharedArgs = {
+                "-i", sharedFile, "-o", this.testFileFolder.resolve("shared").toString(),
+                "-f", "TTL,NTRIPLES", "--no-cache",
+        };
+        this.logCtrl.run(parser.parse(useOptions, sharedArgs, false));
+
+        final Model sharedModel = RDFService.openModelFromFile(this.testFileFolder.resolve("shared.ttl").toString());
+        assertThat(Files.readAllLines(this.testFileFolder.resolve("shared.nt"))).hasSize((int) sharedModel.size());
+
+        // The streamed triples are counted like the triples of the full RDF model.
+        final ArrayList<LKTLogParserSheet> sheets = new LKTLogParser().parseFile(
+                new LKTLogParseContext(sharedFile, null));
+        final RunMetrics modelMetrics = RunMetrics.create(true);
+        new LKTLogToRDF(modelMetrics).createRDFModel(sheets, sharedFile,
+                this.testFileFolder.resolve("model.ttl").toString(), "TTL");
+        final RunMetrics streamMetrics = RunMetrics.create(true);
+        new LKTLogToRDF(streamMetrics).createRDFModel(sheets, sharedFile,
+                this.testFileFolder.resolve("stream.nt").toString(), "NTRIPLES");
+        assertThat(streamMetrics.getCount("triples")).isEqualTo(sharedModel.size());
+        assertThat(modelMetrics.getCount("triples")).isEqualTo(sharedModel.size());
         this.outStream.reset();
     }
 }
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.io.FileUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link LKTLogGenerator} and {@link LKTLogGenCliToolController} classes.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class LKTLogGeneratorTest {
+
+    private final Path testFileFolder = Paths.get(System.getProperty("java.io.tmpdir"), "lktLogGeneratorTest");
+
+    /**
+     * Create the test folder.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        Files.createDirectories(this.testFileFolder);
+    }
+
+    /**
+     * Remove the test folder.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Check that a generated ODS logbook is parsed without errors, that it contains all generated
+     * sheets and entries and that the same seed results in the same file.
+     * @throws Exception
+     */
+    @Test
+    public void testValidODS() throws Exception {
+        final String odsFile = this.testFileFolder.resolve("valid.ods").toString();
+        final LKTLogGenerator generator = new LKTLogGenerator(42);
+        generator.setSheets(3);
+        generator.setRows(40);
+        generator.setCardinality(3);
+        generator.setTrailingBlankRows(50);
+        generator.setTrailingBlankColumns(4);
+        assertThat(generator.writeODS(odsFile)).isEqualTo(0);
+
+        final LKTLogParseContext ctx = new LKTLogParseContext(odsFile, null);
+        final ArrayList<LKTLogParserSheet> sheets = new LKTLogParser().parseFile(ctx);
+        assertThat(ctx.getParserErrorMessages()).isEmpty();
+        assertThat(sheets).hasSize(3);
+        assertThat(sheets.get(0).getSubjectID()).isEqualTo("ID000001");
+        assertThat(sheets.get(2).getEntries()).hasSize(40);
+        assertThat(sheets.get(2).getEntries().get(0).getIsInitialWeight()).isTrue();
+
+        final String sameSeedFile = this.testFileFolder.resolve("sameSeed.ods").toString();
+        generator.writeODS(sameSeedFile);
+        assertThat(Files.readAllBytes(Paths.get(sameSeedFile))).isEqualTo(Files.readAllBytes(Paths.get(odsFile)));
+    }
+
+    /**
+     * Check that errors are injected into sheets and entries according to the error rate.
+     * @throws Exception
+     */
+    @Test
+    public void testErrorInjection() throws Exception {
+        final String odsFile = this.testFileFolder.resolve("invalid.ods").toString();
+        final LKTLogGenerator generator = new LKTLogGenerator(7);
+        generator.setSheets(2);
+        generator.setRows(50);
+        generator.setErrorRate(0.2);
+        final long errors = generator.writeODS(odsFile);
+        assertThat(errors).isBetween(5L, 25L);
+
+        final LKTLogParseContext ctx = new LKTLogParseContext(odsFile, null);
+        new LKTLogParser().parseFile(ctx);
+        assertThat((long) ctx.getParserErrorMessages().size()).isGreaterThan(errors);
+    }
+
+    /**
+     * Check that the generator tool writes one CSV file per sheet following the sheet layout.
+     * @throws Exception
+     */
+    @Test
+    public void testGenToolCSV() throws Exception {
+        final LKTLogGenCliToolController controller = new LKTLogGenCliToolController();
+        assertThat(controller.options().getOptions().size()).isEqualTo(9);
+
+        final String csvBase = this.testFileFolder.resolve("logbook").toString();
+        final String[] args = {"-o", String.join("", csvBase, ".csv"), "--sheets", "2", "--rows", "10",
+            "--blank-rows", "3", "--blank-columns", "2", "--seed", "3"};
+        final CommandLine cmd = new DefaultParser().parse(controller.options(), args);
+        controller.run(cmd);
+
+        for (int i = 0; i < 2; i = i + 1) {
+            final Path csvFile = Paths.get(LKTLogGenerator.csvFileName(csvBase, i));
+            assertThat(Files.exists(csvFile)).isTrue();
+            final List<String> lines = Files.readAllLines(csvFile, StandardCharsets.UTF_8);
+            assertThat(lines).hasSize(23 + 10 + 3);
+            assertThat(lines.get(1)).startsWith(",Animal ID,ID00000");
+            assertThat(lines.get(22)).startsWith("ImportID,Date,");
+            assertThat(lines.get(22).split(",", -1)).hasSize(15);
+            assertThat(lines.get(35)).isEqualTo(",,,,,,,,,,,,,,");
+        }
+
+        final String[] invalidArgs = {"-o", this.testFileFolder.resolve("logbook.txt").toString()};
+        controller.run(new DefaultParser().parse(controller.options(), invalidArgs));
+        assertThat(Files.exists(this.testFileFolder.resolve("logbook.txt"))).isFalse();
+    }
+
+}
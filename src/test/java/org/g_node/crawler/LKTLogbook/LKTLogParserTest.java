@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link LKTLogParser} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class LKTLogParserTest {
+
+    private static final int THREADS = 8;
+    private static final int PARSES = 48;
+
+    /**
+     * Check that a single parser instance returns the same results and parser errors
+     * for the valid and the invalid test file when it is used by many threads at the same time.
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentParses() throws Exception {
+        final String validFile = Paths.get(this.getClass().getResource("/lkt_test.ods").toURI()).toString();
+        final String invalidFile = Paths.get(this.getClass().getResource("/lkt_test_invalid.ods").toURI()).toString();
+
+        final LKTLogParser parser = new LKTLogParser();
+        final LKTLogParseContext validCtx = new LKTLogParseContext(validFile, null);
+        final List<String> validSheets = LKTLogParserTest.subjects(parser.parseFile(validCtx));
+        final LKTLogParseContext invalidCtx = new LKTLogParseContext(invalidFile, null);
+        parser.parseFile(invalidCtx);
+
+        assertThat(validCtx.hasParserErrors()).isFalse();
+        assertThat(validSheets).isNotEmpty();
+        assertThat(invalidCtx.hasParserErrors()).isTrue();
+
+        final ExecutorService pool = Executors.newFixedThreadPool(LKTLogParserTest.THREADS);
+        final List<LKTLogParseContext> validRuns = new ArrayList<>();
+        final List<Future<List<String>>> validResults = new ArrayList<>();
+        final List<Future<LKTLogParseContext>> invalidRuns = new ArrayList<>();
+        for (int i = 0; i < LKTLogParserTest.PARSES; i = i + 1) {
+            if (i % 2 == 0) {
+                final LKTLogParseContext ctx = new LKTLogParseContext(validFile, null);
+                validResults.add(pool.submit(() -> LKTLogParserTest.subjects(parser.parseFile(ctx))));
+                validRuns.add(ctx);
+            } else {
+                final LKTLogParseContext ctx = new LKTLogParseContext(invalidFile, null);
+                final Callable<LKTLogParseContext> run = () -> {
+                    parser.parseFile(ctx);
+                    return ctx;
+                };
+                invalidRuns.add(pool.submit(run));
+            }
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        for (int i = 0; i < validResults.size(); i = i + 1) {
+            assertThat(validResults.get(i).get()).isEqualTo(validSheets);
+            assertThat(validRuns.get(i).hasParserErrors()).isFalse();
+        }
+        for (final Future<LKTLogParseContext> run : invalidRuns) {
+            assertThat(run.get().getParserErrorMessages())
+                    .containsExactlyElementsOf(invalidCtx.getParserErrorMessages());
+        }
+    }
+
+    /**
+     * Returns the subject IDs and the number of entries of all parsed sheets.
+     * @param sheets Parsed sheets.
+     * @return List containing a String per sheet.
+     */
+    private static List<String> subjects(final List<LKTLogParserSheet> sheets) {
+        final List<String> subjects = new ArrayList<>();
+        sheets.forEach(s -> subjects.add(String.join(":", s.getSubjectID(), String.valueOf(s.getEntries().size()))));
+        return subjects;
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.crawler.LKTLogbook;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.commons.io.FileUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link LKTLogWatcher} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class LKTLogWatcherTest {
+
+    private static final long DEBOUNCE_MS = 300;
+
+    private final Path testFileFolder = Paths.get(System.getProperty("java.io.tmpdir"), "lktLogWatcherTest");
+    private final List<Path> conversions = new CopyOnWriteArrayList<>();
+
+    private LKTLogWatcher watcher;
+    private Thread watchThread;
+
+    /**
+     * Create the watched folder and start watching it.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        Files.createDirectories(this.testFileFolder);
+        this.watcher = new LKTLogWatcher(this.testFileFolder, this.conversions::add, LKTLogWatcherTest.DEBOUNCE_MS, 2);
+        this.watchThread = new Thread(this.watcher::watch);
+        this.watchThread.start();
+    }
+
+    /**
+     * Stop watching and remove the watched folder.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        this.watcher.close();
+        this.watchThread.join(10000);
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Check that rapid successive saves result in a single conversion, that lock files and
+     * other files are ignored and that saving unchanged content does not trigger a conversion.
+     * @throws Exception
+     */
+    @Test
+    public void testDebounceAndFilter() throws Exception {
+        final Path workbook = this.testFileFolder.resolve("logbook.ods");
+        for (int i = 0; i < 5; i = i + 1) {
+            Files.write(workbook, String.join("", "content ", String.valueOf(i)).getBytes(StandardCharsets.UTF_8));
+            Thread.sleep(20);
+        }
+        Files.write(this.testFileFolder.resolve(".~lock.logbook.ods#"), "lock".getBytes(StandardCharsets.UTF_8));
+        Files.write(this.testFileFolder.resolve("notes.txt"), "notes".getBytes(StandardCharsets.UTF_8));
+
+        this.waitForConversions(1);
+        assertThat(this.conversions).containsExactly(workbook);
+
+        Files.write(workbook, "content 4".getBytes(StandardCharsets.UTF_8));
+        Thread.sleep(LKTLogWatcherTest.DEBOUNCE_MS * 4);
+        assertThat(this.conversions).hasSize(1);
+
+        Files.write(workbook, "content 5".getBytes(StandardCharsets.UTF_8));
+        this.waitForConversions(2);
+        assertThat(this.conversions).containsExactly(workbook, workbook);
+    }
+
+    /**
+     * Check that workbooks marked as converted are only converted again once their content changes
+     * and that scheduled workbooks are converted.
+     * @throws Exception
+     */
+    @Test
+    public void testInitialWorkbooks() throws Exception {
+        final Path upToDate = this.testFileFolder.resolve("upToDate.ods");
+        final Path outdated = this.testFileFolder.resolve("outdated.ods");
+        Files.write(upToDate, "a".getBytes(StandardCharsets.UTF_8));
+        Files.write(outdated, "b".getBytes(StandardCharsets.UTF_8));
+        this.watcher.markConverted(upToDate);
+        this.watcher.schedule(outdated);
+
+        this.waitForConversions(1);
+        Thread.sleep(LKTLogWatcherTest.DEBOUNCE_MS * 4);
+        assertThat(this.conversions).containsExactly(outdated);
+
+        assertThat(LKTLogWatcher.isWorkbook(Paths.get("a", "Logbook.ODS"))).isTrue();
+        assertThat(LKTLogWatcher.isWorkbook(Paths.get(".~lock.Logbook.ods#"))).isFalse();
+        assertThat(LKTLogWatcher.isWorkbook(Paths.get(".~lock.Logbook.ods"))).isFalse();
+    }
+
+    /**
+     * Waits until the expected number of conversions has been recorded.
+     * @param expected Expected number of conversions.
+     * @throws Exception
+     */
+    private void waitForConversions(final int expected) throws Exception {
+        final long deadline = System.currentTimeMillis() + 20000;
+        while (this.conversions.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(this.conversions).hasSize(expected);
+    }
+
+}
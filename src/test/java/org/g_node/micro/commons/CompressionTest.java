@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link Compression} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class CompressionTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = "compressionTest";
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+
+    /**
+     * Create a test folder.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        Files.createDirectories(this.testFileFolder);
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Check that compression file extensions are detected and removed.
+     */
+    @Test
+    public void testSuffix() {
+        assertThat(Compression.getSuffix("data.nt.gz")).isEqualTo(".gz");
+        assertThat(Compression.getSuffix("data.nt.ZST")).isEqualTo(".ZST");
+        assertThat(Compression.getSuffix("data.nt")).isEmpty();
+        assertThat(Compression.getSuffix(".gz")).isEmpty();
+        assertThat(Compression.isCompressed("data.ttl.zst")).isTrue();
+        assertThat(Compression.stripSuffix("data.nt.gz")).isEqualTo("data.nt");
+        assertThat(Compression.stripSuffix("data.nt")).isEqualTo("data.nt");
+    }
+
+    /**
+     * Check that data written through a compressed {@link FileOutput} can be read again,
+     * including data exceeding multiple compression blocks.
+     * @throws Exception
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        final byte[] content = new byte[1024 * 1024 + 17];
+        new Random(42).nextBytes(content);
+
+        for (final String fileName : Arrays.asList("data.bin.gz", "data.bin.zst")) {
+            final String file = this.testFileFolder.resolve(fileName).toString();
+            try (FileOutput fo = FileOutput.open(file)) {
+                fo.getStream().write(content, 0, 100);
+                fo.getStream().write(content, 100, content.length - 100);
+                fo.commit();
+            }
+            try (InputStream in = Compression.decompress(file, Files.newInputStream(Paths.get(file)))) {
+                assertThat(IOUtils.toByteArray(in)).isEqualTo(content);
+            }
+        }
+
+        try (InputStream in = new GZIPInputStream(
+                Files.newInputStream(this.testFileFolder.resolve("data.bin.gz")))) {
+            assertThat(IOUtils.toByteArray(in)).isEqualTo(content);
+        }
+    }
+
+    /**
+     * Check that the wrapped output stream is closed, if compressing the data is aborted,
+     * and that write errors are reported when the stream is closed.
+     * @throws Exception
+     */
+    @Test
+    public void testAbort() throws Exception {
+        final byte[] content = new byte[1024 * 1024];
+        new Random(42).nextBytes(content);
+
+        for (final String fileName : Arrays.asList("data.bin.gz", "data.bin.zst")) {
+            final AtomicBoolean closed = new AtomicBoolean();
+            final OutputStream discarding = new OutputStream() {
+                @Override
+                public void write(final int b) {
+                }
+
+                @Override
+                public void close() {
+                    closed.set(true);
+                }
+            };
+            final Compression.AsyncOutputStream out = Compression.compress(fileName, discarding);
+            out.write(new byte[100]);
+            out.abort();
+            assertThat(closed.get()).isTrue();
+
+            final OutputStream failing = new OutputStream() {
+                private int count;
+
+                @Override
+                public void write(final int b) throws IOException {
+                    this.count = this.count + 1;
+                    if (this.count > 100) {
+                        throw new IOException("Disk full");
+                    }
+                }
+            };
+            final Compression.AsyncOutputStream failed = Compression.compress(fileName, failing);
+            failed.write(content);
+            assertThatThrownBy(failed::close).isInstanceOf(IOException.class);
+        }
+    }
+
+    /**
+     * Check that RDF files can be written to and read from compressed files.
+     * @throws Exception
+     */
+    @Test
+    public void testRDFFiles() throws Exception {
+        final Model model = ModelFactory.createDefaultModel();
+        model.createResource("http://example.org/a")
+                .addProperty(model.createProperty("http://example.org/name"), "TestName");
+
+        final String outFile = this.testFileFolder.resolve("out.nt.gz").toString();
+        final Map<String, String> outFiles = RDFService.getOutputFileNames(outFile, Arrays.asList("NTRIPLES", "TTL"));
+        assertThat(outFiles.get("NTRIPLES")).isEqualTo(outFile);
+        assertThat(outFiles.get("TTL")).isEqualTo(this.testFileFolder.resolve("out.ttl.gz").toString());
+
+        RDFService.saveModelToFiles(outFiles, model);
+        for (final String f : outFiles.values()) {
+            assertThat(RDFService.openModelFromFile(f).isIsomorphicWith(model)).isTrue();
+        }
+
+        final String convFile = this.testFileFolder.resolve("conv.jsonld.zst").toString();
+        RDFService.convertFile(outFile, RDFService.getOutputFileNames(convFile, Arrays.asList("JSON-LD")), 4);
+        assertThat(RDFService.openModelFromFile(convFile).isIsomorphicWith(model)).isTrue();
+    }
+
+}
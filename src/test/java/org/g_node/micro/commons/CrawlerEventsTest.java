@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link CrawlerEvents} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class CrawlerEventsTest {
+
+    /**
+     * Check that no event is created without a running recording.
+     */
+    @Test
+    public void testNotRecorded() {
+        assertThat(CrawlerEvents.parseSheet("Animal_1")).isSameAs(CrawlerEvents.DISABLED);
+        assertThat(CrawlerEvents.serialize("out.ttl", "TTL")).isSameAs(CrawlerEvents.DISABLED);
+    }
+
+    /**
+     * Check that events are recorded with their fields, if a recording is running.
+     * @throws Exception
+     */
+    @Test
+    public void testRecorded() throws Exception {
+        final Path recordingFile = Files.createTempFile("crawlerEvents", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.start();
+            try (CrawlerEvent event = CrawlerEvents.parseSheet("Animal_1")) {
+                assertThat(event).isNotSameAs(CrawlerEvents.DISABLED);
+                event.rows(12).animal("ID000001");
+            }
+            CrawlerEvents.rdfSheet("ID000001").close();
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        Files.delete(recordingFile);
+
+        assertThat(events).hasSize(2);
+        final RecordedEvent parsed = events.get(0);
+        assertThat(parsed.getEventType().getName()).isEqualTo("org.g_node.ParseSheet");
+        assertThat(parsed.getString("sheet")).isEqualTo("Animal_1");
+        assertThat(parsed.getString("animal")).isEqualTo("ID000001");
+        assertThat(parsed.getLong("rows")).isEqualTo(12);
+        assertThat(parsed.getLong("triples")).isEqualTo(0);
+        assertThat(events.get(1).getEventType().getName()).isEqualTo("org.g_node.RDFSheet");
+        assertThat(events.get(1).getString("animal")).isEqualTo("ID000001");
+    }
+
+    /**
+     * Check that streamed output files of a conversion are recorded as serialize events
+     * with the number of written statements.
+     * @throws Exception
+     */
+    @Test
+    public void testStreamedSerialize() throws Exception {
+        final Path folder = Files.createTempDirectory("crawlerEvents");
+        final Path input = folder.resolve("in.ttl");
+        final Path output = folder.resolve("out.nt");
+        Files.write(input, String.join("\n", "@prefix ex: <http://example.org/> .",
+                "ex:a ex:name \"A\" .", "ex:b ex:name \"B\" .", "").getBytes(StandardCharsets.UTF_8));
+
+        final Path recordingFile = folder.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.start();
+            RDFService.convertFile(input.toString(), Collections.singletonMap("NTRIPLES", output.toString()));
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(e -> "org.g_node.Serialize".equals(e.getEventType().getName()))
+                .collect(Collectors.toList());
+        for (final Path p : new Path[]{input, output, recordingFile, folder}) {
+            Files.delete(p);
+        }
+
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getString("file")).isEqualTo(output.toString());
+        assertThat(events.get(0).getString("format")).isEqualTo("NTRIPLES");
+        assertThat(events.get(0).getLong("triples")).isEqualTo(2);
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import org.apache.commons.io.FileUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link FileCache} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class FileCacheTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = "fileCacheTest";
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Check that entries can be stored and fetched again and that missing entries return null.
+     * @throws Exception
+     */
+    @Test
+    public void testPutGet() throws Exception {
+        final FileCache cache = new FileCache(this.testFileFolder, 1024);
+
+        assertThat(cache.get("abc")).isNull();
+
+        cache.put("abc", new byte[]{1, 2, 3});
+        assertThat(cache.get("abc")).isEqualTo(new byte[]{1, 2, 3});
+
+        cache.put("abc", new byte[]{4});
+        assertThat(cache.get("abc")).isEqualTo(new byte[]{4});
+    }
+
+    /**
+     * Check that the least recently used entries are evicted once the cache exceeds its size cap
+     * and that entries larger than the size cap are not stored at all.
+     * @throws Exception
+     */
+    @Test
+    public void testEviction() throws Exception {
+        final FileCache cache = new FileCache(this.testFileFolder, 20);
+
+        cache.put("first", new byte[8]);
+        cache.put("second", new byte[8]);
+        Files.setLastModifiedTime(this.testFileFolder.resolve("first.bin"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(this.testFileFolder.resolve("second.bin"), FileTime.fromMillis(2000));
+
+        // Reading an entry marks it as recently used.
+        assertThat(cache.get("first")).isNotNull();
+
+        cache.put("third", new byte[8]);
+        assertThat(cache.get("second")).isNull();
+        assertThat(cache.get("first")).isNotNull();
+        assertThat(cache.get("third")).isNotNull();
+
+        // Replacing an entry does not count its previous size.
+        cache.put("first", new byte[8]);
+        assertThat(cache.get("third")).isNotNull();
+
+        cache.put("tooLarge", new byte[21]);
+        assertThat(cache.get("tooLarge")).isNull();
+
+        // Entries written by another cache instance are included once the size cap is exceeded.
+        new FileCache(this.testFileFolder, 20).put("other", new byte[4]);
+        Files.setLastModifiedTime(this.testFileFolder.resolve("other.bin"), FileTime.fromMillis(500));
+        cache.put("fourth", new byte[6]);
+        assertThat(cache.get("other")).isNull();
+        assertThat(cache.get("fourth")).isNotNull();
+    }
+
+    /**
+     * Check that files are moved into the cache and that files larger than the size cap are discarded.
+     * @throws Exception
+     */
+    @Test
+    public void testPutGetFile() throws Exception {
+        final FileCache cache = new FileCache(this.testFileFolder, 20);
+
+        assertThat(cache.getFile("abc")).isNull();
+
+        final Path tmp = cache.createTempFile();
+        Files.write(tmp, new byte[]{1, 2, 3});
+        cache.putFile("abc", tmp);
+        assertThat(Files.exists(tmp)).isFalse();
+        assertThat(Files.readAllBytes(cache.getFile("abc"))).isEqualTo(new byte[]{1, 2, 3});
+
+        final Path tooLarge = cache.createTempFile();
+        Files.write(tooLarge, new byte[21]);
+        cache.putFile("tooLarge", tooLarge);
+        assertThat(Files.exists(tooLarge)).isFalse();
+        assertThat(cache.getFile("tooLarge")).isNull();
+    }
+
+    /**
+     * Check that entries vanishing while the cache is evicted do not abort storing a new entry.
+     * A dangling symbolic link stands in for an entry removed by another process.
+     * @throws Exception
+     */
+    @Test
+    public void testEvictionMissingEntry() throws Exception {
+        final FileCache cache = new FileCache(this.testFileFolder, 20);
+        cache.put("first", new byte[8]);
+        try {
+            Files.createSymbolicLink(this.testFileFolder.resolve("gone.bin"), this.testFileFolder.resolve("missing"));
+        } catch (UnsupportedOperationException | IOException e) {
+            Assume.assumeNoException(e);
+        }
+
+        cache.put("second", new byte[8]);
+        cache.put("third", new byte[8]);
+        assertThat(cache.get("third")).isNotNull();
+        assertThat(cache.get("first")).isNull();
+    }
+
+}
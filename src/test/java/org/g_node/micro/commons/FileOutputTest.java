@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import org.apache.commons.io.FileUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link FileOutput} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class FileOutputTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = "fileOutputTest";
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final Path testFile = this.testFileFolder.resolve("out.txt");
+
+    /**
+     * Create a testfolder and an existing output file.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        Files.createDirectories(this.testFileFolder);
+        Files.write(this.testFile, "old".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Check that committed data replaces the existing output file, including writes
+     * exceeding the size of the write buffer, and that no temporary files remain.
+     * @throws Exception
+     */
+    @Test
+    public void testCommit() throws Exception {
+        final byte[] large = new byte[100];
+        Arrays.fill(large, (byte) 'b');
+
+        try (FileOutput fo = FileOutput.open(this.testFile.toString(), 16)) {
+            fo.getStream().write('a');
+            fo.getStream().write(large);
+            fo.getStream().write("cc".getBytes(StandardCharsets.UTF_8));
+            assertThat(new String(Files.readAllBytes(this.testFile), StandardCharsets.UTF_8)).isEqualTo("old");
+            fo.commit();
+        }
+
+        final byte[] content = Files.readAllBytes(this.testFile);
+        assertThat(content.length).isEqualTo(103);
+        assertThat(content[0]).isEqualTo((byte) 'a');
+        assertThat(content[1]).isEqualTo((byte) 'b');
+        assertThat(content[102]).isEqualTo((byte) 'c');
+        assertThat(this.testFileFolder.toFile().list()).containsExactly("out.txt");
+    }
+
+    /**
+     * Check that closing an output file without committing it leaves the existing
+     * output file untouched and removes the temporary file.
+     * @throws Exception
+     */
+    @Test
+    public void testCloseWithoutCommit() throws Exception {
+        try (FileOutput fo = FileOutput.open(this.testFile.toString())) {
+            fo.getStream().write("new".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertThat(new String(Files.readAllBytes(this.testFile), StandardCharsets.UTF_8)).isEqualTo("old");
+        assertThat(this.testFileFolder.toFile().list()).containsExactly("out.txt");
+    }
+
+    /**
+     * Check that the temporary file is removed, if it cannot replace the output file.
+     * @throws Exception
+     */
+    @Test
+    public void testFailedCommit() throws Exception {
+        try (FileOutput fo = FileOutput.open(this.testFile.toString())) {
+            fo.getStream().write("new".getBytes(StandardCharsets.UTF_8));
+            Files.delete(this.testFile);
+            Files.createDirectories(this.testFile.resolve("sub"));
+            assertThatThrownBy(fo::commit).isInstanceOf(IOException.class);
+        }
+
+        assertThat(this.testFileFolder.toFile().list()).containsExactly("out.txt");
+        assertThat(Files.isDirectory(this.testFile)).isTrue();
+    }
+
+    /**
+     * Check that an existing folder cannot be opened as an output file.
+     * @throws Exception
+     */
+    @Test(expected = IOException.class)
+    public void testOpenInvalid() throws Exception {
+        FileOutput.open(this.testFileFolder.toString());
+    }
+
+    /**
+     * Check that committed output files get the same permissions as regularly created files.
+     * @throws Exception
+     */
+    @Test
+    public void testPermissions() throws Exception {
+        Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+        final Path plain = Files.createFile(this.testFileFolder.resolve("plain.txt"));
+        final Path committed = this.testFileFolder.resolve("committed.txt");
+        try (FileOutput fo = FileOutput.open(committed.toString())) {
+            fo.commit();
+        }
+        assertThat(Files.getPosixFilePermissions(committed)).isEqualTo(Files.getPosixFilePermissions(plain));
+    }
+
+}
@@ -14,7 +14,9 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 import org.apache.commons.io.FileUtils;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -141,6 +143,30 @@ public class FileServiceTest {
         ).isTrue();
     }
 
+    /**
+     * Check that folders and glob patterns list all files of a supported file extension,
+     * but no temporary files and no output files of previous runs.
+     * @throws Exception
+     */
+    @Test
+    public void testListFiles() throws Exception {
+        for (final String name : Arrays.asList("a.ttl", "b.nt.gz", "a_out.ttl", "b_nt_out.ttl.gz",
+                ".a_out.ttl.1f.tmp", "layout.ttl")) {
+            Files.createFile(this.testFileFolder.resolve(name));
+        }
+        final Set<String> ext = new HashSet<>(Arrays.asList("TTL", "NT"));
+
+        assertThat(FileService.listFiles(this.testFileFolder.toString(), ext))
+                .extracting(p -> p.getFileName().toString())
+                .containsOnly("a.ttl", "b.nt.gz", "layout.ttl");
+        assertThat(FileService.listFiles(this.testFileFolder.resolve("*.ttl*").toString(), ext))
+                .extracting(p -> p.getFileName().toString())
+                .containsOnly("a.ttl", "layout.ttl");
+        assertThat(FileService.listFiles(this.testFileFolder.resolve("*_out.*").toString(), ext))
+                .extracting(p -> p.getFileName().toString())
+                .containsOnly("a_out.ttl", "b_nt_out.ttl.gz");
+    }
+
     /**
      * Check that a file copy of a given file is created using the proper timestamp as part of the filename.
      * @throws Exception
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.varia.NullAppender;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link LazyLog} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class LazyLogTest {
+
+    /**
+     * Check that messages are only built, if the logger is enabled for their level.
+     */
+    @Test
+    public void testLazyMessages() {
+        final Logger logger = Logger.getLogger(LazyLogTest.class.getName());
+        logger.setAdditivity(false);
+        logger.addAppender(new NullAppender());
+        logger.setLevel(Level.WARN);
+        final AtomicInteger built = new AtomicInteger();
+
+        LazyLog.debug(logger, () -> String.valueOf(built.incrementAndGet()));
+        LazyLog.info(logger, () -> String.valueOf(built.incrementAndGet()));
+        assertThat(built.get()).isEqualTo(0);
+
+        LazyLog.warn(logger, () -> String.valueOf(built.incrementAndGet()));
+        LazyLog.error(logger, () -> String.valueOf(built.incrementAndGet()));
+        assertThat(built.get()).isEqualTo(2);
+    }
+
+}
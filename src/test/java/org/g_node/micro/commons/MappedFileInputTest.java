@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link MappedFileInput} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class MappedFileInputTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = "mappedFileInputTest";
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final Path testFile = this.testFileFolder.resolve("test.bin");
+    private final byte[] content = new byte[10000];
+
+    /**
+     * Create a test folder and a test file.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        for (int i = 0; i < this.content.length; i = i + 1) {
+            this.content[i] = (byte) (i % 251);
+        }
+        Files.createDirectories(this.testFileFolder);
+        Files.write(this.testFile, this.content);
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Check that a file mapped in multiple windows is read completely and in order.
+     * @throws Exception
+     */
+    @Test
+    public void testOpenMapped() throws Exception {
+        try (InputStream in = MappedFileInput.openMapped(this.testFile.toString(), 999)) {
+            assertThat(in.read()).isEqualTo(0);
+            assertThat(in.skip(1500)).isEqualTo(1500);
+            assertThat(in.available()).isEqualTo(10000 - 1501);
+            final byte[] rest = IOUtils.toByteArray(in);
+            assertThat(rest).isEqualTo(Arrays.copyOfRange(this.content, 1501, 10000));
+            assertThat(in.read()).isEqualTo(-1);
+        }
+
+        try (InputStream in = MappedFileInput.open(this.testFile.toString())) {
+            assertThat(IOUtils.toByteArray(in)).isEqualTo(this.content);
+        }
+    }
+
+    /**
+     * Check that only the requested range of a file is read and that the channel remains open.
+     * @throws Exception
+     */
+    @Test
+    public void testOpenRange() throws Exception {
+        try (FileChannel fc = FileChannel.open(this.testFile, StandardOpenOption.READ)) {
+            try (InputStream in = MappedFileInput.openRange(fc, 100, 300)) {
+                assertThat(IOUtils.toByteArray(in)).isEqualTo(Arrays.copyOfRange(this.content, 100, 300));
+            }
+            assertThat(fc.isOpen()).isTrue();
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.riot.system.StreamRDFLib;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link ParallelNTriplesParser} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class ParallelNTriplesParserTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = "parallelNTriplesParserTest";
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final Path testFile = this.testFileFolder.resolve("test.nt");
+
+    /**
+     * Create a test N-Triples file where blank nodes are used across multiple chunks.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i = i + 1) {
+            content.append(String.join("", "<http://example.org/s", String.valueOf(i),
+                    "> <http://example.org/p> _:b", String.valueOf(i % 7), " .\n"));
+        }
+        FileUtils.write(this.testFile.toFile(), content.toString());
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Check that a file parsed in multiple chunks yields the same statements in the same order
+     * as a file parsed on a single thread and that blank nodes are shared across chunks.
+     * @throws Exception
+     */
+    @Test
+    public void testParse() throws Exception {
+        final List<Triple> triples = new ArrayList<>();
+        final long count = ParallelNTriplesParser.parse(this.testFile.toString(), RDFLanguages.NTRIPLES,
+                new StreamRDFBase() {
+                    @Override
+                    public void triple(final Triple triple) {
+                        triples.add(triple);
+                    }
+                }, 4, 100);
+
+        assertThat(count).isEqualTo(200);
+        assertThat(triples).hasSize(200);
+        for (int i = 0; i < 200; i = i + 1) {
+            assertThat(triples.get(i).getSubject().getURI()).isEqualTo(String.join("", "http://example.org/s",
+                    String.valueOf(i)));
+        }
+        assertThat(triples.get(0).getObject()).isEqualTo(triples.get(196).getObject());
+
+        final Model parallel = ModelFactory.createDefaultModel();
+        ParallelNTriplesParser.parse(this.testFile.toString(), RDFLanguages.NTRIPLES,
+                StreamRDFLib.graph(parallel.getGraph()), 3, 64);
+        final Model sequential = RDFDataMgr.loadModel(this.testFile.toString());
+        assertThat(parallel.isIsomorphicWith(sequential)).isTrue();
+    }
+
+    /**
+     * Check that invalid statements in any chunk are reported.
+     * @throws Exception
+     */
+    @Test(expected = RiotException.class)
+    public void testParseInvalid() throws Exception {
+        final File invalid = this.testFileFolder.resolve("invalid.nt").toFile();
+        FileUtils.write(invalid, FileUtils.readFileToString(this.testFile.toFile()), false);
+        FileUtils.write(invalid, "<http://example.org/s> <http://example.org/p> .\n", true);
+
+        ParallelNTriplesParser.parse(invalid.toString(), RDFLanguages.NTRIPLES, StreamRDFLib.sinkNull(), 4, 100);
+    }
+
+}
@@ -18,7 +18,10 @@ import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
 import org.apache.commons.io.FileUtils;
+import org.apache.jena.riot.RiotException;
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -128,4 +131,77 @@ public class RDFServiceTest {
         assertThat(m.isEmpty()).isFalse();
     }
 
+    /**
+     * Check that output file names are created for every requested format and
+     * that a model is written concurrently to all of these files.
+     * @throws Exception
+     */
+    @Test
+    public void testSaveModelToFiles() throws Exception {
+        final String outFile = this.testFileFolder.resolve("multi").toString();
+
+        Map<String, String> outFiles = RDFService.getOutputFileNames(outFile, Arrays.asList("TTL", "NTRIPLES"));
+        assertThat(outFiles.keySet()).containsExactly("TTL", "NTRIPLES");
+        assertThat(outFiles.get("TTL")).isEqualTo(String.join("", outFile, ".ttl"));
+        assertThat(outFiles.get("NTRIPLES")).isEqualTo(String.join("", outFile, ".nt"));
+
+        outFiles = RDFService.getOutputFileNames(String.join("", outFile, ".nt"), Arrays.asList("TTL", "NTRIPLES"));
+        assertThat(outFiles.get("TTL")).isEqualTo(String.join("", outFile, ".ttl"));
+        assertThat(outFiles.get("NTRIPLES")).isEqualTo(String.join("", outFile, ".nt"));
+
+        outFiles = RDFService.getOutputFileNames(String.join("", outFile, ".ttl"), Arrays.asList("JSON-LD"));
+        assertThat(outFiles.get("JSON-LD")).isEqualTo(String.join("", outFile, ".ttl.jsonld"));
+
+        final Model model = ModelFactory.createDefaultModel();
+        model.createResource("http://example.org/a")
+                .addProperty(model.createProperty("http://example.org/name"), "TestName");
+
+        outFiles = RDFService.getOutputFileNames(outFile, Arrays.asList("TTL", "NTRIPLES", "JSON-LD", "RDF/XML"));
+        RDFService.saveModelToFiles(outFiles, model);
+
+        for (final String f : outFiles.values()) {
+            assertThat(this.outStream.toString()).contains(String.join("", "Writing data to RDF file '", f, "'"));
+            assertThat(RDFService.openModelFromFile(f).isIsomorphicWith(model)).isTrue();
+        }
+    }
+
+    /**
+     * Check that converting an RDF file writes streaming and non streaming output formats
+     * and that no output files are written, if the input file cannot be parsed.
+     * @throws Exception
+     */
+    @Test
+    public void testConvertFile() throws Exception {
+        final Model model = ModelFactory.createDefaultModel();
+        model.createResource("http://example.org/a")
+                .addProperty(model.createProperty("http://example.org/name"), "TestName")
+                .addProperty(model.createProperty("http://example.org/knows"),
+                        model.createResource("http://example.org/b"));
+        final String inFile = this.testFileFolder.resolve("in.ttl").toString();
+        RDFService.saveModelToFile(inFile, model, "TTL");
+
+        final String outFile = this.testFileFolder.resolve("conv").toString();
+        final Map<String, String> outFiles =
+                RDFService.getOutputFileNames(outFile, Arrays.asList("NTRIPLES", "TTL-STREAM", "JSON-LD"));
+        RDFService.convertFile(inFile, outFiles);
+
+        for (final String f : outFiles.values()) {
+            assertThat(RDFService.openModelFromFile(f).isIsomorphicWith(model)).isTrue();
+            Files.delete(Paths.get(f));
+        }
+
+        final String invalidFile = this.testFileFolder.resolve("invalid.ttl").toString();
+        FileUtils.write(new File(invalidFile), "<http://example.org/a> <http://example.org/b> .");
+        boolean parseFailed = false;
+        try {
+            RDFService.convertFile(invalidFile, outFiles);
+        } catch (RiotException e) {
+            parseFailed = true;
+        }
+        assertThat(parseFailed).isTrue();
+        for (final String f : outFiles.values()) {
+            assertThat(Files.exists(Paths.get(f))).isFalse();
+        }
+    }
+
 }
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.apache.commons.io.FileUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RDFValidationService} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RDFValidationServiceTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = "rdfValidationServiceTest";
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+
+    private final String validTriple = "<http://example.org/a> <http://example.org/b> <http://example.org/c> .\n";
+
+    /**
+     * Create a test folder.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        Files.createDirectories(this.testFileFolder);
+    }
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Check that all errors of an N-Triples file are reported with the correct line numbers.
+     * @throws Exception
+     */
+    @Test
+    public void testValidateLineBased() throws Exception {
+        final Path file = this.testFileFolder.resolve("test.nt");
+        Files.write(file, String.join("",
+                this.validTriple, "invalid line\n", this.validTriple, this.validTriple, "<http://example.org/a> .\n",
+                this.validTriple).getBytes(StandardCharsets.UTF_8));
+
+        final RDFValidationService.Result result = RDFValidationService.validate(file.toString(), 10);
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getModel()).isNull();
+        assertThat(result.getErrors()).hasSize(2);
+        assertThat(result.getErrors().get(0)).startsWith("[line: 2, col: 1 ]");
+        assertThat(result.getErrors().get(1)).startsWith("[line: 5, col: 24]");
+
+        assertThat(RDFValidationService.validate(file.toString(), 1).getErrors()).hasSize(1);
+    }
+
+    /**
+     * Check that the parsed model is only returned for valid files.
+     * @throws Exception
+     */
+    @Test
+    public void testValidateAndLoad() throws Exception {
+        final Path file = this.testFileFolder.resolve("test.ttl");
+        Files.write(file, "@prefix ex: <http://example.org/> .\nex:a ex:b ex:c .\nex:d ex:e ex:f"
+                .getBytes(StandardCharsets.UTF_8));
+
+        assertThat(RDFValidationService.validate(file.toString(), 10).isValid()).isTrue();
+        final RDFValidationService.Result result = RDFValidationService.validateAndLoad(file.toString(), 10);
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getModel().size()).isEqualTo(2);
+
+        Files.write(file, "@prefix ex: <http://example.org/> .\nex:a ex:b .\n".getBytes(StandardCharsets.UTF_8));
+        final RDFValidationService.Result invalid = RDFValidationService.validateAndLoad(file.toString(), 10);
+        assertThat(invalid.isValid()).isFalse();
+        assertThat(invalid.getModel()).isNull();
+        assertThat(invalid.getErrors().get(0)).startsWith("[line: 2, col: 11]");
+
+        final Path txtFile = this.testFileFolder.resolve("test.txt");
+        Files.write(txtFile, this.validTriple.getBytes(StandardCharsets.UTF_8));
+        assertThat(RDFValidationService.validate(txtFile.toString(), 10).getErrors().get(0))
+                .startsWith("Unknown RDF format");
+    }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Paths;
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RunMetrics} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class RunMetricsTest {
+
+    /**
+     * Check that phases, counters, gauges and rates are collected and written as JSON and table.
+     * @throws Exception
+     */
+    @Test
+    public void testMetrics() throws Exception {
+        final RunMetrics metrics = RunMetrics.create(true);
+        assertThat(metrics.isEnabled()).isTrue();
+
+        for (int i = 0; i < 2; i = i + 1) {
+            try (RunMetrics.Phase outer = metrics.startPhase("parse")) {
+                try (RunMetrics.Phase inner = metrics.startPhase("hash")) {
+                    Thread.sleep(20);
+                }
+                metrics.count("rows", 50);
+            }
+        }
+        final RunMetrics.Phase closedTwice = metrics.startPhase("serialize");
+        closedTwice.close();
+        closedTwice.close();
+        metrics.gauge("threads", 4);
+        metrics.rate("rows", "parse");
+        metrics.rate("rows", "missing");
+
+        assertThat(metrics.getCount("rows")).isEqualTo(100);
+        assertThat(metrics.getCount("missing")).isEqualTo(0);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        metrics.writeJson(out);
+        final JsonObject json = JSON.parse(new ByteArrayInputStream(out.toByteArray()));
+
+        final JsonObject parse = json.get("phases").getAsObject().get("parse").getAsObject();
+        assertThat(parse.get("count").getAsNumber().value().intValue()).isEqualTo(2);
+        assertThat(parse.get("durationMs").getAsNumber().value().longValue()).isGreaterThanOrEqualTo(40);
+        assertThat(parse.get("peakHeapBytes").getAsNumber().value().longValue()).isGreaterThan(0);
+        assertThat(json.get("phases").getAsObject().get("serialize").getAsObject()
+                .get("count").getAsNumber().value().intValue()).isEqualTo(1);
+        assertThat(json.get("counters").getAsObject().get("rows").getAsNumber().value().intValue()).isEqualTo(100);
+        assertThat(json.get("gauges").getAsObject().get("threads").getAsNumber().value().intValue()).isEqualTo(4);
+        assertThat(json.get("gauges").getAsObject().get("rowsPerSecond").getAsNumber().value().longValue())
+                .isGreaterThan(0).isLessThanOrEqualTo(2500);
+        assertThat(json.get("gauges").getAsObject().hasKey("missingPerSecond")).isFalse();
+
+        assertThat(metrics.toTable()).contains("Phase", "parse", "hash", "serialize", "total", "rows", "threads");
+    }
+
+    /**
+     * Check that sampling the heap of one instance does not hide the peak heap usage from another instance.
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentPeaks() throws Exception {
+        final int size = 32 * 1024 * 1024;
+        final RunMetrics first = RunMetrics.create(true);
+        final RunMetrics second = RunMetrics.create(true);
+
+        final RunMetrics.Phase phase = first.startPhase("allocate");
+        byte[] block = new byte[size];
+        assertThat(block.length).isEqualTo(size);
+        block = null;
+        System.gc();
+        second.startPhase("other").close();
+        phase.close();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        first.writeJson(out);
+        final JsonObject json = JSON.parse(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(json.get("phases").getAsObject().get("allocate").getAsObject()
+                .get("peakHeapBytes").getAsNumber().value().longValue()).isGreaterThanOrEqualTo(size);
+    }
+
+    /**
+     * Check that the disabled metrics do not collect anything and that metrics file names are
+     * derived from output file names.
+     * @throws Exception
+     */
+    @Test
+    public void testDisabled() throws Exception {
+        final RunMetrics metrics = RunMetrics.create(false);
+        assertThat(metrics).isSameAs(RunMetrics.DISABLED);
+        assertThat(metrics.isEnabled()).isFalse();
+
+        try (RunMetrics.Phase p = metrics.startPhase("parse")) {
+            metrics.count("rows", 10);
+        }
+        metrics.gauge("threads", 4);
+        assertThat(metrics.getCount("rows")).isEqualTo(0);
+        assertThat(metrics.toTable()).doesNotContain("parse");
+
+        assertThat(RunMetrics.fileName(Paths.get("a.b", "out").toString()))
+                .isEqualTo(Paths.get("a.b", "out_metrics.json").toString());
+        assertThat(RunMetrics.fileName("out.ttl.gz")).isEqualTo("out_metrics.json");
+        assertThat(RunMetrics.fileName("out.nt")).isEqualTo("out_metrics.json");
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.micro.commons;
+
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.riot.system.StreamRDF;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link TDBStore} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class TDBStoreTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = "tdbStoreTest";
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+
+    /**
+     * Remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Check that closing one of two stores opened on the same folder does not release
+     * the TDB connection still used by the other store.
+     * @throws Exception
+     */
+    @Test
+    public void testSharedFolder() throws Exception {
+        final String folder = this.testFileFolder.resolve("tdb").toString();
+        final String query = "ASK { <http://example.org/a> ?p ?o }";
+
+        final TDBStore reader = TDBStore.open(folder);
+        try (TDBStore writer = TDBStore.open(folder)) {
+            final StreamRDF stream = writer.replaceGraph("a.ttl");
+            reader.close();
+            stream.triple(Triple.create(NodeFactory.createURI("http://example.org/a"),
+                    NodeFactory.createURI("http://example.org/name"), NodeFactory.createLiteral("a")));
+            writer.commit();
+
+            try (QueryExecution qe = writer.query(QueryFactory.create(query))) {
+                assertThat(qe.execAsk()).isTrue();
+            }
+        }
+
+        try (TDBStore store = TDBStore.open(folder);
+             QueryExecution qe = store.query(QueryFactory.create(query))) {
+            assertThat(qe.execAsk()).isTrue();
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.query;
+
+import com.hp.hpl.jena.query.QuerySolution;
+import com.hp.hpl.jena.query.ResultSet;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.g_node.micro.commons.QueryResultBinaryFormat;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link QueryCliToolController} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class QueryCliToolControllerTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = "queryCliToolControllerTest";
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+    private final String query = "SELECT ?s ?name WHERE { ?s <http://example.org/name> ?name } ORDER BY ?name";
+    private final String cacheDir = this.testFileFolder.resolve("cache").toString();
+
+    private PrintStream stdout;
+    private ByteArrayOutputStream outStream;
+
+    /**
+     * Redirect Out stream and create test RDF files.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.stdout = System.out;
+        this.outStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(this.outStream));
+
+        final Logger rootLogger = Logger.getRootLogger();
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(new ConsoleAppender(new PatternLayout("[%-5p] %m%n")));
+
+        Files.createDirectories(this.testFileFolder);
+        Files.write(this.testFileFolder.resolve("a.ttl"), String.join("\n",
+                "@prefix ex: <http://example.org/> .",
+                "ex:a ex:name \"A\"@en .",
+                "_:b ex:name \"B, \\\"quoted\\\"\" .", "").getBytes(StandardCharsets.UTF_8));
+        Files.write(this.testFileFolder.resolve("c.nt"),
+                "<http://example.org/c> <http://example.org/name> \"3\"^^<http://www.w3.org/2001/XMLSchema#int> .\n"
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reset Out stream and remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        System.setOut(this.stdout);
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Check that a query over multiple files is written to all supported result formats.
+     * @throws Exception
+     */
+    @Test
+    public void runTest() throws Exception {
+        final QueryCliToolController controller = new QueryCliToolController();
+        assertThat(controller.options().getOptions().size()).isEqualTo(9);
+        assertThat(controller.options().getOption("q").isRequired()).isTrue();
+        assertThat(controller.options().getOption("i").isRequired()).isFalse();
+        assertThat(controller.options().getOption("tdb").isRequired()).isFalse();
+        assertThat(controller.options().hasLongOption("no-cache")).isTrue();
+        assertThat(controller.options().getOption("cache-dir").isRequired()).isFalse();
+
+        final String input = String.join(",", this.testFileFolder.resolve("a.ttl").toString(),
+                this.testFileFolder.resolve("c.nt").toString());
+        final String out = this.testFileFolder.resolve("res").toString();
+
+        for (final String format : new String[]{"csv", "tsv", "json", "bin"}) {
+            controller.run(new DefaultParser().parse(controller.options(),
+                    new String[]{"-i", input, "-q", this.query, "-f", format, "-o", out,
+                            "--cache-dir", this.cacheDir}));
+        }
+        assertThat(this.outStream.toString()).contains("Query returned 3 rows");
+        assertThat(this.outStream.toString()).contains("Query result cache hit");
+
+        final List<String> csv = Files.readAllLines(this.testFileFolder.resolve("res.csv"));
+        assertThat(csv).hasSize(4);
+        assertThat(csv.get(0)).isEqualTo("s,name");
+        assertThat(Files.readAllLines(this.testFileFolder.resolve("res.tsv")).get(0)).isEqualTo("?s\t?name");
+        assertThat(new String(Files.readAllBytes(this.testFileFolder.resolve("res.srj")), StandardCharsets.UTF_8))
+                .contains("\"vars\": [ \"s\" , \"name\" ]");
+
+        try (InputStream in = Files.newInputStream(this.testFileFolder.resolve("res.srb"))) {
+            final ResultSet rs = QueryResultBinaryFormat.read(in);
+            assertThat(rs.getResultVars()).containsExactly("s", "name");
+            QuerySolution row = rs.nextSolution();
+            assertThat(row.getLiteral("name").getInt()).isEqualTo(3);
+            row = rs.nextSolution();
+            assertThat(row.getLiteral("name").getLanguage()).isEqualTo("en");
+            assertThat(row.getResource("s").getURI()).isEqualTo("http://example.org/a");
+            row = rs.nextSolution();
+            assertThat(row.getLiteral("name").getString()).isEqualTo("B, \"quoted\"");
+            assertThat(row.getResource("s").isAnon()).isTrue();
+            assertThat(rs.hasNext()).isFalse();
+        }
+    }
+
+    /**
+     * Check that input files are loaded into a TDB store, that loading a file again replaces its data
+     * and that the store can be queried without providing input files.
+     * @throws Exception
+     */
+    @Test
+    public void tdbTest() throws Exception {
+        final QueryCliToolController controller = new QueryCliToolController();
+        final String tdb = this.testFileFolder.resolve("tdb").toString();
+        final String out = this.testFileFolder.resolve("res").toString();
+
+        controller.run(new DefaultParser().parse(controller.options(),
+                new String[]{"-q", this.query}));
+        assertThat(this.outStream.toString()).contains("Either input files (-i) or a TDB store (--tdb)");
+
+        controller.run(new DefaultParser().parse(controller.options(),
+                new String[]{"-i", this.testFileFolder.resolve("a.ttl").toString(), "--tdb", tdb, "-q", this.query}));
+        controller.run(new DefaultParser().parse(controller.options(),
+                new String[]{"-i", this.testFileFolder.resolve("c.nt").toString(), "--tdb", tdb, "-q", this.query}));
+        controller.run(new DefaultParser().parse(controller.options(),
+                new String[]{"-i", this.testFileFolder.resolve("a.ttl").toString(), "--tdb", tdb, "-q", this.query}));
+        controller.run(new DefaultParser().parse(controller.options(),
+                new String[]{"--tdb", tdb, "-q", this.query, "-o", out}));
+
+        assertThat(this.outStream.toString()).contains("Query returned 2 rows");
+        final List<String> csv = Files.readAllLines(this.testFileFolder.resolve("res.csv"));
+        assertThat(csv).hasSize(4);
+        assertThat(csv.get(1)).startsWith("http://example.org/c,3");
+        assertThat(csv.get(2)).isEqualTo("http://example.org/a,A");
+    }
+
+    /**
+     * Check that cached results are used for the same query over unchanged input files
+     * and that changing the content of an input file invalidates the cached results.
+     * Invalid cached results are removed and the query is run again.
+     * @throws Exception
+     */
+    @Test
+    public void cacheTest() throws Exception {
+        final QueryCliToolController controller = new QueryCliToolController();
+        final Path input = this.testFileFolder.resolve("c.nt");
+        final String[] args = {"-i", input.toString(), "-q", this.query, "--cache-dir", this.cacheDir};
+        final String[] reformatted = {"-i", input.toString(), "-q",
+                "SELECT  ?s ?name\nWHERE { ?s <http://example.org/name> ?name }\nORDER BY ?name",
+                "--cache-dir", this.cacheDir};
+
+        controller.run(new DefaultParser().parse(controller.options(), args));
+        assertThat(this.outStream.toString()).contains("Query result cache miss");
+        assertThat(this.outStream.toString()).doesNotContain("Query result cache hit");
+
+        controller.run(new DefaultParser().parse(controller.options(), reformatted));
+        assertThat(this.outStream.toString()).contains("Query result cache hit");
+        assertThat(Files.readAllLines(this.testFileFolder.resolve("c_query.csv"))).hasSize(2);
+
+        this.outStream.reset();
+        Files.write(input, String.join("\n",
+                "<http://example.org/c> <http://example.org/name> \"C\" .",
+                "<http://example.org/d> <http://example.org/name> \"D\" .", "").getBytes(StandardCharsets.UTF_8));
+        controller.run(new DefaultParser().parse(controller.options(), args));
+        assertThat(this.outStream.toString()).contains("Query result cache miss");
+        assertThat(Files.readAllLines(this.testFileFolder.resolve("c_query.csv"))).hasSize(3);
+
+        this.outStream.reset();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(Paths.get(this.cacheDir), "*.bin")) {
+            for (final Path entry : entries) {
+                final byte[] content = Files.readAllBytes(entry);
+                Files.write(entry, Arrays.copyOf(content, content.length - 3));
+            }
+        }
+        controller.run(new DefaultParser().parse(controller.options(), args));
+        assertThat(this.outStream.toString()).contains("Removing invalid query result cache entry");
+        assertThat(Files.readAllLines(this.testFileFolder.resolve("c_query.csv"))).hasSize(3);
+
+        this.outStream.reset();
+        controller.run(new DefaultParser().parse(controller.options(), args));
+        assertThat(this.outStream.toString()).contains("Query result cache hit");
+    }
+
+    /**
+     * Check that the cached results of a query over a folder are found again, independent
+     * of the order the input files are listed in.
+     * @throws Exception
+     */
+    @Test
+    public void cacheFolderTest() throws Exception {
+        final QueryCliToolController controller = new QueryCliToolController();
+        final Path folder = Files.createDirectories(this.testFileFolder.resolve("set"));
+        Files.copy(this.testFileFolder.resolve("a.ttl"), folder.resolve("a.ttl"));
+        Files.copy(this.testFileFolder.resolve("c.nt"), folder.resolve("c.nt"));
+        final String[] args = {"-i", folder.toString(), "-q", this.query, "--cache-dir", this.cacheDir};
+        final String[] reversed = {"-i", String.join(",", folder.resolve("c.nt").toString(),
+                folder.resolve("a.ttl").toString()), "-q", this.query, "--cache-dir", this.cacheDir};
+
+        controller.run(new DefaultParser().parse(controller.options(), args));
+        assertThat(this.outStream.toString()).contains("Query result cache miss");
+        assertThat(this.outStream.toString()).contains("Query returned 3 rows");
+
+        this.outStream.reset();
+        controller.run(new DefaultParser().parse(controller.options(), args));
+        assertThat(this.outStream.toString()).contains("Query result cache hit");
+
+        this.outStream.reset();
+        controller.run(new DefaultParser().parse(controller.options(), reversed));
+        assertThat(this.outStream.toString()).contains("Query result cache hit");
+    }
+
+    /**
+     * Check that queries other than SELECT queries and invalid queries are rejected.
+     * @throws Exception
+     */
+    @Test
+    public void invalidQueryTest() throws Exception {
+        final QueryCliToolController controller = new QueryCliToolController();
+        final String input = this.testFileFolder.resolve("a.ttl").toString();
+
+        controller.run(new DefaultParser().parse(controller.options(),
+                new String[]{"-i", input, "-q", "ASK { ?s ?p ?o }", "--no-cache"}));
+        assertThat(this.outStream.toString()).contains("Only SPARQL SELECT queries are supported.");
+
+        controller.run(new DefaultParser().parse(controller.options(),
+                new String[]{"-i", input, "-q", "SELECT WHERE", "--no-cache"}));
+        assertThat(this.outStream.toString()).contains("Invalid SPARQL query");
+    }
+
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.serve;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link JobServer} class.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class JobServerTest {
+
+    private static final Logger LOGGER = Logger.getLogger(JobServerTest.class.getName());
+
+    private final Path tokenFile = Paths.get(System.getProperty("java.io.tmpdir"), "jobServerTest", "serve.token");
+
+    private JobServer server;
+    private Thread serverThread;
+
+    @Before
+    public void setUp() throws Exception {
+        Logger.getRootLogger().setLevel(Level.INFO);
+    }
+
+    /**
+     * Stop the server after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (this.server != null) {
+            this.server.close();
+            this.serverThread.join(10000);
+        }
+        Files.deleteIfExists(this.tokenFile);
+        Files.deleteIfExists(this.tokenFile.getParent());
+    }
+
+    /**
+     * Check that concurrent jobs are run at the same time and that every client receives
+     * only the log messages of its own job, including messages logged by threads started by the job.
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentJobs() throws Exception {
+        final CountDownLatch running = new CountDownLatch(2);
+        this.start(args -> {
+            JobServerTest.LOGGER.info(String.join("", "first message of ", args[0]));
+            running.countDown();
+            try {
+                running.await(10, TimeUnit.SECONDS);
+                final Thread child = new Thread(
+                        () -> JobServerTest.LOGGER.info(String.join("", "child message of ", args[0])));
+                child.start();
+                child.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        final ExecutorService clients = Executors.newFixedThreadPool(2);
+        final Future<List<String>> jobA = clients.submit(() -> this.send("jobA\t-x"));
+        final Future<List<String>> jobB = clients.submit(() -> this.send("jobB"));
+        final List<String> outA = jobA.get(20, TimeUnit.SECONDS);
+        final List<String> outB = jobB.get(20, TimeUnit.SECONDS);
+        clients.shutdown();
+
+        assertThat(outA).containsSequence("[INFO ] first message of jobA", "[INFO ] child message of jobA");
+        assertThat(outA.toString()).doesNotContain("jobB");
+        assertThat(outA.get(outA.size() - 1)).startsWith("END OK");
+        assertThat(outB).containsSequence("[INFO ] first message of jobB", "[INFO ] child message of jobB");
+        assertThat(outB.toString()).doesNotContain("jobA");
+    }
+
+    /**
+     * Check that failing jobs and invalid requests are reported and that the server stops on request.
+     * @throws Exception
+     */
+    @Test
+    public void testFailureAndShutdown() throws Exception {
+        this.start(args -> {
+            throw new IllegalStateException(String.join("", "broken ", args[0]));
+        });
+
+        final List<String> failed = this.send("conv");
+        assertThat(failed.get(0)).isEqualTo("[ERROR] Job 1 failed: java.lang.IllegalStateException: broken conv");
+        assertThat(failed.get(1)).isEqualTo("END FAILED java.lang.IllegalStateException: broken conv");
+        assertThat(this.send("")).containsExactly("END FAILED Empty request.");
+        assertThat(this.send("serve\t-p\t1").get(0)).startsWith("END FAILED");
+
+        assertThat(this.send(JobServer.SHUTDOWN)).containsExactly("END OK 0");
+        this.serverThread.join(10000);
+        assertThat(this.serverThread.isAlive()).isFalse();
+        assertThat(Files.exists(this.tokenFile)).isFalse();
+    }
+
+    /**
+     * Check that the token file is only accessible by its owner and that connections
+     * without the access token are rejected without running a job.
+     * @throws Exception
+     */
+    @Test
+    public void testAccessToken() throws Exception {
+        final AtomicInteger jobs = new AtomicInteger();
+        this.start(args -> jobs.incrementAndGet());
+
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(this.tokenFile)))
+                    .isEqualTo("rw-------");
+        }
+        assertThat(this.sendLines("conv")).containsExactly("END FAILED Invalid access token.");
+        assertThat(this.sendLines("wrong", "conv")).containsExactly("END FAILED Invalid access token.");
+        assertThat(this.sendLines("wrong", JobServer.SHUTDOWN)).containsExactly("END FAILED Invalid access token.");
+        assertThat(jobs.get()).isEqualTo(0);
+        assertThat(this.serverThread.isAlive()).isTrue();
+
+        assertThat(this.send("conv").get(0)).startsWith("END OK");
+        assertThat(jobs.get()).isEqualTo(1);
+    }
+
+    /**
+     * Starts a server on a free port running the provided jobs.
+     * @param runner Runs a single job.
+     * @throws Exception
+     */
+    private void start(final Consumer<String[]> runner) throws Exception {
+        this.server = new JobServer(runner, 0, 2, this.tokenFile);
+        this.serverThread = new Thread(this.server::serve);
+        this.serverThread.start();
+    }
+
+    /**
+     * Submits a request preceded by the access token to the server and returns all lines of the response.
+     * @param request Request line.
+     * @return Lines of the response.
+     * @throws Exception
+     */
+    private List<String> send(final String request) throws Exception {
+        return this.sendLines(new String(Files.readAllBytes(this.tokenFile), StandardCharsets.US_ASCII), request);
+    }
+
+    /**
+     * Sends lines to the server and returns all lines of the response.
+     * @param request Lines sent to the server.
+     * @return Lines of the response.
+     * @throws Exception
+     */
+    private List<String> sendLines(final String... request) throws Exception {
+        final List<String> lines = new ArrayList<>();
+        try (Socket s = new Socket(InetAddress.getLoopbackAddress(), this.server.getPort());
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8))) {
+            for (final String line : request) {
+                out.println(line);
+            }
+            out.flush();
+            String line = in.readLine();
+            while (line != null) {
+                lines.add(line);
+                line = in.readLine();
+            }
+        }
+        return lines;
+    }
+
+}
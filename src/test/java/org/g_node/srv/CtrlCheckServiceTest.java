@@ -162,6 +162,19 @@ public class CtrlCheckServiceTest {
         ));
     }
 
+    /**
+     * Check that only integers within the provided range are accepted.
+     * @throws Exception
+     */
+    @Test
+    public void testIsIntegerInRange() throws Exception {
+        assertThat(CtrlCheckService.isIntegerInRange("1", 1, 65535, "-p")).isTrue();
+        assertThat(CtrlCheckService.isIntegerInRange("65535", 1, 65535, "-p")).isTrue();
+        assertThat(CtrlCheckService.isIntegerInRange("0", 1, 65535, "-p")).isFalse();
+        assertThat(CtrlCheckService.isIntegerInRange("70000", 1, 65535, "-p")).isFalse();
+        assertThat(CtrlCheckService.isIntegerInRange("port", 1, 65535, "-p")).isFalse();
+    }
+
     /**
      * Test that the method checks that the method returns true in case of valid RDF files and false of
      * files that are not RDF files. Test, that the method returns proper error messages in
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2016, German Neuroinformatics Node (G-Node)
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted under the terms of the BSD License. See
+ * LICENSE file in the root of the Project.
+ */
+
+package org.g_node.stats;
+
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.graph.Triple;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link StatsCliToolController}, {@link RDFStatistics} and {@link HyperLogLog} classes.
+ *
+ * @author Michael Sonntag (sonntag@bio.lmu.de)
+ */
+public class StatsCliToolControllerTest {
+
+    private final String tmpRoot = System.getProperty("java.io.tmpdir");
+    private final String testFolderName = "statsCliToolControllerTest";
+    private final Path testFileFolder = Paths.get(tmpRoot, testFolderName);
+
+    private PrintStream stdout;
+    private ByteArrayOutputStream outStream;
+
+    /**
+     * Redirect Out stream and create a test RDF file.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.stdout = System.out;
+        this.outStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(this.outStream));
+
+        final Logger rootLogger = Logger.getRootLogger();
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(new ConsoleAppender(new PatternLayout("[%-5p] %m%n")));
+
+        Files.createDirectories(this.testFileFolder);
+        final String ttl = String.join("\n",
+                "@prefix ex: <http://example.org/> .",
+                "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .",
+                "ex:a ex:name \"A\" ; ex:label \"A\"@en ; ex:knows ex:b .",
+                "ex:b ex:name \"B\" ; ex:age \"3\"^^xsd:int ; ex:knows ex:a .",
+                "_:c ex:name \"C, \\\"the third\\\"\" .", "");
+        Files.write(this.testFileFolder.resolve("test.ttl"), ttl.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reset Out stream and remove all created folders and files after the tests are done.
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        System.setOut(this.stdout);
+        if (Files.exists(this.testFileFolder)) {
+            FileUtils.deleteDirectory(this.testFileFolder.toFile());
+        }
+    }
+
+    /**
+     * Check that the distinct count estimate stays within a few percent of the actual count.
+     */
+    @Test
+    public void testHyperLogLog() {
+        final HyperLogLog hll = new HyperLogLog();
+        assertThat(hll.cardinality()).isEqualTo(0);
+        for (int i = 0; i < 100000; i = i + 1) {
+            hll.add(String.join("", "http://example.org/s", String.valueOf(i)));
+            hll.add(String.join("", "http://example.org/s", String.valueOf(i)));
+        }
+        assertThat(hll.cardinality()).isBetween(97000L, 103000L);
+    }
+
+    /**
+     * Check the collected statistics and the JSON and CSV output of the stats tool.
+     * @throws Exception
+     */
+    @Test
+    public void runTest() throws Exception {
+        final StatsCliToolController controller = new StatsCliToolController();
+        assertThat(controller.options().getOptions().size()).isEqualTo(5);
+
+        final String inFile = this.testFileFolder.resolve("test.ttl").toString();
+        final CommandLine cmd = new DefaultParser().parse(controller.options(), new String[]{"-i", inFile});
+        controller.run(cmd);
+
+        final Path jsonFile = this.testFileFolder.resolve("test_stats.json");
+        assertThat(Files.exists(jsonFile)).isTrue();
+        final JsonObject json = JSON.read(jsonFile.toString());
+        assertThat(json.get("statements").getAsNumber().value().intValue()).isEqualTo(7);
+        assertThat(json.get("distinctSubjects").getAsNumber().value().intValue()).isEqualTo(3);
+        assertThat(json.get("literals").getAsNumber().value().intValue()).isEqualTo(5);
+        assertThat(json.get("blankNodes").getAsNumber().value().intValue()).isEqualTo(1);
+        assertThat(json.get("predicates").getAsArray().get(0).getAsObject().get("iri").getAsString().value())
+                .isEqualTo("http://example.org/name");
+
+        final String csvFile = this.testFileFolder.resolve("out.csv").toString();
+        controller.run(new DefaultParser().parse(controller.options(),
+                new String[]{"-i", inFile, "-f", "csv", "-o", csvFile}));
+        final List<String> csv = Files.readAllLines(Paths.get(csvFile));
+        assertThat(csv.get(0)).isEqualTo("type,name,count");
+        assertThat(csv).contains("summary,statements,7", "predicate,http://example.org/name,3",
+                "datatype,http://www.w3.org/2001/XMLSchema#string,3",
+                "datatype,http://www.w3.org/1999/02/22-rdf-syntax-ns#langString,1",
+                "datatype,http://www.w3.org/2001/XMLSchema#int,1");
+
+        controller.run(new DefaultParser().parse(controller.options(),
+                new String[]{"-i", inFile, "-f", "xml"}));
+        assertThat(this.outStream.toString()).contains("[ERROR] Unsupported output format: 'XML'");
+    }
+
+    /**
+     * Check that predicates exceeding the maximum number of tracked values are counted separately.
+     */
+    @Test
+    public void testMaxTracked() {
+        final RDFStatistics stats = new RDFStatistics(2);
+        for (int i = 0; i < 5; i = i + 1) {
+            stats.triple(Triple.create(
+                    NodeFactory.createURI("http://example.org/s"),
+                    NodeFactory.createURI(String.join("", "http://example.org/p", String.valueOf(i))),
+                    NodeFactory.createURI("http://example.org/o")));
+        }
+        final List<Map.Entry<String, Long>> predicates = stats.getPredicateHistogram();
+        assertThat(predicates).hasSize(2);
+        final ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        stats.writeCsv(csv);
+        assertThat(csv.toString()).contains("summary,otherPredicates,3");
+    }
+
+}